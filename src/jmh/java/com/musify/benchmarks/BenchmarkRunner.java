@@ -0,0 +1,124 @@
+package com.musify.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Runs the JMH benchmarks, writes the results as JSON and compares them with
+ * a saved baseline. Exits with status 1 when a benchmark got slower (or, for
+ * throughput modes, lower) than the baseline by more than the threshold and
+ * by more than both error margins combined.
+ *
+ * System properties: {@code bench.include} (regex), {@code bench.result},
+ * {@code bench.baseline}, {@code bench.threshold} (fraction, e.g. 0.10) and
+ * {@code bench.saveBaseline} (copy this run over the baseline).
+ */
+public final class BenchmarkRunner {
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    private record Score(double value, double error, String unit, boolean higherIsBetter) {
+    }
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        String include = System.getProperty("bench.include", ".*");
+        Path result = Paths.get(System.getProperty("bench.result", "target/jmh-result.json"));
+        Path baseline = Paths.get(System.getProperty("bench.baseline", "benchmarks/baseline.json"));
+        double threshold = Double.parseDouble(System.getProperty("bench.threshold", "0.10"));
+        boolean saveBaseline = Boolean.parseBoolean(System.getProperty("bench.saveBaseline", "false"));
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+        new Runner(options).run();
+
+        if (saveBaseline) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Saved baseline to " + baseline);
+            return;
+        }
+
+        if (!Files.exists(baseline)) {
+            System.out.println("No baseline at " + baseline + "; run with -Dbench.saveBaseline=true to create one");
+            return;
+        }
+
+        List<String> regressions = compare(readScores(baseline), readScores(result), threshold);
+        if (!regressions.isEmpty()) {
+            System.out.println("Regressions beyond " + Math.round(threshold * 100) + "%:");
+            regressions.forEach(line -> System.out.println("  " + line));
+            System.exit(1);
+        }
+        System.out.println("No regressions beyond " + Math.round(threshold * 100) + "%");
+    }
+
+    private static List<String> compare(Map<String, Score> baseline, Map<String, Score> current, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null || !before.unit().equals(after.unit())) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", after.value(), "new");
+                continue;
+            }
+
+            double change = (after.value() - before.value()) / before.value();
+            double worsening = after.higherIsBetter() ? -change : change;
+            boolean outsideError = Math.abs(after.value() - before.value()) > before.error() + after.error();
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%n", entry.getKey(), before.value(), after.value(),
+                    change * 100);
+            if (worsening > threshold && outsideError) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s (%+.1f%%)", entry.getKey(), before.value(),
+                        after.value(), after.unit(), change * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static Map<String, Score> readScores(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : JSON.readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asString());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.properties().iterator();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(':').append(param.getKey()).append('=').append(param.getValue().asString());
+                }
+            }
+            key.append(" [").append(run.get("mode").asString()).append(']');
+
+            JsonNode metric = run.get("primaryMetric");
+            double error = metric.get("scoreError").asDouble();
+            String mode = run.get("mode").asString();
+            scores.put(key.toString(), new Score(metric.get("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.get("scoreUnit").asString(), "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+}
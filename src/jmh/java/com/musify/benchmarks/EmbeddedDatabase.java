@@ -0,0 +1,36 @@
+package com.musify.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * In-memory H2 database in MySQL mode, initialised from the application's
+ * schema.sql, for benchmarks that need real JDBC result sets.
+ */
+public final class EmbeddedDatabase {
+
+    private EmbeddedDatabase() {
+    }
+
+    public static DriverManagerDataSource create(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+    public static void insertUsers(JdbcTemplate jdbcTemplate, int count) {
+        String sql = "INSERT INTO users (username, password_hash, image_path) VALUES (?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] { "user" + i, "hash" + i, i % 2 == 0 ? "private/images/users/user_" + i + ".jpg" : null });
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+}
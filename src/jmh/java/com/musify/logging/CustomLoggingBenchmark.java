@@ -0,0 +1,57 @@
+package com.musify.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Cost of CustomLogging on the calling thread, with four request threads
+ * logging concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CustomLoggingBenchmark {
+    @Param({ "BLOCK", "DROP" })
+    public OverflowPolicy overflowPolicy;
+
+    private CustomLogging logging;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        logging = new CustomLogging();
+        ReflectionTestUtils.setField(logging, "bufferCapacity", 8192);
+        ReflectionTestUtils.setField(logging, "batchSize", 512);
+        ReflectionTestUtils.setField(logging, "overflowPolicy", overflowPolicy);
+        ReflectionTestUtils.setField(logging, "shutdownTimeoutMillis", 5000L);
+        logging.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        logging.shutdown();
+    }
+
+    @Benchmark
+    public void info() {
+        logging.info("UserService", "getUserById", "Retrieving user with ID: 42");
+    }
+}
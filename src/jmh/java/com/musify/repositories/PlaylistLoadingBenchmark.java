@@ -0,0 +1,152 @@
+package com.musify.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.musify.benchmarks.EmbeddedDatabase;
+import com.musify.benchmarks.QueryCountingDataSource;
+import com.musify.metrics.Instrumentation;
+import com.musify.models.Album;
+import com.musify.models.Playlist;
+import com.musify.models.PlaylistTrack;
+import com.musify.models.Track;
+import com.musify.search.SearchIndex;
+
+/**
+ * Loading a page of a user's playlists with track previews, and a page of
+ * tracks deep inside a large playlist, as playlists grow. Setup checks that
+ * each operation issues the same number of statements at every size and
+ * fails the run otherwise; {@link #playlistPageNPlusOne} is the per-row
+ * lookup the repository avoids, kept for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaylistLoadingBenchmark {
+    private static final int PLAYLISTS = 10;
+    private static final int PREVIEW_TRACKS = 10;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({ "10", "100", "1000" })
+    public int tracksPerPlaylist;
+
+    private QueryCountingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PlaylistRepository playlistRepository;
+    private CatalogRepository catalogRepository;
+    private long userId;
+    private long largestPlaylistId;
+    private PlaylistTrack middle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new QueryCountingDataSource(EmbeddedDatabase.create("playlists" + tracksPerPlaylist));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        playlistRepository = new PlaylistRepository();
+        catalogRepository = new CatalogRepository();
+        ReflectionTestUtils.setField(catalogRepository, "searchIndex", new SearchIndex());
+        for (Object repository : new Object[] { playlistRepository, catalogRepository }) {
+            ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+            ReflectionTestUtils.setField(repository, "instrumentation", new Instrumentation());
+        }
+
+        EmbeddedDatabase.insertUsers(jdbcTemplate, 1);
+        userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        List<Long> albumIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Album album = new Album();
+            album.setTitle("album" + i);
+            album.setArtist("artist" + i);
+            albumIds.add(catalogRepository.createAlbum(album).getId());
+        }
+        List<Object[]> tracks = new ArrayList<>();
+        for (int i = 0; i < tracksPerPlaylist; i++) {
+            tracks.add(new Object[] { "track" + i, "artist" + (i % 20), albumIds.get(i % 20), 180 + i % 60 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tracks (title, artist, album, duration) VALUES (?, ?, ?, ?)", tracks);
+        List<Long> trackIds = jdbcTemplate.queryForList("SELECT id FROM tracks ORDER BY id", Long.class);
+
+        for (int p = 0; p < PLAYLISTS; p++) {
+            Playlist playlist = new Playlist();
+            playlist.setName("playlist" + p);
+            playlist.setUserId(userId);
+            largestPlaylistId = playlistRepository.create(playlist).getId();
+            List<Object[]> entries = new ArrayList<>(trackIds.size());
+            for (int i = 0; i < trackIds.size(); i++) {
+                entries.add(new Object[] { largestPlaylistId, trackIds.get(i),
+                        Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(i)),
+                        (i + 1) * PlaylistRepository.POSITION_GAP });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO playlist_tracks (playlist_id, track_id, added_at, position)"
+                    + " VALUES (?, ?, ?, ?)", entries);
+        }
+        List<PlaylistTrack> all = playlistRepository.findTracksAfter(largestPlaylistId, null, 0, tracksPerPlaylist);
+        middle = all.get(all.size() / 2);
+
+        expectStatements("playlistPage", 2, this::playlistPage);
+        expectStatements("trackPageFromMiddle", 1, this::trackPageFromMiddle);
+    }
+
+    private void expectStatements(String operation, long expected, Runnable work) {
+        dataSource.reset();
+        work.run();
+        long actual = dataSource.getStatementCount();
+        System.out.println(operation + " with " + tracksPerPlaylist + " tracks per playlist: " + actual
+                + " statements");
+        if (actual != expected)
+            throw new IllegalStateException(operation + " issued " + actual + " statements, expected " + expected);
+    }
+
+    @Benchmark
+    public List<PlaylistTrack> playlistPage() {
+        List<Playlist> playlists = playlistRepository.findByUserAfter(userId, 0, PLAYLISTS);
+        List<Long> ids = new ArrayList<>(playlists.size());
+        for (Playlist playlist : playlists) {
+            ids.add(playlist.getId());
+        }
+        return playlistRepository.findTrackPreviews(ids, PREVIEW_TRACKS);
+    }
+
+    @Benchmark
+    public List<PlaylistTrack> trackPageFromMiddle() {
+        return playlistRepository.findTracksAfter(largestPlaylistId, middle.getPosition(), middle.getTrack().getId(),
+                PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Track> playlistPageNPlusOne() {
+        List<Track> result = new ArrayList<>();
+        List<Long> playlistIds = jdbcTemplate.queryForList(
+                "SELECT id FROM playlists WHERE user_id = ? ORDER BY id LIMIT ?", Long.class, userId, PLAYLISTS);
+        for (Long playlistId : playlistIds) {
+            List<Long> trackIds = jdbcTemplate.queryForList("SELECT track_id FROM playlist_tracks"
+                    + " WHERE playlist_id = ? ORDER BY position, track_id LIMIT ?", Long.class, playlistId,
+                    PREVIEW_TRACKS);
+            for (Long trackId : trackIds) {
+                catalogRepository.findTrackById(trackId).ifPresent(result::add);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package com.musify.repositories;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.musify.benchmarks.EmbeddedDatabase;
+import com.musify.models.User;
+
+/**
+ * Reading a page of users through UserRepository's row mapper from an
+ * in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRowMapperBenchmark {
+    @Param({ "100" })
+    public int pageSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private final UserRepository.CustomMapper mapper = new UserRepository.CustomMapper();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(EmbeddedDatabase.create("rowmapper"));
+        jdbcTemplate.update("DELETE FROM users");
+        EmbeddedDatabase.insertUsers(jdbcTemplate, 1000);
+    }
+
+    @Benchmark
+    public List<User> mapPage() {
+        return jdbcTemplate.query("SELECT " + UserRepository.USER_COLUMNS + " FROM users ORDER BY id LIMIT ?", mapper,
+                pageSize);
+    }
+}
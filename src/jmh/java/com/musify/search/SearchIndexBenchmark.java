@@ -0,0 +1,64 @@
+package com.musify.search;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Typeahead queries against 200,000 tracks with generated titles and
+ * artists, from a one-letter prefix that matches a large share of them to a
+ * query that matches nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+    private static final int DOCUMENTS = 200_000;
+    private static final String[] WORDS = { "love", "night", "blue", "heart", "fire", "dream", "river", "gold",
+            "summer", "light", "shadow", "wild", "road", "moon", "rain", "stone", "dance", "ghost", "city", "sky",
+            "electric", "midnight", "ocean", "paper", "silver", "thunder", "velvet", "winter", "yesterday", "zero" };
+
+    @Param({ "m", "mid", "midnight ri", "silver thun", "qqq" })
+    public String query;
+
+    private SearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        searchIndex = new SearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "enabled", true);
+        ReflectionTestUtils.setField(searchIndex, "maxPrefixLength", 12);
+        ReflectionTestUtils.setField(searchIndex, "maxCandidates", 200);
+        searchIndex.init();
+        Random random = new Random(42);
+        searchIndex.rebuild(SearchType.TRACK, sink -> {
+            for (int id = 1; id <= DOCUMENTS; id++) {
+                String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                String artist = WORDS[random.nextInt(WORDS.length)] + random.nextInt(1000);
+                sink.accept(id, title, artist);
+            }
+        });
+    }
+
+    @Benchmark
+    public List<SearchHit> search() {
+        return searchIndex.search(SearchType.TRACK, query, 10);
+    }
+}
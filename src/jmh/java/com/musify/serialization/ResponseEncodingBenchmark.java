@@ -0,0 +1,92 @@
+package com.musify.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.musify.DTOs.UserController.UserPageDTO;
+import com.musify.DTOs.UserController.UserResponseDTO;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * CPU cost of each response encoding of a page of users, with and without
+ * gzip at the level Tomcat uses. The payload sizes, which these trade
+ * against, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+    @Param({ "json", "json-epoch-millis", "cbor", "cbor-epoch-millis", "smile-epoch-millis" })
+    public String encoding;
+
+    @Param({ "1000" })
+    public int size;
+
+    private ObjectWriter writer;
+    private UserPageDTO page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper;
+        if (encoding.startsWith("cbor"))
+            mapper = CBORMapper.builder().addModule(new SerializationConfig().timestampModule()).build();
+        else if (encoding.startsWith("smile"))
+            mapper = SmileMapper.builder().addModule(new SerializationConfig().timestampModule()).build();
+        else
+            mapper = JsonMapper.builder().addModule(new SerializationConfig().timestampModule()).build();
+        TimestampFormat format = encoding.endsWith(TimestampFormat.EPOCH_MILLIS.getParameter())
+                ? TimestampFormat.EPOCH_MILLIS : TimestampFormat.ISO;
+        writer = mapper.writer().withAttribute(TimestampFormat.class, format);
+
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<UserResponseDTO> users = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            LocalDateTime updatedAt = createdAt.plusSeconds(i * 37);
+            users.add(new UserResponseDTO(i + 1, "user" + i, i % 3 == 0 ? null
+                    : "private/images/users/user_" + i + ".jpg", List.of(64, 256, 512), createdAt, updatedAt));
+        }
+        page = new UserPageDTO(users, "dXNlcjoxMDAw");
+
+        System.out.printf("%n%s: %d bytes, %d gzipped%n", encoding, serialize().length, serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            writer.writeValue(gzip, page);
+        }
+        return bytes.toByteArray();
+    }
+}
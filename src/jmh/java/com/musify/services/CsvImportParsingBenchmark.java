@@ -0,0 +1,85 @@
+package com.musify.services;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.musify.csv.CsvReader;
+
+/**
+ * The per-row parsing loop of a CSV import (read, split, sanitize) over a
+ * UTF-16LE file with a byte order mark, as uploaded by our clients. The
+ * {@code legacyLoop} benchmark is the BufferedReader/split/regex loop the
+ * streaming reader replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvImportParsingBenchmark {
+    @Param({ "10000" })
+    public int rows;
+
+    private byte[] utf16File;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StringBuilder csv = new StringBuilder("username,password_hash\r\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("user").append(i).append(',').append("hash ").append(i).append("\r\n");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0xFF);
+        out.write(0xFE);
+        out.write(csv.toString().getBytes(StandardCharsets.UTF_16LE));
+        utf16File = out.toByteArray();
+    }
+
+    @Benchmark
+    public void streamingReader(Blackhole blackhole) throws IOException {
+        try (CsvReader reader = new CsvReader(new ByteArrayInputStream(utf16File))) {
+            reader.readRecord();
+            List<String> fields;
+            while ((fields = reader.readRecord()) != null) {
+                blackhole.consume(UserImportService.sanitize(fields.get(0)));
+                blackhole.consume(UserImportService.sanitize(fields.get(1)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyLoop(Blackhole blackhole) throws IOException {
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(utf16File), StandardCharsets.UTF_16))) {
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length >= 2) {
+                    blackhole.consume(fields[0].trim().replaceAll("\\p{C}", "").replaceAll("\\s+", ""));
+                    blackhole.consume(fields[1].trim().replaceAll("\\p{C}", "").replaceAll("\\s+", ""));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.musify.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UserImportService.sanitize against the regex pair it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanitizeBenchmark {
+    @Param({ "testuser4", " buenas 123\t", "hola\u200B123" })
+    public String input;
+
+    @Benchmark
+    public String sanitize() {
+        return UserImportService.sanitize(input);
+    }
+
+    @Benchmark
+    public String regexSanitize() {
+        return input.replaceAll("\\p{C}", "").replaceAll("\\s+", "");
+    }
+}
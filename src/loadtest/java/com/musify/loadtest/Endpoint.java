@@ -0,0 +1,29 @@
+package com.musify.loadtest;
+
+/**
+ * The UserController operations the load generator can issue. The key is
+ * the name used in {@code loadtest.mix} and in the report.
+ */
+enum Endpoint {
+    CREATE("create"),
+    GET("get"),
+    LIST("list"),
+    UPDATE("update"),
+    DELETE("delete"),
+    IMAGE("image"),
+    CSV("csv");
+
+    final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key))
+                return endpoint;
+        }
+        throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + key);
+    }
+}
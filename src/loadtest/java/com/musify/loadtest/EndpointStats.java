@@ -0,0 +1,63 @@
+package com.musify.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency and outcome counters for one endpoint. {@code responseTime} is
+ * measured from the moment the request was scheduled to be sent, so a
+ * stalled server or generator shows up in it (coordinated omission is
+ * corrected); {@code serviceTime} is measured from the actual send.
+ * Requests refused by admission control (429 or 503) are only counted, so
+ * that their quick answers do not flatter the latencies of served ones.
+ */
+final class EndpointStats {
+    private static final long HIGHEST_TRACKABLE_MICROS = 120_000_000L;
+
+    final Endpoint endpoint;
+    final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    final LongAdder successes = new LongAdder();
+    final LongAdder clientErrors = new LongAdder();
+    final LongAdder serverErrors = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long intendedStartNanos, long actualStartNanos, long endNanos, int status) {
+        if (status == 429 || status == 503) {
+            rejected.increment();
+            return;
+        }
+        responseTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (endNanos - intendedStartNanos) / 1000));
+        serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (endNanos - actualStartNanos) / 1000));
+        if (status < 0) {
+            failures.increment();
+        } else if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            successes.increment();
+        }
+    }
+
+    long count() {
+        return responseTime.getTotalCount();
+    }
+
+    void reset() {
+        responseTime.reset();
+        serviceTime.reset();
+        successes.reset();
+        clientErrors.reset();
+        serverErrors.reset();
+        failures.reset();
+        rejected.reset();
+    }
+}
@@ -0,0 +1,212 @@
+package com.musify.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate
+ * whether or not earlier ones have completed, each on its own virtual
+ * thread, and the endpoint for each request is drawn from a weighted mix.
+ */
+final class LoadGenerator {
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final int KNOWN_ID_SLOTS = 1 << 16;
+    private static final String BOUNDARY = "musify-loadtest-boundary";
+
+    private final String baseUrl;
+    private final Map<Endpoint, Integer> mix;
+    private final int totalWeight;
+    private final byte[] image;
+    private final int csvRows;
+    private final HttpClient client;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+    private final AtomicLong usernameSequence = new AtomicLong();
+    private final AtomicLongArray knownIds = new AtomicLongArray(KNOWN_ID_SLOTS);
+    private final AtomicLong knownIdCount = new AtomicLong();
+
+    LoadGenerator(String baseUrl, Map<Endpoint, Integer> mix, byte[] image, int csvRows) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.image = image;
+        this.csvRows = csvRows;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    Map<Endpoint, EndpointStats> stats() {
+        return stats;
+    }
+
+    void resetStats() {
+        stats.values().forEach(EndpointStats::reset);
+    }
+
+    /**
+     * Creates users sequentially so that reads, updates and image uploads
+     * have targets from the first request on.
+     */
+    void seedUsers(int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = client.send(createRequest(), HttpResponse.BodyHandlers.ofString());
+            rememberCreatedId(response);
+        }
+    }
+
+    /**
+     * Issues {@code ratePerSecond} requests per second for {@code duration},
+     * then waits up to {@code drainTimeout} for outstanding requests.
+     */
+    void run(double ratePerSecond, Duration duration, Duration drainTimeout) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long requests = (long) (duration.toNanos() / intervalNanos);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < requests; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long delay;
+                while ((delay = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Endpoint endpoint = pickEndpoint();
+                executor.execute(() -> execute(endpoint, intendedStart));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private Endpoint pickEndpoint() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0)
+                return entry.getKey();
+        }
+        return Endpoint.GET;
+    }
+
+    private void execute(Endpoint endpoint, long intendedStart) {
+        long actualStart = System.nanoTime();
+        int status;
+        try {
+            HttpRequest request = buildRequest(endpoint);
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            if (endpoint == Endpoint.CREATE)
+                rememberCreatedId(response);
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        stats.get(endpoint).record(intendedStart, actualStart, System.nanoTime(), status);
+    }
+
+    private HttpRequest buildRequest(Endpoint endpoint) {
+        switch (endpoint) {
+            case CREATE:
+                return createRequest();
+            case GET:
+                return request("/api/users/" + randomKnownId()).GET().build();
+            case LIST:
+                return request("/api/users?limit=100").GET().build();
+            case UPDATE:
+                return request("/api/users/" + randomKnownId())
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(userJson()))
+                        .build();
+            case DELETE:
+                return request("/api/users/" + randomKnownId()).DELETE().build();
+            case IMAGE:
+                return multipart("/api/users/" + randomKnownId() + "/image", "PATCH", "profilePicture",
+                        "avatar.jpg", "image/jpeg", image);
+            case CSV:
+                return multipart("/api/users/upload-csv", "POST", "file", "users.csv", "text/csv", csvFile());
+            default:
+                throw new IllegalStateException("Unhandled endpoint " + endpoint);
+        }
+    }
+
+    private HttpRequest createRequest() {
+        return request("/api/users")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(userJson()))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest multipart(String path, String method, String field, String filename, String contentType,
+            byte[] content) {
+        byte[] head = ("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + field + "\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        return request(path)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .method(method, HttpRequest.BodyPublishers.ofByteArrays(List.of(head, content, tail)))
+                .build();
+    }
+
+    private String userJson() {
+        return "{\"username\":\"" + nextUsername() + "\",\"password\":\"loadtest\"}";
+    }
+
+    private byte[] csvFile() {
+        StringBuilder csv = new StringBuilder("username,password_hash\n");
+        for (int i = 0; i < csvRows; i++) {
+            csv.append(nextUsername()).append(",loadtest\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String nextUsername() {
+        return "lt" + runId + "_" + Long.toString(usernameSequence.incrementAndGet(), 36);
+    }
+
+    private void rememberCreatedId(HttpResponse<String> response) {
+        if (response.statusCode() != 201)
+            return;
+        Matcher matcher = ID_PATTERN.matcher(response.body());
+        if (matcher.find()) {
+            long slot = knownIdCount.getAndIncrement();
+            knownIds.set((int) (slot % KNOWN_ID_SLOTS), Long.parseLong(matcher.group(1)));
+        }
+    }
+
+    private long randomKnownId() {
+        long known = Math.min(knownIdCount.get(), KNOWN_ID_SLOTS);
+        if (known == 0)
+            return 1;
+        return knownIds.get(ThreadLocalRandom.current().nextInt((int) known));
+    }
+}
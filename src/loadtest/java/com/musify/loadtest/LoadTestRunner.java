@@ -0,0 +1,174 @@
+package com.musify.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.musify.api.ApiApplication;
+
+/**
+ * Starts the API against an in-memory database (unless {@code loadtest.baseUrl}
+ * points at a running node), drives it at one or more fixed arrival rates and
+ * writes a latency report plus HdrHistogram percentile files per endpoint.
+ *
+ * System properties:
+ * <ul>
+ * <li>{@code loadtest.rates} - comma separated requests per second, one step each (default 200)</li>
+ * <li>{@code loadtest.duration} - seconds per step (default 30)</li>
+ * <li>{@code loadtest.warmup} - seconds of unrecorded load before the first step (default 10)</li>
+ * <li>{@code loadtest.mix} - endpoint weights, e.g. {@code get=60,list=10,create=10,update=10,delete=4,image=5,csv=1}</li>
+ * <li>{@code loadtest.seedUsers} - users created before the run (default 1000)</li>
+ * <li>{@code loadtest.csvRows} - rows per CSV upload (default 100)</li>
+ * <li>{@code loadtest.sloMillis} - p99 target used to report the highest sustainable rate (default 50)</li>
+ * <li>{@code loadtest.baseUrl} - target an existing deployment instead of an embedded app</li>
+ * <li>{@code loadtest.appArgs} - space separated arguments for the embedded app, e.g.
+ * {@code --spring.threads.virtual.enabled=false}</li>
+ * <li>{@code loadtest.reportDir} - output directory (default target/loadtest)</li>
+ * </ul>
+ */
+public final class LoadTestRunner {
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Double> rates = new ArrayList<>();
+        for (String rate : System.getProperty("loadtest.rates", "200").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        Map<Endpoint, Integer> mix = parseMix(System.getProperty("loadtest.mix",
+                "get=60,list=10,create=10,update=10,delete=4,image=5,csv=1"));
+        int seedUsers = Integer.getInteger("loadtest.seedUsers", 1000);
+        int csvRows = Integer.getInteger("loadtest.csvRows", 100);
+        double sloMillis = Double.parseDouble(System.getProperty("loadtest.sloMillis", "50"));
+        Path reportDir = Paths.get(System.getProperty("loadtest.reportDir", "target/loadtest"));
+        String baseUrl = System.getProperty("loadtest.baseUrl");
+
+        ConfigurableApplicationContext context = null;
+        if (baseUrl == null) {
+            SpringApplication application = new SpringApplication(ApiApplication.class);
+            application.setAdditionalProfiles("embedded");
+            List<String> appArgs = new ArrayList<>();
+            appArgs.add("--server.port=0");
+            String extraArgs = System.getProperty("loadtest.appArgs", "").trim();
+            if (!extraArgs.isEmpty())
+                appArgs.addAll(List.of(extraArgs.split("\\s+")));
+            context = application.run(appArgs.toArray(new String[0]));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            LoadGenerator generator = new LoadGenerator(baseUrl, mix, imageBytes(), csvRows);
+            generator.seedUsers(seedUsers);
+            if (!warmup.isZero()) {
+                System.out.println("Warming up for " + warmup.toSeconds() + "s at " + rates.get(0) + " req/s");
+                generator.run(rates.get(0), warmup, Duration.ofSeconds(30));
+            }
+
+            Files.createDirectories(reportDir);
+            StringWriter report = new StringWriter();
+            PrintWriter out = new PrintWriter(report);
+            out.printf("Target: %s%nMix: %s%nStep duration: %ds%n", baseUrl, mix, duration.toSeconds());
+            if (context != null)
+                out.printf("Virtual threads: %s%n", context.getEnvironment().getProperty("spring.threads.virtual.enabled"));
+            out.println();
+
+            Double sustainableRate = null;
+            for (double rate : rates) {
+                generator.resetStats();
+                System.out.println("Running " + duration.toSeconds() + "s at " + rate + " req/s");
+                long start = System.nanoTime();
+                generator.run(rate, duration, Duration.ofSeconds(30));
+                double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+                Histogram overall = writeStep(out, reportDir, rate, elapsedSeconds, generator.stats());
+                boolean healthy = generator.stats().values().stream()
+                        .allMatch(stats -> stats.serverErrors.sum() == 0 && stats.failures.sum() == 0
+                                && stats.rejected.sum() == 0);
+                if (healthy && overall.getValueAtPercentile(99) / 1000.0 <= sloMillis)
+                    sustainableRate = rate;
+            }
+
+            out.printf("Highest rate with p99 <= %.1f ms, no errors and nothing shed: %s%n", sloMillis,
+                    sustainableRate == null ? "none" : sustainableRate + " req/s");
+            out.flush();
+            Files.writeString(reportDir.resolve("report.txt"), report.toString());
+            System.out.print(report);
+        } finally {
+            if (context != null)
+                context.close();
+        }
+    }
+
+    private static Histogram writeStep(PrintWriter out, Path reportDir, double rate, double elapsedSeconds,
+            Map<Endpoint, EndpointStats> stats) throws IOException {
+        out.printf("== %.0f req/s (achieved %.1f req/s) ==%n", rate,
+                stats.values().stream().mapToLong(EndpointStats::count).sum() / elapsedSeconds);
+        out.printf("%-8s %8s %6s %6s %6s %6s %6s %10s %10s %10s %10s %10s %12s%n", "endpoint", "count", "2xx/3xx",
+                "4xx", "5xx", "io", "shed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+
+        Histogram overall = new Histogram(3);
+        for (EndpointStats endpointStats : stats.values()) {
+            if (endpointStats.count() == 0)
+                continue;
+            Histogram responseTime = endpointStats.responseTime.copy();
+            overall.add(responseTime);
+            out.printf("%-8s %8d %6d %6d %6d %6d %6d", endpointStats.endpoint.key, responseTime.getTotalCount(),
+                    endpointStats.successes.sum(), endpointStats.clientErrors.sum(),
+                    endpointStats.serverErrors.sum(), endpointStats.failures.sum(), endpointStats.rejected.sum());
+            for (double percentile : PERCENTILES) {
+                out.printf(" %10.2f", responseTime.getValueAtPercentile(percentile) / 1000.0);
+            }
+            out.printf(" %10.2f %12.2f%n", responseTime.getMaxValue() / 1000.0,
+                    endpointStats.serviceTime.getValueAtPercentile(99) / 1000.0);
+
+            Path histogramFile = reportDir.resolve(String.format("%s-%.0f.hgrm", endpointStats.endpoint.key, rate));
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(histogramFile))) {
+                responseTime.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        out.printf("%-8s %8d %27s", "all", overall.getTotalCount(), "");
+        for (double percentile : PERCENTILES) {
+            out.printf(" %10.2f", overall.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf(" %10.2f%n%n", overall.getMaxValue() / 1000.0);
+        return overall;
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0)
+                weights.put(Endpoint.fromKey(parts[0].trim()), weight);
+        }
+        return weights;
+    }
+
+    private static byte[] imageBytes() throws IOException {
+        Path sample = Paths.get("test_image.jpg");
+        if (Files.exists(sample))
+            return Files.readAllBytes(sample);
+        byte[] random = new byte[32 * 1024];
+        ThreadLocalRandom.current().nextBytes(random);
+        return random;
+    }
+}
@@ -0,0 +1,42 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.time.LocalDate;
+
+public class AlbumCreateDTO {
+    private String title;
+    private String artist;
+    private LocalDate releaseDate;
+
+    public AlbumCreateDTO() {
+    }
+
+    public AlbumCreateDTO(String title, String artist, LocalDate releaseDate) {
+        this.title = title;
+        this.artist = artist;
+        this.releaseDate = releaseDate;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public void setArtist(String artist) {
+        this.artist = artist;
+    }
+
+    public LocalDate getReleaseDate() {
+        return releaseDate;
+    }
+
+    public void setReleaseDate(LocalDate releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+}
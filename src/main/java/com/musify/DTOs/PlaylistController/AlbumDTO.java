@@ -0,0 +1,74 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class AlbumDTO {
+    private Long id;
+    private String title;
+    private String artist;
+    private LocalDate releaseDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public AlbumDTO() {
+    }
+
+    public AlbumDTO(Long id, String title, String artist, LocalDate releaseDate, LocalDateTime createdAt,
+            LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.artist = artist;
+        this.releaseDate = releaseDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public void setArtist(String artist) {
+        this.artist = artist;
+    }
+
+    public LocalDate getReleaseDate() {
+        return releaseDate;
+    }
+
+    public void setReleaseDate(LocalDate releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,30 @@
+package com.musify.DTOs.PlaylistController;
+
+public class PlaylistCreateDTO {
+    private String name;
+    private Long userId;
+
+    public PlaylistCreateDTO() {
+    }
+
+    public PlaylistCreateDTO(String name, Long userId) {
+        this.name = name;
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+}
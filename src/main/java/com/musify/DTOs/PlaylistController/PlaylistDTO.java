@@ -0,0 +1,94 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class PlaylistDTO {
+    private Long id;
+    private String name;
+    private Long userId;
+    private long trackCount;
+    private List<PlaylistTrackDTO> tracks;
+    private String nextTracksCursor;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public PlaylistDTO() {
+    }
+
+    public PlaylistDTO(Long id, String name, Long userId, long trackCount, List<PlaylistTrackDTO> tracks,
+            String nextTracksCursor, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.userId = userId;
+        this.trackCount = trackCount;
+        this.tracks = tracks;
+        this.nextTracksCursor = nextTracksCursor;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getTrackCount() {
+        return trackCount;
+    }
+
+    public void setTrackCount(long trackCount) {
+        this.trackCount = trackCount;
+    }
+
+    public List<PlaylistTrackDTO> getTracks() {
+        return tracks;
+    }
+
+    public void setTracks(List<PlaylistTrackDTO> tracks) {
+        this.tracks = tracks;
+    }
+
+    public String getNextTracksCursor() {
+        return nextTracksCursor;
+    }
+
+    public void setNextTracksCursor(String nextTracksCursor) {
+        this.nextTracksCursor = nextTracksCursor;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
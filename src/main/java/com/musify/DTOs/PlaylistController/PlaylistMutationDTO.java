@@ -0,0 +1,38 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Operations applied in order as one change. When {@code expectedUpdatedAt}
+ * is set, the change is rejected if the playlist's {@code updatedAt} has
+ * moved on since.
+ */
+public class PlaylistMutationDTO {
+    private LocalDateTime expectedUpdatedAt;
+    private List<PlaylistTrackOperationDTO> operations;
+
+    public PlaylistMutationDTO() {
+    }
+
+    public PlaylistMutationDTO(LocalDateTime expectedUpdatedAt, List<PlaylistTrackOperationDTO> operations) {
+        this.expectedUpdatedAt = expectedUpdatedAt;
+        this.operations = operations;
+    }
+
+    public LocalDateTime getExpectedUpdatedAt() {
+        return expectedUpdatedAt;
+    }
+
+    public void setExpectedUpdatedAt(LocalDateTime expectedUpdatedAt) {
+        this.expectedUpdatedAt = expectedUpdatedAt;
+    }
+
+    public List<PlaylistTrackOperationDTO> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<PlaylistTrackOperationDTO> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,80 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The net effect of an edit: the tracks that were added, removed and moved,
+ * and the playlist's new {@code updatedAt}. A rejected edit reports the
+ * playlist's current {@code updatedAt} on a conflict, or the index of the
+ * operation that could not be applied.
+ */
+public class PlaylistMutationResultDTO {
+    private LocalDateTime updatedAt;
+    private long trackCount;
+    private List<Long> added = new ArrayList<>();
+    private List<Long> removed = new ArrayList<>();
+    private List<Long> moved = new ArrayList<>();
+    private Integer failedOperation;
+    private String reason;
+
+    public PlaylistMutationResultDTO() {
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getTrackCount() {
+        return trackCount;
+    }
+
+    public void setTrackCount(long trackCount) {
+        this.trackCount = trackCount;
+    }
+
+    public List<Long> getAdded() {
+        return added;
+    }
+
+    public void setAdded(List<Long> added) {
+        this.added = added;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<Long> removed) {
+        this.removed = removed;
+    }
+
+    public List<Long> getMoved() {
+        return moved;
+    }
+
+    public void setMoved(List<Long> moved) {
+        this.moved = moved;
+    }
+
+    public Integer getFailedOperation() {
+        return failedOperation;
+    }
+
+    public void setFailedOperation(Integer failedOperation) {
+        this.failedOperation = failedOperation;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,32 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.util.List;
+
+public class PlaylistPageDTO {
+    private List<PlaylistDTO> items;
+    private String nextCursor;
+
+    public PlaylistPageDTO() {
+    }
+
+    public PlaylistPageDTO(List<PlaylistDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PlaylistDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PlaylistDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,20 @@
+package com.musify.DTOs.PlaylistController;
+
+public class PlaylistTrackAddDTO {
+    private Long trackId;
+
+    public PlaylistTrackAddDTO() {
+    }
+
+    public PlaylistTrackAddDTO(Long trackId) {
+        this.trackId = trackId;
+    }
+
+    public Long getTrackId() {
+        return trackId;
+    }
+
+    public void setTrackId(Long trackId) {
+        this.trackId = trackId;
+    }
+}
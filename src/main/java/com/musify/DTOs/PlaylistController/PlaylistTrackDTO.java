@@ -0,0 +1,32 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.time.LocalDateTime;
+
+public class PlaylistTrackDTO {
+    private TrackDTO track;
+    private LocalDateTime addedAt;
+
+    public PlaylistTrackDTO() {
+    }
+
+    public PlaylistTrackDTO(TrackDTO track, LocalDateTime addedAt) {
+        this.track = track;
+        this.addedAt = addedAt;
+    }
+
+    public TrackDTO getTrack() {
+        return track;
+    }
+
+    public void setTrack(TrackDTO track) {
+        this.track = track;
+    }
+
+    public LocalDateTime getAddedAt() {
+        return addedAt;
+    }
+
+    public void setAddedAt(LocalDateTime addedAt) {
+        this.addedAt = addedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.musify.DTOs.PlaylistController;
+
+/**
+ * One step of a playlist edit. {@code op} is {@code add}, {@code remove} or
+ * {@code move}. Added and moved tracks go after {@code afterTrackId}, first
+ * when it is 0 or last when it is omitted.
+ */
+public class PlaylistTrackOperationDTO {
+    private String op;
+    private Long trackId;
+    private Long afterTrackId;
+
+    public PlaylistTrackOperationDTO() {
+    }
+
+    public PlaylistTrackOperationDTO(String op, Long trackId, Long afterTrackId) {
+        this.op = op;
+        this.trackId = trackId;
+        this.afterTrackId = afterTrackId;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public Long getTrackId() {
+        return trackId;
+    }
+
+    public void setTrackId(Long trackId) {
+        this.trackId = trackId;
+    }
+
+    public Long getAfterTrackId() {
+        return afterTrackId;
+    }
+
+    public void setAfterTrackId(Long afterTrackId) {
+        this.afterTrackId = afterTrackId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.musify.DTOs.PlaylistController;
+
+import java.util.List;
+
+public class PlaylistTrackPageDTO {
+    private List<PlaylistTrackDTO> items;
+    private String nextCursor;
+
+    public PlaylistTrackPageDTO() {
+    }
+
+    public PlaylistTrackPageDTO(List<PlaylistTrackDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PlaylistTrackDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PlaylistTrackDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.musify.DTOs.PlaylistController;
+
+public class TrackCreateDTO {
+    private String title;
+    private String artist;
+    private Long albumId;
+    private int duration;
+
+    public TrackCreateDTO() {
+    }
+
+    public TrackCreateDTO(String title, String artist, Long albumId, int duration) {
+        this.title = title;
+        this.artist = artist;
+        this.albumId = albumId;
+        this.duration = duration;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public void setArtist(String artist) {
+        this.artist = artist;
+    }
+
+    public Long getAlbumId() {
+        return albumId;
+    }
+
+    public void setAlbumId(Long albumId) {
+        this.albumId = albumId;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+}
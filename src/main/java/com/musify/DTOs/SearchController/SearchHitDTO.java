@@ -0,0 +1,50 @@
+package com.musify.DTOs.SearchController;
+
+public class SearchHitDTO {
+    private String type;
+    private Long id;
+    private String name;
+    private String artist;
+
+    public SearchHitDTO() {
+    }
+
+    public SearchHitDTO(String type, Long id, String name, String artist) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.artist = artist;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public void setArtist(String artist) {
+        this.artist = artist;
+    }
+}
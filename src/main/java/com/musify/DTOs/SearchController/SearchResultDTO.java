@@ -0,0 +1,22 @@
+package com.musify.DTOs.SearchController;
+
+import java.util.List;
+
+public class SearchResultDTO {
+    private List<SearchHitDTO> items;
+
+    public SearchResultDTO() {
+    }
+
+    public SearchResultDTO(List<SearchHitDTO> items) {
+        this.items = items;
+    }
+
+    public List<SearchHitDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<SearchHitDTO> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,18 @@
+package com.musify.DTOs.UserController;
+
+import java.util.List;
+
+public class UserBatchCreateDTO {
+    private List<UserCreateDTO> users;
+
+    public UserBatchCreateDTO() {
+    }
+
+    public List<UserCreateDTO> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserCreateDTO> users) {
+        this.users = users;
+    }
+}
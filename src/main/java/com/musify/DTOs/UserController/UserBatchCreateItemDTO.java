@@ -0,0 +1,60 @@
+package com.musify.DTOs.UserController;
+
+public class UserBatchCreateItemDTO {
+    private int index;
+    private String username;
+    private String status;
+    private String reason;
+    private UserResponseDTO user;
+
+    public UserBatchCreateItemDTO() {
+    }
+
+    public UserBatchCreateItemDTO(int index, String username, String status, String reason, UserResponseDTO user) {
+        this.index = index;
+        this.username = username;
+        this.status = status;
+        this.reason = reason;
+        this.user = user;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public UserResponseDTO getUser() {
+        return user;
+    }
+
+    public void setUser(UserResponseDTO user) {
+        this.user = user;
+    }
+}
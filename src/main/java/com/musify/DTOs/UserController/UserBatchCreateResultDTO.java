@@ -0,0 +1,37 @@
+package com.musify.DTOs.UserController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserBatchCreateResultDTO {
+    private List<UserBatchCreateItemDTO> items = new ArrayList<>();
+    private int created;
+    private int failed;
+
+    public UserBatchCreateResultDTO() {
+    }
+
+    public List<UserBatchCreateItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserBatchCreateItemDTO> items) {
+        this.items = items;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,27 @@
+package com.musify.DTOs.UserController;
+
+import java.util.List;
+
+public class UserBatchGetDTO {
+    private List<Long> ids;
+    private List<String> usernames;
+
+    public UserBatchGetDTO() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+}
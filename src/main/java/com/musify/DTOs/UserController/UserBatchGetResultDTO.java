@@ -0,0 +1,42 @@
+package com.musify.DTOs.UserController;
+
+import java.util.List;
+
+public class UserBatchGetResultDTO {
+    private List<UserResponseDTO> items;
+    private List<Long> missingIds;
+    private List<String> missingUsernames;
+
+    public UserBatchGetResultDTO() {
+    }
+
+    public UserBatchGetResultDTO(List<UserResponseDTO> items, List<Long> missingIds, List<String> missingUsernames) {
+        this.items = items;
+        this.missingIds = missingIds;
+        this.missingUsernames = missingUsernames;
+    }
+
+    public List<UserResponseDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserResponseDTO> items) {
+        this.items = items;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+
+    public List<String> getMissingUsernames() {
+        return missingUsernames;
+    }
+
+    public void setMissingUsernames(List<String> missingUsernames) {
+        this.missingUsernames = missingUsernames;
+    }
+}
@@ -0,0 +1,88 @@
+package com.musify.DTOs.UserController;
+
+public class UserCacheStatsDTO {
+    private boolean enabled;
+    private long idEntries;
+    private long idHits;
+    private long idMisses;
+    private long idEvictions;
+    private long usernameEntries;
+    private long usernameHits;
+    private long usernameMisses;
+    private long usernameEvictions;
+
+    public UserCacheStatsDTO() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getIdEntries() {
+        return idEntries;
+    }
+
+    public void setIdEntries(long idEntries) {
+        this.idEntries = idEntries;
+    }
+
+    public long getIdHits() {
+        return idHits;
+    }
+
+    public void setIdHits(long idHits) {
+        this.idHits = idHits;
+    }
+
+    public long getIdMisses() {
+        return idMisses;
+    }
+
+    public void setIdMisses(long idMisses) {
+        this.idMisses = idMisses;
+    }
+
+    public long getIdEvictions() {
+        return idEvictions;
+    }
+
+    public void setIdEvictions(long idEvictions) {
+        this.idEvictions = idEvictions;
+    }
+
+    public long getUsernameEntries() {
+        return usernameEntries;
+    }
+
+    public void setUsernameEntries(long usernameEntries) {
+        this.usernameEntries = usernameEntries;
+    }
+
+    public long getUsernameHits() {
+        return usernameHits;
+    }
+
+    public void setUsernameHits(long usernameHits) {
+        this.usernameHits = usernameHits;
+    }
+
+    public long getUsernameMisses() {
+        return usernameMisses;
+    }
+
+    public void setUsernameMisses(long usernameMisses) {
+        this.usernameMisses = usernameMisses;
+    }
+
+    public long getUsernameEvictions() {
+        return usernameEvictions;
+    }
+
+    public void setUsernameEvictions(long usernameEvictions) {
+        this.usernameEvictions = usernameEvictions;
+    }
+}
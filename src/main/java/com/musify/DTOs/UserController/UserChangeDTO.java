@@ -0,0 +1,83 @@
+package com.musify.DTOs.UserController;
+
+import java.time.LocalDateTime;
+
+public class UserChangeDTO {
+    private long seq;
+    private String type;
+    private Long userId;
+    private String username;
+    private String imagePath;
+    private LocalDateTime updatedAt;
+    private LocalDateTime changedAt;
+
+    public UserChangeDTO() {
+    }
+
+    public UserChangeDTO(long seq, String type, Long userId, String username, String imagePath,
+            LocalDateTime updatedAt, LocalDateTime changedAt) {
+        this.seq = seq;
+        this.type = type;
+        this.userId = userId;
+        this.username = username;
+        this.imagePath = imagePath;
+        this.updatedAt = updatedAt;
+        this.changedAt = changedAt;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public void setImagePath(String imagePath) {
+        this.imagePath = imagePath;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,32 @@
+package com.musify.DTOs.UserController;
+
+import java.util.List;
+
+public class UserChangePageDTO {
+    private List<UserChangeDTO> items;
+    private long nextSince;
+
+    public UserChangePageDTO() {
+    }
+
+    public UserChangePageDTO(List<UserChangeDTO> items, long nextSince) {
+        this.items = items;
+        this.nextSince = nextSince;
+    }
+
+    public List<UserChangeDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserChangeDTO> items) {
+        this.items = items;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+}
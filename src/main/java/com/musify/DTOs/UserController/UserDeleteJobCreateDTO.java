@@ -0,0 +1,46 @@
+package com.musify.DTOs.UserController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class UserDeleteJobCreateDTO {
+    private List<Long> ids;
+    private String usernamePrefix;
+    private LocalDateTime createdBefore;
+    private LocalDateTime updatedBefore;
+
+    public UserDeleteJobCreateDTO() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getUsernamePrefix() {
+        return usernamePrefix;
+    }
+
+    public void setUsernamePrefix(String usernamePrefix) {
+        this.usernamePrefix = usernamePrefix;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    public LocalDateTime getUpdatedBefore() {
+        return updatedBefore;
+    }
+
+    public void setUpdatedBefore(LocalDateTime updatedBefore) {
+        this.updatedBefore = updatedBefore;
+    }
+}
@@ -0,0 +1,55 @@
+package com.musify.DTOs.UserController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserImportResultDTO {
+    private long created;
+    private long skipped;
+    private long failed;
+    private boolean rowsTruncated;
+    private List<UserImportRowDTO> rows = new ArrayList<>();
+
+    public UserImportResultDTO() {
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public boolean isRowsTruncated() {
+        return rowsTruncated;
+    }
+
+    public void setRowsTruncated(boolean rowsTruncated) {
+        this.rowsTruncated = rowsTruncated;
+    }
+
+    public List<UserImportRowDTO> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<UserImportRowDTO> rows) {
+        this.rows = rows;
+    }
+}
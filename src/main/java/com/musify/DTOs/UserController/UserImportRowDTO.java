@@ -0,0 +1,50 @@
+package com.musify.DTOs.UserController;
+
+public class UserImportRowDTO {
+    private long rowNumber;
+    private String username;
+    private String status;
+    private String reason;
+
+    public UserImportRowDTO() {
+    }
+
+    public UserImportRowDTO(long rowNumber, String username, String status, String reason) {
+        this.rowNumber = rowNumber;
+        this.username = username;
+        this.status = status;
+        this.reason = reason;
+    }
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(long rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
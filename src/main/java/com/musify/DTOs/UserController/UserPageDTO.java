@@ -0,0 +1,32 @@
+package com.musify.DTOs.UserController;
+
+import java.util.List;
+
+public class UserPageDTO {
+    private List<UserResponseDTO> items;
+    private String nextCursor;
+
+    public UserPageDTO() {
+    }
+
+    public UserPageDTO(List<UserResponseDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserResponseDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserResponseDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
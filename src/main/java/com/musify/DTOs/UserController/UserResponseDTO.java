@@ -1,21 +1,25 @@
 package com.musify.DTOs.UserController;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class UserResponseDTO {
     private Long id;
     private String username;
     private String imagePath;
+    private List<Integer> imageSizes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
     public UserResponseDTO() {
     }
 
-    public UserResponseDTO(Long id, String username, String imagePath, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    public UserResponseDTO(Long id, String username, String imagePath, List<Integer> imageSizes,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.username = username;
         this.imagePath = imagePath;
+        this.imageSizes = imageSizes;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
     }
@@ -44,6 +48,14 @@ public class UserResponseDTO {
         this.imagePath = imagePath;
     }
 
+    public List<Integer> getImageSizes() {
+        return imageSizes;
+    }
+
+    public void setImageSizes(List<Integer> imageSizes) {
+        this.imageSizes = imageSizes;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,15 +1,22 @@
 package com.musify.DTOs.UserController;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+
 public class UserUpdateDTO {
     private String username;
-    private String passwordHash;
+    /**
+     * Plain text; hashed before it is stored. Still accepted under its old
+     * name, from when clients sent a hash that was stored as it was.
+     */
+    @JsonAlias("passwordHash")
+    private String password;
 
     public UserUpdateDTO() {
     }
 
-    public UserUpdateDTO(String username, String passwordHash) {
+    public UserUpdateDTO(String username, String password) {
         this.username = username;
-        this.passwordHash = passwordHash;
+        this.password = password;
     }
 
     public String getUsername() {
@@ -20,11 +27,11 @@ public class UserUpdateDTO {
         this.username = username;
     }
 
-    public String getPasswordHash() {
-        return passwordHash;
+    public String getPassword() {
+        return password;
     }
 
-    public void setPasswordHash(String passwordHash) {
-        this.passwordHash = passwordHash;
+    public void setPassword(String password) {
+        this.password = password;
     }
 }
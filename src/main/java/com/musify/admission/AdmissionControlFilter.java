@@ -0,0 +1,221 @@
+package com.musify.admission;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.musify.metrics.Instrumentation;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control for {@code /api}: a request first pays its cost (see
+ * {@link RequestCosts}) from its client's {@link RateLimiter} bucket, or is
+ * refused with 429, and then needs a slot under the node's
+ * {@link ConcurrencyLimiter}, or is refused with 503. Both carry
+ * {@code Retry-After}. Requests are refused before the dispatcher runs,
+ * so a refused CSV upload is never parsed.
+ *
+ * Clients are told apart by their remote address. Nothing here checks the
+ * {@code X-Api-Key} header, and a client choosing its own bucket key could
+ * take a fresh bucket with every request, so the header is only used with
+ * {@code rate-limit.trust-api-key}, for deployments behind a gateway that
+ * validates the key and drops it from requests that fail. The node's own
+ * warm-up requests instead carry a token only this process knows, and skip
+ * the rate limit.
+ *
+ * Long polls and event streams on {@code concurrency.excluded-paths} are
+ * only rate limited: they spend most of their time waiting, and how long
+ * they take says nothing about how loaded the node is.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter implements MeterBinder {
+    public static final String API_KEY_HEADER = "X-Api-Key";
+    public static final String WARMUP_TOKEN_HEADER = "X-Warmup-Token";
+
+    @Autowired
+    Instrumentation instrumentation;
+
+    @Value("${musify.admission.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+    @Value("${musify.admission.rate-limit.rate:100}")
+    private double rate;
+    @Value("${musify.admission.rate-limit.burst:200}")
+    private int burst;
+    @Value("${musify.admission.rate-limit.max-clients:100000}")
+    private long maxClients;
+    @Value("${musify.admission.rate-limit.trust-api-key:false}")
+    private boolean trustApiKey;
+    @Value("${musify.admission.costs:}")
+    private String[] costRules;
+    @Value("${musify.admission.concurrency.enabled:true}")
+    private boolean concurrencyEnabled;
+    @Value("${musify.admission.concurrency.initial-limit:100}")
+    private int initialLimit;
+    @Value("${musify.admission.concurrency.min-limit:10}")
+    private int minLimit;
+    @Value("${musify.admission.concurrency.max-limit:2000}")
+    private int maxLimit;
+    @Value("${musify.admission.concurrency.window-ms:100}")
+    private long windowMillis;
+    @Value("${musify.admission.concurrency.rtt-tolerance:1.5}")
+    private double rttTolerance;
+    @Value("${musify.admission.concurrency.smoothing:0.2}")
+    private double smoothing;
+    @Value("${musify.admission.concurrency.long-windows:600}")
+    private int longWindows;
+    @Value("${musify.admission.concurrency.excluded-paths:}")
+    private Set<String> excludedPaths;
+
+    private RateLimiter rateLimiter;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private RequestCosts requestCosts;
+    private String warmupToken;
+
+    @PostConstruct
+    void start() {
+        byte[] token = new byte[16];
+        new SecureRandom().nextBytes(token);
+        warmupToken = HexFormat.of().formatHex(token);
+        requestCosts = new RequestCosts(costRules);
+        if (rateLimitEnabled)
+            rateLimiter = new RateLimiter(rate, burst, maxClients);
+        if (concurrencyEnabled)
+            concurrencyLimiter = new ConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                    TimeUnit.MILLISECONDS.toNanos(windowMillis), rttTolerance, smoothing, longWindows);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return (rateLimiter == null && concurrencyLimiter == null) || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        int cost = requestCosts.costOf(request);
+        String client = clientOf(request, trustApiKey);
+        if (rateLimiter != null && !isWarmup(request)) {
+            long waitNanos = rateLimiter.tryAcquire(client, cost);
+            if (waitNanos > 0) {
+                instrumentation.countAdmission("rate_limited");
+                refuse(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Rate limit exceeded, retry later");
+                return;
+            }
+        }
+        if (concurrencyLimiter == null || excludedPaths.contains(request.getRequestURI())) {
+            instrumentation.countAdmission("admitted");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            if (rateLimiter != null && !isWarmup(request))
+                rateLimiter.refund(client, cost);
+            instrumentation.countAdmission("shed");
+            refuse(response, HttpStatus.SERVICE_UNAVAILABLE, 0, "Server is busy, retry later");
+            return;
+        }
+
+        instrumentation.countAdmission("admitted");
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses finish on another thread
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        concurrencyLimiter.release(System.nanoTime() - start, cost);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                concurrencyLimiter.release(System.nanoTime() - start, cost);
+            }
+        }
+    }
+
+    private static void refuse(HttpServletResponse response, HttpStatus status, long waitNanos, String message)
+            throws IOException {
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    /**
+     * The token {@link com.musify.startup.StartupWarmup} sends with its own
+     * requests in {@link #WARMUP_TOKEN_HEADER}.
+     */
+    public String getWarmupToken() {
+        return warmupToken;
+    }
+
+    private boolean isWarmup(HttpServletRequest request) {
+        String token = request.getHeader(WARMUP_TOKEN_HEADER);
+        return token != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                warmupToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String clientOf(HttpServletRequest request, boolean trustApiKey) {
+        if (trustApiKey) {
+            String apiKey = request.getHeader(API_KEY_HEADER);
+            if (apiKey != null && !apiKey.isBlank())
+                return "key:" + apiKey;
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (concurrencyLimiter != null) {
+            Gauge.builder("musify.admission.limit", concurrencyLimiter, ConcurrencyLimiter::getLimit)
+                    .description("Requests allowed in flight, adjusted from latency")
+                    .register(registry);
+            Gauge.builder("musify.admission.in.flight", concurrencyLimiter, ConcurrencyLimiter::getInFlight)
+                    .description("Requests in flight")
+                    .register(registry);
+        }
+        if (rateLimiter != null) {
+            Gauge.builder("musify.admission.clients", rateLimiter, RateLimiter::getClientCount)
+                    .description("Clients with a rate-limit bucket")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.musify.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the requests in flight on this node, adjusting the limit from
+ * measured latency in the manner of a gradient limiter.
+ *
+ * Latencies are averaged over short windows and compared with a baseline
+ * built from past windows, which follows latency down quickly and up only
+ * slowly. While they stay close to it the limit
+ * grows by about its square root per window. When they rise, requests are
+ * queueing somewhere (threads, connection pool, database), and the limit
+ * shrinks in proportion, by at most half per window. Excess requests are then
+ * refused at once instead of waiting in those queues, which keeps the
+ * latency of the admitted ones close to normal. The limit only grows while
+ * the node actually uses at least half of it.
+ *
+ * Acquiring and releasing are atomic counter updates. Whichever release
+ * closes a window recomputes the limit, so there is no lock and no
+ * background thread.
+ */
+class ConcurrencyLimiter {
+    private static final double MIN_GRADIENT = 0.5;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final int FAST_WINDOWS = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final int longWindows;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder rttCount = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile double limit;
+    private volatile double longRtt;
+
+    ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowNanos, double rttTolerance,
+            double smoothing, int longWindows) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.windowNanos = windowNanos;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.longWindows = Math.max(1, longWindows);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit)
+                return false;
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot taken by {@link #tryAcquire}, recording the request's
+     * latency per unit of cost so that heavy endpoints do not read as
+     * congestion.
+     */
+    void release(long elapsedNanos, int cost) {
+        inFlight.decrementAndGet();
+        rttSum.add(elapsedNanos / Math.max(cost, 1));
+        rttCount.increment();
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now))
+            update();
+    }
+
+    private void update() {
+        long count = rttCount.sumThenReset();
+        long sum = rttSum.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (count < MIN_WINDOW_SAMPLES)
+            return;
+
+        double shortRtt = (double) sum / count;
+        double previousLongRtt = longRtt;
+        if (previousLongRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        // The baseline follows falling latency within a few windows but
+        // rising latency only over longWindows, so sustained overload keeps
+        // reading as congestion instead of becoming the new normal
+        double nextLongRtt = shortRtt < previousLongRtt
+                ? previousLongRtt + (shortRtt - previousLongRtt) / FAST_WINDOWS
+                : previousLongRtt + (shortRtt - previousLongRtt) / longWindows;
+        longRtt = nextLongRtt;
+
+        double current = limit;
+        if (peak < current / 2)
+            return;
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * nextLongRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
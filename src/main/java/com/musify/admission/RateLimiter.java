@@ -0,0 +1,73 @@
+package com.musify.admission;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token buckets per client, each holding up to {@code burst} tokens and
+ * refilled at {@code rate} tokens per second.
+ *
+ * A bucket is kept as the single time at which it will be full again (the
+ * generic cell rate algorithm): taking {@code cost} tokens pushes that time
+ * {@code cost / rate} seconds further out, and is refused when it would land
+ * more than {@code burst / rate} seconds ahead of now. That makes taking
+ * tokens one compare-and-set on the client's own {@link AtomicLong}. Buckets
+ * live in a Caffeine cache, which locks only the bin of a client whose
+ * bucket is being created, so clients never wait on each other.
+ */
+class RateLimiter {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int burst;
+    private final Cache<String, AtomicLong> buckets;
+
+    RateLimiter(double rate, int burst, long maxClients) {
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        this.burst = Math.max(1, burst);
+        this.burstNanos = nanosPerToken * this.burst;
+        // A bucket left alone for burstNanos is full, the same as a new one,
+        // so dropping it then loses nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstNanos, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    /**
+     * Takes {@code cost} tokens from the client's bucket. Returns 0 when they
+     * were taken, or else how many nanoseconds until they would be. Costs
+     * above the burst are charged as the burst, so every request can
+     * eventually be admitted.
+     */
+    long tryAcquire(String client, int cost) {
+        long charge = Math.min(Math.max(cost, 1), burst) * nanosPerToken;
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(client, key -> new AtomicLong(now));
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + charge;
+            long ahead = next - now - burstNanos;
+            if (ahead > 0)
+                return ahead;
+            if (bucket.compareAndSet(full, next))
+                return 0;
+        }
+    }
+
+    /**
+     * Returns tokens taken for a request that was refused afterwards.
+     */
+    void refund(String client, int cost) {
+        AtomicLong bucket = buckets.getIfPresent(client);
+        if (bucket != null)
+            bucket.addAndGet(-Math.min(Math.max(cost, 1), burst) * nanosPerToken);
+    }
+
+    long getClientCount() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,59 @@
+package com.musify.admission;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Token cost of a request, from rules of the form
+ * {@code METHOD path-pattern=cost}; the first matching rule wins and
+ * requests no rule matches cost one token.
+ */
+class RequestCosts {
+    private final List<Rule> rules = new ArrayList<>();
+
+    private static class Rule {
+        final String method;
+        final PathPattern pattern;
+        final int cost;
+
+        Rule(String method, PathPattern pattern, int cost) {
+            this.method = method;
+            this.pattern = pattern;
+            this.cost = cost;
+        }
+    }
+
+    RequestCosts(String[] rules) {
+        for (String rule : rules) {
+            String trimmed = rule.trim();
+            if (trimmed.isEmpty())
+                continue;
+            int space = trimmed.indexOf(' ');
+            int equals = trimmed.lastIndexOf('=');
+            if (space < 0 || equals < space)
+                throw new IllegalArgumentException("Invalid admission cost rule: " + rule);
+            String method = trimmed.substring(0, space).trim();
+            String path = trimmed.substring(space + 1, equals).trim();
+            int cost = Integer.parseInt(trimmed.substring(equals + 1).trim());
+            this.rules.add(new Rule(method, PathPatternParser.defaultInstance.parse(path), cost));
+        }
+    }
+
+    int costOf(HttpServletRequest request) {
+        if (rules.isEmpty())
+            return 1;
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        for (Rule rule : rules) {
+            if (rule.method.equals(method) && rule.pattern.matches(path))
+                return rule.cost;
+        }
+        return 1;
+    }
+}
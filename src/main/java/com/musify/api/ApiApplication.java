@@ -3,9 +3,11 @@ package com.musify.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "com.musify")
+@EnableScheduling
 public class ApiApplication {
 
 	public static void main(String[] args) {
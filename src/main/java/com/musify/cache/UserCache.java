@@ -0,0 +1,279 @@
+package com.musify.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musify.DTOs.UserController.UserCacheStatsDTO;
+import com.musify.datasource.ReplicaSet;
+import com.musify.models.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through cache in front of the users table with two indexes: id to
+ * user and lower-cased username to id. Both are size bounded (W-TinyLFU) and
+ * expire after a TTL; misses are cached as well, with a shorter TTL.
+ *
+ * Writers bump a generation counter before invalidating, and a loader only
+ * populates the cache when the generation did not move during its query, so
+ * a read racing a write cannot put back the row the write replaced.
+ *
+ * With read replicas a load may also return a row older than a write that
+ * already finished, so keys written within the read-your-writes window are
+ * quarantined: they are served from the database but not cached until the
+ * window has passed.
+ */
+@Component
+public class UserCache implements MeterBinder {
+    private static final Long MISSING_ID = -1L;
+
+    @Value("${musify.cache.users.enabled:true}")
+    private boolean enabled;
+    @Value("${musify.cache.users.maximum-size:100000}")
+    private long maximumSize;
+    @Value("${musify.cache.users.ttl-seconds:300}")
+    private long ttlSeconds;
+    @Value("${musify.cache.users.negative-ttl-seconds:5}")
+    private long negativeTtlSeconds;
+    @Value("${musify.datasource.replicas.read-your-writes-ms:2000}")
+    private long quarantineMillis;
+
+    @Autowired
+    ReplicaSet replicaSet;
+
+    private final AtomicLong generation = new AtomicLong();
+    private Cache<Long, Optional<User>> usersById;
+    private Cache<String, Long> idsByUsername;
+    private Cache<Object, Boolean> quarantined;
+    private volatile long quarantineAllUntilNanos;
+
+    private static class NegativeAwareExpiry<K, V> implements Expiry<K, V> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+        private final Function<V, Boolean> isMissing;
+
+        NegativeAwareExpiry(long ttlNanos, long negativeTtlNanos, Function<V, Boolean> isMissing) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+            this.isMissing = isMissing;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return isMissing.apply(value) ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    @PostConstruct
+    void build() {
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry<Long, Optional<User>>(ttlNanos, negativeTtlNanos, Optional::isEmpty))
+                .recordStats()
+                .build();
+        idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry<String, Long>(ttlNanos, negativeTtlNanos, MISSING_ID::equals))
+                .recordStats()
+                .build();
+        if (replicaSet.isEnabled() && quarantineMillis > 0) {
+            quarantineAllUntilNanos = System.nanoTime();
+            quarantined = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(Duration.ofMillis(quarantineMillis))
+                    .build();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        new CaffeineCacheMetrics<>(usersById, "users.byId", List.of()).bindTo(registry);
+        new CaffeineCacheMetrics<>(idsByUsername, "users.byUsername", List.of()).bindTo(registry);
+    }
+
+    public Optional<User> findById(Long id, Function<Long, Optional<User>> loader) {
+        if (!enabled)
+            return loader.apply(id);
+
+        Optional<User> cached = usersById.getIfPresent(id);
+        if (cached != null)
+            return cached.map(UserCache::copy);
+
+        long loadGeneration = generation.get();
+        Optional<User> loaded = loader.apply(id);
+        if (generation.get() == loadGeneration && !isQuarantined(id)
+                && !(loaded.isPresent() && isQuarantined(key(loaded.get().getUsername())))) {
+            usersById.put(id, loaded.map(UserCache::copy));
+            loaded.ifPresent(user -> idsByUsername.put(key(user.getUsername()), user.getId()));
+        }
+        return loaded;
+    }
+
+    public Optional<User> findByUsername(String username, Function<String, Optional<User>> loader) {
+        if (!enabled || username == null)
+            return loader.apply(username);
+
+        String key = key(username);
+        Long id = idsByUsername.getIfPresent(key);
+        if (MISSING_ID.equals(id))
+            return Optional.empty();
+        if (id != null) {
+            Optional<User> cached = usersById.getIfPresent(id);
+            if (cached != null && cached.isPresent() && key(cached.get().getUsername()).equals(key))
+                return cached.map(UserCache::copy);
+        }
+
+        long loadGeneration = generation.get();
+        Optional<User> loaded = loader.apply(username);
+        if (generation.get() == loadGeneration && !isQuarantined(key)
+                && !(loaded.isPresent() && isQuarantined(loaded.get().getId()))) {
+            idsByUsername.put(key, loaded.map(User::getId).orElse(MISSING_ID));
+            loaded.ifPresent(user -> usersById.put(user.getId(), Optional.of(copy(user))));
+        }
+        return loaded;
+    }
+
+    /**
+     * Loads the users with the given ids through {@code loader} and caches
+     * them, as at startup, unless a write invalidated anything meanwhile.
+     * Returns how many were cached.
+     */
+    public int preload(Collection<Long> ids, Function<Collection<Long>, List<User>> loader) {
+        if (!enabled || ids.isEmpty())
+            return 0;
+        long loadGeneration = generation.get();
+        List<User> loaded = loader.apply(ids);
+        if (generation.get() != loadGeneration)
+            return 0;
+        int cached = 0;
+        for (User user : loaded) {
+            if (isQuarantined(user.getId()) || isQuarantined(key(user.getUsername())))
+                continue;
+            usersById.put(user.getId(), Optional.of(copy(user)));
+            idsByUsername.put(key(user.getUsername()), user.getId());
+            cached++;
+        }
+        return cached;
+    }
+
+    /**
+     * Ids of up to {@code limit} cached users, the ones the eviction policy
+     * would keep longest first. Cached misses are left out.
+     */
+    public List<Long> getHottestIds(int limit) {
+        if (!enabled || limit <= 0)
+            return List.of();
+        List<Long> ids = new ArrayList<>();
+        usersById.policy().eviction().ifPresent(eviction -> {
+            for (Map.Entry<Long, Optional<User>> entry : eviction.hottest(limit).entrySet()) {
+                if (entry.getValue().isPresent())
+                    ids.add(entry.getKey());
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Returns the cached user without loading it or touching statistics.
+     */
+    public Optional<User> peekById(Long id) {
+        if (!enabled)
+            return Optional.empty();
+        Optional<User> cached = usersById.policy().getIfPresentQuietly(id);
+        return cached == null ? Optional.empty() : cached.map(UserCache::copy);
+    }
+
+    public void invalidateId(Long id) {
+        generation.incrementAndGet();
+        quarantine(id);
+        usersById.invalidate(id);
+    }
+
+    public void invalidateUsername(String username) {
+        if (username == null)
+            return;
+        generation.incrementAndGet();
+        quarantine(key(username));
+        idsByUsername.invalidate(key(username));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        if (quarantined != null)
+            quarantineAllUntilNanos = System.nanoTime() + Duration.ofMillis(quarantineMillis).toNanos();
+        usersById.invalidateAll();
+        idsByUsername.invalidateAll();
+    }
+
+    public UserCacheStatsDTO getStats() {
+        CacheStats byId = usersById.stats();
+        CacheStats byUsername = idsByUsername.stats();
+        UserCacheStatsDTO stats = new UserCacheStatsDTO();
+        stats.setEnabled(enabled);
+        stats.setIdEntries(usersById.estimatedSize());
+        stats.setIdHits(byId.hitCount());
+        stats.setIdMisses(byId.missCount());
+        stats.setIdEvictions(byId.evictionCount());
+        stats.setUsernameEntries(idsByUsername.estimatedSize());
+        stats.setUsernameHits(byUsername.hitCount());
+        stats.setUsernameMisses(byUsername.missCount());
+        stats.setUsernameEvictions(byUsername.evictionCount());
+        return stats;
+    }
+
+    private void quarantine(Object key) {
+        if (quarantined != null)
+            quarantined.put(key, Boolean.TRUE);
+    }
+
+    private boolean isQuarantined(Object key) {
+        if (quarantined == null)
+            return false;
+        return System.nanoTime() - quarantineAllUntilNanos < 0 || quarantined.getIfPresent(key) != null;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getId(), user.getUsername(), user.getPasswordHash(), user.getImagePath());
+        copy.setImageVariants(user.getImageVariants());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,215 @@
+package com.musify.cache;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Bloom filter over the lower-cased usernames in the users table, used to
+ * skip duplicate-username queries for names that are definitely new.
+ *
+ * Names are added as they are written and never removed, so deleted or
+ * renamed users leave false positives behind until the next
+ * {@link #rebuild}. Until the first rebuild completes, and after a name was
+ * written by another process, the filter can be wrong in the other direction
+ * as well, so callers must still treat the unique constraint as the final
+ * word.
+ */
+@Component
+public class UsernameFilter implements MeterBinder {
+    @Value("${musify.users.username-filter.enabled:true}")
+    private boolean enabled;
+    @Value("${musify.users.username-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    @Value("${musify.users.username-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+    private volatile long lastRebuildMillis;
+    private final LongAdder absentCount = new LongAdder();
+    private final LongAdder maybePresentCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+
+    private static class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final long capacity;
+        private final LongAdder insertions = new LongAdder();
+
+        BloomFilter(long capacity, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        void add(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.weakCompareAndSetVolatile(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+            insertions.increment();
+        }
+
+        boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        boolean isSaturated() {
+            return insertions.sum() > capacity;
+        }
+
+        /**
+         * FNV-1a over the UTF-16 code units, finished with a 64-bit mixer so
+         * that the low bits used for indexing are well distributed.
+         */
+        private static long hash(String key) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xFF51AFD7ED558CCDL;
+            value ^= value >>> 33;
+            value *= 0xC4CEB9FE1A85EC53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns false only when no user has this username, as far as this
+     * process has seen. True means the database has to be asked.
+     */
+    public boolean mightContain(String username) {
+        BloomFilter filter = current;
+        if (!enabled || filter == null || username == null)
+            return true;
+        if (filter.mightContain(key(username))) {
+            maybePresentCount.increment();
+            return true;
+        }
+        absentCount.increment();
+        return false;
+    }
+
+    /**
+     * Records that the database did not have a name the filter let through.
+     */
+    public void recordFalsePositives(int count) {
+        falsePositiveCount.add(count);
+    }
+
+    public void add(String username) {
+        if (!enabled || username == null)
+            return;
+        String key = key(username);
+        // Read building before current: a rebuild publishes current before
+        // clearing building, so the name always reaches the new filter
+        BloomFilter next = building;
+        BloomFilter filter = current;
+        if (filter != null)
+            filter.add(key);
+        if (next != null && next != filter)
+            next.add(key);
+    }
+
+    /**
+     * True when the filter has not been built yet, was last built more than
+     * {@code maxAgeMillis} ago, or has taken more names than it was sized
+     * for.
+     */
+    public boolean needsRebuild(long maxAgeMillis) {
+        BloomFilter filter = current;
+        return enabled && (filter == null || filter.isSaturated()
+                || System.currentTimeMillis() - lastRebuildMillis >= maxAgeMillis);
+    }
+
+    /**
+     * Builds a new filter from {@code source}, which must pass every
+     * username in the table to the consumer it is given, and swaps it in.
+     * Names added while the rebuild runs go into both filters. The new one
+     * is sized for twice the current number of names, or the configured
+     * expectation if that is larger.
+     */
+    public synchronized void rebuild(Consumer<Consumer<String>> source) {
+        if (!enabled)
+            return;
+        BloomFilter previous = current;
+        long capacity = Math.max(expectedInsertions, previous == null ? 0 : previous.insertions.sum() * 2);
+        BloomFilter next = new BloomFilter(capacity, falsePositiveRate);
+        building = next;
+        try {
+            source.accept(username -> next.add(key(username)));
+            current = next;
+            lastRebuildMillis = System.currentTimeMillis();
+        } finally {
+            building = null;
+        }
+    }
+
+    public long getApproximateSize() {
+        BloomFilter filter = current;
+        return filter == null ? 0 : filter.insertions.sum();
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        FunctionCounter.builder("musify.users.username.filter.checks", absentCount, LongAdder::sum)
+                .description("Username existence checks answered by the filter")
+                .tag("result", "absent")
+                .register(registry);
+        FunctionCounter.builder("musify.users.username.filter.checks", maybePresentCount, LongAdder::sum)
+                .description("Username existence checks answered by the filter")
+                .tag("result", "maybe")
+                .register(registry);
+        FunctionCounter.builder("musify.users.username.filter.false.positives", falsePositiveCount, LongAdder::sum)
+                .description("Names the filter passed on that the database did not have")
+                .register(registry);
+        Gauge.builder("musify.users.username.filter.entries", this, UsernameFilter::getApproximateSize)
+                .description("Names added to the current filter")
+                .register(registry);
+    }
+}
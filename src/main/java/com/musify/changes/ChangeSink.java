@@ -0,0 +1,21 @@
+package com.musify.changes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import com.musify.DTOs.UserController.UserChangeDTO;
+
+/**
+ * Where {@link com.musify.services.UserChangeService} publishes user
+ * changes, in {@code seq} order. Delivery is at least once: a batch the
+ * relay could not record as published is handed over again, so consumers
+ * skip any {@code seq} they have already seen.
+ */
+public interface ChangeSink extends Closeable {
+    void publish(List<UserChangeDTO> changes) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,13 @@
+package com.musify.changes;
+
+/**
+ * The {@link ChangeSink} a node's relay publishes to.
+ */
+public enum ChangeSinkType {
+    /** Sequence changes for {@code GET /api/users/changes} but publish nothing. */
+    NONE,
+    /** Append them to a local newline-delimited JSON file. */
+    FILE,
+    /** Keep the most recent ones in memory, in place of a broker. */
+    MEMORY
+}
@@ -0,0 +1,54 @@
+package com.musify.changes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.musify.DTOs.UserController.UserChangeDTO;
+
+import tools.jackson.databind.ObjectWriter;
+
+/**
+ * Appends each change to a file as one line of JSON. A batch goes out in a
+ * single write and, with {@code sync}, is forced to disk before the relay
+ * records it as published.
+ */
+public class FileChangeSink implements ChangeSink {
+    private final FileChannel channel;
+    private final ObjectWriter writer;
+    private final boolean sync;
+
+    public FileChangeSink(Path path, ObjectWriter writer, boolean sync) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.writer = writer;
+        this.sync = sync;
+    }
+
+    @Override
+    public synchronized void publish(List<UserChangeDTO> changes) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(changes.size() * 160);
+        for (UserChangeDTO change : changes) {
+            writer.writeValue(lines, change);
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        if (sync)
+            channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
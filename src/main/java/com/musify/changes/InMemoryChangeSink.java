@@ -0,0 +1,42 @@
+package com.musify.changes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.musify.DTOs.UserController.UserChangeDTO;
+
+/**
+ * Keeps the last {@code capacity} published changes, as a stand-in for a
+ * message broker in tests and local runs.
+ */
+public class InMemoryChangeSink implements ChangeSink {
+    private final int capacity;
+    private final ArrayDeque<UserChangeDTO> changes = new ArrayDeque<>();
+    private long publishedCount;
+
+    public InMemoryChangeSink(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<UserChangeDTO> batch) {
+        for (UserChangeDTO change : batch) {
+            if (changes.size() == capacity)
+                changes.removeFirst();
+            changes.addLast(change);
+        }
+        publishedCount += batch.size();
+    }
+
+    /**
+     * The changes still held, oldest first.
+     */
+    public synchronized List<UserChangeDTO> getChanges() {
+        return new ArrayList<>(changes);
+    }
+
+    public synchronized long getPublishedCount() {
+        return publishedCount;
+    }
+}
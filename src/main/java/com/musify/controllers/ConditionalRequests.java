@@ -0,0 +1,62 @@
+package com.musify.controllers;
+
+import org.springframework.http.HttpHeaders;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Evaluates {@code If-None-Match} and {@code If-Modified-Since} against a
+ * representation's validators, before the representation itself is built.
+ */
+final class ConditionalRequests {
+    private ConditionalRequests() {
+    }
+
+    static boolean isConditional(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * True when the client's copy is current. {@code If-None-Match} takes
+     * precedence, and {@code If-Modified-Since} is only consulted when
+     * {@code lastModified} is not negative; dates compare in whole seconds,
+     * the precision of the header.
+     */
+    static boolean notModified(HttpServletRequest request, String eTag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null)
+            return matches(ifNoneMatch, eTag);
+        if (lastModified < 0)
+            return false;
+
+        long ifModifiedSince = parseDate(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Weak comparison of a comma-separated list of ETags, or {@code *},
+     * with {@code eTag}.
+     */
+    static boolean matches(String header, String eTag) {
+        String opaque = stripWeak(eTag);
+        for (String candidate : header.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(opaque))
+                return true;
+        }
+        return false;
+    }
+
+    static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    static long parseDate(HttpServletRequest request, String header) {
+        try {
+            return request.getDateHeader(header);
+        } catch (IllegalArgumentException invalidDate) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.musify.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.musify.credentials.CredentialsBusyException;
+
+/**
+ * Turns a full password hashing queue into 503, as {@link DatabaseBusyHandler}
+ * does for the connection pool.
+ */
+@RestControllerAdvice
+public class CredentialsBusyHandler {
+
+    @ExceptionHandler(CredentialsBusyException.class)
+    public ResponseEntity<String> handleBusy(CredentialsBusyException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Password hashing is busy, retry later");
+    }
+}
@@ -0,0 +1,24 @@
+package com.musify.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns "no connection available" into 503 so clients back off instead of
+ * treating an overloaded database as a server bug.
+ */
+@RestControllerAdvice
+public class DatabaseBusyHandler {
+
+    @ExceptionHandler({ CannotGetJdbcConnectionException.class, CannotCreateTransactionException.class })
+    public ResponseEntity<String> handleNoConnection(RuntimeException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Database is busy, retry later");
+    }
+}
@@ -0,0 +1,172 @@
+package com.musify.controllers;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import com.musify.storage.StoredImage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes a stored image with conditional request and single byte-range
+ * support. On Tomcat the body is handed to the connector's sendfile path so
+ * the bytes go from the page cache to the socket without passing through the
+ * JVM heap; elsewhere it falls back to {@link FileChannel#transferTo}.
+ */
+final class ImageResponseWriter {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private ImageResponseWriter() {
+    }
+
+    /**
+     * @param immutable whether the request URL names this exact content, so
+     *                  the response may be cached without revalidation
+     */
+    static void write(StoredImage image, boolean immutable, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String eTag = image.getETag();
+        long size = image.getSize();
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, image.getLastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (ConditionalRequests.notModified(request, eTag, image.getLastModified())) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, eTag)) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(image.getContentType());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0)
+            return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.getFile().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(image.getFile(), StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (position <= end) {
+                long transferred = file.transferTo(position, end + 1 - position, target);
+                if (transferred == 0) {
+                    // Past the end of a file shorter than recorded, or a
+                    // target that took nothing; reading tells which
+                    copy(file, position, end, out);
+                    return;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Copies bytes {@code position} to {@code end} through a buffer. Fails
+     * with {@link EOFException} when the file ends first, rather than
+     * sending fewer bytes than the Content-Length promised.
+     */
+    static void copy(FileChannel file, long position, long end, OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, end + 1 - position));
+        while (position <= end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end + 1 - position));
+            int read = file.read(buffer, position);
+            if (read < 0)
+                throw new EOFException("Image file ended at byte " + position + " of " + (end + 1));
+            out.write(buffer.array(), 0, read);
+            position += read;
+        }
+    }
+
+    /**
+     * An {@code If-Range} validator must match exactly, and weak ETags never
+     * match, so a client never stitches together ranges of two versions.
+     */
+    static boolean rangeApplies(HttpServletRequest request, String eTag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null)
+            return true;
+        return !eTag.startsWith("W/") && ifRange.trim().equals(eTag);
+    }
+
+    /**
+     * Parses a single {@code bytes=} range. Returns the inclusive bounds, an
+     * empty array when the header should be ignored (malformed, other units,
+     * or several ranges, which are served as the full body), or null when the
+     * range cannot be satisfied.
+     */
+    static long[] parseRange(String header, long size) {
+        String value = header.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0)
+            return new long[0];
+
+        String spec = value.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0)
+            return new long[0];
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty())
+                    return new long[0];
+                long suffix = Long.parseLong(last);
+                if (suffix == 0 || size == 0)
+                    return null;
+                return new long[] { Math.max(0, size - suffix), size - 1 };
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size)
+                return null;
+            if (end < start)
+                return new long[0];
+            return new long[] { start, end };
+        } catch (NumberFormatException invalidRange) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.musify.controllers;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.musify.DTOs.PlaylistController.AlbumCreateDTO;
+import com.musify.DTOs.PlaylistController.AlbumDTO;
+import com.musify.DTOs.PlaylistController.PlaylistCreateDTO;
+import com.musify.DTOs.PlaylistController.PlaylistDTO;
+import com.musify.DTOs.PlaylistController.PlaylistMutationDTO;
+import com.musify.DTOs.PlaylistController.PlaylistMutationResultDTO;
+import com.musify.DTOs.PlaylistController.PlaylistPageDTO;
+import com.musify.DTOs.PlaylistController.PlaylistTrackAddDTO;
+import com.musify.DTOs.PlaylistController.PlaylistTrackPageDTO;
+import com.musify.DTOs.PlaylistController.TrackCreateDTO;
+import com.musify.DTOs.PlaylistController.TrackDTO;
+import com.musify.services.CatalogService;
+import com.musify.services.PlaylistMutationStatus;
+import com.musify.services.PlaylistService;
+import com.musify.services.PlaylistTrackStatus;
+import com.musify.services.UserService;
+
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+@RestController
+@RequestMapping("/api")
+public class PlaylistController {
+    @Autowired
+    PlaylistService playlistService;
+    @Autowired
+    CatalogService catalogService;
+    @Autowired
+    UserService userService;
+    @Autowired
+    JsonMapper jsonMapper;
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @PostMapping("/albums")
+    public ResponseEntity<AlbumDTO> createAlbum(@RequestBody AlbumCreateDTO albumCreateDTO) {
+        if (isBlank(albumCreateDTO.getTitle()) || isBlank(albumCreateDTO.getArtist())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(catalogService.createAlbum(albumCreateDTO));
+    }
+
+    @GetMapping("/albums/{id}")
+    public ResponseEntity<AlbumDTO> getAlbumById(@PathVariable Long id) {
+        Optional<AlbumDTO> album = catalogService.getAlbumById(id);
+        return album.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/tracks")
+    public ResponseEntity<TrackDTO> createTrack(@RequestBody TrackCreateDTO trackCreateDTO) {
+        if (isBlank(trackCreateDTO.getTitle()) || isBlank(trackCreateDTO.getArtist())
+                || trackCreateDTO.getDuration() < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<TrackDTO> track = catalogService.createTrack(trackCreateDTO);
+        return track.map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created))
+                .orElse(ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/tracks/{id}")
+    public ResponseEntity<TrackDTO> getTrackById(@PathVariable Long id) {
+        Optional<TrackDTO> track = catalogService.getTrackById(id);
+        return track.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/playlists")
+    public ResponseEntity<PlaylistDTO> createPlaylist(@RequestBody PlaylistCreateDTO playlistCreateDTO) {
+        if (isBlank(playlistCreateDTO.getName())) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<PlaylistDTO> playlist = playlistService.createPlaylist(playlistCreateDTO);
+        return playlist.map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created))
+                .orElse(ResponseEntity.badRequest().build());
+    }
+
+    /**
+     * Returns a page of the user's playlists, each with its first
+     * {@code tracks} tracks and a cursor for the rest.
+     */
+    @GetMapping("/users/{userId}/playlists")
+    public ResponseEntity<PlaylistPageDTO> getUserPlaylists(@PathVariable Long userId,
+            @RequestParam(required = false) String after, @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "10") int tracks) {
+        if (userService.getUserVersion(userId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<PlaylistPageDTO> page = playlistService.getUserPlaylists(userId, after, limit, tracks);
+        return page.map(ResponseEntity::ok).orElse(ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/playlists/{id}")
+    public ResponseEntity<PlaylistDTO> getPlaylist(@PathVariable Long id,
+            @RequestParam(defaultValue = "100") int tracks) {
+        Optional<PlaylistDTO> playlist = playlistService.getPlaylist(id, tracks);
+        return playlist.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/playlists/{id}/tracks")
+    public ResponseEntity<PlaylistTrackPageDTO> getPlaylistTracks(@PathVariable Long id,
+            @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        Optional<PlaylistTrackPageDTO> page = playlistService.getPlaylistTracks(id, after, limit);
+        if (page.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (page.get().getItems().isEmpty() && !playlistService.playlistExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(page.get());
+    }
+
+    @GetMapping(value = "/playlists/{id}/tracks", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPlaylistTracks(@PathVariable Long id) {
+        if (!playlistService.playlistExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = jsonMapper.writer()
+                    .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                playlistService.streamPlaylistTracks(id, writer::write);
+            }
+            outputStream.write('\n');
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @PostMapping("/playlists/{id}/tracks")
+    public ResponseEntity<Void> addPlaylistTrack(@PathVariable Long id,
+            @RequestBody PlaylistTrackAddDTO playlistTrackAddDTO) {
+        if (playlistTrackAddDTO.getTrackId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        PlaylistTrackStatus status = playlistService.addTrack(id, playlistTrackAddDTO.getTrackId());
+        switch (status) {
+            case ADDED:
+                return ResponseEntity.status(HttpStatus.CREATED).build();
+            case ALREADY_PRESENT:
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            default:
+                return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Adds, removes and moves many tracks at once. Responds 409 with the
+     * current {@code updatedAt} when {@code expectedUpdatedAt} is stale, and
+     * 400 with the failed operation's index when one cannot be applied; in
+     * both cases nothing is changed.
+     */
+    @PatchMapping("/playlists/{id}/tracks")
+    public ResponseEntity<PlaylistMutationResultDTO> mutatePlaylistTracks(@PathVariable Long id,
+            @RequestBody PlaylistMutationDTO playlistMutationDTO) {
+        PlaylistMutationResultDTO result = new PlaylistMutationResultDTO();
+        PlaylistMutationStatus status = playlistService.mutateTracks(id, playlistMutationDTO, result);
+        switch (status) {
+            case APPLIED:
+                return ResponseEntity.ok(result);
+            case CONFLICT:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            case INVALID:
+                return ResponseEntity.badRequest().body(result);
+            default:
+                return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.musify.controllers;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.musify.DTOs.SearchController.SearchResultDTO;
+import com.musify.search.SearchType;
+import com.musify.services.SearchService;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    @Autowired
+    SearchService searchService;
+
+    /**
+     * Prefix search over usernames, track titles and artists, and album
+     * titles and artists. {@code type} is {@code users}, {@code tracks} or
+     * {@code albums}; without it the best matches of all three are mixed.
+     */
+    @GetMapping
+    public ResponseEntity<SearchResultDTO> search(@RequestParam(required = false) String q,
+            @RequestParam(required = false) String type, @RequestParam(defaultValue = "10") int limit) {
+        if (q == null || q.isBlank() || q.length() > MAX_QUERY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<SearchType> searchType = Optional.empty();
+        if (type != null && !type.isBlank()) {
+            searchType = SearchType.fromParameter(type);
+            if (searchType.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(searchService.search(q, searchType, limit));
+    }
+}
@@ -1,10 +1,23 @@
 package com.musify.controllers;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,48 +28,345 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.musify.DTOs.UserController.ImportJobDTO;
+import com.musify.DTOs.UserController.UserBatchCreateDTO;
+import com.musify.DTOs.UserController.UserBatchCreateResultDTO;
+import com.musify.DTOs.UserController.UserBatchGetDTO;
+import com.musify.DTOs.UserController.UserBatchGetResultDTO;
+import com.musify.DTOs.UserController.UserCacheStatsDTO;
+import com.musify.DTOs.UserController.UserChangeDTO;
+import com.musify.DTOs.UserController.UserChangePageDTO;
 import com.musify.DTOs.UserController.UserCreateDTO;
+import com.musify.DTOs.UserController.UserDeleteJobCreateDTO;
+import com.musify.DTOs.UserController.UserDeleteJobDTO;
+import com.musify.DTOs.UserController.UserLoginDTO;
+import com.musify.DTOs.UserController.UserPageDTO;
 import com.musify.DTOs.UserController.UserResponseDTO;
 import com.musify.DTOs.UserController.UserUpdateDTO;
+import com.musify.credentials.CredentialService;
+import com.musify.models.UserFilter;
+import com.musify.services.ImageUploadStatus;
+import com.musify.services.UserChangeService;
+import com.musify.services.UserDeleteJobService;
+import com.musify.services.UserImportJobService;
+import com.musify.serialization.TimestampFormat;
 import com.musify.services.UserService;
+import com.musify.storage.StoredImage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
 
 @RestController
 @RequestMapping("/api")
 public class UserController {
     @Autowired
     UserService userService;
+    @Autowired
+    UserImportJobService userImportJobService;
+    @Autowired
+    UserChangeService userChangeService;
+    @Autowired
+    UserDeleteJobService userDeleteJobService;
+    @Autowired
+    JsonMapper jsonMapper;
+
+    @Value("${musify.users.bulk-delete.max-ids:100000}")
+    private int maxDeleteJobIds;
+    @Value("${musify.changes.stream.heartbeat-ms:15000}")
+    private long streamHeartbeatMillis;
+    @Value("${musify.changes.stream.max-duration-ms:300000}")
+    private long streamMaxDurationMillis;
+
+    private final ExecutorService changeStreamExecutor = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("user-changes-stream-", 0).factory());
 
     @PostMapping("/users")
     public ResponseEntity<UserResponseDTO> createUser(@RequestBody UserCreateDTO userCreateDTO) {
-        if (userService.getUserByUsername(userCreateDTO.getUsername()).isPresent()) {
+        if (!CredentialService.isAcceptable(userCreateDTO.getPassword())) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (userService.usernameExists(userCreateDTO.getUsername())) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
-        UserResponseDTO createdUser = userService.createUser(userCreateDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+        Optional<UserResponseDTO> createdUser = userService.createUser(userCreateDTO);
+        return createdUser.map(user -> ResponseEntity.status(HttpStatus.CREATED).body(user))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Checks the username and password and returns the user, or 401 for
+     * any mismatch without saying which part was wrong.
+     */
+    @PostMapping("/users/login")
+    public ResponseEntity<UserResponseDTO> login(@RequestBody UserLoginDTO userLoginDTO) {
+        Optional<UserResponseDTO> user = userService.login(userLoginDTO);
+        return user.map(ResponseEntity::ok).orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /**
+     * Returns the users with the given ids and usernames, each once, and
+     * lists the ones that do not exist.
+     */
+    @PostMapping("/users/batch-get")
+    public ResponseEntity<UserBatchGetResultDTO> getUsersBatch(@RequestBody UserBatchGetDTO userBatchGetDTO) {
+        Optional<UserBatchGetResultDTO> result = userService.getUsers(userBatchGetDTO);
+        return result.map(ResponseEntity::ok).orElse(ResponseEntity.badRequest().build());
+    }
+
+    /**
+     * Creates the users and reports each one's outcome in request order; one
+     * that cannot be created does not stop the others.
+     */
+    @PostMapping("/users/batch")
+    public ResponseEntity<UserBatchCreateResultDTO> createUsersBatch(
+            @RequestBody UserBatchCreateDTO userBatchCreateDTO) {
+        Optional<UserBatchCreateResultDTO> result = userService.createUsers(userBatchCreateDTO);
+        return result.map(ResponseEntity::ok).orElse(ResponseEntity.badRequest().build());
     }
 
+    /**
+     * ETags are weak because compression and the negotiated encoding change
+     * the bytes of a version, and Tomcat does not compress responses with
+     * strong ones. Each still names exactly one version, so {@code If-Match}
+     * compares them as if they were strong.
+     */
+    private static String versionETag(LocalDateTime version) {
+        return "W/\"" + version.toEpochSecond(ZoneOffset.UTC) + "\"";
+    }
+
+    private static String pageETag(long version) {
+        return "W/\"" + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * Sets the validators of a user whose {@code updatedAt} is
+     * {@code version}. {@code no-cache} makes clients revalidate each time,
+     * which costs a version lookup rather than a full fetch.
+     */
+    private static <B extends ResponseEntity.HeadersBuilder<B>> B withVersion(B builder, LocalDateTime version) {
+        return builder.eTag(versionETag(version))
+                .lastModified(version.atZone(ZoneId.systemDefault()))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Parses the ETags this controller issues out of an {@code If-Match}
+     * header; foreign ones never match.
+     */
+    private static List<LocalDateTime> parseVersions(String ifMatch) {
+        List<LocalDateTime> versions = new ArrayList<>();
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = ConditionalRequests.stripWeak(candidate.trim());
+            if (trimmed.length() < 3 || !trimmed.startsWith("\"") || !trimmed.endsWith("\""))
+                continue;
+            try {
+                long seconds = Long.parseLong(trimmed.substring(1, trimmed.length() - 1));
+                versions.add(LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC));
+            } catch (NumberFormatException | DateTimeException invalidVersion) {
+                continue;
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Returns a page of users. A request whose {@code If-None-Match} still
+     * matches is answered 304 from the page's ids and update times, without
+     * loading the users.
+     */
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-        List<UserResponseDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<UserPageDTO> getUsers(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit, HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            Optional<Long> version = userService.getUsersPageVersion(after, limit);
+            if (version.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (ConditionalRequests.matches(ifNoneMatch, pageETag(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(pageETag(version.get()))
+                        .cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        Optional<UserPageDTO> page = userService.getUsersPage(after, limit);
+        return page.map(body -> ResponseEntity.ok().eTag(pageETag(userService.getPageVersion(body)))
+                .cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(body))
+                .orElse(ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        TimestampFormat timestampFormat = TimestampFormat.ofAccept(accept);
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = jsonMapper.writer()
+                    .withAttribute(TimestampFormat.class, timestampFormat)
+                    .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                userService.streamAllUsers(writer::write);
+            }
+            outputStream.write('\n');
+        };
+        MediaType contentType = timestampFormat == TimestampFormat.ISO ? MediaType.APPLICATION_NDJSON
+                : new MediaType(MediaType.APPLICATION_NDJSON,
+                        Map.of(TimestampFormat.MEDIA_TYPE_PARAMETER, timestampFormat.getParameter()));
+        return ResponseEntity.ok().contentType(contentType).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    /**
+     * Returns up to {@code limit} user changes after {@code since}. When
+     * there are none yet, waits up to {@code wait} milliseconds for one.
+     * Pass the page's {@code nextSince} on the next call; {@code limit=0}
+     * returns the current position, to start from after copying the users.
+     * Responds 410 once changes after {@code since} have been purged.
+     */
+    @GetMapping("/users/changes")
+    public ResponseEntity<UserChangePageDTO> getUserChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit, @RequestParam(defaultValue = "0") long wait) {
+        if (since < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (userChangeService.isExpired(since)) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                .body(userChangeService.getChanges(since, limit, wait));
+    }
+
+    /**
+     * Streams user changes after {@code since}, or after the
+     * {@code Last-Event-ID} of a reconnecting client, as server-sent events
+     * whose id is the change's {@code seq}. Comments keep idle connections
+     * open, and the stream ends after {@code max-duration-ms} so that
+     * clients reconnect and spread over the nodes.
+     */
+    @GetMapping(value = "/users/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        long start = since;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                start = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException invalidId) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (start < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (userChangeService.isExpired(start)) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+
+        // The emitter's own timeout replaces the container's default, which
+        // would cut the stream short
+        SseEmitter emitter = new SseEmitter(streamMaxDurationMillis + streamHeartbeatMillis);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+        long from = start;
+        changeStreamExecutor.execute(() -> {
+            long position = from;
+            long deadline = System.currentTimeMillis() + streamMaxDurationMillis;
+            try {
+                while (open.get() && System.currentTimeMillis() < deadline
+                        && !userChangeService.isExpired(position)) {
+                    long waitMillis = Math.min(streamHeartbeatMillis, deadline - System.currentTimeMillis());
+                    UserChangePageDTO page = userChangeService.getChanges(position, Integer.MAX_VALUE, waitMillis);
+                    if (page.getItems().isEmpty())
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    for (UserChangeDTO change : page.getItems()) {
+                        emitter.send(SseEmitter.event().id(Long.toString(change.getSeq())).name(change.getType())
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                    position = page.getNextSince();
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException disconnected) {
+                // The client went away or the emitter timed out
+            } catch (RuntimeException failure) {
+                // Ends the response so the client reconnects from its last
+                // event instead of waiting out the heartbeat
+                emitter.completeWithError(failure);
+            }
+        });
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(emitter);
     }
 
+    @GetMapping("/users/cache-stats")
+    public ResponseEntity<UserCacheStatsDTO> getUserCacheStats() {
+        return ResponseEntity.ok(userService.getCacheStats());
+    }
+
+    /**
+     * Returns the user with an ETag and Last-Modified taken from its
+     * {@code updatedAt}. Conditional requests are checked against the
+     * version alone, so a 304 never loads the whole user.
+     */
     @GetMapping("/users/{id}")
-    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id, HttpServletRequest request) {
+        if (ConditionalRequests.isConditional(request)) {
+            Optional<LocalDateTime> version = userService.getUserVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            long lastModified = version.get().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (ConditionalRequests.notModified(request, versionETag(version.get()), lastModified)) {
+                return withVersion(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version.get()).build();
+            }
+        }
         Optional<UserResponseDTO> user = userService.getUserById(id);
-        return user.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return user.map(found -> withVersion(ResponseEntity.ok(), found.getUpdatedAt()).body(found))
+                .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Updates the user. With {@code If-Match} the update only applies while
+     * the user still has one of the given ETags, and otherwise responds 412
+     * with the current ETag, so concurrent editors cannot overwrite each
+     * other's changes.
+     */
     @PutMapping("/users/{id}")
-    public ResponseEntity<UserResponseDTO> updateUser(@PathVariable Long id, @RequestBody UserUpdateDTO userUpdateDTO) {
-        Optional<UserResponseDTO> updatedUser = userService.updateUser(id, userUpdateDTO);
-        return updatedUser.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<UserResponseDTO> updateUser(@PathVariable Long id, @RequestBody UserUpdateDTO userUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!CredentialService.isAcceptable(userUpdateDTO.getPassword())) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            Optional<UserResponseDTO> updatedUser = userService.updateUser(id, userUpdateDTO);
+            if (updatedUser.isEmpty()) {
+                return ifMatch == null ? ResponseEntity.notFound().build()
+                        : ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            return withVersion(ResponseEntity.ok(), updatedUser.get().getUpdatedAt()).body(updatedUser.get());
+        }
+
+        Optional<UserResponseDTO> updatedUser = userService.updateUserIfVersion(id, userUpdateDTO,
+                parseVersions(ifMatch));
+        if (updatedUser.isPresent()) {
+            return withVersion(ResponseEntity.ok(), updatedUser.get().getUpdatedAt()).body(updatedUser.get());
+        }
+        Optional<LocalDateTime> current = userService.getUserVersion(id);
+        if (current.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return withVersion(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED), current.get()).build();
     }
 
     @DeleteMapping("/users/{id}")
@@ -71,17 +381,81 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Starts deleting the users with the given ids, or those matching the
+     * filter, or those among the ids that match it, in the background. Poll
+     * the job at its Location for progress.
+     */
+    @PostMapping("/users/delete-jobs")
+    public ResponseEntity<UserDeleteJobDTO> createDeleteJob(@RequestBody UserDeleteJobCreateDTO request) {
+        boolean hasFilter = request.getUsernamePrefix() != null || request.getCreatedBefore() != null
+                || request.getUpdatedBefore() != null;
+        if ((request.getIds() == null && !hasFilter) || (request.getIds() != null
+                && request.getIds().size() > maxDeleteJobIds)
+                || (request.getUsernamePrefix() != null && request.getUsernamePrefix().isBlank())) {
+            return ResponseEntity.badRequest().build();
+        }
+        UserFilter filter = new UserFilter(request.getUsernamePrefix(), request.getCreatedBefore(),
+                request.getUpdatedBefore());
+        Optional<UserDeleteJobDTO> job = userDeleteJobService.submit(request.getIds(), filter);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/users/delete-jobs/" + job.get().getId()))
+                .body(job.get());
+    }
+
+    @GetMapping("/users/delete-jobs/{id}")
+    public ResponseEntity<UserDeleteJobDTO> getDeleteJob(@PathVariable String id) {
+        Optional<UserDeleteJobDTO> job = userDeleteJobService.getJob(id);
+        return job.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/users/delete-jobs/{id}")
+    public ResponseEntity<UserDeleteJobDTO> cancelDeleteJob(@PathVariable String id) {
+        Optional<UserDeleteJobDTO> job = userDeleteJobService.cancel(id);
+        return job.map(dto -> ResponseEntity.status(HttpStatus.ACCEPTED).body(dto))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PatchMapping(value = "/users/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> updateUserImage(@PathVariable Long id,
             @RequestParam("profilePicture") MultipartFile profilePicture) {
         try {
-            boolean updated = userService.updateImagePath(id, profilePicture);
-            return updated ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+            ImageUploadStatus status = userService.updateImagePath(id, profilePicture);
+            switch (status) {
+                case UPDATED:
+                    return ResponseEntity.ok().build();
+                case TOO_LARGE:
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Image is too large");
+                default:
+                    return ResponseEntity.notFound().build();
+            }
         } catch (IOException ioException) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Serves the user's image, or the closest resized variant when
+     * {@code size} is given. Passing the image hash as {@code v} makes the
+     * URL content-specific, and the response is then marked immutable.
+     */
+    @GetMapping("/users/{id}/image")
+    public void getUserImage(@PathVariable Long id, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String v, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<StoredImage> image = userService.getUserImage(id, size);
+        if (image.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        String hash = image.get().getHash();
+        boolean immutable = v != null && hash != null && (hash.equals(v) || hash.startsWith(v + "_"));
+        ImageResponseWriter.write(image.get(), immutable, request, response);
+    }
+
     @PostMapping(value = "/users/upload-csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadUsersFromCsv(@RequestParam("file") MultipartFile csvFile) {
         if (csvFile.isEmpty()) {
@@ -89,10 +463,28 @@ public class UserController {
         }
 
         try {
-            List<UserResponseDTO> users = userService.uploadUsersFromCsv(csvFile);
-            return ResponseEntity.ok("Uploaded " + users.size() + " users");
+            Optional<ImportJobDTO> job = userImportJobService.submit(csvFile);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many imports in progress");
+            }
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/users/import-jobs/" + job.get().getId()))
+                    .body(job.get());
         } catch (IOException ioException) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to process CSV file");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to store CSV file");
         }
     }
+
+    @GetMapping("/users/import-jobs/{id}")
+    public ResponseEntity<ImportJobDTO> getImportJob(@PathVariable String id) {
+        Optional<ImportJobDTO> job = userImportJobService.getJob(id);
+        return job.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/users/import-jobs/{id}")
+    public ResponseEntity<ImportJobDTO> cancelImportJob(@PathVariable String id) {
+        Optional<ImportJobDTO> job = userImportJobService.cancel(id);
+        return job.map(dto -> ResponseEntity.status(HttpStatus.ACCEPTED).body(dto))
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,303 @@
+package com.musify.credentials;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+import com.musify.logging.CustomLogging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hashes and verifies passwords with bcrypt on a fixed pool of platform
+ * threads, one per core unless {@code threads} says otherwise, so that the
+ * hashing never competes with more threads than there are cores and request
+ * threads only wait for it.
+ *
+ * Requests are refused with {@link CredentialsBusyException} once
+ * {@code queue-capacity} hashes are waiting, rather than queueing for longer
+ * than a client would. Batches ({@link #hashAll}) are never refused: they
+ * have at most one hash per worker in the pool at a time and wait for a slot
+ * otherwise, so an import uses every core without pushing requests out.
+ *
+ * The cost is {@code cost} when set, and otherwise calibrated at startup to
+ * the highest one whose hash takes no longer than {@code target-ms}, within
+ * {@code min-cost} and {@code max-cost}. Hashes stored with a lower cost are
+ * reported by {@link #verify} as needing a rehash.
+ */
+@Service
+public class CredentialService implements MeterBinder {
+    /**
+     * bcrypt only reads the first 72 bytes; longer passwords are refused
+     * instead of being silently truncated.
+     */
+    public static final int MAX_PASSWORD_BYTES = 72;
+    private static final String CALIBRATION_PASSWORD = "calibration";
+
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.credentials.threads:0}")
+    private int threads;
+    @Value("${musify.credentials.queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${musify.credentials.cost:0}")
+    private int configuredCost;
+    @Value("${musify.credentials.target-ms:100}")
+    private long targetMillis;
+    @Value("${musify.credentials.min-cost:10}")
+    private int minCost;
+    @Value("${musify.credentials.max-cost:16}")
+    private int maxCost;
+
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder hashedCount = new LongAdder();
+    private final LongAdder verifiedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private ThreadPoolExecutor executor;
+    private Semaphore batchPermits;
+    private volatile int cost;
+    private String unknownUserHash;
+
+    @PostConstruct
+    void start() {
+        if (threads <= 0)
+            threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Room for every batch permit on top of the requests' share
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity + threads), runnable -> {
+                    Thread thread = new Thread(runnable, "credentials-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        batchPermits = new Semaphore(threads, true);
+
+        cost = configuredCost > 0 ? configuredCost : calibrate();
+        unknownUserHash = BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(cost, random));
+        logger.info(getClass().getSimpleName(), "start", "Hashing passwords with bcrypt cost " + cost + " on "
+                + threads + " threads");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Times a hash at {@code min-cost} and raises the cost, each step doubling
+     * the time, for as long as it stays within {@code target-ms}. The faster
+     * of two runs counts, as the first one also pays for loading the class.
+     */
+    private int calibrate() {
+        long fastestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < 2; run++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(minCost, random));
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        int calibrated = minCost;
+        double millis = fastestNanos / 1_000_000.0;
+        while (calibrated < maxCost && millis * 2 <= targetMillis) {
+            calibrated++;
+            millis *= 2;
+        }
+        if (millis > targetMillis) {
+            logger.warn(getClass().getSimpleName(), "calibrate", "A hash at min-cost " + minCost + " takes "
+                    + Math.round(millis) + " ms, more than the " + targetMillis + " ms target");
+        } else {
+            logger.info(getClass().getSimpleName(), "calibrate", "Calibrated bcrypt cost " + calibrated
+                    + " at about " + Math.round(millis) + " ms per hash (target " + targetMillis + " ms)");
+        }
+        return calibrated;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("musify.credentials.queue.depth", this, service -> service.executor.getQueue().size())
+                .description("Password hashes and checks waiting for a worker")
+                .register(registry);
+        Gauge.builder("musify.credentials.cost", this, service -> service.cost)
+                .description("bcrypt cost new passwords are hashed with")
+                .register(registry);
+        FunctionCounter.builder("musify.credentials.operations", hashedCount, LongAdder::sum)
+                .description("Password hashes and checks by outcome")
+                .tag("outcome", "hashed")
+                .register(registry);
+        FunctionCounter.builder("musify.credentials.operations", verifiedCount, LongAdder::sum)
+                .description("Password hashes and checks by outcome")
+                .tag("outcome", "verified")
+                .register(registry);
+        FunctionCounter.builder("musify.credentials.operations", rejectedCount, LongAdder::sum)
+                .description("Password hashes and checks by outcome")
+                .tag("outcome", "rejected")
+                .register(registry);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Returns false for a missing or blank password, or one bcrypt would
+     * truncate.
+     */
+    public static boolean isAcceptable(String password) {
+        return password != null && !password.isBlank()
+                && password.getBytes(StandardCharsets.UTF_8).length <= MAX_PASSWORD_BYTES;
+    }
+
+    /**
+     * Hashes the password with the current cost. Throws
+     * {@link CredentialsBusyException} when the queue is full.
+     */
+    public String hash(String password) {
+        return submit(() -> hashNow(password));
+    }
+
+    /**
+     * Checks the password against a stored value. A value that is not a
+     * bcrypt hash was stored as sent, before passwords were hashed here, and
+     * is compared as it is. With no stored value a dummy hash is checked, so
+     * that unknown users take as long as known ones.
+     */
+    public PasswordCheck verify(String password, String stored) {
+        if (password == null)
+            return PasswordCheck.MISMATCH;
+        if (stored == null) {
+            submit(() -> checkNow(password, unknownUserHash));
+            return PasswordCheck.MISMATCH;
+        }
+        if (!isBcrypt(stored)) {
+            boolean matches = MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+            return matches ? PasswordCheck.MATCH_NEEDS_REHASH : PasswordCheck.MISMATCH;
+        }
+        if (!submit(() -> checkNow(password, stored)))
+            return PasswordCheck.MISMATCH;
+        return costOf(stored) < cost ? PasswordCheck.MATCH_NEEDS_REHASH : PasswordCheck.MATCH;
+    }
+
+    /**
+     * Hashes the passwords across the pool and returns the hashes in the same
+     * order. Waits for a free worker instead of failing when the pool is
+     * busy; a hash the queue turns down is computed on the calling thread.
+     */
+    public List<String> hashAll(List<String> passwords) {
+        List<Future<String>> futures = new ArrayList<>(passwords.size());
+        AtomicBoolean abandoned = new AtomicBoolean();
+        try {
+            for (String password : passwords) {
+                batchPermits.acquire();
+                try {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            return abandoned.get() ? null : hashNow(password);
+                        } finally {
+                            batchPermits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException queueFull) {
+                    batchPermits.release();
+                    futures.add(CompletableFuture.completedFuture(hashNow(password)));
+                }
+            }
+            List<String> hashes = new ArrayList<>(passwords.size());
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException interrupted) {
+            // Queued hashes still run, skip the work and release their permits
+            abandoned.set(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while hashing passwords");
+        } catch (ExecutionException executionException) {
+            abandoned.set(true);
+            throw unwrap(executionException);
+        }
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            if (executor.getQueue().size() >= queueCapacity)
+                throw new RejectedExecutionException();
+            future = executor.submit(task);
+        } catch (RejectedExecutionException queueFull) {
+            rejectedCount.increment();
+            logger.warn(getClass().getSimpleName(), "submit", "Password hashing queue is full");
+            throw new CredentialsBusyException("Password hashing queue is full");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException interrupted) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while hashing a password");
+        } catch (ExecutionException executionException) {
+            throw unwrap(executionException);
+        }
+    }
+
+    private String hashNow(String password) {
+        String hash = BCrypt.hashpw(password, BCrypt.gensalt(cost, random));
+        hashedCount.increment();
+        return hash;
+    }
+
+    private boolean checkNow(String password, String stored) {
+        boolean matches = BCrypt.checkpw(password, stored);
+        verifiedCount.increment();
+        return matches;
+    }
+
+    private static RuntimeException unwrap(ExecutionException executionException) {
+        Throwable cause = executionException.getCause();
+        if (cause instanceof RuntimeException runtimeException)
+            return runtimeException;
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Matches the {@code $2a$}, {@code $2b$} and {@code $2y$} forms,
+     * {@code $2x$cc$} followed by 53 characters of salt and hash.
+     */
+    static boolean isBcrypt(String stored) {
+        return stored.length() == 60 && stored.startsWith("$2") && stored.charAt(3) == '$'
+                && stored.charAt(6) == '$' && Character.isDigit(stored.charAt(4))
+                && Character.isDigit(stored.charAt(5));
+    }
+
+    static int costOf(String bcryptHash) {
+        return Integer.parseInt(bcryptHash.substring(4, 6));
+    }
+}
@@ -0,0 +1,11 @@
+package com.musify.credentials;
+
+/**
+ * Thrown when the hashing pool's queue is full. Like an exhausted connection
+ * pool, it becomes a 503 with {@code Retry-After}.
+ */
+public class CredentialsBusyException extends RuntimeException {
+    public CredentialsBusyException(String message) {
+        super(message);
+    }
+}
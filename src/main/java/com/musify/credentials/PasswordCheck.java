@@ -0,0 +1,12 @@
+package com.musify.credentials;
+
+/**
+ * Outcome of checking a password against a stored hash. A match that needs
+ * a rehash was stored with a lower cost than the current one, or before
+ * passwords were hashed on the server.
+ */
+public enum PasswordCheck {
+    MATCH,
+    MATCH_NEEDS_REHASH,
+    MISMATCH
+}
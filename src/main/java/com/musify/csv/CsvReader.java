@@ -0,0 +1,161 @@
+package com.musify.csv;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader. Reads the underlying stream in fixed-size chunks,
+ * so memory stays constant regardless of file size. Quoted fields may contain
+ * separators, escaped quotes ({@code ""}) and line breaks. The charset is taken
+ * from the byte order mark (UTF-8, UTF-16LE or UTF-16BE) and defaults to UTF-8.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder(64);
+    private int position;
+    private int limit;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private boolean endOfStream;
+
+    public CsvReader(InputStream inputStream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        this.reader = new InputStreamReader(in, detectCharset(in));
+    }
+
+    /**
+     * Returns the fields of the next non-blank record, or {@code null} at the
+     * end of the stream.
+     */
+    public List<String> readRecord() throws IOException {
+        while (true) {
+            if (!ensureData())
+                return null;
+
+            recordLineNumber = lineNumber;
+            List<String> fields = new ArrayList<>(4);
+            boolean endOfRecord = false;
+            while (!endOfRecord) {
+                endOfRecord = readField();
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+
+            if (fields.size() == 1 && fields.get(0).isEmpty())
+                continue;
+            return fields;
+        }
+    }
+
+    /**
+     * Physical line (1-based) on which the last returned record started.
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean readField() throws IOException {
+        if (!ensureData())
+            return true;
+
+        if (buffer[position] == QUOTE) {
+            position++;
+            readQuoted();
+        }
+
+        while (ensureData()) {
+            char c = buffer[position++];
+            if (c == SEPARATOR)
+                return false;
+            if (c == '\n') {
+                lineNumber++;
+                return true;
+            }
+            if (c == '\r') {
+                lineNumber++;
+                if (ensureData() && buffer[position] == '\n')
+                    position++;
+                return true;
+            }
+            field.append(c);
+        }
+        return true;
+    }
+
+    private void readQuoted() throws IOException {
+        while (ensureData()) {
+            char c = buffer[position++];
+            if (c == QUOTE) {
+                if (ensureData() && buffer[position] == QUOTE) {
+                    field.append(QUOTE);
+                    position++;
+                    continue;
+                }
+                return;
+            }
+            if (c == '\n')
+                lineNumber++;
+            field.append(c);
+        }
+    }
+
+    private boolean ensureData() throws IOException {
+        if (position < limit)
+            return true;
+        if (endOfStream)
+            return false;
+
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static Charset detectCharset(BufferedInputStream in) throws IOException {
+        in.mark(3);
+        int b0 = in.read();
+        int b1 = in.read();
+        int b2 = in.read();
+
+        if (b0 == 0xFF && b1 == 0xFE) {
+            in.reset();
+            in.skip(2);
+            return StandardCharsets.UTF_16LE;
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            in.reset();
+            in.skip(2);
+            return StandardCharsets.UTF_16BE;
+        }
+        in.reset();
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF)
+            in.skip(3);
+        return StandardCharsets.UTF_8;
+    }
+}
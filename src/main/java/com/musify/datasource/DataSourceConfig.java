@@ -0,0 +1,81 @@
+package com.musify.datasource;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Wraps the auto-configured pool in a
+     * {@link ConcurrencyLimitingDataSource}. The concurrency limit defaults
+     * to the pool's maximum size.
+     *
+     * When replicas are configured the result is further wrapped in a
+     * {@link ReplicaRoutingDataSource}.
+     */
+    @Bean
+    static BeanPostProcessor dataSourcePostProcessor(Environment environment,
+            ObjectProvider<ReplicaSet> replicaSet) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource
+                        || bean instanceof ReplicaRoutingDataSource)
+                    return bean;
+
+                DataSource primary = dataSource;
+                if (environment.getProperty("musify.datasource.limiter.enabled", Boolean.class, true)) {
+                    int maxConcurrency = environment.getProperty("musify.datasource.limiter.max-concurrency",
+                            Integer.class, 0);
+                    if (maxConcurrency <= 0)
+                        maxConcurrency = dataSource instanceof HikariDataSource hikari
+                                ? hikari.getMaximumPoolSize() : 10;
+                    int maxWaiting = environment.getProperty("musify.datasource.limiter.max-waiting",
+                            Integer.class, 1000);
+                    long acquireTimeoutMillis = environment.getProperty(
+                            "musify.datasource.limiter.acquire-timeout-ms", Long.class, 5000L);
+                    primary = new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, maxWaiting,
+                            acquireTimeoutMillis);
+                }
+
+                ReplicaSet replicas = replicaSet.getIfAvailable();
+                if (replicas == null || !replicas.isEnabled())
+                    return primary;
+                return new ReplicaRoutingDataSource(primary, replicas);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder dataSourceLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitingDataSource limiter;
+            try {
+                if (!dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class))
+                    return;
+                limiter = dataSource.unwrap(ConcurrencyLimitingDataSource.class);
+            } catch (SQLException sqlException) {
+                return;
+            }
+            Gauge.builder("musify.datasource.limiter.active", limiter, ConcurrencyLimitingDataSource::getActiveCount)
+                    .description("Connections checked out through the concurrency limiter")
+                    .register(registry);
+            Gauge.builder("musify.datasource.limiter.waiting", limiter, ConcurrencyLimitingDataSource::getWaitingCount)
+                    .description("Threads waiting for a connection permit")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.musify.datasource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.musify.logging.CustomLogging;
+
+/**
+ * Checks at startup that the Connector/J settings the repositories rely on
+ * for throughput are present, either in the JDBC URL or in
+ * {@code spring.datasource.hikari.data-source-properties}, and warns about
+ * each one that is missing or weaker than expected. Non-MySQL URLs are not
+ * checked.
+ */
+@Component
+public class DriverFlagsValidator {
+    private static final Map<String, String> REQUIRED_FLAGS = new LinkedHashMap<>();
+    private static final Map<String, Integer> MINIMUM_VALUES = new LinkedHashMap<>();
+
+    static {
+        REQUIRED_FLAGS.put("rewriteBatchedStatements", "true");
+        REQUIRED_FLAGS.put("useServerPrepStmts", "true");
+        REQUIRED_FLAGS.put("cachePrepStmts", "true");
+        REQUIRED_FLAGS.put("cacheServerConfiguration", "true");
+        REQUIRED_FLAGS.put("useLocalSessionState", "true");
+        MINIMUM_VALUES.put("prepStmtCacheSize", 100);
+        MINIMUM_VALUES.put("prepStmtCacheSqlLimit", 1024);
+    }
+
+    @Autowired
+    Environment environment;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.datasource.validate-driver-flags:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validate() {
+        String url = environment.getProperty("spring.datasource.url", "");
+        if (!enabled || !url.startsWith("jdbc:mysql:"))
+            return;
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            for (String pair : url.substring(query + 1).split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0)
+                    settings.put(pair.substring(0, equals), pair.substring(equals + 1));
+            }
+        }
+        settings.putAll(Binder.get(environment)
+                .bind("spring.datasource.hikari.data-source-properties", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of()));
+
+        int warnings = 0;
+        for (Map.Entry<String, String> flag : REQUIRED_FLAGS.entrySet()) {
+            String value = settings.get(flag.getKey());
+            if (!flag.getValue().equalsIgnoreCase(value)) {
+                logger.warn(getClass().getSimpleName(), "validate", "JDBC flag " + flag.getKey() + "="
+                        + flag.getValue() + " is not set (found " + value + ")");
+                warnings++;
+            }
+        }
+        for (Map.Entry<String, Integer> minimum : MINIMUM_VALUES.entrySet()) {
+            String value = settings.get(minimum.getKey());
+            if (value == null || !value.matches("\\d+") || Integer.parseInt(value) < minimum.getValue()) {
+                logger.warn(getClass().getSimpleName(), "validate", "JDBC flag " + minimum.getKey()
+                        + " should be at least " + minimum.getValue() + " (found " + value + ")");
+                warnings++;
+            }
+        }
+
+        if (environment.getProperty("spring.datasource.hikari.maximum-pool-size") == null) {
+            logger.warn(getClass().getSimpleName(), "validate",
+                    "spring.datasource.hikari.maximum-pool-size is not set, using the pool default");
+            warnings++;
+        }
+
+        if (warnings == 0)
+            logger.info(getClass().getSimpleName(), "validate", "JDBC driver flags validated");
+    }
+}
@@ -0,0 +1,83 @@
+package com.musify.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Gives each client read-your-writes consistency while replicas are in use.
+ * A request that may write (any method other than GET, HEAD or OPTIONS) runs
+ * pinned to the primary and pins its client for
+ * {@code musify.datasource.replicas.read-your-writes-ms} after it finishes,
+ * so that reads which follow it do not hit a replica that has not caught up.
+ *
+ * Clients are told apart by the {@code X-Client-Id} header, falling back to
+ * the remote address.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    @Autowired
+    ReplicaSet replicaSet;
+
+    @Value("${musify.datasource.replicas.read-your-writes-ms:2000}")
+    private long pinMillis;
+    @Value("${musify.datasource.replicas.max-pinned-clients:100000}")
+    private long maxPinnedClients;
+
+    private Cache<String, Boolean> pinnedClients;
+
+    @PostConstruct
+    void start() {
+        pinnedClients = Caffeine.newBuilder()
+                .maximumSize(maxPinnedClients)
+                .expireAfterWrite(Duration.ofMillis(Math.max(1, pinMillis)))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !replicaSet.isEnabled() || pinMillis <= 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        String client = clientOf(request);
+        boolean write = isWrite(request.getMethod());
+        if (write || pinnedClients.getIfPresent(client) != null)
+            ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearPin();
+            if (write)
+                pinnedClients.put(client, Boolean.TRUE);
+        }
+    }
+
+    private static boolean isWrite(String method) {
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId != null && !clientId.isBlank())
+            return "id:" + clientId;
+        return "addr:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,53 @@
+package com.musify.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends queries made inside a {@code @Transactional(readOnly = true)} method
+ * to a healthy replica from the {@link ReplicaSet}, and everything else to
+ * the primary. Reads also go to the primary when every replica is out of
+ * rotation or the current thread was pinned by {@link ReadYourWritesFilter}.
+ *
+ * Read-only methods use {@code SUPPORTS} propagation, so the flag is set
+ * without opening a transaction and the repository's connection is still
+ * bound to the method, which keeps every query of one call on the same
+ * server.
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final ReplicaSet replicaSet;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicaSet) {
+        super(primary);
+        this.replicaSet = replicaSet;
+    }
+
+    /**
+     * Sends this thread's reads to the primary until {@link #clearPin()} is
+     * called.
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void clearPin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED_TO_PRIMARY.get() == null) {
+            Connection replica = replicaSet.getConnection();
+            if (replica != null)
+                return replica;
+        }
+        return super.getConnection();
+    }
+}
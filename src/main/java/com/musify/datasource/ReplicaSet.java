@@ -0,0 +1,221 @@
+package com.musify.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.musify.logging.CustomLogging;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The read replicas listed in {@code musify.datasource.replicas.urls}, each
+ * with its own small read-only pool. A periodic check takes a replica out of
+ * rotation as soon as it fails to answer or falls more than
+ * {@code max-lag-seconds} behind its source, and puts it back after
+ * {@code failback-checks} consecutive good checks so a flapping replica does
+ * not bounce in and out.
+ *
+ * Lag is read from {@code SHOW REPLICA STATUS}; when the server or the
+ * account cannot run it, only liveness is checked.
+ */
+@Component
+public class ReplicaSet implements MeterBinder {
+    @Autowired
+    Environment environment;
+    @Autowired
+    CustomLogging logger;
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${musify.datasource.replicas.username:${spring.datasource.username:}}")
+    private String username;
+    @Value("${musify.datasource.replicas.password:${spring.datasource.password:}}")
+    private String password;
+    @Value("${spring.datasource.driver-class-name:}")
+    private String driverClassName;
+    @Value("${musify.datasource.replicas.pool-size:10}")
+    private int poolSize;
+    @Value("${musify.datasource.replicas.connection-timeout-ms:1000}")
+    private long connectionTimeoutMillis;
+    @Value("${musify.datasource.replicas.max-lag-seconds:5}")
+    private long maxLagSeconds;
+    @Value("${musify.datasource.replicas.failback-checks:3}")
+    private int failbackChecks;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    @PostConstruct
+    void start() {
+        List<String> urls = Binder.get(environment)
+                .bind("musify.datasource.replicas.urls", Bindable.listOf(String.class))
+                .orElse(List.of());
+        for (String url : urls) {
+            if (url.isBlank())
+                continue;
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + replicas.size());
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            if (!driverClassName.isEmpty())
+                pool.setDriverClassName(driverClassName);
+            pool.setMaximumPoolSize(poolSize);
+            pool.setConnectionTimeout(connectionTimeoutMillis);
+            pool.setReadOnly(true);
+            // Start without connections so a replica that is down at boot does not stop the application
+            pool.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(pool::setMetricRegistry);
+            replicas.add(new Replica(pool.getPoolName(), pool));
+        }
+        if (!replicas.isEmpty()) {
+            logger.info(getClass().getSimpleName(), "start", "Routing read-only queries to " + replicas.size()
+                    + " replica(s)");
+            checkHealth();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy)
+                healthy++;
+        }
+        return healthy;
+    }
+
+    /**
+     * Returns a connection from the next healthy replica in round-robin
+     * order, or null when none is available. A replica whose pool fails with
+     * an underlying connection error is taken out of rotation immediately
+     * and the next one is tried; a plain pool timeout is not treated as a
+     * failure.
+     */
+    public Connection getConnection() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy)
+                continue;
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException sqlException) {
+                if (sqlException.getCause() != null)
+                    markDown(replica, sqlException.getCause().getMessage());
+                else
+                    logger.warn(getClass().getSimpleName(), "getConnection",
+                            "Replica " + replica.name + " busy: " + sqlException.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(initialDelayString = "${musify.datasource.replicas.health-check-interval-ms:2000}",
+            fixedDelayString = "${musify.datasource.replicas.health-check-interval-ms:2000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            String problem = probe(replica);
+            if (problem != null) {
+                markDown(replica, problem);
+            } else if (!replica.healthy && ++replica.consecutiveSuccesses >= failbackChecks) {
+                replica.healthy = true;
+                logger.info(getClass().getSimpleName(), "checkHealth", "Replica " + replica.name
+                        + " back in rotation");
+            }
+        }
+    }
+
+    /**
+     * Returns why the replica should not serve reads, or null when it is
+     * healthy.
+     */
+    private String probe(Replica replica) {
+        try (Connection connection = replica.pool.getConnection()) {
+            if (!connection.isValid((int) Math.max(1, connectionTimeoutMillis / 1000)))
+                return "connection is not valid";
+            if (maxLagSeconds <= 0 || !replica.lagCheckSupported)
+                return null;
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (!resultSet.next())
+                    return "not configured as a replica";
+                long lag = resultSet.getLong("Seconds_Behind_Source");
+                if (resultSet.wasNull())
+                    return "replication is stopped";
+                if (lag > maxLagSeconds)
+                    return "lagging " + lag + "s behind the source";
+                return null;
+            } catch (SQLException unsupported) {
+                replica.lagCheckSupported = false;
+                logger.warn(getClass().getSimpleName(), "probe", "Replica " + replica.name
+                        + " cannot report lag, checking liveness only: " + unsupported.getMessage());
+                return null;
+            }
+        } catch (SQLException sqlException) {
+            return sqlException.getMessage();
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        replica.consecutiveSuccesses = 0;
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn(getClass().getSimpleName(), "markDown", "Replica " + replica.name
+                    + " out of rotation: " + reason);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (replicas.isEmpty())
+            return;
+        Gauge.builder("musify.datasource.replicas.healthy", this, ReplicaSet::getHealthyCount)
+                .description("Read replicas currently in rotation")
+                .register(registry);
+    }
+
+    private static class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile boolean healthy = true;
+        private volatile boolean lagCheckSupported = true;
+        private int consecutiveSuccesses;
+
+        private Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
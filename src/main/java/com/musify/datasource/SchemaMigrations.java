@@ -0,0 +1,120 @@
+package com.musify.datasource;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.logging.CustomLogging;
+import com.musify.repositories.PlaylistRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Brings databases created by an older schema.sql up to date. schema.sql
+ * only creates missing tables, so a column or index added to one of its
+ * {@code CREATE TABLE IF NOT EXISTS} statements never reaches a table that
+ * already exists; each change of that kind is repeated here as a step that
+ * first checks the table's metadata and does nothing once applied.
+ *
+ * Runs once schema.sql has, while the context starts, so before any
+ * scheduled task or request touches the tables.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class SchemaMigrations {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    CustomLogging logger;
+
+    @PostConstruct
+    public void migrate() {
+        addColumn("users", "image_variants", "VARCHAR(32)");
+        addColumn("playlist_tracks", "position", "BIGINT NOT NULL DEFAULT 0");
+        if (!hasIndex("playlist_tracks", "idx_playlist_tracks_position")) {
+            backfillPlaylistPositions();
+            jdbcTemplate.execute(
+                    "CREATE INDEX idx_playlist_tracks_position ON playlist_tracks (playlist_id, position, track_id)");
+            logger.info(getClass().getSimpleName(), "migrate", "Added index idx_playlist_tracks_position");
+        }
+        // Jobs from before leases have no owner and count as expired
+        addColumn("import_jobs", "owner_node", "VARCHAR(64)");
+        addColumn("import_jobs", "heartbeat_at", "TIMESTAMP NULL");
+    }
+
+    /**
+     * Gives the tracks of every playlist whose positions are all still 0
+     * the positions appending them in {@code added_at} order would have,
+     * so that playlists keep the order they were shown in before positions
+     * existed. Each playlist is written in its own transaction, and the
+     * index is only created after the last one, so a restart part way
+     * through carries on with the playlists not yet done.
+     */
+    private void backfillPlaylistPositions() {
+        List<Long> playlistIds = jdbcTemplate.queryForList("SELECT playlist_id FROM playlist_tracks"
+                + " GROUP BY playlist_id HAVING MIN(position) = 0 AND MAX(position) = 0", Long.class);
+        for (Long playlistId : playlistIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> trackIds = jdbcTemplate.queryForList("SELECT track_id FROM playlist_tracks"
+                        + " WHERE playlist_id = ? ORDER BY added_at, track_id", Long.class, playlistId);
+                List<Object[]> rows = new ArrayList<>(trackIds.size());
+                for (int i = 0; i < trackIds.size(); i++) {
+                    rows.add(new Object[] { (i + 1) * PlaylistRepository.POSITION_GAP, playlistId, trackIds.get(i) });
+                }
+                jdbcTemplate.batchUpdate("UPDATE playlist_tracks SET position = ? WHERE playlist_id = ? AND track_id = ?",
+                        rows);
+            });
+        }
+        if (!playlistIds.isEmpty())
+            logger.info(getClass().getSimpleName(), "migrate", "Backfilled track positions of "
+                    + playlistIds.size() + " playlists");
+    }
+
+    private void addColumn(String table, String column, String definition) {
+        if (hasColumn(table, column))
+            return;
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        logger.info(getClass().getSimpleName(), "migrate", "Added column " + table + "." + column);
+    }
+
+    boolean hasColumn(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // The names are patterns, where '_' matches any character
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table,
+                    column)) {
+                while (columns.next()) {
+                    if (columns.getString("TABLE_NAME").equalsIgnoreCase(table)
+                            && columns.getString("COLUMN_NAME").equalsIgnoreCase(column))
+                        return true;
+                }
+                return false;
+            }
+        }));
+    }
+
+    boolean hasIndex(String table, String index) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                    false, true)) {
+                while (indexes.next()) {
+                    if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME")))
+                        return true;
+                }
+                return false;
+            }
+        }));
+    }
+}
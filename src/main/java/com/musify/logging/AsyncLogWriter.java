@@ -0,0 +1,227 @@
+package com.musify.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single background thread that drains {@link LogRingBuffer}, keeps the daily
+ * log file channel open, writes in batches and rolls to a new file at
+ * midnight.
+ *
+ * Producers bracket each offer with {@link #enter()} and {@link #exit()}.
+ * The writer parks while the buffer is empty and {@code exit} unparks it, so
+ * an idle writer costs nothing and a record is picked up at once. On
+ * shutdown the writer waits for producers still inside an offer before its
+ * last drain, so no record accepted by the buffer is left in it.
+ */
+final class AsyncLogWriter implements Runnable {
+    private static final DateTimeFormatter LINE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FILE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int FLUSH_BYTES = 64 * 1024;
+
+    private final LogRingBuffer buffer;
+    private final Path directory;
+    private final String baseName;
+    private final String fileExtension;
+    private final int batchSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicInteger producers = new AtomicInteger();
+    private final StringBuilder batch = new StringBuilder(16 * 1024);
+    private final LogRingBuffer.SlotConsumer appender = this::append;
+
+    private volatile boolean running = true;
+    private volatile boolean idle;
+    private volatile Thread thread;
+
+    private int batchRecords;
+    private FileChannel channel;
+    private long nextRollMillis = Long.MIN_VALUE;
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+
+    AsyncLogWriter(LogRingBuffer buffer, Path directory, String baseName, String fileExtension, int batchSize) {
+        this.buffer = buffer;
+        this.directory = directory;
+        this.baseName = baseName;
+        this.fileExtension = fileExtension;
+        this.batchSize = batchSize;
+    }
+
+    void start() {
+        Thread writerThread = new Thread(this, "musify-log-writer");
+        writerThread.setDaemon(true);
+        thread = writerThread;
+        writerThread.start();
+    }
+
+    void shutdown(long timeoutMillis) {
+        running = false;
+        Thread writerThread = thread;
+        if (writerThread == null)
+            return;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void wakeUp() {
+        Thread writerThread = thread;
+        if (writerThread != null)
+            LockSupport.unpark(writerThread);
+    }
+
+    /**
+     * Returns false once the writer is shutting down; otherwise the caller
+     * may offer and must call {@link #exit()} afterwards.
+     */
+    boolean enter() {
+        producers.incrementAndGet();
+        if (running)
+            return true;
+        producers.decrementAndGet();
+        return false;
+    }
+
+    void exit() {
+        producers.decrementAndGet();
+        if (idle)
+            wakeUp();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                int drained = buffer.drain(appender, batchSize);
+                if (drained > 0) {
+                    if (batch.length() >= FLUSH_BYTES)
+                        flushBatch();
+                    continue;
+                }
+                flushBatch();
+                // A producer that offers after this check sees idle and
+                // unparks us; one that offered before it is seen here
+                idle = true;
+                if (running && buffer.size() == 0)
+                    LockSupport.park(this);
+                idle = false;
+            }
+            // Producers that entered before running was cleared may still
+            // be offering; their records are drained below
+            while (producers.get() > 0) {
+                Thread.onSpinWait();
+            }
+            while (buffer.drain(appender, batchSize) > 0) {
+                if (batch.length() >= FLUSH_BYTES)
+                    flushBatch();
+            }
+            flushBatch();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void append(LogRingBuffer.Slot slot) {
+        if (slot.timestamp >= nextRollMillis) {
+            flushBatch();
+            roll(slot.timestamp);
+        }
+
+        batch.append('[').append(formatTimestamp(slot.timestamp)).append("] - ")
+                .append(slot.logType.name()).append(" - ")
+                .append(slot.className).append(" - ")
+                .append(slot.methodName).append(" - ")
+                .append(slot.message).append(System.lineSeparator());
+        batchRecords++;
+    }
+
+    private String formatTimestamp(long timestamp) {
+        long second = timestamp / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone).format(LINE_FORMAT);
+        }
+        return cachedTimestamp;
+    }
+
+    private void roll(long timestamp) {
+        closeChannel();
+        LocalDate day = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+        nextRollMillis = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        Path logFile = directory.resolve(day.format(FILE_FORMAT) + baseName + fileExtension);
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            channel = null;
+        }
+    }
+
+    /**
+     * Writes the batch; its records count as written only once all of it
+     * reached the file, and as failed otherwise.
+     */
+    private void flushBatch() {
+        if (batch.length() == 0)
+            return;
+        ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        int records = batchRecords;
+        batch.setLength(0);
+        batchRecords = 0;
+        if (channel == null) {
+            failedCount.addAndGet(records);
+            return;
+        }
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            writtenCount.addAndGet(records);
+        } catch (IOException e) {
+            failedCount.addAndGet(records);
+            closeChannel();
+            nextRollMillis = Long.MIN_VALUE;
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+        }
+        channel = null;
+    }
+}
@@ -1,25 +1,53 @@
 package com.musify.logging;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
 @Component
-public class CustomLogging {
+public class CustomLogging implements MeterBinder {
     private static final String LOG_DIRECTORY = "logs/";
     private static final String BASE_NAME = "musify_log";
     private static final String FILE_EXTENSION = ".txt";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Value("${musify.logging.buffer-capacity:8192}")
+    private int bufferCapacity;
+    @Value("${musify.logging.batch-size:512}")
+    private int batchSize;
+    @Value("${musify.logging.overflow-policy:DROP_INFO_FIRST}")
+    private OverflowPolicy overflowPolicy;
+    @Value("${musify.logging.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMillis;
+
+    private final LongAdder droppedCount = new LongAdder();
+    private LogRingBuffer buffer;
+    private AsyncLogWriter writer;
+    private int infoHighWaterMark;
+
+    @PostConstruct
+    void start() {
+        buffer = new LogRingBuffer(bufferCapacity);
+        infoHighWaterMark = buffer.capacity() - buffer.capacity() / 4;
+        writer = new AsyncLogWriter(buffer, Paths.get(LOG_DIRECTORY), BASE_NAME, FILE_EXTENSION, batchSize);
+        writer.start();
+    }
 
-    private static enum LogType {
-        INFO,
-        WARN,
-        ERROR
+    @PreDestroy
+    void shutdown() {
+        writer.shutdown(shutdownTimeoutMillis);
     }
 
     public void info(String className, String methodName, String message) {
@@ -34,34 +62,67 @@ public class CustomLogging {
         addLog(LogType.ERROR, className, methodName, message);
     }
 
-    private void addLog(LogType logType, String className, String methodName, String message) {
-        if (className.isBlank() || methodName.isBlank() || message.isBlank())
-            return;
+    public long getWrittenCount() {
+        return writer.getWrittenCount();
+    }
 
-        LocalDateTime dateTime = LocalDateTime.now();
-        DateTimeFormatter dateTextFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        String formattedDateTime = dateTime.format(dateTextFormat);
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
 
-        String logMessage = String.format("[%s] - %s - %s - %s - %s",
-                formattedDateTime, logType.name(), className, methodName, message);
+    public long getFailedCount() {
+        return writer.getFailedCount();
+    }
 
-        try {
-            Files.createDirectories(Paths.get(LOG_DIRECTORY));
-        } catch (IOException e) {
-        }
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("musify.logging.queue.depth", this, CustomLogging::getQueueDepth)
+                .description("Log records waiting for the writer thread")
+                .register(registry);
+        FunctionCounter.builder("musify.logging.records", this, CustomLogging::getWrittenCount)
+                .description("Log records written to disk")
+                .tag("outcome", "written")
+                .register(registry);
+        FunctionCounter.builder("musify.logging.records", this, CustomLogging::getDroppedCount)
+                .description("Log records dropped by the overflow policy")
+                .tag("outcome", "dropped")
+                .register(registry);
+        FunctionCounter.builder("musify.logging.records", this, CustomLogging::getFailedCount)
+                .description("Log records lost because the log file could not be written")
+                .tag("outcome", "failed")
+                .register(registry);
+    }
 
-        DateTimeFormatter fileFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-        String fileTimestamp = dateTime.format(fileFormatter);
+    public int getQueueDepth() {
+        return buffer.size();
+    }
 
-        String logFileName = String.format("%s%s%s",
-                fileTimestamp, BASE_NAME, FILE_EXTENSION);
+    private void addLog(LogType logType, String className, String methodName, String message) {
+        if (className.isBlank() || methodName.isBlank() || message.isBlank())
+            return;
 
-        try (BufferedWriter writer = new BufferedWriter(
-                new FileWriter(LOG_DIRECTORY + logFileName, true))) {
+        if (overflowPolicy == OverflowPolicy.DROP_INFO_FIRST && logType == LogType.INFO
+                && buffer.size() >= infoHighWaterMark) {
+            droppedCount.increment();
+            return;
+        }
 
-            writer.write(logMessage);
-            writer.newLine();
-        } catch (IOException e) {
+        if (!writer.enter()) {
+            droppedCount.increment();
+            return;
+        }
+        try {
+            long timestamp = System.currentTimeMillis();
+            while (!buffer.offer(logType, timestamp, className, methodName, message)) {
+                if (overflowPolicy == OverflowPolicy.DROP || !writer.isRunning()) {
+                    droppedCount.increment();
+                    return;
+                }
+                writer.wakeUp();
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        } finally {
+            writer.exit();
         }
     }
 }
@@ -0,0 +1,92 @@
+package com.musify.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer of pre-allocated log
+ * slots. Producers claim a slot with a single CAS and copy references into it,
+ * so enqueueing a record allocates nothing. Only the writer thread drains.
+ */
+final class LogRingBuffer {
+
+    static final class Slot {
+        volatile long sequence;
+        LogType logType;
+        long timestamp;
+        String className;
+        String methodName;
+        String message;
+    }
+
+    interface SlotConsumer {
+        void accept(Slot slot);
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    LogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            Slot slot = new Slot();
+            slot.sequence = i;
+            slots[i] = slot;
+        }
+        mask = capacity - 1;
+    }
+
+    boolean offer(LogType logType, long timestamp, String className, String methodName, String message) {
+        long position = tail.get();
+        while (true) {
+            Slot slot = slots[(int) (position & mask)];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.logType = logType;
+                    slot.timestamp = timestamp;
+                    slot.className = className;
+                    slot.methodName = methodName;
+                    slot.message = message;
+                    slot.sequence = position + 1;
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    int drain(SlotConsumer consumer, int maxRecords) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxRecords) {
+            Slot slot = slots[(int) (position & mask)];
+            if (slot.sequence != position + 1)
+                break;
+            consumer.accept(slot);
+            slot.className = null;
+            slot.methodName = null;
+            slot.message = null;
+            slot.sequence = position + slots.length;
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,7 @@
+package com.musify.logging;
+
+public enum LogType {
+    INFO,
+    WARN,
+    ERROR
+}
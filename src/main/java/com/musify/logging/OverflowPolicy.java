@@ -0,0 +1,16 @@
+package com.musify.logging;
+
+/**
+ * What a request thread does when the log ring buffer has no free slot.
+ */
+public enum OverflowPolicy {
+    /** Wait until the writer thread frees a slot. Nothing is lost. */
+    BLOCK,
+    /** Discard the record and count it as dropped. */
+    DROP,
+    /**
+     * Discard INFO records once the buffer is three quarters full so that
+     * WARN and ERROR keep the remaining headroom; those block when it is full.
+     */
+    DROP_INFO_FIRST
+}
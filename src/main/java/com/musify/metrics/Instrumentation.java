@@ -0,0 +1,140 @@
+package com.musify.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Shared access to the application's hot-path meters. Meters are resolved
+ * once and cached by name, so recording costs a map lookup instead of a
+ * registry search.
+ *
+ * With {@code musify.metrics.sample-rate} below 1.0 only that fraction of
+ * calls is timed; the rest skip the clock reads and histogram update. Each
+ * timer comes with a counter of all calls ({@code musify.repository.queries},
+ * {@code musify.search.queries}), which stays exact, so rates are read from
+ * the counter and latencies from the timer.
+ */
+@Component
+public class Instrumentation {
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${musify.metrics.sample-rate:1.0}")
+    private double sampleRate;
+
+    private final Map<String, SampledTimer> queryTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> importRowCounters = new ConcurrentHashMap<>();
+    private final Map<String, SampledTimer> searchTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> admissionCounters = new ConcurrentHashMap<>();
+    private Timer imageUploadTimer;
+    private DistributionSummary imageUploadBytes;
+
+    private static final class SampledTimer {
+        final Counter calls;
+        final Timer timer;
+
+        SampledTimer(Counter calls, Timer timer) {
+            this.calls = calls;
+            this.timer = timer;
+        }
+    }
+
+    public <T> T timeQuery(String query, Supplier<T> work) {
+        SampledTimer meters = queryTimers.computeIfAbsent(query, name -> new SampledTimer(
+                Counter.builder("musify.repository.queries")
+                        .description("Repository queries, timed or not")
+                        .tag("query", name)
+                        .register(meterRegistry),
+                Timer.builder("musify.repository.query")
+                        .description("Repository query latency, of the sampled queries")
+                        .tag("query", name)
+                        .register(meterRegistry)));
+        return time(meters, work);
+    }
+
+    public void timeQuery(String query, Runnable work) {
+        timeQuery(query, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T timeSearch(String type, Supplier<T> work) {
+        SampledTimer meters = searchTimers.computeIfAbsent(type, name -> new SampledTimer(
+                Counter.builder("musify.search.queries")
+                        .description("Search index queries, timed or not")
+                        .tag("type", name)
+                        .register(meterRegistry),
+                Timer.builder("musify.search.query")
+                        .description("Search index query latency, of the sampled queries")
+                        .tag("type", name)
+                        .register(meterRegistry)));
+        return time(meters, work);
+    }
+
+    private <T> T time(SampledTimer meters, Supplier<T> work) {
+        meters.calls.increment();
+        if (!isSampled())
+            return work.get();
+
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            meters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void countImportRows(String outcome, long rows) {
+        if (rows == 0)
+            return;
+        importRowCounters.computeIfAbsent(outcome, name -> Counter.builder("musify.import.rows")
+                .description("CSV import rows by outcome")
+                .baseUnit("rows")
+                .tag("outcome", name)
+                .register(meterRegistry))
+                .increment(rows);
+    }
+
+    public void countAdmission(String outcome) {
+        admissionCounters.computeIfAbsent(outcome, name -> Counter.builder("musify.admission.requests")
+                .description("API requests by admission outcome")
+                .tag("outcome", name)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        imageUploadTimer = Timer.builder("musify.image.upload")
+                .description("Profile picture upload latency")
+                .register(meterRegistry);
+        imageUploadBytes = DistributionSummary.builder("musify.image.upload.size")
+                .description("Profile picture upload size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void recordImageUpload(long bytes, long elapsedNanos) {
+        imageUploadTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        imageUploadBytes.record(bytes);
+    }
+
+    public boolean isSampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
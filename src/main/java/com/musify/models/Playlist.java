@@ -0,0 +1,67 @@
+package com.musify.models;
+
+import java.time.LocalDateTime;
+
+public class Playlist {
+    private Long id;
+    private String name;
+    private Long userId;
+    private long trackCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public Playlist() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Number of tracks in the playlist, filled in by the queries that count
+     * them.
+     */
+    public long getTrackCount() {
+        return trackCount;
+    }
+
+    public void setTrackCount(long trackCount) {
+        this.trackCount = trackCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.musify.models;
+
+import java.time.LocalDateTime;
+
+public class PlaylistTrack {
+    private Long playlistId;
+    private Track track;
+    private LocalDateTime addedAt;
+    private long position;
+
+    public PlaylistTrack() {
+    }
+
+    public Long getPlaylistId() {
+        return playlistId;
+    }
+
+    public void setPlaylistId(Long playlistId) {
+        this.playlistId = playlistId;
+    }
+
+    public Track getTrack() {
+        return track;
+    }
+
+    public void setTrack(Track track) {
+        this.track = track;
+    }
+
+    public LocalDateTime getAddedAt() {
+        return addedAt;
+    }
+
+    public void setAddedAt(LocalDateTime addedAt) {
+        this.addedAt = addedAt;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+}
@@ -7,6 +7,7 @@ public class User {
     private String username;
     private String passwordHash;
     private String imagePath;
+    private String imageVariants;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -52,6 +53,18 @@ public class User {
         this.imagePath = imagePath;
     }
 
+    /**
+     * Comma separated sizes of the generated image variants. Null while they
+     * are pending, empty when the image could not be resized.
+     */
+    public String getImageVariants() {
+        return imageVariants;
+    }
+
+    public void setImageVariants(String imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,81 @@
+package com.musify.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the {@code user_changes} outbox: a snapshot of the user as a
+ * write left it. {@code seq} is null until the relay sequences the row.
+ */
+public class UserChange {
+    public static final String TYPE_CREATED = "CREATED";
+    public static final String TYPE_UPDATED = "UPDATED";
+    public static final String TYPE_IMAGE_UPDATED = "IMAGE_UPDATED";
+    public static final String TYPE_DELETED = "DELETED";
+
+    private long seq;
+    private String type;
+    private Long userId;
+    private String username;
+    private String imagePath;
+    private LocalDateTime userUpdatedAt;
+    private LocalDateTime changedAt;
+
+    public UserChange() {
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public void setImagePath(String imagePath) {
+        this.imagePath = imagePath;
+    }
+
+    public LocalDateTime getUserUpdatedAt() {
+        return userUpdatedAt;
+    }
+
+    public void setUserUpdatedAt(LocalDateTime userUpdatedAt) {
+        this.userUpdatedAt = userUpdatedAt;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.musify.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria a bulk delete selects users by. Criteria that are null do not
+ * restrict the selection, so an empty filter matches every user.
+ */
+public class UserFilter {
+    private String usernamePrefix;
+    private LocalDateTime createdBefore;
+    private LocalDateTime updatedBefore;
+
+    public UserFilter() {
+    }
+
+    public UserFilter(String usernamePrefix, LocalDateTime createdBefore, LocalDateTime updatedBefore) {
+        this.usernamePrefix = usernamePrefix;
+        this.createdBefore = createdBefore;
+        this.updatedBefore = updatedBefore;
+    }
+
+    public String getUsernamePrefix() {
+        return usernamePrefix;
+    }
+
+    public void setUsernamePrefix(String usernamePrefix) {
+        this.usernamePrefix = usernamePrefix;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    public LocalDateTime getUpdatedBefore() {
+        return updatedBefore;
+    }
+
+    public void setUpdatedBefore(LocalDateTime updatedBefore) {
+        this.updatedBefore = updatedBefore;
+    }
+}
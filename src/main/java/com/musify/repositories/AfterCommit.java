@@ -0,0 +1,31 @@
+package com.musify.repositories;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates of in-memory state derived from the tables (the user
+ * cache, the username filter, the search index) until the write they follow
+ * has committed. Evicting before the commit lets a concurrent reader load
+ * and cache the old row again, and indexing a write that is rolled back
+ * leaves a name behind that no row has. Outside a transaction the write is
+ * already committed, so the action runs at once.
+ */
+final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package com.musify.repositories;
+
+import com.musify.metrics.Instrumentation;
+import com.musify.models.Album;
+import com.musify.models.Track;
+import com.musify.search.SearchIndex;
+import com.musify.search.SearchType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Albums and tracks. The column lists and mappers here are shared with
+ * {@link PlaylistRepository}, whose queries join both tables.
+ */
+@Repository
+public class CatalogRepository {
+    /**
+     * Track columns (alias {@code t}) in the order {@link #mapTrack} reads
+     * them.
+     */
+    static final String TRACK_COLUMNS = "t.id, t.title, t.artist, t.album, t.duration, t.created_at, t.updated_at";
+    static final int TRACK_COLUMN_COUNT = 7;
+    /**
+     * Album columns (alias {@code a}) in the order {@link #mapAlbum} reads
+     * them.
+     */
+    static final String ALBUM_COLUMNS = "a.id, a.title, a.artist, a.release_date, a.created_at, a.updated_at";
+    private static final int MIN_IN_LIST_SIZE = 8;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private Instrumentation instrumentation;
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Value("${musify.users.stream-fetch-size:-2147483648}")
+    private int streamFetchSize;
+
+    /**
+     * Reads a track starting at {@code column}, with its album from the
+     * columns that follow when the query joined {@link #ALBUM_COLUMNS}.
+     */
+    static Track mapTrack(ResultSet rs, int column, boolean withAlbum) throws SQLException {
+        Track track = new Track();
+        track.setId(rs.getLong(column));
+        track.setTitle(rs.getString(column + 1));
+        track.setArtist(rs.getString(column + 2));
+        long albumId = rs.getLong(column + 3);
+        track.setAlbumId(rs.wasNull() ? null : albumId);
+        track.setDuration(rs.getInt(column + 4));
+        track.setCreatedAt(rs.getTimestamp(column + 5).toLocalDateTime());
+        track.setUpdatedAt(rs.getTimestamp(column + 6).toLocalDateTime());
+        if (withAlbum)
+            track.setAlbum(mapAlbum(rs, column + TRACK_COLUMN_COUNT));
+        return track;
+    }
+
+    /**
+     * Reads an album starting at {@code column}, or returns null when the
+     * row came from an outer join that found none.
+     */
+    static Album mapAlbum(ResultSet rs, int column) throws SQLException {
+        long id = rs.getLong(column);
+        if (rs.wasNull())
+            return null;
+        Album album = new Album();
+        album.setId(id);
+        album.setTitle(rs.getString(column + 1));
+        album.setArtist(rs.getString(column + 2));
+        Date releaseDate = rs.getDate(column + 3);
+        album.setReleaseDate(releaseDate == null ? null : releaseDate.toLocalDate());
+        album.setCreatedAt(rs.getTimestamp(column + 4).toLocalDateTime());
+        album.setUpdatedAt(rs.getTimestamp(column + 5).toLocalDateTime());
+        return album;
+    }
+
+    public Album createAlbum(Album album) {
+        String sql = "INSERT INTO albums (title, artist, release_date, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+        LocalDateTime now = currentTimestamp();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        instrumentation.timeQuery("createAlbum", () -> jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] { "id" });
+            ps.setString(1, album.getTitle());
+            ps.setString(2, album.getArtist());
+            ps.setDate(3, album.getReleaseDate() == null ? null : Date.valueOf(album.getReleaseDate()));
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            ps.setTimestamp(5, Timestamp.valueOf(now));
+            return ps;
+        }, keyHolder));
+        album.setId(keyHolder.getKey().longValue());
+        album.setCreatedAt(now);
+        album.setUpdatedAt(now);
+        AfterCommit.run(() -> searchIndex.index(SearchType.ALBUM, album.getId(), album.getTitle(),
+                album.getArtist()));
+        return album;
+    }
+
+    public Optional<Album> findAlbumById(Long id) {
+        String sql = "SELECT " + ALBUM_COLUMNS + " FROM albums a WHERE a.id = ?";
+        List<Album> albums = instrumentation.timeQuery("findAlbumById",
+                () -> jdbcTemplate.query(sql, (rs, rowNum) -> mapAlbum(rs, 1), id));
+        return albums.isEmpty() ? Optional.empty() : Optional.of(albums.get(0));
+    }
+
+    /**
+     * Inserts the track and returns it as stored. A missing album surfaces
+     * as a {@link org.springframework.dao.DataIntegrityViolationException}
+     * from the foreign key.
+     */
+    public Track createTrack(Track track) {
+        String sql = "INSERT INTO tracks (title, artist, album, duration, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+        LocalDateTime now = currentTimestamp();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        instrumentation.timeQuery("createTrack", () -> jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] { "id" });
+            ps.setString(1, track.getTitle());
+            ps.setString(2, track.getArtist());
+            if (track.getAlbumId() == null)
+                ps.setNull(3, Types.BIGINT);
+            else
+                ps.setLong(3, track.getAlbumId());
+            ps.setInt(4, track.getDuration());
+            ps.setTimestamp(5, Timestamp.valueOf(now));
+            ps.setTimestamp(6, Timestamp.valueOf(now));
+            return ps;
+        }, keyHolder));
+        track.setId(keyHolder.getKey().longValue());
+        track.setCreatedAt(now);
+        track.setUpdatedAt(now);
+        AfterCommit.run(() -> searchIndex.index(SearchType.TRACK, track.getId(), track.getTitle(),
+                track.getArtist()));
+        return track;
+    }
+
+    public Optional<Track> findTrackById(Long id) {
+        String sql = "SELECT " + TRACK_COLUMNS + ", " + ALBUM_COLUMNS
+                + " FROM tracks t LEFT JOIN albums a ON a.id = t.album WHERE t.id = ?";
+        List<Track> tracks = instrumentation.timeQuery("findTrackById",
+                () -> jdbcTemplate.query(sql, (rs, rowNum) -> mapTrack(rs, 1, true), id));
+        return tracks.isEmpty() ? Optional.empty() : Optional.of(tracks.get(0));
+    }
+
+    /**
+     * Passes the id, title and artist of every album after {@code afterId}
+     * to {@code sink}, in id order.
+     */
+    public void streamAlbumsForSearch(long afterId, SearchIndex.DocumentSink sink) {
+        streamForSearch("streamAlbumsForSearch", "SELECT id, title, artist FROM albums WHERE id > ? ORDER BY id",
+                afterId, sink);
+    }
+
+    /**
+     * Passes the id, title and artist of every track after {@code afterId}
+     * to {@code sink}, in id order.
+     */
+    public void streamTracksForSearch(long afterId, SearchIndex.DocumentSink sink) {
+        streamForSearch("streamTracksForSearch", "SELECT id, title, artist FROM tracks WHERE id > ? ORDER BY id",
+                afterId, sink);
+    }
+
+    private void streamForSearch(String query, String sql, long afterId, SearchIndex.DocumentSink sink) {
+        instrumentation.timeQuery(query, () -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            ps.setLong(1, afterId);
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(rs.getLong(1), rs.getString(2), rs.getString(3))));
+    }
+
+    /**
+     * Returns which of {@code ids} are tracks. The IN list is padded to the
+     * next power of two like {@link UserRepository#findExistingUsernames}.
+     */
+    public Set<Long> findExistingTrackIds(Collection<Long> ids) {
+        if (ids.isEmpty())
+            return Set.of();
+        int size = Math.max(MIN_IN_LIST_SIZE, Integer.highestOneBit(ids.size() - 1) << 1);
+        Object[] params = ids.toArray(new Object[size]);
+        Arrays.fill(params, ids.size(), size, params[ids.size() - 1]);
+        String placeholders = String.join(",", Collections.nCopies(size, "?"));
+        String sql = "SELECT id FROM tracks WHERE id IN (" + placeholders + ")";
+        List<Long> existing = instrumentation.timeQuery("findExistingTrackIds",
+                () -> jdbcTemplate.queryForList(sql, Long.class, params));
+        return new HashSet<>(existing);
+    }
+
+    /**
+     * TIMESTAMP columns keep whole seconds, so the value handed back to
+     * callers is truncated to match what MySQL stores.
+     */
+    private static LocalDateTime currentTimestamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+}
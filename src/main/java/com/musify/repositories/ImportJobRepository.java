@@ -0,0 +1,168 @@
+package com.musify.repositories;
+
+import com.musify.DTOs.UserController.UserImportRowDTO;
+import com.musify.models.ImportJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class ImportJobRepository {
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static class CustomMapper implements RowMapper<ImportJob> {
+        @Override
+        public ImportJob mapRow(java.sql.ResultSet rs, int rowNum) throws java.sql.SQLException {
+            ImportJob job = new ImportJob();
+            job.setId(rs.getString("id"));
+            job.setStatus(rs.getString("status"));
+            job.setFilePath(rs.getString("file_path"));
+            job.setFileSize(rs.getLong("file_size"));
+            job.setCommittedRow(rs.getLong("committed_row"));
+            job.setCreatedCount(rs.getLong("created_count"));
+            job.setSkippedCount(rs.getLong("skipped_count"));
+            job.setFailedCount(rs.getLong("failed_count"));
+            job.setErrorMessage(rs.getString("error_message"));
+            job.setStartedAt(toLocalDateTime(rs.getTimestamp("started_at")));
+            job.setFinishedAt(toLocalDateTime(rs.getTimestamp("finished_at")));
+            job.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+            job.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+            job.setOwnerNode(rs.getString("owner_node"));
+            job.setHeartbeatAt(toLocalDateTime(rs.getTimestamp("heartbeat_at")));
+            return job;
+        }
+
+        private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+    }
+
+    private final RowMapper<ImportJob> importJobRowMapper = new CustomMapper();
+
+    public int create(ImportJob job) {
+        String sql = "INSERT INTO import_jobs (id, status, file_path, file_size, owner_node, heartbeat_at) VALUES (?, ?, ?, ?, ?, ?)";
+        return jdbcTemplate.update(sql, job.getId(), job.getStatus(), job.getFilePath(), job.getFileSize(),
+                job.getOwnerNode(), Timestamp.valueOf(job.getHeartbeatAt()));
+    }
+
+    public int deleteById(String id) {
+        String sql = "DELETE FROM import_jobs WHERE id = ?";
+        return jdbcTemplate.update(sql, id);
+    }
+
+    public Optional<ImportJob> findById(String id) {
+        String sql = "SELECT * FROM import_jobs WHERE id = ?";
+        List<ImportJob> jobs = jdbcTemplate.query(sql, importJobRowMapper, id);
+        return jobs.isEmpty() ? Optional.empty() : Optional.of(jobs.get(0));
+    }
+
+    public List<ImportJob> findByStatusIn(String... statuses) {
+        String placeholders = String.join(",", Collections.nCopies(statuses.length, "?"));
+        String sql = "SELECT * FROM import_jobs WHERE status IN (" + placeholders + ") ORDER BY created_at";
+        return jdbcTemplate.query(sql, importJobRowMapper, (Object[]) statuses);
+    }
+
+    /**
+     * Makes {@code ownerNode} the owner of the unfinished job, provided it
+     * already is or the current owner's lease ran out before
+     * {@code expiredBefore}. Returns 0 when another node holds the job or it
+     * has finished.
+     */
+    public int claim(String id, String ownerNode, LocalDateTime now, LocalDateTime expiredBefore) {
+        String sql = "UPDATE import_jobs SET owner_node = ?, heartbeat_at = ? WHERE id = ? AND status IN (?, ?)"
+                + " AND (owner_node = ? OR owner_node IS NULL OR heartbeat_at IS NULL OR heartbeat_at < ?)";
+        return jdbcTemplate.update(sql, ownerNode, Timestamp.valueOf(now), id, ImportJob.STATUS_QUEUED,
+                ImportJob.STATUS_RUNNING, ownerNode, Timestamp.valueOf(expiredBefore));
+    }
+
+    /**
+     * Extends the owner's lease on the unfinished job. Returns 0 when the job
+     * was taken over by another node or finished, e.g. cancelled through
+     * another node.
+     */
+    public int renewLease(String id, String ownerNode, LocalDateTime now) {
+        String sql = "UPDATE import_jobs SET heartbeat_at = ? WHERE id = ? AND owner_node = ? AND status IN (?, ?)";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(now), id, ownerNode, ImportJob.STATUS_QUEUED,
+                ImportJob.STATUS_RUNNING);
+    }
+
+    public int markRunning(String id, String ownerNode) {
+        String sql = "UPDATE import_jobs SET status = ?, started_at = COALESCE(started_at, CURRENT_TIMESTAMP)"
+                + " WHERE id = ? AND owner_node = ? AND status IN (?, ?)";
+        return jdbcTemplate.update(sql, ImportJob.STATUS_RUNNING, id, ownerNode, ImportJob.STATUS_QUEUED,
+                ImportJob.STATUS_RUNNING);
+    }
+
+    public int updateProgress(String id, String ownerNode, long committedRow, long createdCount, long skippedCount,
+            long failedCount) {
+        String sql = "UPDATE import_jobs SET committed_row = ?, created_count = ?, skipped_count = ?, failed_count = ?"
+                + " WHERE id = ? AND owner_node = ? AND status = ?";
+        return jdbcTemplate.update(sql, committedRow, createdCount, skippedCount, failedCount, id, ownerNode,
+                ImportJob.STATUS_RUNNING);
+    }
+
+    public int markFinished(String id, String status, String errorMessage) {
+        String sql = "UPDATE import_jobs SET status = ?, error_message = ?, finished_at = CURRENT_TIMESTAMP WHERE id = ?";
+        return jdbcTemplate.update(sql, status, truncate(errorMessage), id);
+    }
+
+    /**
+     * Finishes the job only while {@code ownerNode} still holds it.
+     */
+    public int markFinished(String id, String ownerNode, String status, String errorMessage) {
+        String sql = "UPDATE import_jobs SET status = ?, error_message = ?, finished_at = CURRENT_TIMESTAMP"
+                + " WHERE id = ? AND owner_node = ? AND status IN (?, ?)";
+        return jdbcTemplate.update(sql, status, truncate(errorMessage), id, ownerNode, ImportJob.STATUS_QUEUED,
+                ImportJob.STATUS_RUNNING);
+    }
+
+    public void addRows(String jobId, List<UserImportRowDTO> rows) {
+        if (rows.isEmpty())
+            return;
+        String sql = "INSERT IGNORE INTO import_job_rows (job_id, line_number, username, status, reason) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                UserImportRowDTO row = rows.get(i);
+                ps.setString(1, jobId);
+                ps.setLong(2, row.getRowNumber());
+                ps.setString(3, truncate(row.getUsername()));
+                ps.setString(4, row.getStatus());
+                ps.setString(5, truncate(row.getReason()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    public List<UserImportRowDTO> findRows(String jobId, int limit) {
+        String sql = "SELECT line_number, username, status, reason FROM import_job_rows WHERE job_id = ? ORDER BY line_number LIMIT ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new UserImportRowDTO(
+                rs.getLong("line_number"),
+                rs.getString("username"),
+                rs.getString("status"),
+                rs.getString("reason")), jobId, limit);
+    }
+
+    private static String truncate(String text) {
+        if (text == null || text.length() <= MAX_TEXT_LENGTH)
+            return text;
+        return text.substring(0, MAX_TEXT_LENGTH);
+    }
+}
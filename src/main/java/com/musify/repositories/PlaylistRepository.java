@@ -0,0 +1,293 @@
+package com.musify.repositories;
+
+import com.musify.metrics.Instrumentation;
+import com.musify.models.Playlist;
+import com.musify.models.PlaylistTrack;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Playlists and their tracks. Every read returns tracks joined with their
+ * albums in the same statement, and previews for a page of playlists come
+ * from a single statement, so the number of queries for a page does not
+ * depend on how many playlists or tracks it holds.
+ *
+ * Tracks are ordered by {@code (position, track_id)}; pages continue after
+ * the last pair seen rather than at an offset, which the
+ * {@code (playlist_id, position, track_id)} index serves as a range scan.
+ * Positions are spaced {@link #POSITION_GAP} apart when appended, so a
+ * track can usually be moved by rewriting its own position only.
+ *
+ * Every write to a playlist's tracks also advances the playlist's
+ * {@code updated_at}, which editors use as a version; see {@link #touch}.
+ */
+@Repository
+public class PlaylistRepository {
+    private static final String PLAYLIST_COLUMNS = "p.id, p.name, p.user_id, p.created_at, p.updated_at, "
+            + "(SELECT COUNT(*) FROM playlist_tracks c WHERE c.playlist_id = p.id)";
+    private static final String PLAYLIST_TRACK_COLUMNS = "pt.playlist_id, pt.added_at, pt.position, "
+            + CatalogRepository.TRACK_COLUMNS + ", " + CatalogRepository.ALBUM_COLUMNS;
+    private static final String PLAYLIST_TRACK_JOINS = " JOIN tracks t ON t.id = pt.track_id"
+            + " LEFT JOIN albums a ON a.id = t.album";
+    private static final int MIN_PREVIEW_BRANCHES = 8;
+    public static final long POSITION_GAP = 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private Instrumentation instrumentation;
+
+    @Value("${musify.users.stream-fetch-size:-2147483648}")
+    private int streamFetchSize;
+
+    static class PlaylistMapper implements RowMapper<Playlist> {
+        @Override
+        public Playlist mapRow(ResultSet rs, int rowNum) throws java.sql.SQLException {
+            Playlist playlist = new Playlist();
+            playlist.setId(rs.getLong(1));
+            playlist.setName(rs.getString(2));
+            long userId = rs.getLong(3);
+            playlist.setUserId(rs.wasNull() ? null : userId);
+            playlist.setCreatedAt(rs.getTimestamp(4).toLocalDateTime());
+            playlist.setUpdatedAt(rs.getTimestamp(5).toLocalDateTime());
+            playlist.setTrackCount(rs.getLong(6));
+            return playlist;
+        }
+    }
+
+    static class PlaylistTrackMapper implements RowMapper<PlaylistTrack> {
+        @Override
+        public PlaylistTrack mapRow(ResultSet rs, int rowNum) throws java.sql.SQLException {
+            PlaylistTrack playlistTrack = new PlaylistTrack();
+            playlistTrack.setPlaylistId(rs.getLong(1));
+            playlistTrack.setAddedAt(rs.getTimestamp(2).toLocalDateTime());
+            playlistTrack.setPosition(rs.getLong(3));
+            playlistTrack.setTrack(CatalogRepository.mapTrack(rs, 4, true));
+            return playlistTrack;
+        }
+    }
+
+    private final RowMapper<Playlist> playlistMapper = new PlaylistMapper();
+    private final RowMapper<PlaylistTrack> playlistTrackMapper = new PlaylistTrackMapper();
+
+    public Playlist create(Playlist playlist) {
+        String sql = "INSERT INTO playlists (name, user_id, created_at, updated_at) VALUES (?, ?, ?, ?)";
+        LocalDateTime now = currentTimestamp();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        instrumentation.timeQuery("createPlaylist", () -> jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] { "id" });
+            ps.setString(1, playlist.getName());
+            if (playlist.getUserId() == null)
+                ps.setNull(2, Types.BIGINT);
+            else
+                ps.setLong(2, playlist.getUserId());
+            ps.setTimestamp(3, Timestamp.valueOf(now));
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            return ps;
+        }, keyHolder));
+        playlist.setId(keyHolder.getKey().longValue());
+        playlist.setTrackCount(0);
+        playlist.setCreatedAt(now);
+        playlist.setUpdatedAt(now);
+        return playlist;
+    }
+
+    public Optional<Playlist> findById(Long id) {
+        String sql = "SELECT " + PLAYLIST_COLUMNS + " FROM playlists p WHERE p.id = ?";
+        List<Playlist> playlists = instrumentation.timeQuery("findPlaylistById",
+                () -> jdbcTemplate.query(sql, playlistMapper, id));
+        return playlists.isEmpty() ? Optional.empty() : Optional.of(playlists.get(0));
+    }
+
+    public boolean existsById(Long id) {
+        String sql = "SELECT COUNT(*) FROM playlists WHERE id = ?";
+        Integer count = instrumentation.timeQuery("playlistExists",
+                () -> jdbcTemplate.queryForObject(sql, Integer.class, id));
+        return count != null && count > 0;
+    }
+
+    public List<Playlist> findByUserAfter(Long userId, long afterId, int limit) {
+        String sql = "SELECT " + PLAYLIST_COLUMNS
+                + " FROM playlists p WHERE p.user_id = ? AND p.id > ? ORDER BY p.id LIMIT ?";
+        return instrumentation.timeQuery("findPlaylistsByUser",
+                () -> jdbcTemplate.query(sql, playlistMapper, userId, afterId, limit));
+    }
+
+    /**
+     * Returns the first {@code perPlaylist} tracks of each playlist, ordered
+     * by playlist and then position, in one statement: a {@code UNION ALL}
+     * of one index range scan per playlist, joined once with tracks and
+     * albums. The branch count is padded to a power of two with an id no
+     * playlist has, so only a handful of distinct statements are ever
+     * prepared.
+     */
+    public List<PlaylistTrack> findTrackPreviews(List<Long> playlistIds, int perPlaylist) {
+        if (playlistIds.isEmpty() || perPlaylist <= 0)
+            return List.of();
+        int branches = Math.max(MIN_PREVIEW_BRANCHES, Integer.highestOneBit(playlistIds.size() - 1) << 1);
+        StringBuilder sql = new StringBuilder("SELECT ").append(PLAYLIST_TRACK_COLUMNS).append(" FROM (");
+        List<Object> params = new ArrayList<>(branches * 2);
+        for (int i = 0; i < branches; i++) {
+            if (i > 0)
+                sql.append(" UNION ALL ");
+            sql.append("(SELECT playlist_id, track_id, added_at, position FROM playlist_tracks WHERE playlist_id = ?"
+                    + " ORDER BY position, track_id LIMIT ?)");
+            params.add(i < playlistIds.size() ? playlistIds.get(i) : 0L);
+            params.add(perPlaylist);
+        }
+        sql.append(") pt").append(PLAYLIST_TRACK_JOINS).append(" ORDER BY pt.playlist_id, pt.position, pt.track_id");
+        return instrumentation.timeQuery("findPlaylistTrackPreviews",
+                () -> jdbcTemplate.query(sql.toString(), playlistTrackMapper, params.toArray()));
+    }
+
+    /**
+     * Returns up to {@code limit} tracks positioned after
+     * {@code (afterPosition, afterTrackId)}, or from the start when
+     * {@code afterPosition} is null.
+     */
+    public List<PlaylistTrack> findTracksAfter(Long playlistId, Long afterPosition, long afterTrackId, int limit) {
+        if (afterPosition == null) {
+            String sql = "SELECT " + PLAYLIST_TRACK_COLUMNS + " FROM playlist_tracks pt" + PLAYLIST_TRACK_JOINS
+                    + " WHERE pt.playlist_id = ? ORDER BY pt.position, pt.track_id LIMIT ?";
+            return instrumentation.timeQuery("findPlaylistTracks",
+                    () -> jdbcTemplate.query(sql, playlistTrackMapper, playlistId, limit));
+        }
+        String sql = "SELECT " + PLAYLIST_TRACK_COLUMNS + " FROM playlist_tracks pt" + PLAYLIST_TRACK_JOINS
+                + " WHERE pt.playlist_id = ? AND (pt.position > ? OR (pt.position = ? AND pt.track_id > ?))"
+                + " ORDER BY pt.position, pt.track_id LIMIT ?";
+        return instrumentation.timeQuery("findPlaylistTracksAfter", () -> jdbcTemplate.query(sql,
+                playlistTrackMapper, playlistId, afterPosition, afterPosition, afterTrackId, limit));
+    }
+
+    /**
+     * Returns the playlist's track ids mapped to their positions, in
+     * playlist order.
+     */
+    public LinkedHashMap<Long, Long> findTrackPositions(Long playlistId) {
+        String sql = "SELECT track_id, position FROM playlist_tracks WHERE playlist_id = ? ORDER BY position, track_id";
+        LinkedHashMap<Long, Long> positions = new LinkedHashMap<>();
+        instrumentation.timeQuery("findPlaylistTrackPositions", () -> jdbcTemplate.query(sql,
+                (RowCallbackHandler) rs -> positions.put(rs.getLong(1), rs.getLong(2)), playlistId));
+        return positions;
+    }
+
+    /**
+     * Hands every track of the playlist to {@code consumer} in position
+     * order while reading a forward-only result set.
+     */
+    public void streamTracks(Long playlistId, Consumer<PlaylistTrack> consumer) {
+        String sql = "SELECT " + PLAYLIST_TRACK_COLUMNS + " FROM playlist_tracks pt" + PLAYLIST_TRACK_JOINS
+                + " WHERE pt.playlist_id = ? ORDER BY pt.position, pt.track_id";
+        instrumentation.timeQuery("streamPlaylistTracks", () -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            ps.setLong(1, playlistId);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(playlistTrackMapper.mapRow(rs, rs.getRow()))));
+    }
+
+    /**
+     * Appends the track to the playlist. A track already in the playlist
+     * surfaces as a {@link org.springframework.dao.DuplicateKeyException}
+     * and a missing playlist or track as a
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    public LocalDateTime addTrack(Long playlistId, Long trackId) {
+        String sql = "INSERT INTO playlist_tracks (playlist_id, track_id, added_at, position)"
+                + " SELECT ?, ?, ?, COALESCE(MAX(position), 0) + ? FROM playlist_tracks WHERE playlist_id = ?";
+        LocalDateTime now = currentTimestamp();
+        instrumentation.timeQuery("addPlaylistTrack", () -> jdbcTemplate.update(sql, playlistId, trackId,
+                Timestamp.valueOf(now), POSITION_GAP, playlistId));
+        return now;
+    }
+
+    /**
+     * Writes the given positions in one batch, inserting the tracks that are
+     * not in the playlist yet with {@code addedAt} and moving the ones that
+     * are.
+     */
+    public void upsertTracks(Long playlistId, Map<Long, Long> positions, LocalDateTime addedAt) {
+        if (positions.isEmpty())
+            return;
+        String sql = "INSERT INTO playlist_tracks (playlist_id, track_id, added_at, position) VALUES (?, ?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE position = VALUES(position)";
+        List<Object[]> rows = new ArrayList<>(positions.size());
+        Timestamp added = Timestamp.valueOf(addedAt);
+        for (Map.Entry<Long, Long> entry : positions.entrySet()) {
+            rows.add(new Object[] { playlistId, entry.getKey(), added, entry.getValue() });
+        }
+        instrumentation.timeQuery("upsertPlaylistTracks", () -> jdbcTemplate.batchUpdate(sql, rows));
+    }
+
+    public void removeTracks(Long playlistId, Collection<Long> trackIds) {
+        if (trackIds.isEmpty())
+            return;
+        String sql = "DELETE FROM playlist_tracks WHERE playlist_id = ? AND track_id = ?";
+        List<Object[]> rows = new ArrayList<>(trackIds.size());
+        for (Long trackId : trackIds) {
+            rows.add(new Object[] { playlistId, trackId });
+        }
+        instrumentation.timeQuery("removePlaylistTracks", () -> jdbcTemplate.batchUpdate(sql, rows));
+    }
+
+    /**
+     * Advances the playlist's {@code updated_at} if it still equals
+     * {@code expectedUpdatedAt}, or unconditionally when that is null, and
+     * returns the new value; empty when the playlist does not exist or was
+     * changed since. The new value is at least a second past the old one,
+     * so the version moves even when two edits land within the same second.
+     * The row stays locked until the surrounding transaction ends.
+     */
+    public Optional<LocalDateTime> touch(Long id, LocalDateTime expectedUpdatedAt) {
+        LocalDateTime now = currentTimestamp();
+        if (expectedUpdatedAt == null) {
+            String sql = "UPDATE playlists SET updated_at = GREATEST(?, TIMESTAMPADD(SECOND, 1, updated_at))"
+                    + " WHERE id = ?";
+            int rowsAffected = instrumentation.timeQuery("touchPlaylist",
+                    () -> jdbcTemplate.update(sql, Timestamp.valueOf(now), id));
+            return rowsAffected == 0 ? Optional.empty() : findUpdatedAt(id);
+        }
+        LocalDateTime expected = expectedUpdatedAt.truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime next = now.isAfter(expected) ? now : expected.plusSeconds(1);
+        String sql = "UPDATE playlists SET updated_at = ? WHERE id = ? AND updated_at = ?";
+        int rowsAffected = instrumentation.timeQuery("touchPlaylistIfUnchanged", () -> jdbcTemplate.update(sql,
+                Timestamp.valueOf(next), id, Timestamp.valueOf(expected)));
+        return rowsAffected == 0 ? Optional.empty() : Optional.of(next);
+    }
+
+    public Optional<LocalDateTime> findUpdatedAt(Long id) {
+        String sql = "SELECT updated_at FROM playlists WHERE id = ?";
+        List<Timestamp> updatedAt = instrumentation.timeQuery("findPlaylistUpdatedAt",
+                () -> jdbcTemplate.queryForList(sql, Timestamp.class, id));
+        return updatedAt.isEmpty() ? Optional.empty() : Optional.of(updatedAt.get(0).toLocalDateTime());
+    }
+
+    /**
+     * TIMESTAMP columns keep whole seconds, so the value handed back to
+     * callers is truncated to match what MySQL stores.
+     */
+    private static LocalDateTime currentTimestamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+}
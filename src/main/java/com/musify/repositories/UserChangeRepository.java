@@ -0,0 +1,245 @@
+package com.musify.repositories;
+
+import com.musify.metrics.Instrumentation;
+import com.musify.models.UserChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@code user_changes} outbox and the cursor its relay keeps in
+ * {@code outbox_cursors}.
+ *
+ * Writers append rows inside their own transaction, with no sequence
+ * number; the ids they get from AUTO_INCREMENT are not in commit order. The
+ * relay numbers committed rows itself while holding the cursor row's lock,
+ * so {@code seq} only ever grows in the order rows become visible, and a
+ * reader that has seen everything up to some {@code seq} never misses a row
+ * that commits later.
+ */
+@Repository
+public class UserChangeRepository {
+    static final String CURSOR_NAME = "user_changes";
+    private static final String CHANGE_COLUMNS = "seq, change_type, user_id, username, image_path, user_updated_at, changed_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private Instrumentation instrumentation;
+
+    /**
+     * How far the relay has got: the last sequence number assigned, the
+     * last one handed to the sink and the last one purged.
+     */
+    public static class Cursor {
+        private final long sequenced;
+        private final long published;
+        private final long purged;
+
+        Cursor(long sequenced, long published, long purged) {
+            this.sequenced = sequenced;
+            this.published = published;
+            this.purged = purged;
+        }
+
+        public long getSequenced() {
+            return sequenced;
+        }
+
+        public long getPublished() {
+            return published;
+        }
+
+        public long getPurged() {
+            return purged;
+        }
+    }
+
+    private static class CustomMapper implements RowMapper<UserChange> {
+        @Override
+        public UserChange mapRow(java.sql.ResultSet rs, int rowNum) throws java.sql.SQLException {
+            UserChange change = new UserChange();
+            change.setSeq(rs.getLong(1));
+            change.setType(rs.getString(2));
+            long userId = rs.getLong(3);
+            change.setUserId(rs.wasNull() ? null : userId);
+            change.setUsername(rs.getString(4));
+            change.setImagePath(rs.getString(5));
+            change.setUserUpdatedAt(toLocalDateTime(rs.getTimestamp(6)));
+            change.setChangedAt(toLocalDateTime(rs.getTimestamp(7)));
+            return change;
+        }
+
+        private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+    }
+
+    private final RowMapper<UserChange> userChangeRowMapper = new CustomMapper();
+    private final RowMapper<Cursor> cursorRowMapper = (rs, rowNum) -> new Cursor(rs.getLong(1), rs.getLong(2),
+            rs.getLong(3));
+
+    /**
+     * Records the user's row as it stands in the current transaction, after
+     * the write that changed it. Adds nothing when there is no such user.
+     */
+    public int appendFromUser(String type, Long userId) {
+        String sql = "INSERT INTO user_changes (change_type, user_id, username, image_path, user_updated_at) "
+                + "SELECT ?, id, username, image_path, updated_at FROM users WHERE id = ?";
+        return instrumentation.timeQuery("appendChange", () -> jdbcTemplate.update(sql, type, userId));
+    }
+
+    /**
+     * As {@link #appendFromUser}, for every user with one of the names, in
+     * one statement; batch inserts do not return the ids needed otherwise.
+     */
+    public int appendFromUsernames(String type, Collection<String> usernames) {
+        if (usernames.isEmpty())
+            return 0;
+        Object[] names = UserRepository.paddedInList(usernames);
+        Object[] params = new Object[names.length + 1];
+        params[0] = type;
+        System.arraycopy(names, 0, params, 1, names.length);
+        String placeholders = String.join(",", Collections.nCopies(names.length, "?"));
+        String sql = "INSERT INTO user_changes (change_type, user_id, username, image_path, user_updated_at) "
+                + "SELECT ?, id, username, image_path, updated_at FROM users WHERE username IN (" + placeholders
+                + ") ORDER BY id";
+        return instrumentation.timeQuery("appendChanges", () -> jdbcTemplate.update(sql, params));
+    }
+
+    /**
+     * Records a change with no row left to read, such as a delete; null
+     * {@code userId} when it is not about one user.
+     */
+    public int append(String type, Long userId) {
+        String sql = "INSERT INTO user_changes (change_type, user_id) VALUES (?, ?)";
+        return instrumentation.timeQuery("appendChange", () -> jdbcTemplate.update(sql, type, userId));
+    }
+
+    /**
+     * As {@link #append}, for each of the users, in one batch.
+     */
+    public void appendAll(String type, List<Long> userIds) {
+        if (userIds.isEmpty())
+            return;
+        String sql = "INSERT INTO user_changes (change_type, user_id) VALUES (?, ?)";
+        instrumentation.timeQuery("appendChanges", () -> jdbcTemplate.batchUpdate(sql,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, type);
+                        ps.setLong(2, userIds.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return userIds.size();
+                    }
+                }));
+    }
+
+    public boolean hasUnsequenced() {
+        String sql = "SELECT id FROM user_changes WHERE seq IS NULL LIMIT 1";
+        return !instrumentation.timeQuery("hasUnsequencedChanges",
+                () -> jdbcTemplate.queryForList(sql, Long.class)).isEmpty();
+    }
+
+    public List<Long> findUnsequencedIds(int limit) {
+        String sql = "SELECT id FROM user_changes WHERE seq IS NULL ORDER BY id LIMIT ?";
+        return instrumentation.timeQuery("findUnsequencedChanges",
+                () -> jdbcTemplate.queryForList(sql, Long.class, limit));
+    }
+
+    /**
+     * Numbers the rows {@code firstSeq}, {@code firstSeq + 1} and so on, in
+     * the order given.
+     */
+    public void assignSequence(List<Long> ids, long firstSeq) {
+        String sql = "UPDATE user_changes SET seq = ? WHERE id = ?";
+        instrumentation.timeQuery("assignChangeSequence", () -> jdbcTemplate.batchUpdate(sql,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, firstSeq + i);
+                        ps.setLong(2, ids.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return ids.size();
+                    }
+                }));
+    }
+
+    public List<UserChange> findAfter(long afterSeq, int limit) {
+        String sql = "SELECT " + CHANGE_COLUMNS + " FROM user_changes WHERE seq > ? ORDER BY seq LIMIT ?";
+        return instrumentation.timeQuery("findChangesAfter",
+                () -> jdbcTemplate.query(sql, userChangeRowMapper, afterSeq, limit));
+    }
+
+    /**
+     * Returns the highest {@code seq} among the first {@code limit} rows
+     * after {@code afterSeq} that is not preceded by a row changed at or
+     * after {@code cutoff}, or {@code afterSeq} when there is none.
+     */
+    public long findPurgeableUpTo(long afterSeq, LocalDateTime cutoff, int limit) {
+        String sql = "SELECT seq, changed_at FROM user_changes WHERE seq > ? ORDER BY seq LIMIT ?";
+        long[] upTo = { afterSeq };
+        boolean[] stopped = { false };
+        instrumentation.timeQuery("findPurgeableChanges", () -> jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            if (stopped[0] || !rs.getTimestamp(2).toLocalDateTime().isBefore(cutoff)) {
+                stopped[0] = true;
+                return;
+            }
+            upTo[0] = rs.getLong(1);
+        }, afterSeq, limit));
+        return upTo[0];
+    }
+
+    public int deleteSequencedBetween(long afterSeq, long upToSeq) {
+        String sql = "DELETE FROM user_changes WHERE seq > ? AND seq <= ?";
+        return instrumentation.timeQuery("purgeChanges", () -> jdbcTemplate.update(sql, afterSeq, upToSeq));
+    }
+
+    public Cursor findCursor() {
+        String sql = "SELECT sequenced, published, purged FROM outbox_cursors WHERE name = ?";
+        return instrumentation.timeQuery("findOutboxCursor",
+                () -> jdbcTemplate.queryForObject(sql, cursorRowMapper, CURSOR_NAME));
+    }
+
+    /**
+     * Reads the cursor and locks its row until the transaction ends, which
+     * keeps relays on other nodes out.
+     */
+    public Cursor lockCursor() {
+        String sql = "SELECT sequenced, published, purged FROM outbox_cursors WHERE name = ? FOR UPDATE";
+        return instrumentation.timeQuery("lockOutboxCursor",
+                () -> jdbcTemplate.queryForObject(sql, cursorRowMapper, CURSOR_NAME));
+    }
+
+    public int updateSequenced(long sequenced) {
+        String sql = "UPDATE outbox_cursors SET sequenced = ? WHERE name = ?";
+        return jdbcTemplate.update(sql, sequenced, CURSOR_NAME);
+    }
+
+    public int updatePublished(long published) {
+        String sql = "UPDATE outbox_cursors SET published = ? WHERE name = ?";
+        return jdbcTemplate.update(sql, published, CURSOR_NAME);
+    }
+
+    public int updatePurged(long purged) {
+        String sql = "UPDATE outbox_cursors SET purged = ? WHERE name = ?";
+        return jdbcTemplate.update(sql, purged, CURSOR_NAME);
+    }
+}
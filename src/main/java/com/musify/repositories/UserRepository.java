@@ -1,80 +1,551 @@
 package com.musify.repositories;
 
+import com.musify.cache.UserCache;
+import com.musify.cache.UsernameFilter;
+import com.musify.metrics.Instrumentation;
 import com.musify.models.User;
+import com.musify.models.UserFilter;
+import com.musify.search.SearchIndex;
+import com.musify.search.SearchType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class UserRepository {
+    /**
+     * Column list shared by every query that feeds {@link CustomMapper},
+     * which reads by position in this order. SQL strings built from it are
+     * compile-time constants, so each statement text is identical on every
+     * call and hits the driver's prepared-statement cache.
+     */
+    static final String USER_COLUMNS = "id, username, password_hash, image_path, image_variants, created_at, updated_at";
+    private static final int MIN_IN_LIST_SIZE = 8;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UsernameFilter usernameFilter;
+    @Autowired
+    private SearchIndex searchIndex;
+    @Autowired
+    private Instrumentation instrumentation;
 
-    private static class CustomMapper implements RowMapper<User> {
+    @Value("${musify.users.stream-fetch-size:-2147483648}")
+    private int streamFetchSize;
+
+    static class CustomMapper implements RowMapper<User> {
         @Override
         public User mapRow(java.sql.ResultSet rs, int rowNum) throws java.sql.SQLException {
             User user = new User();
-            user.setId(rs.getLong("id"));
-            user.setUsername(rs.getString("username"));
-            user.setPasswordHash(rs.getString("password_hash"));
-            user.setImagePath(rs.getString("image_path"));
-            user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-            user.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+            user.setId(rs.getLong(1));
+            user.setUsername(rs.getString(2));
+            user.setPasswordHash(rs.getString(3));
+            user.setImagePath(rs.getString(4));
+            user.setImageVariants(rs.getString(5));
+            user.setCreatedAt(rs.getTimestamp(6).toLocalDateTime());
+            user.setUpdatedAt(rs.getTimestamp(7).toLocalDateTime());
             return user;
         }
     }
 
     private final RowMapper<User> userRowMapper = new CustomMapper();
 
-    public int create(User user) {
+    /**
+     * Inserts the user and returns it as stored. The id comes back as a
+     * generated key and both timestamps are written explicitly, so no
+     * follow-up SELECT is needed.
+     */
+    public User create(User user) {
+        String sql = "INSERT INTO users (username, password_hash, image_path, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+        LocalDateTime now = currentTimestamp();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        instrumentation.timeQuery("create", () -> jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] { "id" });
+            ps.setString(1, user.getUsername());
+            ps.setString(2, user.getPasswordHash());
+            ps.setString(3, user.getImagePath());
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            ps.setTimestamp(5, Timestamp.valueOf(now));
+            return ps;
+        }, keyHolder));
+
+        User created = new User(keyHolder.getKey().longValue(), user.getUsername(), user.getPasswordHash(),
+                user.getImagePath());
+        AfterCommit.run(() -> {
+            userCache.invalidateUsername(created.getUsername());
+            usernameFilter.add(created.getUsername());
+            searchIndex.index(SearchType.USER, created.getId(), created.getUsername(), null);
+        });
+        created.setCreatedAt(now);
+        created.setUpdatedAt(now);
+        return created;
+    }
+
+    public int[] createAll(List<User> users) {
         String sql = "INSERT INTO users (username, password_hash, image_path) VALUES (?, ?, ?)";
-        int rowsAffected = jdbcTemplate.update(sql, user.getUsername(), user.getPasswordHash(), user.getImagePath());
+        int[] rowsAffected = instrumentation.timeQuery("createAll", () -> jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                User user = users.get(i);
+                ps.setString(1, user.getUsername());
+                ps.setString(2, user.getPasswordHash());
+                ps.setString(3, user.getImagePath());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        }));
+        List<String> usernames = new ArrayList<>(users.size());
+        for (User user : users) {
+            usernames.add(user.getUsername());
+        }
+        // Batch inserts return no ids, and the search refresh only catches up
+        // from the highest id indexed, which a later single insert can pass
+        Map<Long, String> created = searchIndex.isEnabled() ? findIdsByUsername(usernames) : Map.of();
+        AfterCommit.run(() -> {
+            for (String username : usernames) {
+                userCache.invalidateUsername(username);
+                usernameFilter.add(username);
+            }
+            created.forEach((id, username) -> searchIndex.index(SearchType.USER, id, username, null));
+        });
         return rowsAffected;
     }
 
+    private Map<Long, String> findIdsByUsername(Collection<String> usernames) {
+        if (usernames.isEmpty())
+            return Map.of();
+        Object[] params = paddedInList(usernames);
+        String placeholders = String.join(",", Collections.nCopies(params.length, "?"));
+        String sql = "SELECT id, username FROM users WHERE username IN (" + placeholders + ")";
+        Map<Long, String> ids = new HashMap<>();
+        instrumentation.timeQuery("findIdsByUsername", () -> jdbcTemplate.query(sql,
+                (RowCallbackHandler) rs -> ids.put(rs.getLong(1), rs.getString(2)), params));
+        return ids;
+    }
+
+    /**
+     * Returns the values padded to the next power of two by repeating the
+     * last one, so IN lists built from imports of any chunk size only ever
+     * prepare a handful of distinct statements. Not empty.
+     */
+    static Object[] paddedInList(Collection<?> values) {
+        int size = Math.max(MIN_IN_LIST_SIZE, Integer.highestOneBit(values.size() - 1) << 1);
+        Object[] params = values.toArray(new Object[size]);
+        Arrays.fill(params, values.size(), size, params[values.size() - 1]);
+        return params;
+    }
+
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty())
+            return Set.of();
+        Object[] params = paddedInList(usernames);
+        String placeholders = String.join(",", Collections.nCopies(params.length, "?"));
+        String sql = "SELECT username FROM users WHERE username IN (" + placeholders + ")";
+        List<String> existing = instrumentation.timeQuery("findExistingUsernames",
+                () -> jdbcTemplate.queryForList(sql, String.class, params));
+        return new HashSet<>(existing);
+    }
+
     public Optional<User> findById(Long id) {
-        String sql = "SELECT * FROM users WHERE id = ?";
-        List<User> users = jdbcTemplate.query(sql, userRowMapper, id);
+        return userCache.findById(id, this::queryById);
+    }
+
+    private Optional<User> queryById(Long id) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE id = ?";
+        List<User> users = instrumentation.timeQuery("findById", () -> jdbcTemplate.query(sql, userRowMapper, id));
         Optional<User> result = users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
         return result;
     }
 
+    /**
+     * Reads the users with the given ids in one query, skipping the cache;
+     * ids with no user are left out.
+     */
+    public List<User> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty())
+            return List.of();
+        Object[] params = paddedInList(ids);
+        String placeholders = String.join(",", Collections.nCopies(params.length, "?"));
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE id IN (" + placeholders + ")";
+        return instrumentation.timeQuery("findAllById", () -> jdbcTemplate.query(sql, userRowMapper, params));
+    }
+
+    /**
+     * Reads the users with the given names in one query, skipping the cache;
+     * names with no user are left out.
+     */
+    public List<User> findAllByUsername(Collection<String> usernames) {
+        if (usernames.isEmpty())
+            return List.of();
+        Object[] params = paddedInList(usernames);
+        String placeholders = String.join(",", Collections.nCopies(params.length, "?"));
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE username IN (" + placeholders + ")";
+        return instrumentation.timeQuery("findAllByUsername", () -> jdbcTemplate.query(sql, userRowMapper, params));
+    }
+
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
-        List<User> users = jdbcTemplate.query(sql, userRowMapper, username);
+        return userCache.findByUsername(username, this::queryByUsername);
+    }
+
+    /**
+     * As {@link #findByUsername}, but always from the database, so that a
+     * password changed on another node is never checked against the cached
+     * copy.
+     */
+    public Optional<User> findCredentialsByUsername(String username) {
+        return queryByUsername(username);
+    }
+
+    private Optional<User> queryByUsername(String username) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE username = ?";
+        List<User> users = instrumentation.timeQuery("findByUsername",
+                () -> jdbcTemplate.query(sql, userRowMapper, username));
         Optional<User> result = users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
         return result;
     }
 
-    public List<User> findAll() {
-        String sql = "SELECT * FROM users";
-        List<User> users = jdbcTemplate.query(sql, userRowMapper);
+    public List<User> findPageAfter(long afterId, int limit) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        List<User> users = instrumentation.timeQuery("findPageAfter",
+                () -> jdbcTemplate.query(sql, userRowMapper, afterId, limit));
         return users;
     }
 
-    public int update(User user) {
-        String sql = "UPDATE users SET username = ?, password_hash = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        int rowsAffected = jdbcTemplate.update(sql, user.getUsername(), user.getPasswordHash(), user.getId());
+    /**
+     * Hands every user to {@code consumer} in id order while reading a
+     * forward-only result set, so no list of users is ever materialized.
+     */
+    public void streamAll(Consumer<User> consumer) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users ORDER BY id";
+        instrumentation.timeQuery("streamAll", () -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(userRowMapper.mapRow(rs, rs.getRow()))));
+    }
+
+    public void streamUsernames(Consumer<String> consumer) {
+        String sql = "SELECT username FROM users";
+        instrumentation.timeQuery("streamUsernames", () -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getString(1))));
+    }
+
+    /**
+     * Passes the id and username of every user after {@code afterId} to
+     * {@code sink}, in id order.
+     */
+    public void streamForSearch(long afterId, SearchIndex.DocumentSink sink) {
+        String sql = "SELECT id, username FROM users WHERE id > ? ORDER BY id";
+        instrumentation.timeQuery("streamUsersForSearch", () -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            ps.setLong(1, afterId);
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(rs.getLong(1), rs.getString(2), null)));
+    }
+
+    /**
+     * Returns the user's {@code updated_at} without reading the rest of the
+     * row, from the cache when the user is in it.
+     */
+    public Optional<LocalDateTime> findUpdatedAtById(Long id) {
+        Optional<User> cached = userCache.peekById(id);
+        if (cached.isPresent())
+            return Optional.of(cached.get().getUpdatedAt());
+        return queryUpdatedAtById(id);
+    }
+
+    /**
+     * As {@link #findUpdatedAtById}, but always from the database, for when
+     * a copy cached before another node's write would give the wrong answer.
+     */
+    public Optional<LocalDateTime> queryUpdatedAtById(Long id) {
+        String sql = "SELECT updated_at FROM users WHERE id = ?";
+        List<Timestamp> updatedAt = instrumentation.timeQuery("findUpdatedAtById",
+                () -> jdbcTemplate.queryForList(sql, Timestamp.class, id));
+        return updatedAt.isEmpty() ? Optional.empty() : Optional.of(updatedAt.get(0).toLocalDateTime());
+    }
+
+    /**
+     * Hands the id and {@code updated_at} of up to {@code limit} users after
+     * {@code afterId} to {@code consumer}, in id order, as a cheap stand-in
+     * for {@link #findPageAfter} when only the page's version is needed.
+     */
+    public void findVersionsAfter(long afterId, int limit, VersionConsumer consumer) {
+        String sql = "SELECT id, updated_at FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        instrumentation.timeQuery("findVersionsAfter", () -> jdbcTemplate.query(sql,
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()),
+                afterId, limit));
+    }
+
+    @FunctionalInterface
+    public interface VersionConsumer {
+        void accept(long id, LocalDateTime updatedAt);
+    }
+
+    /**
+     * Updates username and password and returns the stored row, or empty when
+     * no user has that id. Connector/J reports matched rows, so an update
+     * that changes nothing still counts as found.
+     *
+     * {@code updated_at} serves as the user's version, so every write moves
+     * it forward by at least a second even when two land within the same
+     * second. When the user is cached the write is conditional on the cached
+     * version, which tells us the new one and the remaining columns without
+     * reading the row back; if the cached copy turns out stale the row is
+     * updated unconditionally and read back.
+     */
+    public Optional<User> update(User user) {
+        Optional<User> previous = userCache.peekById(user.getId());
+        if (previous.isPresent()) {
+            Optional<User> updated = updateIfVersion(user, List.of(previous.get().getUpdatedAt()));
+            if (updated.isPresent())
+                return updated;
+        }
+
+        String sql = "UPDATE users SET username = ?, password_hash = ?, "
+                + "updated_at = GREATEST(?, TIMESTAMPADD(SECOND, 1, updated_at)) WHERE id = ?";
+        LocalDateTime now = currentTimestamp();
+        int rowsAffected = instrumentation.timeQuery("update", () -> jdbcTemplate.update(sql, user.getUsername(),
+                user.getPasswordHash(), Timestamp.valueOf(now), user.getId()));
+        if (rowsAffected == 0) {
+            // Nothing written; drop what may be a stale copy of a deleted user
+            userCache.invalidateId(user.getId());
+            return Optional.empty();
+        }
+        afterUpdate(user, previous);
+        return queryById(user.getId());
+    }
+
+    /**
+     * Updates username and password only while the user's {@code updated_at}
+     * is one of {@code expectedUpdatedAt}, and returns the stored row; empty
+     * when no user has that id or it has another version.
+     */
+    public Optional<User> updateIfVersion(User user, List<LocalDateTime> expectedUpdatedAt) {
+        if (expectedUpdatedAt.isEmpty())
+            return Optional.empty();
+        LocalDateTime newest = Collections.max(expectedUpdatedAt).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime now = currentTimestamp();
+        LocalDateTime next = now.isAfter(newest) ? now : newest.plusSeconds(1);
+
+        String placeholders = String.join(",", Collections.nCopies(expectedUpdatedAt.size(), "?"));
+        String sql = "UPDATE users SET username = ?, password_hash = ?, updated_at = ? WHERE id = ? AND updated_at IN ("
+                + placeholders + ")";
+        Object[] args = new Object[4 + expectedUpdatedAt.size()];
+        args[0] = user.getUsername();
+        args[1] = user.getPasswordHash();
+        args[2] = Timestamp.valueOf(next);
+        args[3] = user.getId();
+        for (int i = 0; i < expectedUpdatedAt.size(); i++) {
+            args[4 + i] = Timestamp.valueOf(expectedUpdatedAt.get(i));
+        }
+        Optional<User> previous = userCache.peekById(user.getId());
+        int rowsAffected = instrumentation.timeQuery("updateIfVersion", () -> jdbcTemplate.update(sql, args));
+        if (rowsAffected == 0)
+            return Optional.empty();
+        afterUpdate(user, previous);
+
+        // The cached pre-image is the row we replaced when its version was
+        // one we expected; otherwise read the row back
+        if (previous.isEmpty() || !expectedUpdatedAt.contains(previous.get().getUpdatedAt()))
+            return queryById(user.getId());
+
+        User updated = new User(user.getId(), user.getUsername(), user.getPasswordHash(),
+                previous.get().getImagePath());
+        updated.setImageVariants(previous.get().getImageVariants());
+        updated.setCreatedAt(previous.get().getCreatedAt());
+        updated.setUpdatedAt(next);
+        return Optional.of(updated);
+    }
+
+    private void afterUpdate(User user, Optional<User> previous) {
+        Long id = user.getId();
+        String username = user.getUsername();
+        String previousUsername = previous.map(User::getUsername).orElse(null);
+        AfterCommit.run(() -> {
+            userCache.invalidateId(id);
+            userCache.invalidateUsername(username);
+            userCache.invalidateUsername(previousUsername);
+            usernameFilter.add(username);
+            searchIndex.index(SearchType.USER, id, username, null);
+        });
+    }
+
+    /**
+     * Replaces the password hash, unless the password was changed since
+     * {@code expectedHash} was read. Clients never see the hash, so the
+     * user's version stays as it is; assigning {@code updated_at} to itself
+     * keeps its {@code ON UPDATE} clause from moving it.
+     */
+    public int updatePasswordHash(Long id, String expectedHash, String passwordHash) {
+        String sql = "UPDATE users SET password_hash = ?, updated_at = updated_at WHERE id = ? AND password_hash = ?";
+        int rowsAffected = instrumentation.timeQuery("updatePasswordHash",
+                () -> jdbcTemplate.update(sql, passwordHash, id, expectedHash));
+        AfterCommit.run(() -> userCache.invalidateId(id));
         return rowsAffected;
     }
 
-    public int updateWithImage(User user) {
-        String sql = "UPDATE users SET username = ?, password_hash = ?, image_path = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        int rowsAffected = jdbcTemplate.update(sql, user.getUsername(), user.getPasswordHash(), user.getImagePath(), user.getId());
+    public int updateImagePath(Long id, String imagePath) {
+        String sql = "UPDATE users SET image_path = ?, image_variants = NULL, "
+                + "updated_at = GREATEST(?, TIMESTAMPADD(SECOND, 1, updated_at)) WHERE id = ?";
+        LocalDateTime now = currentTimestamp();
+        int rowsAffected = instrumentation.timeQuery("updateImagePath",
+                () -> jdbcTemplate.update(sql, imagePath, Timestamp.valueOf(now), id));
+        AfterCommit.run(() -> userCache.invalidateId(id));
         return rowsAffected;
     }
 
-    public void deleteById(Long id) {
+    /**
+     * Records the generated variants, unless the user's image was replaced
+     * while they were being generated.
+     */
+    public int updateImageVariants(Long id, String imagePath, String imageVariants) {
+        String sql = "UPDATE users SET image_variants = ?, "
+                + "updated_at = GREATEST(?, TIMESTAMPADD(SECOND, 1, updated_at)) WHERE id = ? AND image_path = ?";
+        LocalDateTime now = currentTimestamp();
+        int rowsAffected = instrumentation.timeQuery("updateImageVariants",
+                () -> jdbcTemplate.update(sql, imageVariants, Timestamp.valueOf(now), id, imagePath));
+        AfterCommit.run(() -> userCache.invalidateId(id));
+        return rowsAffected;
+    }
+
+    public List<User> findWithPendingImageVariants(long afterId, int limit) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users"
+                + " WHERE image_path IS NOT NULL AND image_variants IS NULL AND id > ? ORDER BY id LIMIT ?";
+        return instrumentation.timeQuery("findWithPendingImageVariants",
+                () -> jdbcTemplate.query(sql, userRowMapper, afterId, limit));
+    }
+
+    public Set<String> findAllImagePaths() {
+        String sql = "SELECT DISTINCT image_path FROM users WHERE image_path IS NOT NULL";
+        List<String> imagePaths = instrumentation.timeQuery("findAllImagePaths",
+                () -> jdbcTemplate.queryForList(sql, String.class));
+        return new HashSet<>(imagePaths);
+    }
+
+    public int deleteById(Long id) {
         String sql = "DELETE FROM users WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+        int rowsAffected = instrumentation.timeQuery("deleteById", () -> jdbcTemplate.update(sql, id));
+        AfterCommit.run(() -> {
+            userCache.invalidateId(id);
+            searchIndex.remove(SearchType.USER, id);
+        });
+        return rowsAffected;
+    }
+
+    /**
+     * Returns the ids of up to {@code limit} users after {@code afterId} that
+     * match the filter, in id order. Walks the primary key and takes no
+     * locks, so it can run outside a transaction however few rows match.
+     */
+    public List<Long> findIdsMatching(UserFilter filter, long afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        String sql = "SELECT id FROM users WHERE id > ?" + filterCondition(filter, params) + " ORDER BY id LIMIT ?";
+        params.add(limit);
+        return instrumentation.timeQuery("findIdsMatching",
+                () -> jdbcTemplate.queryForList(sql, Long.class, params.toArray()));
+    }
+
+    /**
+     * Locks those of the given users that still match the filter and own no
+     * playlists, and returns their ids; the others cannot be deleted. Must
+     * run in the transaction that deletes them.
+     */
+    public List<Long> lockDeletable(Collection<Long> ids, UserFilter filter) {
+        if (ids.isEmpty())
+            return List.of();
+        Object[] idParams = paddedInList(ids);
+        List<Object> params = new ArrayList<>(Arrays.asList(idParams));
+        String sql = "SELECT id FROM users WHERE id IN (" + String.join(",", Collections.nCopies(idParams.length, "?"))
+                + ")" + filterCondition(filter, params)
+                + " AND NOT EXISTS (SELECT 1 FROM playlists WHERE playlists.user_id = users.id) ORDER BY id FOR UPDATE";
+        return instrumentation.timeQuery("lockDeletable",
+                () -> jdbcTemplate.queryForList(sql, Long.class, params.toArray()));
+    }
+
+    public int deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty())
+            return 0;
+        Object[] params = paddedInList(ids);
+        String sql = "DELETE FROM users WHERE id IN (" + String.join(",", Collections.nCopies(params.length, "?"))
+                + ")";
+        int rowsAffected = instrumentation.timeQuery("deleteAllById", () -> jdbcTemplate.update(sql, params));
+        List<Long> deleted = new ArrayList<>(ids);
+        AfterCommit.run(() -> {
+            for (Long id : deleted) {
+                userCache.invalidateId(id);
+                searchIndex.remove(SearchType.USER, id);
+            }
+        });
+        return rowsAffected;
+    }
+
+    /**
+     * Appends the filter's criteria to a WHERE clause and their values to
+     * {@code params}. A username prefix uses LIKE, with the wildcards in it
+     * escaped.
+     */
+    private static String filterCondition(UserFilter filter, List<Object> params) {
+        StringBuilder condition = new StringBuilder();
+        if (filter.getUsernamePrefix() != null) {
+            condition.append(" AND username LIKE ?");
+            params.add(filter.getUsernamePrefix().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_")
+                    + "%");
+        }
+        if (filter.getCreatedBefore() != null) {
+            condition.append(" AND created_at < ?");
+            params.add(Timestamp.valueOf(filter.getCreatedBefore()));
+        }
+        if (filter.getUpdatedBefore() != null) {
+            condition.append(" AND updated_at < ?");
+            params.add(Timestamp.valueOf(filter.getUpdatedBefore()));
+        }
+        return condition.toString();
     }
 
-    public void deleteAll() {
-        String sql = "DELETE FROM users";
-        jdbcTemplate.update(sql);
+    /**
+     * TIMESTAMP columns keep whole seconds, so the value handed back to
+     * callers is truncated to match what MySQL stores.
+     */
+    private static LocalDateTime currentTimestamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
     }
 }
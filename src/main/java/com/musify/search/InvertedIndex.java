@@ -0,0 +1,304 @@
+package com.musify.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Documents of one {@link SearchType} and the posting lists that find them.
+ *
+ * Every prefix of every token, up to {@code maxPrefixLength} characters, is
+ * a term (edge n-grams), so a typeahead query needs one posting-list lookup
+ * per token and no scan of the term dictionary. A query walks the shortest
+ * of its tokens' lists, merged with the next shortest when it has several,
+ * and checks each candidate against the document's current tokens. That
+ * check also answers queries longer than the indexed prefixes, and skips
+ * ids left behind in other lists when a document changes or goes away;
+ * those are only dropped when a list is compacted or the index is rebuilt.
+ *
+ * Reads share a lock and writes take it exclusively.
+ */
+class InvertedIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final int maxPrefixLength;
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Set<Integer> writtenDuringLoad;
+    private int maxId;
+
+    private static class Document {
+        final String name;
+        final String artist;
+        final String normalizedName;
+        final String[] tokens;
+
+        Document(String name, String artist, String normalizedName, String[] tokens) {
+            this.name = name;
+            this.artist = artist;
+            this.normalizedName = normalizedName;
+            this.tokens = tokens;
+        }
+    }
+
+    InvertedIndex(int maxPrefixLength) {
+        this.maxPrefixLength = maxPrefixLength;
+    }
+
+    /**
+     * Lower-cases the text and strips accents, so that "Beyoncé" is found by
+     * "beyonce".
+     */
+    static String normalize(String text) {
+        if (text == null)
+            return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static String[] tokenize(String normalized) {
+        String trimmed = normalized.strip();
+        if (trimmed.isEmpty())
+            return NO_TOKENS;
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(trimmed)) {
+            if (!token.isEmpty())
+                tokens.add(token);
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    /**
+     * The tokens of the name and artist, plus the name with its separators
+     * removed, so that "johndoe" finds "john_doe".
+     */
+    private static String[] documentTokens(String normalizedName, String artist) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String[] nameTokens = tokenize(normalizedName);
+        for (String token : nameTokens) {
+            tokens.add(token);
+        }
+        if (nameTokens.length > 1)
+            tokens.add(String.join("", nameTokens));
+        for (String token : tokenize(normalize(artist))) {
+            tokens.add(token);
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    private Set<String> terms(String[] tokens) {
+        Set<String> terms = new HashSet<>();
+        for (String token : tokens) {
+            int limit = Math.min(token.length(), maxPrefixLength);
+            for (int length = 1; length <= limit; length++) {
+                terms.add(token.substring(0, length));
+            }
+        }
+        return terms;
+    }
+
+    private String term(String token) {
+        return token.length() > maxPrefixLength ? token.substring(0, maxPrefixLength) : token;
+    }
+
+    /**
+     * Adds or replaces the document.
+     */
+    void put(int id, String name, String artist) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringLoad != null)
+                writtenDuringLoad.add(id);
+            write(id, name, artist);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the document unless {@link #put} or {@link #remove} wrote it since
+     * {@link #startLoad}, so that rows read by a rebuild do not overwrite
+     * newer changes.
+     */
+    void load(int id, String name, String artist) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringLoad == null || !writtenDuringLoad.contains(id))
+                write(id, name, artist);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void startLoad() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(int id, String name, String artist) {
+        String normalizedName = normalize(name);
+        String[] tokens = documentTokens(normalizedName, artist);
+        Document previous = documents.put(id, new Document(name, artist, normalizedName, tokens));
+        Set<String> existing = previous == null ? Set.of() : terms(previous.tokens);
+        for (String term : terms(tokens)) {
+            if (existing.contains(term))
+                continue;
+            PostingList list = postings.computeIfAbsent(term, key -> new PostingList());
+            if (list.add(id))
+                list.compact(candidate -> hasTerm(candidate, term));
+        }
+        maxId = Math.max(maxId, id);
+    }
+
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringLoad != null)
+                writtenDuringLoad.add(id);
+            documents.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean hasTerm(int id, String term) {
+        Document document = documents.get(id);
+        if (document == null)
+            return false;
+        for (String token : document.tokens) {
+            if (token.startsWith(term))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns up to {@code limit} documents that have a token starting with
+     * each token of {@code query}, best first: the whole name matching, then
+     * every query token matching a whole token, then shorter names. Stops
+     * looking after {@code maxCandidates} matches, so very short queries
+     * rank a sample of their matches rather than all of them.
+     */
+    List<SearchHit> search(SearchType type, String query, int limit, int maxCandidates) {
+        String normalizedQuery = normalize(query);
+        String[] queryTokens = tokenize(normalizedQuery);
+        if (queryTokens.length == 0 || limit <= 0)
+            return List.of();
+        String joinedQuery = String.join(" ", queryTokens);
+
+        List<SearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            PostingList shortest = null;
+            for (String token : queryTokens) {
+                PostingList list = postings.get(term(token));
+                if (list == null)
+                    return List.of();
+                if (shortest == null || list.size() < shortest.size())
+                    shortest = list;
+            }
+            // score() rejects the documents missing from the other lists, so
+            // only the shortest one is walked
+            shortest.forEach(id -> {
+                Document document = documents.get(id);
+                if (document == null)
+                    return true;
+                int score = score(document, queryTokens, joinedQuery);
+                if (score >= 0)
+                    hits.add(new SearchHit(type, id, document.name, document.artist, score));
+                return hits.size() < maxCandidates;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingInt(SearchHit::getScore)
+                .thenComparingInt(hit -> hit.getName() == null ? 0 : hit.getName().length())
+                .thenComparingLong(SearchHit::getId));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * Lower is better; -1 when some query token prefixes none of the
+     * document's tokens.
+     */
+    private static int score(Document document, String[] queryTokens, String joinedQuery) {
+        boolean allExact = true;
+        for (String queryToken : queryTokens) {
+            boolean prefix = false;
+            boolean exact = false;
+            for (String token : document.tokens) {
+                if (token.startsWith(queryToken)) {
+                    prefix = true;
+                    if (token.length() == queryToken.length()) {
+                        exact = true;
+                        break;
+                    }
+                }
+            }
+            if (!prefix)
+                return -1;
+            allExact &= exact;
+        }
+        if (document.normalizedName.equals(joinedQuery))
+            return 0;
+        if (document.normalizedName.startsWith(joinedQuery))
+            return allExact ? 1 : 2;
+        return allExact ? 3 : 4;
+    }
+
+    int getMaxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getPostingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.memoryBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
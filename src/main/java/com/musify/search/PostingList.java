@@ -0,0 +1,141 @@
+package com.musify.search;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Sorted document ids for one term, stored as variable-length deltas so that
+ * dense lists cost about a byte per id. Ids arriving in ascending order, as
+ * new rows do, are appended in place; the few that arrive out of order, from
+ * updates of older rows, wait in a small sorted buffer that is merged in once
+ * it fills up.
+ *
+ * Not thread-safe; {@link InvertedIndex} guards every instance with its lock.
+ */
+class PostingList {
+    private static final int PENDING_LIMIT = 32;
+
+    private byte[] data = new byte[4];
+    private int length;
+    private int size;
+    private int last = -1;
+    private int[] pending;
+    private int pendingSize;
+
+    /**
+     * Adds the id and returns true once the out-of-order buffer is full and
+     * the list should be {@link #compact compacted}.
+     */
+    boolean add(int id) {
+        if (id > last) {
+            append(id);
+            return false;
+        }
+        if (id == last)
+            return false;
+        if (pending == null)
+            pending = new int[4];
+        int index = Arrays.binarySearch(pending, 0, pendingSize, id);
+        if (index >= 0)
+            return false;
+        index = -index - 1;
+        if (pendingSize == pending.length)
+            pending = Arrays.copyOf(pending, pendingSize * 2);
+        System.arraycopy(pending, index, pending, index + 1, pendingSize - index);
+        pending[index] = id;
+        pendingSize++;
+        return pendingSize >= PENDING_LIMIT;
+    }
+
+    private void append(int id) {
+        int delta = id - last;
+        if (length + 5 > data.length)
+            data = Arrays.copyOf(data, Math.max(length + 5, data.length + (data.length >> 1)));
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = id;
+        size++;
+    }
+
+    /**
+     * Hands ids to {@code consumer} in ascending order until it returns
+     * false.
+     */
+    void forEach(IntPredicate consumer) {
+        int position = 0;
+        int previous = -1;
+        int current = -1;
+        int decoded = 0;
+        int next = 0;
+        while (current >= 0 || decoded < size || next < pendingSize) {
+            if (current < 0 && decoded < size) {
+                int delta = 0;
+                int shift = 0;
+                byte value;
+                do {
+                    value = data[position++];
+                    delta |= (value & 0x7F) << shift;
+                    shift += 7;
+                } while (value < 0);
+                current = previous + delta;
+                previous = current;
+                decoded++;
+            }
+            int id;
+            if (current >= 0 && (next >= pendingSize || current <= pending[next])) {
+                if (next < pendingSize && current == pending[next])
+                    next++;
+                id = current;
+                current = -1;
+            } else {
+                id = pending[next++];
+            }
+            if (!consumer.test(id))
+                return;
+        }
+    }
+
+    int[] toArray() {
+        int[] ids = new int[size()];
+        int[] count = new int[1];
+        forEach(id -> {
+            ids[count[0]++] = id;
+            return true;
+        });
+        return count[0] == ids.length ? ids : Arrays.copyOf(ids, count[0]);
+    }
+
+    /**
+     * Rewrites the list with the buffer merged in, keeping only the ids
+     * {@code live} accepts.
+     */
+    void compact(IntPredicate live) {
+        PostingList compacted = new PostingList();
+        compacted.data = new byte[Math.max(4, length + pendingSize * 2)];
+        forEach(id -> {
+            if (live.test(id))
+                compacted.append(id);
+            return true;
+        });
+        data = compacted.data;
+        length = compacted.length;
+        size = compacted.size;
+        last = compacted.last;
+        pending = null;
+        pendingSize = 0;
+    }
+
+    /**
+     * Number of ids held, including ones whose documents have since changed.
+     */
+    int size() {
+        return size + pendingSize;
+    }
+
+    long memoryBytes() {
+        return data.length + (pending == null ? 0 : pending.length * 4L);
+    }
+}
@@ -0,0 +1,40 @@
+package com.musify.search;
+
+public class SearchHit {
+    private final SearchType type;
+    private final long id;
+    private final String name;
+    private final String artist;
+    private final int score;
+
+    public SearchHit(SearchType type, long id, String name, String artist, int score) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.artist = artist;
+        this.score = score;
+    }
+
+    public SearchType getType() {
+        return type;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    /**
+     * Lower is a better match.
+     */
+    public int getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,157 @@
+package com.musify.search;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory prefix search over user names, tracks and albums, kept current
+ * by the repositories as they write and rebuilt periodically from the
+ * tables; see {@link InvertedIndex} for how a type is indexed.
+ *
+ * Like {@link com.musify.cache.UsernameFilter}, a rebuild fills a new index
+ * while writes go to both, then swaps it in. Rows written by another
+ * process appear once {@code SearchService} catches up from the highest id
+ * indexed; their updates and deletes only once the next rebuild runs. Document ids must fit
+ * in an int; larger ones are not indexed.
+ */
+@Component
+public class SearchIndex implements MeterBinder {
+    @Value("${musify.search.enabled:true}")
+    private boolean enabled;
+    @Value("${musify.search.max-prefix-length:12}")
+    private int maxPrefixLength;
+    @Value("${musify.search.max-candidates:200}")
+    private int maxCandidates;
+
+    private final Map<SearchType, Slot> slots = new EnumMap<>(SearchType.class);
+
+    /**
+     * Receives one document of a rebuild.
+     */
+    @FunctionalInterface
+    public interface DocumentSink {
+        void accept(long id, String name, String artist);
+    }
+
+    private static class Slot {
+        volatile InvertedIndex current;
+        volatile InvertedIndex building;
+        volatile long lastRebuildMillis;
+        volatile boolean built;
+    }
+
+    @PostConstruct
+    void init() {
+        for (SearchType type : SearchType.values()) {
+            Slot slot = new Slot();
+            slot.current = new InvertedIndex(maxPrefixLength);
+            slots.put(type, slot);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void index(SearchType type, long id, String name, String artist) {
+        if (!enabled || id > Integer.MAX_VALUE)
+            return;
+        Slot slot = slots.get(type);
+        // Read building before current: a rebuild publishes current before
+        // clearing building, so the write always reaches the new index
+        InvertedIndex next = slot.building;
+        InvertedIndex index = slot.current;
+        index.put((int) id, name, artist);
+        if (next != null && next != index)
+            next.put((int) id, name, artist);
+    }
+
+    public void remove(SearchType type, long id) {
+        if (!enabled || id > Integer.MAX_VALUE)
+            return;
+        Slot slot = slots.get(type);
+        InvertedIndex next = slot.building;
+        InvertedIndex index = slot.current;
+        index.remove((int) id);
+        if (next != null && next != index)
+            next.remove((int) id);
+    }
+
+    public List<SearchHit> search(SearchType type, String query, int limit) {
+        if (!enabled)
+            return List.of();
+        return slots.get(type).current.search(type, query, limit, Math.max(limit, maxCandidates));
+    }
+
+    /**
+     * Highest id indexed so far, to catch up from.
+     */
+    public long getMaxId(SearchType type) {
+        return slots.get(type).current.getMaxId();
+    }
+
+    /**
+     * True when the type has not been built yet or was last built more than
+     * {@code maxAgeMillis} ago.
+     */
+    public boolean needsRebuild(SearchType type, long maxAgeMillis) {
+        Slot slot = slots.get(type);
+        return enabled && (!slot.built || System.currentTimeMillis() - slot.lastRebuildMillis >= maxAgeMillis);
+    }
+
+    /**
+     * Builds a new index of the type from {@code source}, which must pass
+     * every row of the table to the sink it is given, and swaps it in.
+     */
+    public synchronized void rebuild(SearchType type, Consumer<DocumentSink> source) {
+        if (!enabled)
+            return;
+        Slot slot = slots.get(type);
+        InvertedIndex next = new InvertedIndex(maxPrefixLength);
+        next.startLoad();
+        slot.building = next;
+        try {
+            source.accept((id, name, artist) -> {
+                if (id <= Integer.MAX_VALUE)
+                    next.load((int) id, name, artist);
+            });
+            next.finishLoad();
+            slot.current = next;
+            slot.lastRebuildMillis = System.currentTimeMillis();
+            slot.built = true;
+        } finally {
+            slot.building = null;
+        }
+    }
+
+    public int getDocumentCount(SearchType type) {
+        return slots.get(type).current.getDocumentCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        for (SearchType type : SearchType.values()) {
+            Gauge.builder("musify.search.documents", this, index -> index.getDocumentCount(type))
+                    .description("Documents in the search index")
+                    .tag("type", type.getParameter())
+                    .register(registry);
+            Gauge.builder("musify.search.postings.size", this, index -> index.slots.get(type).current.getPostingBytes())
+                    .description("Memory held by the search index's posting lists")
+                    .tag("type", type.getParameter())
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.musify.search;
+
+import java.util.Optional;
+
+public enum SearchType {
+    USER("users"),
+    TRACK("tracks"),
+    ALBUM("albums");
+
+    private final String parameter;
+
+    SearchType(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * The value of the {@code type} query parameter that selects this type.
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    public static Optional<SearchType> fromParameter(String parameter) {
+        for (SearchType type : values()) {
+            if (type.parameter.equals(parameter))
+                return Optional.of(type);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,33 @@
+package com.musify.serialization;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+
+/**
+ * Writes {@link LocalDateTime} values as Jackson does by default, or as
+ * milliseconds since the epoch when the writer carries
+ * {@link TimestampFormat#EPOCH_MILLIS} as an attribute. The values come from
+ * the database in the JVM's time zone, so that zone anchors them.
+ */
+class LocalDateTimeSerializer extends ValueSerializer<LocalDateTime> {
+    private final ValueSerializer<LocalDateTime> iso =
+            tools.jackson.databind.ext.javatime.ser.LocalDateTimeSerializer.INSTANCE;
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator generator, SerializationContext context) {
+        if (context.getAttribute(TimestampFormat.class) == TimestampFormat.EPOCH_MILLIS) {
+            generator.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            return;
+        }
+        iso.serialize(value, generator, context);
+    }
+
+    @Override
+    public Class<?> handledType() {
+        return LocalDateTime.class;
+    }
+}
@@ -0,0 +1,71 @@
+package com.musify.serialization;
+
+import java.time.LocalDateTime;
+
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Serves JSON and, for clients that ask for {@code application/cbor}, CBOR,
+ * both with the {@code timestamps} media type parameter honoured (see
+ * {@link TimestampFormat}). Compression is left to the servlet container;
+ * see {@code server.compression.*}.
+ */
+@Configuration
+public class SerializationConfig {
+
+    /**
+     * Registered by Boot with both the JSON and the CBOR mapper.
+     */
+    @Bean
+    JacksonModule timestampModule() {
+        SimpleModule module = new SimpleModule("musify-timestamps");
+        module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer());
+        return module;
+    }
+
+    /**
+     * Runs after Boot's own customizers so that these converters replace the
+     * JSON one they register.
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    ServerHttpMessageConvertersCustomizer timestampConvertersCustomizer(JsonMapper jsonMapper,
+            CBORMapper cborMapper) {
+        return builder -> builder
+                .withJsonConverter(new JacksonJsonHttpMessageConverter(jsonMapper) {
+                    @Override
+                    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType,
+                            MediaType contentType) {
+                        return withTimestampFormat(super.customizeWriter(writer, javaType, contentType),
+                                contentType);
+                    }
+                })
+                .withCborConverter(new JacksonCborHttpMessageConverter(cborMapper) {
+                    @Override
+                    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType,
+                            MediaType contentType) {
+                        return withTimestampFormat(super.customizeWriter(writer, javaType, contentType),
+                                contentType);
+                    }
+                });
+    }
+
+    private static ObjectWriter withTimestampFormat(ObjectWriter writer, MediaType contentType) {
+        TimestampFormat format = TimestampFormat.of(contentType);
+        return format == TimestampFormat.ISO ? writer : writer.withAttribute(TimestampFormat.class, format);
+    }
+}
@@ -0,0 +1,56 @@
+package com.musify.serialization;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+
+/**
+ * How {@link java.time.LocalDateTime} values are written, chosen by the
+ * {@code timestamps} parameter of the negotiated media type, e.g.
+ * {@code Accept: application/cbor; timestamps=epoch-millis}.
+ */
+public enum TimestampFormat {
+    ISO("iso"),
+    EPOCH_MILLIS("epoch-millis");
+
+    public static final String MEDIA_TYPE_PARAMETER = "timestamps";
+
+    private final String parameter;
+
+    TimestampFormat(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * The value of the {@code timestamps} media type parameter that selects
+     * this format.
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    public static TimestampFormat of(MimeType mimeType) {
+        String parameter = mimeType == null ? null : mimeType.getParameter(MEDIA_TYPE_PARAMETER);
+        return EPOCH_MILLIS.parameter.equalsIgnoreCase(parameter) ? EPOCH_MILLIS : ISO;
+    }
+
+    /**
+     * The format requested by an {@code Accept} header, for responses written
+     * outside the message converters. Unparseable headers select ISO.
+     */
+    public static TimestampFormat ofAccept(String accept) {
+        if (accept == null)
+            return ISO;
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            for (MediaType mediaType : mediaTypes) {
+                if (of(mediaType) == EPOCH_MILLIS)
+                    return EPOCH_MILLIS;
+            }
+        } catch (IllegalArgumentException invalidAccept) {
+            return ISO;
+        }
+        return ISO;
+    }
+}
@@ -0,0 +1,93 @@
+package com.musify.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.musify.DTOs.PlaylistController.AlbumCreateDTO;
+import com.musify.DTOs.PlaylistController.AlbumDTO;
+import com.musify.DTOs.PlaylistController.TrackCreateDTO;
+import com.musify.DTOs.PlaylistController.TrackDTO;
+import com.musify.logging.CustomLogging;
+import com.musify.models.Album;
+import com.musify.models.Track;
+import com.musify.repositories.CatalogRepository;
+
+@Service
+public class CatalogService {
+    @Autowired
+    CatalogRepository catalogRepository;
+    @Autowired
+    CustomLogging logger;
+
+    static AlbumDTO toAlbumDTO(Album album) {
+        if (album == null)
+            return null;
+        return new AlbumDTO(album.getId(), album.getTitle(), album.getArtist(), album.getReleaseDate(),
+                album.getCreatedAt(), album.getUpdatedAt());
+    }
+
+    /**
+     * Converts a track loaded with its album. Albums already converted for
+     * the same response are taken from {@code albums}, so a page where many
+     * tracks share an album holds one copy of it.
+     */
+    static TrackDTO toTrackDTO(Track track, Map<Long, AlbumDTO> albums) {
+        AlbumDTO album = null;
+        if (track.getAlbum() != null)
+            album = albums.computeIfAbsent(track.getAlbum().getId(), id -> toAlbumDTO(track.getAlbum()));
+        return new TrackDTO(track.getId(), track.getTitle(), track.getArtist(), track.getDuration(), album,
+                track.getCreatedAt(), track.getUpdatedAt());
+    }
+
+    public AlbumDTO createAlbum(AlbumCreateDTO albumCreateDTO) {
+        logger.info(getClass().getSimpleName(), "createAlbum", "Creating album: " + albumCreateDTO.getTitle());
+        Album album = new Album();
+        album.setTitle(albumCreateDTO.getTitle());
+        album.setArtist(albumCreateDTO.getArtist());
+        album.setReleaseDate(albumCreateDTO.getReleaseDate());
+        Album createdAlbum = catalogRepository.createAlbum(album);
+        logger.info(getClass().getSimpleName(), "createAlbum", "Album created with ID: " + createdAlbum.getId());
+        return toAlbumDTO(createdAlbum);
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<AlbumDTO> getAlbumById(Long id) {
+        return catalogRepository.findAlbumById(id).map(CatalogService::toAlbumDTO);
+    }
+
+    /**
+     * Returns empty when the album the track refers to does not exist.
+     */
+    public Optional<TrackDTO> createTrack(TrackCreateDTO trackCreateDTO) {
+        logger.info(getClass().getSimpleName(), "createTrack", "Creating track: " + trackCreateDTO.getTitle());
+        Track track = new Track();
+        track.setTitle(trackCreateDTO.getTitle());
+        track.setArtist(trackCreateDTO.getArtist());
+        track.setAlbumId(trackCreateDTO.getAlbumId());
+        track.setDuration(trackCreateDTO.getDuration());
+        Track createdTrack;
+        try {
+            createdTrack = catalogRepository.createTrack(track);
+        } catch (DataIntegrityViolationException missingAlbum) {
+            logger.warn(getClass().getSimpleName(), "createTrack",
+                    "Album not found with ID: " + trackCreateDTO.getAlbumId());
+            return Optional.empty();
+        }
+        logger.info(getClass().getSimpleName(), "createTrack", "Track created with ID: " + createdTrack.getId());
+        if (createdTrack.getAlbumId() != null)
+            createdTrack.setAlbum(catalogRepository.findAlbumById(createdTrack.getAlbumId()).orElse(null));
+        return Optional.of(toTrackDTO(createdTrack, new HashMap<>()));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<TrackDTO> getTrackById(Long id) {
+        return catalogRepository.findTrackById(id).map(track -> toTrackDTO(track, new HashMap<>()));
+    }
+}
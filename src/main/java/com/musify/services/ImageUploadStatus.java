@@ -0,0 +1,7 @@
+package com.musify.services;
+
+public enum ImageUploadStatus {
+    UPDATED,
+    USER_NOT_FOUND,
+    TOO_LARGE
+}
@@ -0,0 +1,196 @@
+package com.musify.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.musify.repositories.PlaylistRepository;
+
+/**
+ * Applies a sequence of add, remove and move operations to a playlist's
+ * track order in memory and works out the fewest rows to write.
+ *
+ * Tracks no operation touched keep their positions, and since the
+ * operations never reorder them relative to each other those positions
+ * stay in order. Added and moved tracks are spread over the gap between
+ * the untouched tracks around them; only when a gap is too small for them
+ * is the whole playlist renumbered.
+ */
+class PlaylistEdit {
+    /**
+     * Passed as {@code afterTrackId} to place a track first.
+     */
+    static final long START = 0;
+
+    private final Map<Long, Long> oldPositions;
+    private final List<Long> order;
+    private final Set<Long> members;
+    private final Set<Long> touched = new LinkedHashSet<>();
+
+    PlaylistEdit(LinkedHashMap<Long, Long> positions) {
+        this.oldPositions = positions;
+        this.order = new ArrayList<>(positions.keySet());
+        this.members = new HashSet<>(positions.keySet());
+    }
+
+    boolean contains(Long trackId) {
+        return members.contains(trackId);
+    }
+
+    /**
+     * Inserts the track after {@code afterTrackId}, first when that is
+     * {@link #START} or last when it is null. Adding a track that is already
+     * in the playlist leaves it where it is. Returns false when the anchor is
+     * not in the playlist.
+     */
+    boolean add(Long trackId, Long afterTrackId) {
+        if (members.contains(trackId))
+            return true;
+        int index = insertionIndex(afterTrackId);
+        if (index < 0)
+            return false;
+        order.add(index, trackId);
+        members.add(trackId);
+        touched.add(trackId);
+        return true;
+    }
+
+    /**
+     * Removing a track that is not in the playlist does nothing.
+     */
+    void remove(Long trackId) {
+        if (members.remove(trackId))
+            order.remove(trackId);
+    }
+
+    /**
+     * Moves the track after {@code afterTrackId}, as for {@link #add}.
+     * Returns false when the track or the anchor is not in the playlist.
+     */
+    boolean move(Long trackId, Long afterTrackId) {
+        if (!members.contains(trackId))
+            return false;
+        if (trackId.equals(afterTrackId))
+            return true;
+        int from = order.indexOf(trackId);
+        order.remove(from);
+        int index = insertionIndex(afterTrackId);
+        if (index < 0) {
+            order.add(from, trackId);
+            return false;
+        }
+        order.add(index, trackId);
+        touched.add(trackId);
+        return true;
+    }
+
+    private int insertionIndex(Long afterTrackId) {
+        if (afterTrackId == null)
+            return order.size();
+        if (afterTrackId == START)
+            return 0;
+        int index = order.indexOf(afterTrackId);
+        return index < 0 ? -1 : index + 1;
+    }
+
+    int size() {
+        return order.size();
+    }
+
+    List<Long> getAdded() {
+        List<Long> added = new ArrayList<>();
+        for (Long trackId : touched) {
+            if (members.contains(trackId) && !oldPositions.containsKey(trackId))
+                added.add(trackId);
+        }
+        return added;
+    }
+
+    List<Long> getMoved() {
+        List<Long> moved = new ArrayList<>();
+        for (Long trackId : touched) {
+            if (members.contains(trackId) && oldPositions.containsKey(trackId))
+                moved.add(trackId);
+        }
+        return moved;
+    }
+
+    List<Long> getRemoved() {
+        List<Long> removed = new ArrayList<>();
+        for (Long trackId : oldPositions.keySet()) {
+            if (!members.contains(trackId))
+                removed.add(trackId);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the new position of every track whose row has to be inserted
+     * or updated, in playlist order.
+     */
+    Map<Long, Long> getPositions() {
+        Map<Long, Long> positions = new LinkedHashMap<>();
+        int runStart = 0;
+        Long previous = null;
+        for (int i = 0; i <= order.size(); i++) {
+            Long trackId = i < order.size() ? order.get(i) : null;
+            if (trackId != null && touched.contains(trackId))
+                continue;
+            Long next = trackId == null ? null : oldPositions.get(trackId);
+            if (!spread(runStart, i, previous, next, positions))
+                return renumber();
+            previous = next;
+            runStart = i + 1;
+        }
+        return positions;
+    }
+
+    /**
+     * Spreads the touched tracks in {@code order[from, to)} evenly between
+     * the untouched positions around them, where null means there is no
+     * neighbour on that side. Returns false when they do not fit.
+     */
+    private boolean spread(int from, int to, Long previous, Long next, Map<Long, Long> positions) {
+        int count = to - from;
+        if (count == 0)
+            return true;
+        long gaps = count + 1;
+        long low;
+        long high;
+        if (previous == null && next == null) {
+            low = 0;
+            high = gaps * PlaylistRepository.POSITION_GAP;
+        } else if (previous == null) {
+            high = next;
+            low = high - gaps * PlaylistRepository.POSITION_GAP;
+        } else if (next == null) {
+            low = previous;
+            high = low + gaps * PlaylistRepository.POSITION_GAP;
+        } else {
+            low = previous;
+            high = next;
+        }
+        if (high - low < gaps)
+            return false;
+        long step = (high - low) / gaps;
+        for (int j = 0; j < count; j++) {
+            positions.put(order.get(from + j), low + step * (j + 1));
+        }
+        return true;
+    }
+
+    private Map<Long, Long> renumber() {
+        Map<Long, Long> positions = new LinkedHashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            Long trackId = order.get(i);
+            long position = (i + 1) * PlaylistRepository.POSITION_GAP;
+            if (touched.contains(trackId) || !Long.valueOf(position).equals(oldPositions.get(trackId)))
+                positions.put(trackId, position);
+        }
+        return positions;
+    }
+}
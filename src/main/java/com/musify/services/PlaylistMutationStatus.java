@@ -0,0 +1,8 @@
+package com.musify.services;
+
+public enum PlaylistMutationStatus {
+    APPLIED,
+    CONFLICT,
+    INVALID,
+    NOT_FOUND
+}
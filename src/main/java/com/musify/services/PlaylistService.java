@@ -0,0 +1,391 @@
+package com.musify.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.DTOs.PlaylistController.AlbumDTO;
+import com.musify.DTOs.PlaylistController.PlaylistCreateDTO;
+import com.musify.DTOs.PlaylistController.PlaylistDTO;
+import com.musify.DTOs.PlaylistController.PlaylistMutationDTO;
+import com.musify.DTOs.PlaylistController.PlaylistMutationResultDTO;
+import com.musify.DTOs.PlaylistController.PlaylistPageDTO;
+import com.musify.DTOs.PlaylistController.PlaylistTrackDTO;
+import com.musify.DTOs.PlaylistController.PlaylistTrackOperationDTO;
+import com.musify.DTOs.PlaylistController.PlaylistTrackPageDTO;
+import com.musify.logging.CustomLogging;
+import com.musify.models.Playlist;
+import com.musify.models.PlaylistTrack;
+import com.musify.repositories.CatalogRepository;
+import com.musify.repositories.PlaylistRepository;
+
+/**
+ * Playlists with their tracks and albums. A page of a user's playlists with
+ * track previews takes two queries and a single playlist with its first
+ * tracks takes two, whatever their size; further tracks are paged by
+ * cursor or streamed.
+ */
+@Service
+public class PlaylistService {
+    private static final String PLAYLIST_CURSOR_PREFIX = "playlist:";
+    private static final String TRACK_CURSOR_PREFIX = "track:";
+    private static final String OP_ADD = "add";
+    private static final String OP_REMOVE = "remove";
+    private static final String OP_MOVE = "move";
+
+    @Autowired
+    PlaylistRepository playlistRepository;
+    @Autowired
+    CatalogRepository catalogRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.playlists.max-page-size:100}")
+    private int maxPageSize;
+    @Value("${musify.playlists.max-track-page-size:1000}")
+    private int maxTrackPageSize;
+    @Value("${musify.playlists.max-preview-tracks:100}")
+    private int maxPreviewTracks;
+    @Value("${musify.playlists.max-mutation-operations:1000}")
+    private int maxMutationOperations;
+
+    private static class TrackPosition {
+        final long position;
+        final long trackId;
+
+        TrackPosition(long position, long trackId) {
+            this.position = position;
+            this.trackId = trackId;
+        }
+    }
+
+    private static PlaylistDTO toPlaylistDTO(Playlist playlist, List<PlaylistTrackDTO> tracks, String nextTracksCursor) {
+        return new PlaylistDTO(playlist.getId(), playlist.getName(), playlist.getUserId(), playlist.getTrackCount(),
+                tracks, nextTracksCursor, playlist.getCreatedAt(), playlist.getUpdatedAt());
+    }
+
+    private static PlaylistTrackDTO toPlaylistTrackDTO(PlaylistTrack playlistTrack, Map<Long, AlbumDTO> albums) {
+        return new PlaylistTrackDTO(CatalogService.toTrackDTO(playlistTrack.getTrack(), albums),
+                playlistTrack.getAddedAt());
+    }
+
+    private static String encode(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Optional<String> decode(String cursor, String prefix) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return token.startsWith(prefix) ? Optional.of(token.substring(prefix.length())) : Optional.empty();
+        } catch (IllegalArgumentException invalidCursor) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The position of a track, with the track id as the tie-breaker.
+     */
+    private static String encodeTrackCursor(PlaylistTrack last) {
+        return encode(TRACK_CURSOR_PREFIX + last.getPosition() + ":" + last.getTrack().getId());
+    }
+
+    private static Optional<TrackPosition> decodeTrackCursor(String cursor) {
+        Optional<String> token = decode(cursor, TRACK_CURSOR_PREFIX);
+        if (token.isEmpty())
+            return Optional.empty();
+        int separator = token.get().indexOf(':');
+        try {
+            long position = Long.parseLong(token.get().substring(0, separator));
+            long trackId = Long.parseLong(token.get().substring(separator + 1));
+            return Optional.of(new TrackPosition(position, trackId));
+        } catch (IndexOutOfBoundsException | NumberFormatException invalidCursor) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns empty when the user does not exist.
+     */
+    public Optional<PlaylistDTO> createPlaylist(PlaylistCreateDTO playlistCreateDTO) {
+        logger.info(getClass().getSimpleName(), "createPlaylist", "Creating playlist: " + playlistCreateDTO.getName()
+                + " for user ID: " + playlistCreateDTO.getUserId());
+        Playlist playlist = new Playlist();
+        playlist.setName(playlistCreateDTO.getName());
+        playlist.setUserId(playlistCreateDTO.getUserId());
+        try {
+            Playlist createdPlaylist = playlistRepository.create(playlist);
+            logger.info(getClass().getSimpleName(), "createPlaylist",
+                    "Playlist created with ID: " + createdPlaylist.getId());
+            return Optional.of(toPlaylistDTO(createdPlaylist, List.of(), null));
+        } catch (DataIntegrityViolationException missingUser) {
+            logger.warn(getClass().getSimpleName(), "createPlaylist",
+                    "User not found with ID: " + playlistCreateDTO.getUserId());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} of the user's playlists after
+     * {@code cursor}, each with its first {@code previewTracks} tracks, or
+     * empty when the cursor is not one this service issued.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<PlaylistPageDTO> getUserPlaylists(Long userId, String cursor, int limit, int previewTracks) {
+        logger.info(getClass().getSimpleName(), "getUserPlaylists", "Retrieving playlists of user ID: " + userId);
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            Optional<Long> decoded = decode(cursor, PLAYLIST_CURSOR_PREFIX).flatMap(PlaylistService::parseLong);
+            if (decoded.isEmpty()) {
+                logger.warn(getClass().getSimpleName(), "getUserPlaylists", "Invalid cursor: " + cursor);
+                return Optional.empty();
+            }
+            afterId = decoded.get();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        int perPlaylist = Math.max(0, Math.min(previewTracks, maxPreviewTracks));
+        List<Playlist> playlists = playlistRepository.findByUserAfter(userId, afterId, pageSize + 1);
+        boolean hasMore = playlists.size() > pageSize;
+        if (hasMore) {
+            playlists = playlists.subList(0, pageSize);
+        }
+
+        Map<Long, List<PlaylistTrackDTO>> tracksByPlaylist = new LinkedHashMap<>();
+        Map<Long, PlaylistTrack> lastByPlaylist = new HashMap<>();
+        List<Long> playlistIds = new ArrayList<>(playlists.size());
+        for (Playlist playlist : playlists) {
+            playlistIds.add(playlist.getId());
+            tracksByPlaylist.put(playlist.getId(), new ArrayList<>());
+        }
+        Map<Long, AlbumDTO> albums = new HashMap<>();
+        for (PlaylistTrack playlistTrack : playlistRepository.findTrackPreviews(playlistIds, perPlaylist)) {
+            tracksByPlaylist.get(playlistTrack.getPlaylistId()).add(toPlaylistTrackDTO(playlistTrack, albums));
+            lastByPlaylist.put(playlistTrack.getPlaylistId(), playlistTrack);
+        }
+
+        List<PlaylistDTO> items = new ArrayList<>(playlists.size());
+        for (Playlist playlist : playlists) {
+            List<PlaylistTrackDTO> tracks = tracksByPlaylist.get(playlist.getId());
+            String nextTracksCursor = null;
+            if (playlist.getTrackCount() > tracks.size() && lastByPlaylist.containsKey(playlist.getId()))
+                nextTracksCursor = encodeTrackCursor(lastByPlaylist.get(playlist.getId()));
+            items.add(toPlaylistDTO(playlist, tracks, nextTracksCursor));
+        }
+        String nextCursor = hasMore
+                ? encode(PLAYLIST_CURSOR_PREFIX + playlists.get(playlists.size() - 1).getId())
+                : null;
+        logger.info(getClass().getSimpleName(), "getUserPlaylists", "Retrieved " + items.size() + " playlists");
+        return Optional.of(new PlaylistPageDTO(items, nextCursor));
+    }
+
+    /**
+     * Returns the playlist with its first {@code trackLimit} tracks.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<PlaylistDTO> getPlaylist(Long id, int trackLimit) {
+        logger.info(getClass().getSimpleName(), "getPlaylist", "Retrieving playlist with ID: " + id);
+        Optional<Playlist> playlist = playlistRepository.findById(id);
+        if (playlist.isEmpty()) {
+            logger.warn(getClass().getSimpleName(), "getPlaylist", "Playlist not found with ID: " + id);
+            return Optional.empty();
+        }
+        PlaylistTrackPageDTO page = loadTracks(id, null, trackLimit);
+        return Optional.of(toPlaylistDTO(playlist.get(), page.getItems(), page.getNextCursor()));
+    }
+
+    /**
+     * Returns up to {@code limit} tracks after {@code cursor}, or empty when
+     * the cursor is not one this service issued. An unknown playlist has no
+     * tracks; see {@link #playlistExists}.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<PlaylistTrackPageDTO> getPlaylistTracks(Long id, String cursor, int limit) {
+        logger.info(getClass().getSimpleName(), "getPlaylistTracks",
+                "Retrieving tracks of playlist ID: " + id + " after cursor: " + cursor);
+        TrackPosition after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Optional<TrackPosition> decoded = decodeTrackCursor(cursor);
+            if (decoded.isEmpty()) {
+                logger.warn(getClass().getSimpleName(), "getPlaylistTracks", "Invalid cursor: " + cursor);
+                return Optional.empty();
+            }
+            after = decoded.get();
+        }
+        return Optional.of(loadTracks(id, after, limit));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean playlistExists(Long id) {
+        return playlistRepository.existsById(id);
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public void streamPlaylistTracks(Long id, Consumer<PlaylistTrackDTO> consumer) {
+        logger.info(getClass().getSimpleName(), "streamPlaylistTracks", "Streaming tracks of playlist ID: " + id);
+        Map<Long, AlbumDTO> albums = new HashMap<>();
+        playlistRepository.streamTracks(id, playlistTrack -> consumer.accept(toPlaylistTrackDTO(playlistTrack, albums)));
+        logger.info(getClass().getSimpleName(), "streamPlaylistTracks", "Finished streaming playlist ID: " + id);
+    }
+
+    public PlaylistTrackStatus addTrack(Long playlistId, Long trackId) {
+        logger.info(getClass().getSimpleName(), "addTrack", "Adding track ID: " + trackId + " to playlist ID: "
+                + playlistId);
+        try {
+            // The playlist row is locked before the insert's foreign key check
+            // reads it, in the same order as mutateTracks, so concurrent edits
+            // queue on it instead of deadlocking
+            return transactionTemplate.execute(status -> {
+                if (playlistRepository.touch(playlistId, null).isEmpty()) {
+                    logger.warn(getClass().getSimpleName(), "addTrack", "Playlist not found with ID: " + playlistId);
+                    return PlaylistTrackStatus.NOT_FOUND;
+                }
+                playlistRepository.addTrack(playlistId, trackId);
+                return PlaylistTrackStatus.ADDED;
+            });
+        } catch (DuplicateKeyException alreadyPresent) {
+            return PlaylistTrackStatus.ALREADY_PRESENT;
+        } catch (DataIntegrityViolationException missingReference) {
+            logger.warn(getClass().getSimpleName(), "addTrack", "Track not found with ID: " + trackId);
+            return PlaylistTrackStatus.NOT_FOUND;
+        }
+    }
+
+    /**
+     * Applies the operations in order in one transaction and fills
+     * {@code result} with the net change. The playlist's {@code updated_at}
+     * is advanced first, conditionally on {@code expectedUpdatedAt}, so a
+     * stale edit is turned away with a single statement and concurrent edits
+     * of the same playlist only wait for each other while one is being
+     * written. The rest costs one query for the current order, one for the
+     * added tracks and at most two batches, however many operations there
+     * are.
+     */
+    public PlaylistMutationStatus mutateTracks(Long id, PlaylistMutationDTO mutation,
+            PlaylistMutationResultDTO result) {
+        List<PlaylistTrackOperationDTO> operations = mutation.getOperations();
+        logger.info(getClass().getSimpleName(), "mutateTracks", "Applying "
+                + (operations == null ? 0 : operations.size()) + " operations to playlist ID: " + id);
+        if (operations == null || operations.isEmpty() || operations.size() > maxMutationOperations) {
+            result.setReason("Between 1 and " + maxMutationOperations + " operations are required");
+            return PlaylistMutationStatus.INVALID;
+        }
+        for (int i = 0; i < operations.size(); i++) {
+            PlaylistTrackOperationDTO operation = operations.get(i);
+            if (operation == null || operation.getTrackId() == null || !(OP_ADD.equals(operation.getOp())
+                    || OP_REMOVE.equals(operation.getOp()) || OP_MOVE.equals(operation.getOp()))) {
+                return reject(result, i, "Unknown operation or missing trackId");
+            }
+        }
+
+        return transactionTemplate.execute(status -> {
+            Optional<LocalDateTime> version = playlistRepository.touch(id, mutation.getExpectedUpdatedAt());
+            if (version.isEmpty()) {
+                Optional<LocalDateTime> current = playlistRepository.findUpdatedAt(id);
+                if (current.isEmpty()) {
+                    logger.warn(getClass().getSimpleName(), "mutateTracks", "Playlist not found with ID: " + id);
+                    return PlaylistMutationStatus.NOT_FOUND;
+                }
+                logger.warn(getClass().getSimpleName(), "mutateTracks", "Playlist ID: " + id
+                        + " changed since " + mutation.getExpectedUpdatedAt());
+                result.setUpdatedAt(current.get());
+                result.setReason("Playlist was changed since expectedUpdatedAt");
+                return PlaylistMutationStatus.CONFLICT;
+            }
+
+            PlaylistEdit edit = new PlaylistEdit(playlistRepository.findTrackPositions(id));
+            Map<Long, Integer> addedBy = new HashMap<>();
+            for (int i = 0; i < operations.size(); i++) {
+                PlaylistTrackOperationDTO operation = operations.get(i);
+                Long trackId = operation.getTrackId();
+                boolean applied = true;
+                if (OP_ADD.equals(operation.getOp())) {
+                    if (!edit.contains(trackId))
+                        addedBy.put(trackId, i);
+                    applied = edit.add(trackId, operation.getAfterTrackId());
+                } else if (OP_REMOVE.equals(operation.getOp())) {
+                    edit.remove(trackId);
+                } else {
+                    applied = edit.move(trackId, operation.getAfterTrackId());
+                }
+                if (!applied) {
+                    status.setRollbackOnly();
+                    return reject(result, i, "Track or afterTrackId is not in the playlist");
+                }
+            }
+
+            List<Long> added = edit.getAdded();
+            Set<Long> existing = catalogRepository.findExistingTrackIds(added);
+            for (Long trackId : added) {
+                if (!existing.contains(trackId)) {
+                    status.setRollbackOnly();
+                    return reject(result, addedBy.get(trackId), "Track not found with ID: " + trackId);
+                }
+            }
+
+            List<Long> removed = edit.getRemoved();
+            playlistRepository.removeTracks(id, removed);
+            playlistRepository.upsertTracks(id, edit.getPositions(), version.get());
+            result.setUpdatedAt(version.get());
+            result.setTrackCount(edit.size());
+            result.setAdded(added);
+            result.setRemoved(removed);
+            result.setMoved(edit.getMoved());
+            logger.info(getClass().getSimpleName(), "mutateTracks", "Playlist ID: " + id + " added "
+                    + added.size() + ", removed " + removed.size() + ", moved " + result.getMoved().size());
+            return PlaylistMutationStatus.APPLIED;
+        });
+    }
+
+    private PlaylistMutationStatus reject(PlaylistMutationResultDTO result, int operation, String reason) {
+        logger.warn(getClass().getSimpleName(), "mutateTracks", "Rejected operation " + operation + ": " + reason);
+        result.setFailedOperation(operation);
+        result.setReason(reason);
+        return PlaylistMutationStatus.INVALID;
+    }
+
+    private PlaylistTrackPageDTO loadTracks(Long id, TrackPosition after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxTrackPageSize));
+        List<PlaylistTrack> tracks = after == null
+                ? playlistRepository.findTracksAfter(id, null, 0, pageSize + 1)
+                : playlistRepository.findTracksAfter(id, after.position, after.trackId, pageSize + 1);
+        boolean hasMore = tracks.size() > pageSize;
+        if (hasMore) {
+            tracks = tracks.subList(0, pageSize);
+        }
+
+        Map<Long, AlbumDTO> albums = new HashMap<>();
+        List<PlaylistTrackDTO> items = new ArrayList<>(tracks.size());
+        for (PlaylistTrack playlistTrack : tracks) {
+            items.add(toPlaylistTrackDTO(playlistTrack, albums));
+        }
+        String nextCursor = hasMore ? encodeTrackCursor(tracks.get(tracks.size() - 1)) : null;
+        return new PlaylistTrackPageDTO(items, nextCursor);
+    }
+
+    private static Optional<Long> parseLong(String value) {
+        try {
+            return Optional.of(Long.parseLong(value));
+        } catch (NumberFormatException invalid) {
+            return Optional.empty();
+        }
+    }
+}
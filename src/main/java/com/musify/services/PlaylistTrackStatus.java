@@ -0,0 +1,7 @@
+package com.musify.services;
+
+public enum PlaylistTrackStatus {
+    ADDED,
+    ALREADY_PRESENT,
+    NOT_FOUND
+}
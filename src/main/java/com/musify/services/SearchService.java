@@ -0,0 +1,105 @@
+package com.musify.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.musify.DTOs.SearchController.SearchHitDTO;
+import com.musify.DTOs.SearchController.SearchResultDTO;
+import com.musify.logging.CustomLogging;
+import com.musify.metrics.Instrumentation;
+import com.musify.repositories.CatalogRepository;
+import com.musify.repositories.UserRepository;
+import com.musify.search.SearchHit;
+import com.musify.search.SearchIndex;
+import com.musify.search.SearchType;
+
+/**
+ * Typeahead search answered from {@link SearchIndex} without touching the
+ * database. The index is built at startup, catches up with rows added
+ * elsewhere every {@code refresh-interval-ms} and is rebuilt every
+ * {@code rebuild-interval-ms}. Until the first build finishes, results only
+ * cover rows written since startup.
+ */
+@Service
+public class SearchService {
+    @Autowired
+    SearchIndex searchIndex;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CatalogRepository catalogRepository;
+    @Autowired
+    Instrumentation instrumentation;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.search.max-results:50}")
+    private int maxResults;
+    @Value("${musify.search.rebuild-interval-ms:3600000}")
+    private long rebuildIntervalMillis;
+
+    private static SearchHitDTO toSearchHitDTO(SearchHit hit) {
+        return new SearchHitDTO(hit.getType().getParameter(), hit.getId(), hit.getName(), hit.getArtist());
+    }
+
+    /**
+     * Returns up to {@code limit} best matches of the given type, or of all
+     * types when {@code type} is empty.
+     */
+    public SearchResultDTO search(String query, Optional<SearchType> type, int limit) {
+        int size = Math.max(1, Math.min(limit, maxResults));
+        List<SearchHit> hits;
+        if (type.isPresent()) {
+            hits = instrumentation.timeSearch(type.get().getParameter(),
+                    () -> searchIndex.search(type.get(), query, size));
+        } else {
+            hits = instrumentation.timeSearch("all", () -> {
+                List<SearchHit> merged = new ArrayList<>();
+                for (SearchType searchType : SearchType.values()) {
+                    merged.addAll(searchIndex.search(searchType, query, size));
+                }
+                merged.sort(Comparator.comparingInt(SearchHit::getScore)
+                        .thenComparingInt(hit -> hit.getName() == null ? 0 : hit.getName().length()));
+                return merged.size() > size ? merged.subList(0, size) : merged;
+            });
+        }
+        List<SearchHitDTO> items = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            items.add(toSearchHitDTO(hit));
+        }
+        return new SearchResultDTO(items);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${musify.search.refresh-interval-ms:5000}")
+    public void refreshSearchIndex() {
+        if (!searchIndex.isEnabled())
+            return;
+        refresh(SearchType.USER, userRepository::streamForSearch);
+        refresh(SearchType.ALBUM, catalogRepository::streamAlbumsForSearch);
+        refresh(SearchType.TRACK, catalogRepository::streamTracksForSearch);
+    }
+
+    private interface SearchSource {
+        void stream(long afterId, SearchIndex.DocumentSink sink);
+    }
+
+    private void refresh(SearchType type, SearchSource source) {
+        if (searchIndex.needsRebuild(type, rebuildIntervalMillis)) {
+            long start = System.nanoTime();
+            searchIndex.rebuild(type, sink -> source.stream(0, sink));
+            logger.info(getClass().getSimpleName(), "refreshSearchIndex", "Search index for "
+                    + type.getParameter() + " built with " + searchIndex.getDocumentCount(type) + " documents in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } else {
+            source.stream(searchIndex.getMaxId(type),
+                    (id, name, artist) -> searchIndex.index(type, id, name, artist));
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.musify.services;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.logging.CustomLogging;
+import com.musify.models.User;
+import com.musify.models.UserChange;
+import com.musify.repositories.UserChangeRepository;
+import com.musify.repositories.UserRepository;
+import com.musify.storage.ImageResizer;
+import com.musify.storage.ImageStorage;
+import com.musify.storage.StoredImage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates resized JPEG variants of uploaded images on a fixed pool with a
+ * bounded queue. Uploads never wait for it: when the queue is full the job
+ * is dropped and the user stays pending ({@code image_variants IS NULL}),
+ * and a periodic sweep resubmits pending users as capacity frees up. The
+ * same sweep retries jobs lost to a restart or an I/O error.
+ *
+ * A failed job is retried after {@code thumbnail-retry-backoff-ms}, doubling
+ * with each further failure, and after {@code thumbnail-max-attempts} the
+ * image is recorded as having no variants, so that the original is served
+ * and the sweep stops picking it up. The attempts are only counted in
+ * memory, so a restart gives a failing image a fresh set.
+ *
+ * Jobs are idempotent: variant files are named after the original's hash and
+ * sizes that already exist are skipped, and the result is only recorded if
+ * the user still has the image the job was started for.
+ */
+@Service
+public class ThumbnailService implements MeterBinder {
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserChangeRepository userChangeRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    ImageStorage imageStorage;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.images.variant-sizes:64,256,512}")
+    private int[] variantSizes;
+    @Value("${musify.images.thumbnail-threads:2}")
+    private int threads;
+    @Value("${musify.images.thumbnail-queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${musify.images.thumbnail-quality:0.8}")
+    private float quality;
+    @Value("${musify.images.thumbnail-max-attempts:5}")
+    private int maxAttempts;
+    @Value("${musify.images.thumbnail-retry-backoff-ms:60000}")
+    private long retryBackoffMillis;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Failure> failures = new ConcurrentHashMap<>();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder abandonedCount = new LongAdder();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        variantSizes = Arrays.stream(variantSizes).distinct().sorted().toArray();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues variant generation for the user's current image. Returns false
+     * when the queue is full; the sweep picks the user up later.
+     */
+    public boolean submit(Long userId, String imagePath) {
+        if (!inFlight.add(userId))
+            return true;
+        try {
+            executor.execute(() -> process(userId, imagePath));
+            return true;
+        } catch (RejectedExecutionException queueFull) {
+            inFlight.remove(userId);
+            rejectedCount.increment();
+            logger.warn(getClass().getSimpleName(), "submit",
+                    "Thumbnail queue full, deferring user ID: " + userId);
+            return false;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${musify.images.thumbnail-sweep-interval-ms:60000}",
+            fixedDelayString = "${musify.images.thumbnail-sweep-interval-ms:60000}")
+    public void resubmitPending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        long now = System.currentTimeMillis();
+        long afterId = 0;
+        // Pages past users still backing off, so they cannot hold up the rest
+        while (capacity > 0) {
+            List<User> pending = userRepository.findWithPendingImageVariants(afterId, Math.max(capacity, 100));
+            if (pending.isEmpty())
+                return;
+            for (User user : pending) {
+                afterId = user.getId();
+                if (isBackingOff(user.getId(), user.getImagePath(), now))
+                    continue;
+                if (!submit(user.getId(), user.getImagePath()))
+                    return;
+                if (--capacity == 0)
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Parses an {@code image_variants} value into its sizes, ascending.
+     */
+    public static List<Integer> parseVariants(String imageVariants) {
+        if (imageVariants == null || imageVariants.isEmpty())
+            return Collections.emptyList();
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : imageVariants.split(",")) {
+            sizes.add(Integer.parseInt(size));
+        }
+        return sizes;
+    }
+
+    private void process(Long userId, String imagePath) {
+        try {
+            String variants = generateVariants(imagePath);
+            boolean recorded = transactionTemplate.execute(status -> {
+                if (userRepository.updateImageVariants(userId, imagePath, variants) == 0)
+                    return false;
+                userChangeRepository.appendFromUser(UserChange.TYPE_IMAGE_UPDATED, userId);
+                return true;
+            });
+            failures.remove(userId);
+            if (recorded) {
+                completedCount.increment();
+                logger.info(getClass().getSimpleName(), "process",
+                        "Image variants [" + variants + "] ready for user ID: " + userId);
+            }
+        } catch (IOException | RuntimeException exception) {
+            failedCount.increment();
+            logger.error(getClass().getSimpleName(), "process",
+                    "Thumbnail generation failed for user ID: " + userId + ": " + exception.getMessage());
+            if (recordFailure(userId, imagePath, System.currentTimeMillis()))
+                abandon(userId, imagePath);
+        } finally {
+            inFlight.remove(userId);
+        }
+    }
+
+    /**
+     * Counts a failed attempt at the image and sets when the next one may
+     * start. Returns true once the image has used up its attempts.
+     */
+    boolean recordFailure(Long userId, String imagePath, long now) {
+        Failure failure = failures.compute(userId, (id, previous) -> {
+            int attempts = previous != null && previous.imagePath.equals(imagePath) ? previous.attempts + 1 : 1;
+            long backoff = retryBackoffMillis << Math.min(attempts - 1, 16);
+            return new Failure(imagePath, attempts, now + backoff);
+        });
+        return failure.attempts >= maxAttempts;
+    }
+
+    /**
+     * Returns true while the image is waiting out the backoff after a failed
+     * attempt. A different image than the one that failed starts afresh.
+     */
+    boolean isBackingOff(Long userId, String imagePath, long now) {
+        Failure failure = failures.get(userId);
+        if (failure == null)
+            return false;
+        if (!failure.imagePath.equals(imagePath)) {
+            failures.remove(userId, failure);
+            return false;
+        }
+        return now < failure.retryAt;
+    }
+
+    private void abandon(Long userId, String imagePath) {
+        try {
+            boolean recorded = transactionTemplate.execute(status -> {
+                if (userRepository.updateImageVariants(userId, imagePath, "") == 0)
+                    return false;
+                userChangeRepository.appendFromUser(UserChange.TYPE_IMAGE_UPDATED, userId);
+                return true;
+            });
+            failures.remove(userId);
+            if (recorded) {
+                abandonedCount.increment();
+                logger.warn(getClass().getSimpleName(), "abandon", "Giving up on image variants for user ID: "
+                        + userId + " after " + maxAttempts + " attempts");
+            }
+        } catch (RuntimeException exception) {
+            // Still counted as failed, the next sweep after the backoff tries again
+            logger.error(getClass().getSimpleName(), "abandon",
+                    "Could not record missing variants for user ID: " + userId + ": " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Writes any missing variants and returns the sizes now available. Images
+     * that are not content-addressed or cannot be decoded get none.
+     */
+    private String generateVariants(String imagePath) throws IOException {
+        String hash = imageStorage.hashOf(imagePath);
+        if (hash == null)
+            return "";
+
+        StringJoiner available = new StringJoiner(",");
+        BufferedImage current = null;
+        boolean decoded = false;
+        for (int i = variantSizes.length - 1; i >= 0; i--) {
+            int size = variantSizes[i];
+            if (imageStorage.hasVariant(hash, size))
+                continue;
+            if (!decoded) {
+                StoredImage original = imageStorage.open(imagePath).orElse(null);
+                current = original == null ? null : ImageResizer.decode(original.getFile(), size);
+                decoded = true;
+            }
+            if (current == null)
+                return "";
+
+            current = ImageResizer.scale(current, size);
+            Path temp = imageStorage.createTempFile();
+            ImageResizer.writeJpeg(current, temp, quality);
+            imageStorage.commitVariant(temp, hash, size);
+        }
+        for (int size : variantSizes) {
+            available.add(Integer.toString(size));
+        }
+        return available.toString();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("musify.image.thumbnail.queue.depth", this, service -> service.executor.getQueue().size())
+                .description("Thumbnail jobs waiting for a worker")
+                .register(registry);
+        FunctionCounter.builder("musify.image.thumbnail.jobs", rejectedCount, LongAdder::sum)
+                .description("Thumbnail jobs by outcome")
+                .tag("outcome", "rejected")
+                .register(registry);
+        FunctionCounter.builder("musify.image.thumbnail.jobs", completedCount, LongAdder::sum)
+                .description("Thumbnail jobs by outcome")
+                .tag("outcome", "completed")
+                .register(registry);
+        FunctionCounter.builder("musify.image.thumbnail.jobs", failedCount, LongAdder::sum)
+                .description("Thumbnail jobs by outcome")
+                .tag("outcome", "failed")
+                .register(registry);
+        FunctionCounter.builder("musify.image.thumbnail.jobs", abandonedCount, LongAdder::sum)
+                .description("Thumbnail jobs by outcome")
+                .tag("outcome", "abandoned")
+                .register(registry);
+    }
+
+    private static final class Failure {
+        final String imagePath;
+        final int attempts;
+        final long retryAt;
+
+        Failure(String imagePath, int attempts, long retryAt) {
+            this.imagePath = imagePath;
+            this.attempts = attempts;
+            this.retryAt = retryAt;
+        }
+    }
+}
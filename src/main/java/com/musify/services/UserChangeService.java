@@ -0,0 +1,322 @@
+package com.musify.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.DTOs.UserController.UserChangeDTO;
+import com.musify.DTOs.UserController.UserChangePageDTO;
+import com.musify.changes.ChangeSink;
+import com.musify.changes.ChangeSinkType;
+import com.musify.changes.FileChangeSink;
+import com.musify.changes.InMemoryChangeSink;
+import com.musify.logging.CustomLogging;
+import com.musify.models.UserChange;
+import com.musify.repositories.UserChangeRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Relays the {@code user_changes} outbox that user writes append to in
+ * their own transactions (see {@link UserChangeRepository}): every
+ * {@code relay-interval-ms} it numbers newly committed rows, hands them to
+ * the configured {@link ChangeSink} and purges rows older than the
+ * retention. Every node runs the relay; the cursor row's lock lets one at a
+ * time do the work, and the others only pick up how far it got.
+ *
+ * Consumers read the same sequence through {@link #getChanges}, which waits
+ * for the relay to report progress instead of querying the table while
+ * nothing has changed.
+ */
+@Service
+public class UserChangeService implements MeterBinder {
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final long REPLICA_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Autowired
+    UserChangeRepository userChangeRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JsonMapper jsonMapper;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.changes.relay.enabled:true}")
+    private boolean relayEnabled;
+    @Value("${musify.changes.batch-size:500}")
+    private int batchSize;
+    @Value("${musify.changes.max-page-size:1000}")
+    private int maxPageSize;
+    @Value("${musify.changes.max-wait-ms:30000}")
+    private long maxWaitMillis;
+    @Value("${musify.changes.retention-hours:168}")
+    private long retentionHours;
+    @Value("${musify.changes.purge-interval-ms:600000}")
+    private long purgeIntervalMillis;
+    @Value("${musify.changes.sink.type:NONE}")
+    private ChangeSinkType sinkType;
+    @Value("${musify.changes.sink.file:changes/user-changes.ndjson}")
+    private String sinkFile;
+    @Value("${musify.changes.sink.sync:true}")
+    private boolean sinkSync;
+    @Value("${musify.changes.sink.memory-capacity:10000}")
+    private int sinkMemoryCapacity;
+
+    private ChangeSink sink;
+    private TransactionTemplate readOnlyTransaction;
+    private final ReentrantLock progressLock = new ReentrantLock();
+    private final Condition progressed = progressLock.newCondition();
+    private volatile long sequenced;
+    private volatile long published;
+    private volatile long purged;
+    private long lastPurgeMillis;
+
+    @PostConstruct
+    void start() throws IOException {
+        sink = switch (sinkType) {
+            case FILE -> new FileChangeSink(Path.of(sinkFile), jsonMapper.writer(), sinkSync);
+            case MEMORY -> new InMemoryChangeSink(sinkMemoryCapacity);
+            case NONE -> null;
+        };
+        // Consumers' reads may go to a replica; they see a prefix of the
+        // sequence, since the relay assigns it in one transaction at a time
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (sink != null)
+            sink.close();
+    }
+
+    /**
+     * The sink this node publishes to, or null when it publishes nowhere.
+     */
+    public ChangeSink getSink() {
+        return sink;
+    }
+
+    @Scheduled(fixedDelayString = "${musify.changes.relay-interval-ms:200}")
+    public void relay() {
+        if (!relayEnabled)
+            return;
+        try {
+            sequenceCommitted();
+            if (sink != null)
+                publishSequenced();
+            if (retentionHours > 0 && System.currentTimeMillis() - lastPurgeMillis >= purgeIntervalMillis) {
+                purgeExpired();
+                lastPurgeMillis = System.currentTimeMillis();
+            }
+        } catch (DataAccessException | UncheckedIOException exception) {
+            logger.error(getClass().getSimpleName(), "relay", "Change relay failed: " + exception.getMessage());
+        }
+    }
+
+    private void sequenceCommitted() {
+        if (!userChangeRepository.hasUnsequenced()) {
+            UserChangeRepository.Cursor cursor = userChangeRepository.findCursor();
+            published = cursor.getPublished();
+            purged = cursor.getPurged();
+            advance(cursor.getSequenced());
+            return;
+        }
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            long[] progress = transactionTemplate.execute(status -> {
+                UserChangeRepository.Cursor cursor = userChangeRepository.lockCursor();
+                List<Long> ids = userChangeRepository.findUnsequencedIds(batchSize);
+                long last = cursor.getSequenced() + ids.size();
+                if (!ids.isEmpty()) {
+                    userChangeRepository.assignSequence(ids, cursor.getSequenced() + 1);
+                    userChangeRepository.updateSequenced(last);
+                }
+                published = cursor.getPublished();
+                purged = cursor.getPurged();
+                return new long[] { last, ids.size() };
+            });
+            advance(progress[0]);
+            if (progress[1] < batchSize)
+                return;
+        }
+    }
+
+    private void publishSequenced() {
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            int count = transactionTemplate.execute(status -> {
+                UserChangeRepository.Cursor cursor = userChangeRepository.lockCursor();
+                List<UserChange> changes = userChangeRepository.findAfter(cursor.getPublished(), batchSize);
+                if (changes.isEmpty())
+                    return 0;
+                try {
+                    sink.publish(toDTOs(changes));
+                } catch (IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+                long last = changes.get(changes.size() - 1).getSeq();
+                userChangeRepository.updatePublished(last);
+                published = last;
+                return changes.size();
+            });
+            if (count < batchSize)
+                return;
+        }
+    }
+
+    /**
+     * Deletes rows changed more than {@code retention-hours} ago, but none
+     * this node's sink has yet to publish.
+     */
+    private void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            long[] progress = transactionTemplate.execute(status -> {
+                UserChangeRepository.Cursor cursor = userChangeRepository.lockCursor();
+                long upTo = userChangeRepository.findPurgeableUpTo(cursor.getPurged(), cutoff, batchSize);
+                if (sink != null)
+                    upTo = Math.min(upTo, cursor.getPublished());
+                if (upTo <= cursor.getPurged())
+                    return new long[] { cursor.getPurged(), 0 };
+                int deleted = userChangeRepository.deleteSequencedBetween(cursor.getPurged(), upTo);
+                userChangeRepository.updatePurged(upTo);
+                return new long[] { upTo, deleted };
+            });
+            purged = progress[0];
+            if (progress[1] < batchSize)
+                return;
+        }
+    }
+
+    private void advance(long latest) {
+        if (latest <= sequenced)
+            return;
+        progressLock.lock();
+        try {
+            sequenced = latest;
+            progressed.signalAll();
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the relay has sequenced past {@code seq} or the time runs
+     * out. A lock and condition rather than {@code wait}, which would pin a
+     * virtual request thread to its carrier.
+     */
+    private boolean awaitSequencedAfter(long seq, long timeoutNanos) throws InterruptedException {
+        if (sequenced > seq)
+            return true;
+        long remaining = timeoutNanos;
+        progressLock.lock();
+        try {
+            while (sequenced <= seq) {
+                if (remaining <= 0)
+                    return false;
+                remaining = progressed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * The highest {@code seq} handed out so far.
+     */
+    public long getLatestSeq() {
+        return sequenced;
+    }
+
+    /**
+     * True when changes after {@code since} have already been purged, so a
+     * consumer at that position has to resynchronize from the user list.
+     */
+    public boolean isExpired(long since) {
+        return since < purged;
+    }
+
+    /**
+     * Returns up to {@code limit} changes after {@code since}, in order. When
+     * there are none yet, waits up to {@code waitMillis} (capped by
+     * {@code max-wait-ms}) for one; the page is empty if none arrives. A
+     * {@code limit} of 0 returns the current position without waiting.
+     */
+    public UserChangePageDTO getChanges(long since, int limit, long waitMillis) {
+        int pageSize = Math.max(0, Math.min(limit, maxPageSize));
+        if (pageSize == 0)
+            return new UserChangePageDTO(List.of(), Math.max(since, sequenced));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(waitMillis,
+                maxWaitMillis)));
+        try {
+            while (true) {
+                long latest = sequenced;
+                if (latest > since) {
+                    List<UserChange> changes = readOnlyTransaction
+                            .execute(status -> userChangeRepository.findAfter(since, pageSize));
+                    if (!changes.isEmpty())
+                        return new UserChangePageDTO(toDTOs(changes), changes.get(changes.size() - 1).getSeq());
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return new UserChangePageDTO(List.of(), since);
+                // With nothing newer, wait for the relay; when the rows are
+                // sequenced but not visible yet, a replica is behind, so retry
+                // shortly
+                if (latest > since)
+                    awaitSequencedAfter(latest, Math.min(remaining, REPLICA_RETRY_NANOS));
+                else
+                    awaitSequencedAfter(since, remaining);
+            }
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return new UserChangePageDTO(List.of(), since);
+        }
+    }
+
+    private static List<UserChangeDTO> toDTOs(List<UserChange> changes) {
+        List<UserChangeDTO> dtos = new ArrayList<>(changes.size());
+        for (UserChange change : changes) {
+            dtos.add(new UserChangeDTO(change.getSeq(), change.getType(), change.getUserId(), change.getUsername(),
+                    change.getImagePath(), change.getUserUpdatedAt(), change.getChangedAt()));
+        }
+        return dtos;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("musify.changes.sequence", this, UserChangeService::getLatestSeq)
+                .description("Highest sequence number assigned to a user change")
+                .register(registry);
+        if (sink != null) {
+            Gauge.builder("musify.changes.unpublished", this, service -> service.sequenced - service.published)
+                    .description("User changes sequenced but not yet published to the sink")
+                    .register(registry);
+        }
+    }
+}
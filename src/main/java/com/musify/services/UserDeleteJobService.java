@@ -0,0 +1,199 @@
+package com.musify.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.musify.DTOs.UserController.UserDeleteJobDTO;
+import com.musify.logging.CustomLogging;
+import com.musify.models.UserFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs bulk deletes in the background and keeps their progress in memory
+ * for polling. Jobs are not persisted: one cut short by a shutdown is marked
+ * failed on its way down, and submitting it again deletes the rest, since
+ * the chunks it already committed no longer match.
+ */
+@Service
+public class UserDeleteJobService implements MeterBinder {
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_CANCELLED = "CANCELLED";
+    private static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    UserDeleteService userDeleteService;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.users.bulk-delete.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+    @Value("${musify.users.bulk-delete.retained-jobs:100}")
+    private int retainedJobs;
+
+    private final Map<String, DeleteJob> jobs = new LinkedHashMap<>();
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private ExecutorService executor;
+    private volatile boolean shuttingDown;
+
+    private class DeleteJob implements UserDeleteService.ProgressListener {
+        final String id;
+        final Long total;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        volatile String status = STATUS_RUNNING;
+        volatile boolean cancelRequested;
+        volatile long processed;
+        volatile long deleted;
+        volatile long lastId;
+        volatile String errorMessage;
+        volatile LocalDateTime finishedAt;
+
+        DeleteJob(String id, Long total) {
+            this.id = id;
+            this.total = total;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequested || shuttingDown || Thread.currentThread().isInterrupted();
+        }
+
+        @Override
+        public void chunkCommitted(UserDeleteService.Progress progress) {
+            processed = progress.getProcessed();
+            deleted = progress.getDeleted();
+            lastId = progress.getLastId();
+        }
+
+        UserDeleteJobDTO toDTO() {
+            UserDeleteJobDTO dto = new UserDeleteJobDTO();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setTotal(total);
+            dto.setProcessed(processed);
+            dto.setDeleted(deleted);
+            dto.setSkipped(processed - deleted);
+            dto.setLastId(lastId);
+            dto.setErrorMessage(errorMessage);
+            dto.setFinishedAt(finishedAt);
+            dto.setCreatedAt(createdAt);
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            long elapsedMillis = Math.max(1, Duration.between(createdAt, end).toMillis());
+            dto.setRowsPerSecond(processed * 1000.0 / elapsedMillis);
+            return dto;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-delete-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shuttingDown = true;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("musify.users.delete.jobs", runningJobs, AtomicInteger::get)
+                .description("Bulk user delete jobs running")
+                .register(registry);
+    }
+
+    /**
+     * Starts deleting the users matching {@code filter}, only among
+     * {@code ids} when that is not null. Returns empty when
+     * {@code max-concurrent-jobs} are already running.
+     */
+    public Optional<UserDeleteJobDTO> submit(List<Long> ids, UserFilter filter) {
+        if (runningJobs.incrementAndGet() > maxConcurrentJobs) {
+            runningJobs.decrementAndGet();
+            logger.warn(getClass().getSimpleName(), "submit", "Too many delete jobs running");
+            return Optional.empty();
+        }
+
+        DeleteJob job = new DeleteJob(UUID.randomUUID().toString(), ids == null ? null : (long) ids.size());
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            evictFinishedJobs();
+        }
+        logger.info(getClass().getSimpleName(), "submit", "Started delete job " + job.id);
+        executor.submit(() -> run(job, ids, filter));
+        return Optional.of(job.toDTO());
+    }
+
+    public Optional<UserDeleteJobDTO> getJob(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id)).map(DeleteJob::toDTO);
+        }
+    }
+
+    public Optional<UserDeleteJobDTO> cancel(String id) {
+        DeleteJob job;
+        synchronized (jobs) {
+            job = jobs.get(id);
+        }
+        if (job == null)
+            return Optional.empty();
+        job.cancelRequested = true;
+        logger.info(getClass().getSimpleName(), "cancel", "Cancellation requested for delete job " + id);
+        return Optional.of(job.toDTO());
+    }
+
+    private void run(DeleteJob job, List<Long> ids, UserFilter filter) {
+        String status;
+        try {
+            userDeleteService.deleteUsers(ids, filter, job);
+            if (job.cancelRequested) {
+                status = STATUS_CANCELLED;
+            } else if (shuttingDown || Thread.currentThread().isInterrupted()) {
+                status = STATUS_FAILED;
+                job.errorMessage = "Interrupted by shutdown";
+            } else {
+                status = STATUS_COMPLETED;
+            }
+        } catch (RuntimeException exception) {
+            logger.error(getClass().getSimpleName(), "run",
+                    "Delete job " + job.id + " failed: " + exception.getMessage());
+            status = STATUS_FAILED;
+            job.errorMessage = exception.getMessage();
+        }
+        job.finishedAt = LocalDateTime.now();
+        job.status = status;
+        runningJobs.decrementAndGet();
+        logger.info(getClass().getSimpleName(), "run", "Delete job " + job.id + " finished as " + status
+                + " after deleting " + job.deleted + " users");
+    }
+
+    /**
+     * Forgets the oldest finished jobs beyond {@code retained-jobs}.
+     */
+    private void evictFinishedJobs() {
+        Iterator<DeleteJob> iterator = jobs.values().iterator();
+        while (jobs.size() > retainedJobs && iterator.hasNext()) {
+            if (iterator.next().finishedAt != null)
+                iterator.remove();
+        }
+    }
+}
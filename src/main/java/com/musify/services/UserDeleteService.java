@@ -0,0 +1,140 @@
+package com.musify.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.logging.CustomLogging;
+import com.musify.models.UserChange;
+import com.musify.models.UserFilter;
+import com.musify.repositories.UserChangeRepository;
+import com.musify.repositories.UserRepository;
+
+/**
+ * Deletes users in chunks of {@code chunk-size}, each in a short transaction
+ * of its own, instead of one statement that locks every matching row until
+ * it is done. Candidates are found by walking the primary key without locks;
+ * each chunk then locks those that still match, deletes them and records a
+ * change per user, and pauses {@code pause-ms} before the next one so that
+ * writers waiting on its locks get their turn.
+ *
+ * Users who own playlists are skipped, as their rows are still referenced.
+ */
+@Service
+public class UserDeleteService {
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserChangeRepository userChangeRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.users.bulk-delete.chunk-size:500}")
+    private int chunkSize;
+    @Value("${musify.users.bulk-delete.pause-ms:10}")
+    private long pauseMillis;
+
+    /**
+     * How far a bulk delete has got: the candidates looked at so far, how
+     * many of them were deleted and skipped, and the highest candidate id.
+     */
+    public static class Progress {
+        private long processed;
+        private long deleted;
+        private long lastId;
+
+        public long getProcessed() {
+            return processed;
+        }
+
+        public long getDeleted() {
+            return deleted;
+        }
+
+        public long getSkipped() {
+            return processed - deleted;
+        }
+
+        public long getLastId() {
+            return lastId;
+        }
+    }
+
+    /**
+     * Receives control between chunks of a bulk delete.
+     */
+    public interface ProgressListener {
+        boolean isCancelled();
+
+        void chunkCommitted(Progress progress);
+    }
+
+    /**
+     * Deletes the users matching {@code filter}, only among {@code ids} when
+     * that is not null. Stops before the next chunk once the listener
+     * reports cancellation or the thread is interrupted; chunks already
+     * committed stay deleted.
+     */
+    public Progress deleteUsers(List<Long> ids, UserFilter filter, ProgressListener listener) {
+        List<Long> sortedIds = null;
+        if (ids != null) {
+            TreeSet<Long> distinct = new TreeSet<>();
+            for (Long id : ids) {
+                if (id != null)
+                    distinct.add(id);
+            }
+            sortedIds = new ArrayList<>(distinct);
+        }
+
+        Progress progress = new Progress();
+        int position = 0;
+        while (listener == null || !listener.isCancelled()) {
+            List<Long> candidates;
+            if (sortedIds != null) {
+                candidates = sortedIds.subList(position, Math.min(position + chunkSize, sortedIds.size()));
+                position += candidates.size();
+            } else {
+                candidates = userRepository.findIdsMatching(filter, progress.lastId, chunkSize);
+            }
+            if (candidates.isEmpty())
+                break;
+
+            List<Long> deleted = transactionTemplate.execute(status -> {
+                List<Long> deletable = userRepository.lockDeletable(candidates, filter);
+                userRepository.deleteAllById(deletable);
+                userChangeRepository.appendAll(UserChange.TYPE_DELETED, deletable);
+                return deletable;
+            });
+            progress.processed += candidates.size();
+            progress.deleted += deleted.size();
+            progress.lastId = candidates.get(candidates.size() - 1);
+            if (listener != null)
+                listener.chunkCommitted(progress);
+
+            if (candidates.size() < chunkSize || !pause())
+                break;
+        }
+        logger.info(getClass().getSimpleName(), "deleteUsers", "Deleted " + progress.deleted + " of "
+                + progress.processed + " candidate users");
+        return progress;
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0)
+            return !Thread.currentThread().isInterrupted();
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.musify.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.musify.DTOs.UserController.ImportJobDTO;
+import com.musify.DTOs.UserController.UserImportResultDTO;
+import com.musify.DTOs.UserController.UserImportRowDTO;
+import com.musify.logging.CustomLogging;
+import com.musify.models.ImportJob;
+import com.musify.repositories.ImportJobRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs CSV imports in the background. Uploads are spooled to disk, and each
+ * committed chunk records the last imported line in {@code import_jobs} so
+ * that jobs interrupted by a shutdown resume from there on the next start.
+ *
+ * Each unfinished job is owned by the node that spooled or last claimed it,
+ * which renews a lease on it every {@code heartbeat-interval-ms}. A node only
+ * resumes jobs it owns, or takes over those whose lease ran out more than
+ * {@code lease-ms} ago and whose spooled file it can read. Progress is only
+ * recorded while the lease is held, so a node that lost a job stops it.
+ */
+@Service
+public class UserImportJobService implements MeterBinder {
+    private static final String IMPORT_DIR = "private/imports/";
+    private static final int MAX_REPORTED_ROWS = 1000;
+
+    @Autowired
+    UserImportService userImportService;
+    @Autowired
+    ImportJobRepository importJobRepository;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.import.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+    @Value("${musify.import.max-queued-jobs:16}")
+    private int maxQueuedJobs;
+    @Value("${musify.import.node-id:}")
+    private String nodeId;
+    @Value("${server.port:8080}")
+    private int serverPort;
+    @Value("${musify.import.lease-ms:60000}")
+    private long leaseMillis;
+
+    private final Map<String, RunningJob> activeJobs = new ConcurrentHashMap<>();
+    // Keeps a job from being claimed while it is being submitted; not
+    // synchronized, which would pin the virtual thread during the insert
+    private final ReentrantLock schedulingLock = new ReentrantLock();
+    private ThreadPoolExecutor executor;
+    private volatile boolean shuttingDown;
+
+    private class RunningJob implements UserImportService.ChunkListener {
+        final String id;
+        volatile boolean cancelRequested;
+        volatile boolean leaseLost;
+        int persistedRows;
+
+        RunningJob(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequested || leaseLost || shuttingDown || Thread.currentThread().isInterrupted();
+        }
+
+        @Override
+        public void chunkCommitted(long lastRowNumber, UserImportResultDTO result) {
+            if (importJobRepository.updateProgress(id, nodeId, lastRowNumber,
+                    result.getCreated(), result.getSkipped(), result.getFailed()) == 0) {
+                // Another node owns the job now, so the chunk's rows are
+                // rolled back with the progress it would have recorded
+                leaseLost = true;
+                throw new IllegalStateException("Lease lost on import job " + id);
+            }
+            List<UserImportRowDTO> rows = result.getRows();
+            importJobRepository.addRows(id, rows.subList(persistedRows, rows.size()));
+            persistedRows = rows.size();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (nodeId.isBlank())
+            nodeId = defaultNodeId();
+        // Jobs past the running ones wait in the bounded queue; the pool
+        // refuses any more, which is what turns an upload away
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs), Thread.ofVirtual().name("user-import-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info(getClass().getSimpleName(), "start", "Running import jobs as node " + nodeId);
+    }
+
+    /**
+     * The host name and port, which stay the same across restarts, so that
+     * a restarted node resumes its own jobs without waiting for the lease.
+     */
+    private String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + ":" + serverPort;
+        } catch (IOException unknownHost) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shuttingDown = true;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("musify.import.jobs", activeJobs, Map::size)
+                .description("CSV import jobs queued or running")
+                .tag("state", "active")
+                .register(registry);
+        Gauge.builder("musify.import.jobs", this, service -> service.executor.getActiveCount())
+                .description("CSV import jobs holding a run permit")
+                .tag("state", "running")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        claimJobs();
+    }
+
+    /**
+     * Renews the leases on this node's jobs and stops those it no longer
+     * holds, then claims jobs whose owner stopped renewing.
+     */
+    @Scheduled(initialDelayString = "${musify.import.heartbeat-interval-ms:15000}",
+            fixedDelayString = "${musify.import.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        for (RunningJob running : activeJobs.values()) {
+            if (importJobRepository.renewLease(running.id, nodeId, now) == 0 && !running.leaseLost) {
+                running.leaseLost = true;
+                logger.warn(getClass().getSimpleName(), "heartbeat",
+                        "Import job " + running.id + " was finished or taken over elsewhere, stopping it");
+            }
+        }
+        claimJobs();
+    }
+
+    private void claimJobs() {
+        List<ImportJob> jobs = importJobRepository.findByStatusIn(ImportJob.STATUS_QUEUED, ImportJob.STATUS_RUNNING);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minus(Duration.ofMillis(leaseMillis));
+        schedulingLock.lock();
+        try {
+            for (ImportJob job : jobs) {
+                if (shuttingDown || activeJobs.containsKey(job.getId()))
+                    continue;
+                boolean owned = nodeId.equals(job.getOwnerNode());
+                boolean expired = job.getHeartbeatAt() == null || job.getHeartbeatAt().isBefore(expiredBefore);
+                if (!owned && !expired)
+                    continue;
+                if (!Files.exists(Paths.get(job.getFilePath()))) {
+                    // Another node's file may be on its own disk; only ours is known to be lost
+                    if (owned)
+                        importJobRepository.markFinished(job.getId(), nodeId, ImportJob.STATUS_FAILED,
+                                "Spooled file is missing");
+                    continue;
+                }
+                if (importJobRepository.claim(job.getId(), nodeId, now, expiredBefore) == 0)
+                    continue;
+                if (!schedule(job)) {
+                    // The lease runs out, and the job is claimed again once there is room
+                    logger.warn(getClass().getSimpleName(), "claimJobs", "Import queue is full, leaving job "
+                            + job.getId() + " for later");
+                    break;
+                }
+                logger.info(getClass().getSimpleName(), "claimJobs", (owned ? "Resuming" : "Taking over")
+                        + " import job " + job.getId() + " after row " + job.getCommittedRow());
+            }
+        } finally {
+            schedulingLock.unlock();
+        }
+    }
+
+    public Optional<ImportJobDTO> submit(MultipartFile csvFile) throws IOException {
+        // Saves spooling an upload that would be turned away; schedule()
+        // decides, since the queue can fill up in the meantime
+        if (executor.getQueue().remainingCapacity() == 0) {
+            logger.warn(getClass().getSimpleName(), "submit", "Import queue is full");
+            return Optional.empty();
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path importDir = Paths.get(IMPORT_DIR).toAbsolutePath();
+        Files.createDirectories(importDir);
+        Path spoolFile = importDir.resolve(id + ".csv");
+        csvFile.transferTo(spoolFile);
+
+        ImportJob job = new ImportJob();
+        job.setId(id);
+        job.setStatus(ImportJob.STATUS_QUEUED);
+        job.setFilePath(spoolFile.toString());
+        job.setFileSize(Files.size(spoolFile));
+        job.setOwnerNode(nodeId);
+        job.setHeartbeatAt(LocalDateTime.now());
+        schedulingLock.lock();
+        try {
+            importJobRepository.create(job);
+            if (!schedule(job)) {
+                importJobRepository.deleteById(id);
+                deleteSpoolFile(job);
+                logger.warn(getClass().getSimpleName(), "submit", "Import queue is full");
+                return Optional.empty();
+            }
+        } finally {
+            schedulingLock.unlock();
+        }
+        logger.info(getClass().getSimpleName(), "submit", "Queued import job " + id);
+        return getJob(id);
+    }
+
+    public Optional<ImportJobDTO> getJob(String id) {
+        return importJobRepository.findById(id).map(this::toDTO);
+    }
+
+    public Optional<ImportJobDTO> cancel(String id) {
+        Optional<ImportJob> job = importJobRepository.findById(id);
+        if (job.isEmpty())
+            return Optional.empty();
+
+        RunningJob running = activeJobs.get(id);
+        if (running != null) {
+            running.cancelRequested = true;
+            logger.info(getClass().getSimpleName(), "cancel", "Cancellation requested for import job " + id);
+        } else if (!isTerminal(job.get().getStatus())) {
+            importJobRepository.markFinished(id, ImportJob.STATUS_CANCELLED, null);
+            deleteSpoolFile(job.get());
+        }
+        return getJob(id);
+    }
+
+    /**
+     * Queues the job, or returns false when the queue is full.
+     */
+    private boolean schedule(ImportJob job) {
+        RunningJob running = new RunningJob(job.getId());
+        activeJobs.put(job.getId(), running);
+        try {
+            executor.execute(() -> run(job, running));
+            return true;
+        } catch (RejectedExecutionException queueFull) {
+            activeJobs.remove(job.getId(), running);
+            return false;
+        }
+    }
+
+    private void run(ImportJob job, RunningJob running) {
+        try {
+            if (running.cancelRequested) {
+                finish(job, ImportJob.STATUS_CANCELLED, null);
+                return;
+            }
+
+            if (running.leaseLost || importJobRepository.markRunning(job.getId(), nodeId) == 0) {
+                lostLease(job);
+                return;
+            }
+            UserImportResultDTO result = new UserImportResultDTO();
+            result.setCreated(job.getCreatedCount());
+            result.setSkipped(job.getSkippedCount());
+            result.setFailed(job.getFailedCount());
+
+            try (InputStream inputStream = Files.newInputStream(Paths.get(job.getFilePath()))) {
+                userImportService.importUsers(inputStream, job.getCommittedRow(), result, running);
+            }
+
+            if (running.leaseLost) {
+                lostLease(job);
+            } else if (running.cancelRequested) {
+                finish(job, ImportJob.STATUS_CANCELLED, null);
+            } else if (!shuttingDown) {
+                finish(job, ImportJob.STATUS_COMPLETED, null);
+            }
+        } catch (IOException | RuntimeException exception) {
+            if (running.leaseLost) {
+                lostLease(job);
+            } else if (!shuttingDown) {
+                logger.error(getClass().getSimpleName(), "run",
+                        "Import job " + job.getId() + " failed: " + exception.getMessage());
+                finish(job, ImportJob.STATUS_FAILED, exception.getMessage());
+            }
+        } finally {
+            activeJobs.remove(job.getId(), running);
+        }
+    }
+
+    private void finish(ImportJob job, String status, String errorMessage) {
+        if (importJobRepository.markFinished(job.getId(), nodeId, status, errorMessage) == 0) {
+            lostLease(job);
+            return;
+        }
+        deleteSpoolFile(job);
+        logger.info(getClass().getSimpleName(), "finish", "Import job " + job.getId() + " finished as " + status);
+    }
+
+    /**
+     * Leaves the job to whichever node holds it now. The spooled file is
+     * only deleted once the job has finished, as a node taking it over may
+     * be reading the same file.
+     */
+    private void lostLease(ImportJob job) {
+        logger.warn(getClass().getSimpleName(), "lostLease", "Stopped import job " + job.getId()
+                + ", which this node no longer holds");
+        importJobRepository.findById(job.getId())
+                .filter(current -> isTerminal(current.getStatus()))
+                .ifPresent(this::deleteSpoolFile);
+    }
+
+    private void deleteSpoolFile(ImportJob job) {
+        try {
+            Files.deleteIfExists(Paths.get(job.getFilePath()));
+        } catch (IOException e) {
+            logger.warn(getClass().getSimpleName(), "deleteSpoolFile",
+                    "Could not delete spooled file for import job " + job.getId());
+        }
+    }
+
+    private static boolean isTerminal(String status) {
+        return ImportJob.STATUS_COMPLETED.equals(status)
+                || ImportJob.STATUS_FAILED.equals(status)
+                || ImportJob.STATUS_CANCELLED.equals(status);
+    }
+
+    private ImportJobDTO toDTO(ImportJob job) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus());
+        dto.setFileSize(job.getFileSize());
+        dto.setCommittedRow(job.getCommittedRow());
+        dto.setCreated(job.getCreatedCount());
+        dto.setSkipped(job.getSkippedCount());
+        dto.setFailed(job.getFailedCount());
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setCreatedAt(job.getCreatedAt());
+
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long elapsedMillis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            long processed = job.getCreatedCount() + job.getSkippedCount() + job.getFailedCount();
+            dto.setRowsPerSecond(processed * 1000.0 / elapsedMillis);
+        }
+
+        dto.setRows(importJobRepository.findRows(job.getId(), MAX_REPORTED_ROWS));
+        return dto;
+    }
+}
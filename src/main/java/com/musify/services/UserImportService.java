@@ -0,0 +1,344 @@
+package com.musify.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.DTOs.UserController.UserImportResultDTO;
+import com.musify.DTOs.UserController.UserImportRowDTO;
+import com.musify.cache.UsernameFilter;
+import com.musify.credentials.CredentialService;
+import com.musify.csv.CsvReader;
+import com.musify.logging.CustomLogging;
+import com.musify.metrics.Instrumentation;
+import com.musify.models.User;
+import com.musify.models.UserChange;
+import com.musify.repositories.UserChangeRepository;
+import com.musify.repositories.UserRepository;
+
+/**
+ * Streams a users CSV ({@code username,password_hash[,...]} with a header row)
+ * into the database in chunks: one {@code IN (...)} duplicate check and one
+ * JDBC batch insert per chunk. Each chunk is committed in its own transaction,
+ * along with one outbox change per created user, recorded by a single
+ * {@code INSERT ... SELECT}.
+ *
+ * Despite its name, the second column holds the password. The passwords of
+ * the users a chunk will create are hashed across every core by the
+ * {@link CredentialService} before its transaction starts, and the next
+ * chunk is only read once they are done.
+ *
+ * Only names the {@link UsernameFilter} cannot rule out are checked, so a
+ * chunk of new users usually skips the query. Duplicates the filter misses
+ * fail the batch on the unique constraint and are reported by the row-by-row
+ * retry.
+ */
+@Service
+public class UserImportService {
+    static final int MAX_USERNAME_LENGTH = 32;
+    private static final int MAX_REPORTED_ROWS = 1000;
+    private static final String STATUS_SKIPPED = "SKIPPED";
+    private static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserChangeRepository userChangeRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    UsernameFilter usernameFilter;
+    @Autowired
+    CustomLogging logger;
+    @Autowired
+    Instrumentation instrumentation;
+    @Autowired
+    CredentialService credentialService;
+
+    @Value("${musify.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private static class PendingRow {
+        final long rowNumber;
+        final User user;
+        final String password;
+
+        PendingRow(long rowNumber, User user, String password) {
+            this.rowNumber = rowNumber;
+            this.user = user;
+            this.password = password;
+        }
+    }
+
+    /**
+     * Receives control between chunks of a long-running import.
+     */
+    public interface ChunkListener {
+        boolean isCancelled();
+
+        /**
+         * Called inside the chunk's transaction, after its rows were written,
+         * so state saved here commits atomically with them; throwing rolls
+         * the chunk back and ends the import.
+         */
+        void chunkCommitted(long lastRowNumber, UserImportResultDTO result);
+    }
+
+    public UserImportResultDTO importUsers(InputStream inputStream) throws IOException {
+        return importUsers(inputStream, 0, new UserImportResultDTO(), null);
+    }
+
+    /**
+     * Imports every data row whose line number is greater than
+     * {@code resumeAfterRow}, accumulating into {@code result}. Stops before
+     * the next row once the listener reports cancellation; rows of a chunk
+     * that was not yet committed are discarded.
+     */
+    public UserImportResultDTO importUsers(InputStream inputStream, long resumeAfterRow, UserImportResultDTO result,
+            ChunkListener listener) throws IOException {
+        logger.info(getClass().getSimpleName(), "importUsers", "Starting CSV import after row " + resumeAfterRow);
+        Map<String, PendingRow> chunk = new LinkedHashMap<>();
+        long lastRowNumber = resumeAfterRow;
+
+        try (CsvReader csvReader = new CsvReader(inputStream)) {
+            List<String> header = csvReader.readRecord();
+            if (header == null) {
+                logger.warn(getClass().getSimpleName(), "importUsers", "CSV file has no header row");
+                return result;
+            }
+
+            List<String> fields;
+            while ((fields = csvReader.readRecord()) != null) {
+                long rowNumber = csvReader.getRecordLineNumber();
+                if (rowNumber <= resumeAfterRow)
+                    continue;
+                if (listener != null && listener.isCancelled()) {
+                    logger.warn(getClass().getSimpleName(), "importUsers", "CSV import cancelled at row " + rowNumber);
+                    return result;
+                }
+
+                lastRowNumber = rowNumber;
+                if (fields.size() < 2) {
+                    reportRow(result, rowNumber, null, STATUS_FAILED, "Expected username and password_hash columns");
+                    continue;
+                }
+
+                String username = sanitize(fields.get(0));
+                String password = sanitize(fields.get(1));
+                if (username.isEmpty() || password.isEmpty()) {
+                    reportRow(result, rowNumber, username, STATUS_FAILED, "Username and password_hash are required");
+                    continue;
+                }
+                if (!CredentialService.isAcceptable(password)) {
+                    reportRow(result, rowNumber, username, STATUS_FAILED,
+                            "Password longer than " + CredentialService.MAX_PASSWORD_BYTES + " bytes");
+                    continue;
+                }
+                if (username.length() > MAX_USERNAME_LENGTH) {
+                    reportRow(result, rowNumber, username, STATUS_FAILED,
+                            "Username longer than " + MAX_USERNAME_LENGTH + " characters");
+                    continue;
+                }
+
+                String key = username.toLowerCase(Locale.ROOT);
+                if (chunk.containsKey(key)) {
+                    reportRow(result, rowNumber, username, STATUS_SKIPPED, "Duplicate username in file");
+                    continue;
+                }
+
+                User user = new User();
+                user.setUsername(username);
+                chunk.put(key, new PendingRow(rowNumber, user, password));
+
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(chunk, lastRowNumber, result, listener);
+                }
+            }
+            flushChunk(chunk, lastRowNumber, result, listener);
+        }
+
+        logger.info(getClass().getSimpleName(), "importUsers",
+                "CSV import completed. Created " + result.getCreated() + ", skipped " + result.getSkipped()
+                        + ", failed " + result.getFailed());
+        return result;
+    }
+
+    private void flushChunk(Map<String, PendingRow> chunk, long lastRowNumber, UserImportResultDTO result,
+            ChunkListener listener) {
+        List<PendingRow> toInsert = skipExisting(chunk, result);
+        hashPasswords(toInsert);
+        transactionTemplate.executeWithoutResult(status -> {
+            insertChunk(toInsert, result, status);
+            if (listener != null)
+                listener.chunkCommitted(lastRowNumber, result);
+        });
+    }
+
+    /**
+     * Reports the rows whose users already exist and returns the others,
+     * emptying the chunk.
+     */
+    private List<PendingRow> skipExisting(Map<String, PendingRow> chunk, UserImportResultDTO result) {
+        if (chunk.isEmpty())
+            return List.of();
+
+        List<String> usernames = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk.values()) {
+            if (usernameFilter.mightContain(row.user.getUsername()))
+                usernames.add(row.user.getUsername());
+        }
+
+        Set<String> existing = new HashSet<>();
+        if (!usernames.isEmpty()) {
+            for (String username : userRepository.findExistingUsernames(usernames)) {
+                existing.add(username.toLowerCase(Locale.ROOT));
+            }
+            usernameFilter.recordFalsePositives(Math.max(0, usernames.size() - existing.size()));
+        }
+
+        List<PendingRow> toInsert = new ArrayList<>(chunk.size());
+        for (Map.Entry<String, PendingRow> entry : chunk.entrySet()) {
+            PendingRow row = entry.getValue();
+            if (existing.contains(entry.getKey())) {
+                reportRow(result, row.rowNumber, row.user.getUsername(), STATUS_SKIPPED, "User already exists");
+            } else {
+                toInsert.add(row);
+            }
+        }
+        chunk.clear();
+        return toInsert;
+    }
+
+    private void hashPasswords(List<PendingRow> rows) {
+        if (rows.isEmpty())
+            return;
+        List<String> passwords = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            passwords.add(row.password);
+        }
+        List<String> hashes = credentialService.hashAll(passwords);
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).user.setPasswordHash(hashes.get(i));
+        }
+    }
+
+    private void insertChunk(List<PendingRow> toInsert, UserImportResultDTO result, TransactionStatus status) {
+        if (toInsert.isEmpty())
+            return;
+
+        List<User> users = new ArrayList<>(toInsert.size());
+        for (PendingRow row : toInsert) {
+            users.add(row.user);
+        }
+
+        Object savepoint = status.createSavepoint();
+        try {
+            userRepository.createAll(users);
+            userChangeRepository.appendFromUsernames(UserChange.TYPE_CREATED, usernamesOf(users));
+            status.releaseSavepoint(savepoint);
+            result.setCreated(result.getCreated() + users.size());
+            instrumentation.countImportRows("created", users.size());
+        } catch (DataAccessException batchException) {
+            status.rollbackToSavepoint(savepoint);
+            logger.warn(getClass().getSimpleName(), "insertChunk",
+                    "Batch insert failed, retrying rows individually: " + batchException.getMessage());
+            insertIndividually(toInsert, result);
+        }
+    }
+
+    private static List<String> usernamesOf(List<User> users) {
+        List<String> usernames = new ArrayList<>(users.size());
+        for (User user : users) {
+            usernames.add(user.getUsername());
+        }
+        return usernames;
+    }
+
+    private void insertIndividually(List<PendingRow> rows, UserImportResultDTO result) {
+        for (PendingRow row : rows) {
+            try {
+                User created = userRepository.create(row.user);
+                userChangeRepository.appendFromUser(UserChange.TYPE_CREATED, created.getId());
+                result.setCreated(result.getCreated() + 1);
+                instrumentation.countImportRows("created", 1);
+            } catch (DuplicateKeyException duplicateKeyException) {
+                reportRow(result, row.rowNumber, row.user.getUsername(), STATUS_SKIPPED, "User already exists");
+            } catch (DataAccessException dataAccessException) {
+                reportRow(result, row.rowNumber, row.user.getUsername(), STATUS_FAILED,
+                        dataAccessException.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void reportRow(UserImportResultDTO result, long rowNumber, String username, String status,
+            String reason) {
+        instrumentation.countImportRows(status.toLowerCase(Locale.ROOT), 1);
+        if (STATUS_SKIPPED.equals(status)) {
+            result.setSkipped(result.getSkipped() + 1);
+        } else {
+            result.setFailed(result.getFailed() + 1);
+        }
+
+        if (result.getRows().size() < MAX_REPORTED_ROWS) {
+            result.getRows().add(new UserImportRowDTO(rowNumber, username, status, reason));
+        } else {
+            result.setRowsTruncated(true);
+        }
+    }
+
+    /**
+     * Single-pass equivalent of removing {@code \p{C}} and {@code \s+} matches.
+     */
+    static String sanitize(String input) {
+        if (input == null)
+            return null;
+
+        int length = input.length();
+        StringBuilder sanitized = null;
+        int i = 0;
+        while (i < length) {
+            int codePoint = input.codePointAt(i);
+            int charCount = Character.charCount(codePoint);
+            if (isRemoved(codePoint)) {
+                if (sanitized == null) {
+                    sanitized = new StringBuilder(length);
+                    sanitized.append(input, 0, i);
+                }
+            } else if (sanitized != null) {
+                sanitized.appendCodePoint(codePoint);
+            }
+            i += charCount;
+        }
+        return sanitized == null ? input : sanitized.toString();
+    }
+
+    private static boolean isRemoved(int codePoint) {
+        switch (codePoint) {
+            case ' ', '\t', '\n', 0x0B, '\f', '\r':
+                return true;
+            default:
+                break;
+        }
+        switch (Character.getType(codePoint)) {
+            case Character.CONTROL, Character.FORMAT, Character.PRIVATE_USE, Character.SURROGATE,
+                    Character.UNASSIGNED:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
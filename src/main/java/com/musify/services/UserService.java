@@ -1,73 +1,519 @@
 package com.musify.services;
 
-import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.musify.DTOs.UserController.UserBatchCreateDTO;
+import com.musify.DTOs.UserController.UserBatchCreateItemDTO;
+import com.musify.DTOs.UserController.UserBatchCreateResultDTO;
+import com.musify.DTOs.UserController.UserBatchGetDTO;
+import com.musify.DTOs.UserController.UserBatchGetResultDTO;
+import com.musify.DTOs.UserController.UserCacheStatsDTO;
 import com.musify.DTOs.UserController.UserCreateDTO;
+import com.musify.DTOs.UserController.UserLoginDTO;
+import com.musify.DTOs.UserController.UserPageDTO;
 import com.musify.DTOs.UserController.UserResponseDTO;
 import com.musify.DTOs.UserController.UserUpdateDTO;
+import com.musify.cache.UserCache;
+import com.musify.cache.UsernameFilter;
+import com.musify.credentials.CredentialService;
+import com.musify.credentials.CredentialsBusyException;
+import com.musify.credentials.PasswordCheck;
 import com.musify.logging.CustomLogging;
+import com.musify.metrics.Instrumentation;
 import com.musify.models.User;
+import com.musify.models.UserChange;
+import com.musify.models.UserFilter;
+import com.musify.repositories.UserChangeRepository;
 import com.musify.repositories.UserRepository;
+import com.musify.storage.ImageStorage;
+import com.musify.storage.StoredImage;
 
+/**
+ * Read-only methods are marked {@code @Transactional(readOnly = true)} with
+ * {@code SUPPORTS} propagation: no transaction is started, but their queries
+ * share one connection and are routed to a read replica when replicas are
+ * configured (see {@link com.musify.datasource.ReplicaRoutingDataSource}).
+ *
+ * Writes record a change in the {@code user_changes} outbox in the same
+ * transaction (see {@link UserChangeService}). Passwords are hashed by the
+ * {@link CredentialService} before that transaction starts, so no connection
+ * is held while they are.
+ */
 @Service
 public class UserService {
-    private static final String USER_IMAGE_DIR = "private/images/users/";
+    private static final String CURSOR_PREFIX = "user:";
+    private static final String STATUS_CREATED = "CREATED";
+    private static final String STATUS_CONFLICT = "CONFLICT";
+    private static final String STATUS_INVALID = "INVALID";
+    private static final String STATUS_FAILED = "FAILED";
+    private static final long PAGE_VERSION_SEED = 0xCBF29CE484222325L;
 
     @Autowired
     UserRepository userRepository;
     @Autowired
+    UserChangeRepository userChangeRepository;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    UsernameFilter usernameFilter;
+    @Autowired
     CustomLogging logger;
+    @Autowired
+    Instrumentation instrumentation;
+    @Autowired
+    ImageStorage imageStorage;
+    @Autowired
+    ThumbnailService thumbnailService;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    UserDeleteService userDeleteService;
+    @Autowired
+    CredentialService credentialService;
+
+    @Value("${musify.users.max-page-size:1000}")
+    private int maxPageSize;
+    @Value("${musify.users.batch.max-items:1000}")
+    private int maxBatchItems;
+    @Value("${musify.users.batch.chunk-size:500}")
+    private int batchChunkSize;
+    @Value("${musify.users.username-filter.rebuild-interval-ms:3600000}")
+    private long usernameFilterRebuildIntervalMillis;
 
     private UserResponseDTO toResponseDTO(User user) {
         return new UserResponseDTO(
                 user.getId(),
                 user.getUsername(),
                 user.getImagePath(),
+                ThumbnailService.parseVariants(user.getImageVariants()),
                 user.getCreatedAt(),
                 user.getUpdatedAt());
     }
 
-    private User toEntity(UserCreateDTO dto) {
-        User user = new User();
-        user.setUsername(dto.getUsername());
-        user.setPasswordHash(dto.getPasswordHash());
-        return user;
+    private static String encodeCursor(long lastId) {
+        byte[] token = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
     }
 
-    private User toEntity(UserUpdateDTO dto) {
+    private static Optional<Long> decodeCursor(String cursor) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!token.startsWith(CURSOR_PREFIX))
+                return Optional.empty();
+            return Optional.of(Long.parseLong(token.substring(CURSOR_PREFIX.length())));
+        } catch (IllegalArgumentException invalidCursor) {
+            return Optional.empty();
+        }
+    }
+
+    private static User toEntity(String username, String passwordHash) {
         User user = new User();
-        user.setUsername(dto.getUsername());
-        user.setPasswordHash(dto.getPasswordHash());
+        user.setUsername(username);
+        user.setPasswordHash(passwordHash);
         return user;
     }
 
-    public UserResponseDTO createUser(UserCreateDTO userCreateDTO) {
+    /**
+     * Returns empty when the username is taken. Callers check
+     * {@link #usernameExists} first, so this only happens when another
+     * request created the same name in between.
+     */
+    public Optional<UserResponseDTO> createUser(UserCreateDTO userCreateDTO) {
         logger.info(getClass().getSimpleName(), "createUser", "Creating user: " + userCreateDTO.getUsername());
-        User user = toEntity(userCreateDTO);
-        userRepository.create(user);
-        User createdUser = userRepository.findByUsername(user.getUsername()).orElseThrow();
-        logger.info(getClass().getSimpleName(), "createUser", "User created: " + userCreateDTO.getUsername());
-        return toResponseDTO(createdUser);
+        User user = toEntity(userCreateDTO.getUsername(), credentialService.hash(userCreateDTO.getPassword()));
+        return transactionTemplate.execute(status -> {
+            try {
+                User createdUser = userRepository.create(user);
+                userChangeRepository.appendFromUser(UserChange.TYPE_CREATED, createdUser.getId());
+                logger.info(getClass().getSimpleName(), "createUser",
+                        "User created: " + userCreateDTO.getUsername());
+                return Optional.of(toResponseDTO(createdUser));
+            } catch (DuplicateKeyException duplicateKeyException) {
+                logger.warn(getClass().getSimpleName(), "createUser",
+                        "Username already taken: " + userCreateDTO.getUsername());
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Returns the user when the password is theirs, and empty otherwise.
+     * Rehashes the password with the current cost when it was hashed with a
+     * lower one, or stored as sent before passwords were hashed here; when
+     * the hashing pool is busy that waits for the next login.
+     */
+    public Optional<UserResponseDTO> login(UserLoginDTO userLoginDTO) {
+        Optional<User> user = userLoginDTO.getUsername() == null ? Optional.empty()
+                : userRepository.findCredentialsByUsername(userLoginDTO.getUsername());
+        String stored = user.map(User::getPasswordHash).orElse(null);
+        PasswordCheck check = credentialService.verify(userLoginDTO.getPassword(), stored);
+        if (user.isEmpty() || check == PasswordCheck.MISMATCH) {
+            logger.warn(getClass().getSimpleName(), "login", "Login failed for: " + userLoginDTO.getUsername());
+            return Optional.empty();
+        }
+
+        if (check == PasswordCheck.MATCH_NEEDS_REHASH && CredentialService.isAcceptable(userLoginDTO.getPassword())) {
+            try {
+                String rehashed = credentialService.hash(userLoginDTO.getPassword());
+                if (userRepository.updatePasswordHash(user.get().getId(), stored, rehashed) > 0)
+                    logger.info(getClass().getSimpleName(), "login", "Rehashed password of user ID: "
+                            + user.get().getId());
+            } catch (CredentialsBusyException busy) {
+                logger.warn(getClass().getSimpleName(), "login", "Rehash deferred for user ID: "
+                        + user.get().getId());
+            }
+        }
+        logger.info(getClass().getSimpleName(), "login", "User logged in: " + user.get().getUsername());
+        return Optional.of(toResponseDTO(user.get()));
+    }
+
+    /**
+     * Returns the users with the given ids and names, in the order asked
+     * for and each user once, with one IN query per {@code chunk-size} ids or
+     * names. Returns empty when nothing or more than {@code max-items} is
+     * asked for.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<UserBatchGetResultDTO> getUsers(UserBatchGetDTO userBatchGetDTO) {
+        List<Long> ids = distinct(userBatchGetDTO.getIds());
+        List<String> usernames = distinct(userBatchGetDTO.getUsernames());
+        int requested = ids.size() + usernames.size();
+        if (requested == 0 || requested > maxBatchItems) {
+            logger.warn(getClass().getSimpleName(), "getUsers", "Invalid batch size: " + requested);
+            return Optional.empty();
+        }
+
+        Map<Long, User> usersById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += batchChunkSize) {
+            for (User user : userRepository.findAllById(ids.subList(from, Math.min(from + batchChunkSize,
+                    ids.size())))) {
+                usersById.put(user.getId(), user);
+            }
+        }
+        Map<String, User> usersByName = new HashMap<>();
+        for (int from = 0; from < usernames.size(); from += batchChunkSize) {
+            for (User user : userRepository.findAllByUsername(usernames.subList(from,
+                    Math.min(from + batchChunkSize, usernames.size())))) {
+                usersByName.put(user.getUsername().toLowerCase(Locale.ROOT), user);
+            }
+        }
+
+        Map<Long, UserResponseDTO> found = new LinkedHashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            User user = usersById.get(id);
+            if (user == null)
+                missingIds.add(id);
+            else
+                found.putIfAbsent(user.getId(), toResponseDTO(user));
+        }
+        List<String> missingUsernames = new ArrayList<>();
+        for (String username : usernames) {
+            User user = usersByName.get(username.toLowerCase(Locale.ROOT));
+            if (user == null)
+                missingUsernames.add(username);
+            else
+                found.putIfAbsent(user.getId(), toResponseDTO(user));
+        }
+        logger.info(getClass().getSimpleName(), "getUsers", "Found " + found.size() + " of " + requested
+                + " requested users");
+        return Optional.of(new UserBatchGetResultDTO(new ArrayList<>(found.values()), missingIds, missingUsernames));
+    }
+
+    private static <T> List<T> distinct(List<T> values) {
+        if (values == null)
+            return List.of();
+        Set<T> distinct = new LinkedHashSet<>(values);
+        distinct.remove(null);
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * Creates the users and reports each one's outcome at its index: the
+     * created user, or why it was not created. Users are written
+     * {@code chunk-size} at a time, each chunk in its own transaction with
+     * one duplicate check and one batch insert, as in a CSV import. The
+     * passwords of a chunk are hashed in parallel before its transaction.
+     * Returns empty when there are no users or more than {@code max-items}.
+     */
+    public Optional<UserBatchCreateResultDTO> createUsers(UserBatchCreateDTO userBatchCreateDTO) {
+        List<UserCreateDTO> users = userBatchCreateDTO.getUsers();
+        if (users == null || users.isEmpty() || users.size() > maxBatchItems) {
+            logger.warn(getClass().getSimpleName(), "createUsers", "Invalid batch size: "
+                    + (users == null ? 0 : users.size()));
+            return Optional.empty();
+        }
+
+        UserBatchCreateItemDTO[] items = new UserBatchCreateItemDTO[users.size()];
+        Set<String> seen = new HashSet<>();
+        for (int from = 0; from < users.size(); from += batchChunkSize) {
+            int start = from;
+            int end = Math.min(from + batchChunkSize, users.size());
+            createChunk(users, start, end, seen, items);
+        }
+
+        UserBatchCreateResultDTO result = new UserBatchCreateResultDTO();
+        for (UserBatchCreateItemDTO item : items) {
+            result.getItems().add(item);
+            if (STATUS_CREATED.equals(item.getStatus()))
+                result.setCreated(result.getCreated() + 1);
+            else
+                result.setFailed(result.getFailed() + 1);
+        }
+        logger.info(getClass().getSimpleName(), "createUsers", "Created " + result.getCreated() + " of "
+                + users.size() + " users");
+        return Optional.of(result);
+    }
+
+    private void createChunk(List<UserCreateDTO> users, int start, int end, Set<String> seen,
+            UserBatchCreateItemDTO[] items) {
+        Map<String, Integer> pending = new LinkedHashMap<>();
+        for (int index = start; index < end; index++) {
+            UserCreateDTO dto = users.get(index);
+            String username = dto == null ? null : dto.getUsername();
+            if (username == null || username.isBlank() || dto.getPassword() == null || dto.getPassword().isBlank()) {
+                items[index] = new UserBatchCreateItemDTO(index, username, STATUS_INVALID,
+                        "Username and password are required", null);
+            } else if (!CredentialService.isAcceptable(dto.getPassword())) {
+                items[index] = new UserBatchCreateItemDTO(index, username, STATUS_INVALID,
+                        "Password longer than " + CredentialService.MAX_PASSWORD_BYTES + " bytes", null);
+            } else if (username.length() > UserImportService.MAX_USERNAME_LENGTH) {
+                items[index] = new UserBatchCreateItemDTO(index, username, STATUS_INVALID,
+                        "Username longer than " + UserImportService.MAX_USERNAME_LENGTH + " characters", null);
+            } else if (!seen.add(username.toLowerCase(Locale.ROOT))) {
+                items[index] = new UserBatchCreateItemDTO(index, username, STATUS_CONFLICT,
+                        "Duplicate username in request", null);
+            } else {
+                pending.put(username.toLowerCase(Locale.ROOT), index);
+            }
+        }
+
+        List<String> maybeTaken = new ArrayList<>();
+        for (int index : pending.values()) {
+            if (usernameFilter.mightContain(users.get(index).getUsername()))
+                maybeTaken.add(users.get(index).getUsername());
+        }
+        if (!maybeTaken.isEmpty()) {
+            Set<String> taken = userRepository.findExistingUsernames(maybeTaken);
+            usernameFilter.recordFalsePositives(Math.max(0, maybeTaken.size() - taken.size()));
+            for (String username : taken) {
+                Integer index = pending.remove(username.toLowerCase(Locale.ROOT));
+                if (index != null)
+                    items[index] = new UserBatchCreateItemDTO(index, users.get(index).getUsername(),
+                            STATUS_CONFLICT, "Username already taken", null);
+            }
+        }
+        if (pending.isEmpty())
+            return;
+
+        List<String> passwords = new ArrayList<>(pending.size());
+        for (int index : pending.values()) {
+            passwords.add(users.get(index).getPassword());
+        }
+        List<String> hashes = credentialService.hashAll(passwords);
+        Map<Integer, User> toInsert = new LinkedHashMap<>();
+        int position = 0;
+        for (int index : pending.values()) {
+            toInsert.put(index, toEntity(users.get(index).getUsername(), hashes.get(position++)));
+        }
+        transactionTemplate.executeWithoutResult(status -> insertChunk(pending, toInsert, items, status));
+    }
+
+    private void insertChunk(Map<String, Integer> pending, Map<Integer, User> toInsert,
+            UserBatchCreateItemDTO[] items, TransactionStatus status) {
+        Object savepoint = status.createSavepoint();
+        try {
+            userRepository.createAll(new ArrayList<>(toInsert.values()));
+            List<String> usernames = new ArrayList<>(pending.size());
+            for (User user : toInsert.values()) {
+                usernames.add(user.getUsername());
+            }
+            userChangeRepository.appendFromUsernames(UserChange.TYPE_CREATED, usernames);
+            // Batch inserts return no keys, so read the rows back for the ids
+            for (User created : userRepository.findAllByUsername(usernames)) {
+                Integer index = pending.get(created.getUsername().toLowerCase(Locale.ROOT));
+                if (index != null)
+                    items[index] = new UserBatchCreateItemDTO(index, created.getUsername(), STATUS_CREATED, null,
+                            toResponseDTO(created));
+            }
+            status.releaseSavepoint(savepoint);
+        } catch (DataAccessException batchException) {
+            status.rollbackToSavepoint(savepoint);
+            logger.warn(getClass().getSimpleName(), "createUsers",
+                    "Batch insert failed, retrying users individually: " + batchException.getMessage());
+            for (Map.Entry<Integer, User> entry : toInsert.entrySet()) {
+                items[entry.getKey()] = createOne(entry.getValue(), entry.getKey());
+            }
+        }
+    }
+
+    private UserBatchCreateItemDTO createOne(User user, int index) {
+        try {
+            User created = userRepository.create(user);
+            userChangeRepository.appendFromUser(UserChange.TYPE_CREATED, created.getId());
+            return new UserBatchCreateItemDTO(index, user.getUsername(), STATUS_CREATED, null, toResponseDTO(created));
+        } catch (DuplicateKeyException duplicateKeyException) {
+            return new UserBatchCreateItemDTO(index, user.getUsername(), STATUS_CONFLICT, "Username already taken",
+                    null);
+        } catch (DataAccessException dataAccessException) {
+            return new UserBatchCreateItemDTO(index, user.getUsername(), STATUS_FAILED,
+                    dataAccessException.getMostSpecificCause().getMessage(), null);
+        }
+    }
+
+    /**
+     * Answers from the {@link UsernameFilter} when the name is definitely
+     * new and asks the database otherwise.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean usernameExists(String username) {
+        if (!usernameFilter.mightContain(username))
+            return false;
+        if (userRepository.findByUsername(username).isPresent())
+            return true;
+        usernameFilter.recordFalsePositives(1);
+        return false;
+    }
+
+    /**
+     * Builds the username filter at startup and rebuilds it periodically, to
+     * drop names of deleted or renamed users, or as soon as it holds more
+     * names than it was sized for.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${musify.users.username-filter.check-interval-ms:60000}")
+    public void refreshUsernameFilter() {
+        if (!usernameFilter.needsRebuild(usernameFilterRebuildIntervalMillis))
+            return;
+        long start = System.nanoTime();
+        usernameFilter.rebuild(userRepository::streamUsernames);
+        logger.info(getClass().getSimpleName(), "refreshUsernameFilter", "Username filter built with "
+                + usernameFilter.getApproximateSize() + " names in " + (System.nanoTime() - start) / 1_000_000
+                + " ms");
+    }
+
+    /**
+     * Returns up to {@code limit} users after the position encoded in
+     * {@code cursor} (from the start when null), or empty when the cursor is
+     * not one this service issued.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<UserPageDTO> getUsersPage(String cursor, int limit) {
+        logger.info(getClass().getSimpleName(), "getUsersPage", "Retrieving users page after cursor: " + cursor);
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            Optional<Long> decoded = decodeCursor(cursor);
+            if (decoded.isEmpty()) {
+                logger.warn(getClass().getSimpleName(), "getUsersPage", "Invalid cursor: " + cursor);
+                return Optional.empty();
+            }
+            afterId = decoded.get();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<User> users = userRepository.findPageAfter(afterId, pageSize + 1);
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+
+        List<UserResponseDTO> items = new ArrayList<>(users.size());
+        for (User user : users) {
+            items.add(toResponseDTO(user));
+        }
+        String nextCursor = hasMore ? encodeCursor(users.get(users.size() - 1).getId()) : null;
+        logger.info(getClass().getSimpleName(), "getUsersPage", "Retrieved " + items.size() + " users");
+        return Optional.of(new UserPageDTO(items, nextCursor));
+    }
+
+    /**
+     * Returns the version of the page {@link #getUsersPage} would return for
+     * the same arguments, from the ids and update times alone, or empty when
+     * the cursor is not one this service issued.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<Long> getUsersPageVersion(String cursor, int limit) {
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            Optional<Long> decoded = decodeCursor(cursor);
+            if (decoded.isEmpty())
+                return Optional.empty();
+            afterId = decoded.get();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        long[] version = { PAGE_VERSION_SEED };
+        int[] count = { 0 };
+        userRepository.findVersionsAfter(afterId, pageSize + 1, (id, updatedAt) -> {
+            if (++count[0] <= pageSize)
+                version[0] = mixVersion(version[0], id, updatedAt);
+        });
+        return Optional.of(count[0] > pageSize ? mixVersion(version[0], 0, null) : version[0]);
+    }
+
+    /**
+     * The version of a page returned by {@link #getUsersPage}, equal to what
+     * {@link #getUsersPageVersion} computes while the page is unchanged.
+     */
+    public long getPageVersion(UserPageDTO page) {
+        long version = PAGE_VERSION_SEED;
+        for (UserResponseDTO user : page.getItems()) {
+            version = mixVersion(version, user.getId(), user.getUpdatedAt());
+        }
+        return page.getNextCursor() != null ? mixVersion(version, 0, null) : version;
+    }
+
+    private static long mixVersion(long version, long id, LocalDateTime updatedAt) {
+        long seconds = updatedAt == null ? 0 : updatedAt.toEpochSecond(ZoneOffset.UTC);
+        version = (version ^ id) * 0x100000001B3L;
+        version = (version ^ seconds) * 0x100000001B3L;
+        return version;
+    }
+
+    /**
+     * Returns the user's {@code updatedAt} without loading the whole user,
+     * for validating conditional requests.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<LocalDateTime> getUserVersion(Long id) {
+        return userRepository.findUpdatedAtById(id);
     }
 
-    public List<UserResponseDTO> getAllUsers() {
-        logger.info(getClass().getSimpleName(), "getAllUsers", "Retrieving all users");
-        List<User> users = userRepository.findAll();
-        logger.info(getClass().getSimpleName(), "getAllUsers", "Retrieved " + users.size() + " users");
-        return users.stream().map(this::toResponseDTO).toList();
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public void streamAllUsers(Consumer<UserResponseDTO> consumer) {
+        logger.info(getClass().getSimpleName(), "streamAllUsers", "Streaming all users");
+        userRepository.streamAll(user -> consumer.accept(toResponseDTO(user)));
+        logger.info(getClass().getSimpleName(), "streamAllUsers", "Finished streaming users");
     }
 
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<UserResponseDTO> getUserById(Long id) {
         logger.info(getClass().getSimpleName(), "getUserById", "Retrieving user with ID: " + id);
         Optional<User> user = userRepository.findById(id);
@@ -80,6 +526,7 @@ public class UserService {
         }
     }
 
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<UserResponseDTO> getUserByUsername(String username) {
         logger.info(getClass().getSimpleName(), "getUserByUsername", "Retrieving user with username: " + username);
         Optional<User> user = userRepository.findByUsername(username);
@@ -94,24 +541,57 @@ public class UserService {
 
     public Optional<UserResponseDTO> updateUser(Long id, UserUpdateDTO userUpdateDTO) {
         logger.info(getClass().getSimpleName(), "updateUser", "Updating user with ID: " + id);
-        Optional<User> existingUser = userRepository.findById(id);
-        if (existingUser.isPresent()) {
-            User user = toEntity(userUpdateDTO);
-            user.setId(id);
-            userRepository.update(user);
-            User updatedUser = userRepository.findById(id).orElseThrow();
-            logger.info(getClass().getSimpleName(), "updateUser", "User updated with ID: " + id);
-            return Optional.of(toResponseDTO(updatedUser));
+        User user = toEntity(userUpdateDTO.getUsername(), credentialService.hash(userUpdateDTO.getPassword()));
+        user.setId(id);
+        return transactionTemplate.execute(status -> {
+            Optional<User> updatedUser = userRepository.update(user);
+            if (updatedUser.isPresent()) {
+                userChangeRepository.appendFromUser(UserChange.TYPE_UPDATED, id);
+                logger.info(getClass().getSimpleName(), "updateUser", "User updated with ID: " + id);
+                return Optional.of(toResponseDTO(updatedUser.get()));
+            }
+            logger.warn(getClass().getSimpleName(), "updateUser", "User not found with ID: " + id);
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Updates the user only while its {@code updatedAt} is one of
+     * {@code expectedVersions}. Returns empty when the user does not exist or
+     * has since changed; {@link #getUserVersion} tells which. A version
+     * that already does not match is turned down before the password is
+     * hashed.
+     */
+    public Optional<UserResponseDTO> updateUserIfVersion(Long id, UserUpdateDTO userUpdateDTO,
+            List<LocalDateTime> expectedVersions) {
+        logger.info(getClass().getSimpleName(), "updateUserIfVersion", "Updating user with ID: " + id);
+        Optional<LocalDateTime> current = userRepository.queryUpdatedAtById(id);
+        if (current.isEmpty() || !expectedVersions.contains(current.get())) {
+            logger.warn(getClass().getSimpleName(), "updateUserIfVersion",
+                    "User not found or modified concurrently, ID: " + id);
+            return Optional.empty();
         }
-        logger.warn(getClass().getSimpleName(), "updateUser", "User not found with ID: " + id);
-        return Optional.empty();
+
+        User user = toEntity(userUpdateDTO.getUsername(), credentialService.hash(userUpdateDTO.getPassword()));
+        user.setId(id);
+        return transactionTemplate.execute(status -> {
+            Optional<User> updatedUser = userRepository.updateIfVersion(user, expectedVersions);
+            if (updatedUser.isPresent()) {
+                userChangeRepository.appendFromUser(UserChange.TYPE_UPDATED, id);
+                logger.info(getClass().getSimpleName(), "updateUserIfVersion", "User updated with ID: " + id);
+                return Optional.of(toResponseDTO(updatedUser.get()));
+            }
+            logger.warn(getClass().getSimpleName(), "updateUserIfVersion",
+                    "User not found or modified concurrently, ID: " + id);
+            return Optional.empty();
+        });
     }
 
+    @Transactional
     public boolean deleteUserById(Long id) {
         logger.info(getClass().getSimpleName(), "deleteUserById", "Deleting user with ID: " + id);
-        Optional<User> user = userRepository.findById(id);
-        if (user.isPresent()) {
-            userRepository.deleteById(id);
+        if (userRepository.deleteById(id) > 0) {
+            userChangeRepository.append(UserChange.TYPE_DELETED, id);
             logger.info(getClass().getSimpleName(), "deleteUserById", "User deleted with ID: " + id);
             return true;
         }
@@ -119,74 +599,99 @@ public class UserService {
         return false;
     }
 
+    /**
+     * Deletes every user that owns no playlists, a chunk at a time (see
+     * {@link UserDeleteService}), so writers are never locked out for long.
+     */
     public void deleteAllUsers() {
         logger.info(getClass().getSimpleName(), "deleteAllUsers", "Deleting all users");
-        userRepository.deleteAll();
-        logger.info(getClass().getSimpleName(), "deleteAllUsers", "All users deleted");
+        UserDeleteService.Progress progress = userDeleteService.deleteUsers(null, new UserFilter(), null);
+        logger.info(getClass().getSimpleName(), "deleteAllUsers", "Deleted " + progress.getDeleted()
+                + " users, skipped " + progress.getSkipped());
     }
 
-    public boolean updateImagePath(Long userId, MultipartFile multipartFile) throws IOException {
+    public UserCacheStatsDTO getCacheStats() {
+        return userCache.getStats();
+    }
+
+    public ImageUploadStatus updateImagePath(Long userId, MultipartFile multipartFile) throws IOException {
         logger.info(getClass().getSimpleName(), "updateImagePath", "Updating image for user ID: " + userId);
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
+        long start = System.nanoTime();
+        if (userRepository.findById(userId).isEmpty()) {
             logger.warn(getClass().getSimpleName(), "updateImagePath", "User not found with ID: " + userId);
-            return false;
+            return ImageUploadStatus.USER_NOT_FOUND;
         }
-
-        User user = optionalUser.get();
-        File upload_dir = new File(USER_IMAGE_DIR);
-        if (!upload_dir.exists()) {
-            upload_dir.mkdirs();
+        if (multipartFile.getSize() > imageStorage.getMaxSizeBytes()) {
+            logger.warn(getClass().getSimpleName(), "updateImagePath",
+                    "Image too large for user ID: " + userId + " (" + multipartFile.getSize() + " bytes)");
+            return ImageUploadStatus.TOO_LARGE;
         }
 
-        String originalFilename = multipartFile.getOriginalFilename();
-        String imagePath = USER_IMAGE_DIR + "user_" + user.getId() + "_" + originalFilename;
-        File destinationFile = new File(imagePath);
+        Optional<StoredImage> storedImage;
+        try (InputStream content = multipartFile.getInputStream()) {
+            storedImage = imageStorage.store(content);
+        }
+        if (storedImage.isEmpty()) {
+            logger.warn(getClass().getSimpleName(), "updateImagePath", "Image too large for user ID: " + userId);
+            return ImageUploadStatus.TOO_LARGE;
+        }
 
-        Files.copy(multipartFile.getInputStream(), destinationFile.toPath());
-        user.setImagePath(imagePath);
-        userRepository.updateWithImage(user);
+        // Only the row update and its change share a transaction; the upload
+        // above holds no connection
+        boolean updated = transactionTemplate.execute(status -> {
+            if (userRepository.updateImagePath(userId, storedImage.get().getImagePath()) == 0)
+                return false;
+            userChangeRepository.appendFromUser(UserChange.TYPE_IMAGE_UPDATED, userId);
+            return true;
+        });
+        if (!updated) {
+            logger.warn(getClass().getSimpleName(), "updateImagePath", "User deleted during upload, ID: " + userId);
+            return ImageUploadStatus.USER_NOT_FOUND;
+        }
+        instrumentation.recordImageUpload(storedImage.get().getSize(), System.nanoTime() - start);
+        thumbnailService.submit(userId, storedImage.get().getImagePath());
         logger.info(getClass().getSimpleName(), "updateImagePath", "Image updated for user ID: " + userId);
-        return true;
-    }
-
-    public List<UserResponseDTO> uploadUsersFromCsv(MultipartFile csvFile) throws IOException {
-        logger.info(getClass().getSimpleName(), "uploadUsersFromCsv", "Starting CSV upload");
-        List<UserResponseDTO> users = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(csvFile.getInputStream()))) {
-            String line = br.readLine();
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",");
-                if (fields.length >= 2) {
-                    String username = fields[0].trim();
-                    String passwordHash = fields[1].trim();
-                    User user = new User();
-                    user.setUsername(sanitize(username));
-                    user.setPasswordHash(sanitize(passwordHash));
-                    if (userRepository.findByUsername(sanitize(username)).isPresent()) {
-                        logger.warn(getClass().getSimpleName(), "uploadUsersFromCsv",
-                                "User already exists with username: " + username);
-                        continue;
-                    }
-                    userRepository.create(user);
-                    User createdUser = userRepository.findByUsername(username).orElseThrow();
-                    users.add(toResponseDTO(createdUser));
+        return ImageUploadStatus.UPDATED;
+    }
+
+    /**
+     * Returns the user's image, or the smallest generated variant at least
+     * {@code size} pixels wide (the largest one when none is) when a size is
+     * given. Falls back to the original while variants are pending.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<StoredImage> getUserImage(Long userId, Integer size) throws IOException {
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isEmpty())
+            return Optional.empty();
+
+        String imagePath = user.get().getImagePath();
+        List<Integer> variants = ThumbnailService.parseVariants(user.get().getImageVariants());
+        if (size != null && !variants.isEmpty()) {
+            int chosen = variants.get(variants.size() - 1);
+            for (int variant : variants) {
+                if (variant >= size) {
+                    chosen = variant;
+                    break;
                 }
             }
+            Optional<StoredImage> variantImage = imageStorage.openVariant(imagePath, chosen);
+            if (variantImage.isPresent())
+                return variantImage;
         }
-
-        logger.info(getClass().getSimpleName(), "uploadUsersFromCsv",
-                "CSV upload completed. Created " + users.size() + " users");
-        return users;
+        return imageStorage.open(imagePath);
     }
 
-    private static String sanitize(String input) {
-        if (input == null)
-            return null;
-        input = input.replaceAll("\\p{C}", "");
-        input = input.replaceAll("\\s+", "");
-        return input;
+    @Scheduled(initialDelayString = "${musify.images.gc-interval-ms:3600000}",
+            fixedDelayString = "${musify.images.gc-interval-ms:3600000}")
+    public void collectUnreferencedImages() {
+        try {
+            int deleted = imageStorage.collectGarbage(userRepository.findAllImagePaths());
+            logger.info(getClass().getSimpleName(), "collectUnreferencedImages",
+                    "Deleted " + deleted + " unreferenced images");
+        } catch (IOException ioException) {
+            logger.error(getClass().getSimpleName(), "collectUnreferencedImages",
+                    "Image garbage collection failed: " + ioException.getMessage());
+        }
     }
 }
@@ -0,0 +1,131 @@
+package com.musify.startup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.musify.admission.AdmissionControlFilter;
+import com.musify.models.User;
+
+/**
+ * Sends the node's own hot requests to it over loopback, so that Tomcat,
+ * the filters, MVC, Jackson and the repositories are loaded and compiled
+ * before real traffic arrives. Only reads and a conditional update that is
+ * bound to fail with 412 are sent, so nothing is written.
+ *
+ * Each request carries the admission filter's warm-up token, so the
+ * warm-up never waits for rate-limit tokens.
+ */
+class EndpointWarmer {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    private final URI baseUri;
+    private final List<User> users;
+    private final String warmupToken;
+    private final HttpClient client;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    EndpointWarmer(URI baseUri, List<User> users, String warmupToken) {
+        this.baseUri = baseUri;
+        this.users = users;
+        this.warmupToken = warmupToken;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Runs {@code iterations} rounds of requests on {@code concurrency}
+     * threads, or fewer when {@code maxDurationMillis} runs out first.
+     */
+    void run(int iterations, int concurrency, long maxDurationMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMillis(maxDurationMillis).toNanos();
+        AtomicLong nextIteration = new AtomicLong();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < Math.max(1, concurrency); worker++) {
+                workers.execute(() -> {
+                    long iteration;
+                    while ((iteration = nextIteration.getAndIncrement()) < iterations
+                            && System.nanoTime() - deadline < 0) {
+                        runIteration(iteration);
+                    }
+                });
+            }
+        }
+    }
+
+    private void runIteration(long iteration) {
+        String pageETag = send(get("/api/users?limit=100").header("Accept-Encoding", "gzip"));
+        if (pageETag != null)
+            send(get("/api/users?limit=100").header("If-None-Match", pageETag));
+        send(get("/api/users/0"));
+        send(get("/api/users/changes?limit=0"));
+        if (users.isEmpty()) {
+            send(get("/api/search?q=a"));
+            return;
+        }
+
+        User user = users.get((int) (iteration % users.size()));
+        String path = "/api/users/" + user.getId();
+        String userETag = send(get(path));
+        if (userETag != null)
+            send(get(path).header("If-None-Match", userETag));
+        send(get(path).header("Accept", "application/cbor"));
+        send(get(path).header("Accept", "application/json; timestamps=epoch-millis"));
+        String username = user.getUsername();
+        send(get("/api/search?q=" + username.substring(0, Math.min(3, username.length()))
+                .replaceAll("[^A-Za-z0-9]", "a")));
+        String body = "{\"username\":\"" + username.replace("\\", "\\\\").replace("\"", "\\\"")
+                + "\",\"password\":\"warmup\"}";
+        send(request(path).header("Content-Type", "application/json").header("If-Match", "W/\"0\"")
+                .PUT(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8)));
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(baseUri.resolve(pathAndQuery))
+                .timeout(REQUEST_TIMEOUT)
+                .header(AdmissionControlFilter.WARMUP_TOKEN_HEADER, warmupToken);
+    }
+
+    private HttpRequest.Builder get(String pathAndQuery) {
+        return request(pathAndQuery).GET();
+    }
+
+    /**
+     * Sends the request and returns the response's ETag, if any.
+     */
+    private String send(HttpRequest.Builder builder) {
+        sent.incrementAndGet();
+        try {
+            HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 500 || response.statusCode() == 429)
+                failed.incrementAndGet();
+            return response.headers().firstValue("ETag").orElse(null);
+        } catch (IOException ioException) {
+            failed.incrementAndGet();
+            return null;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            return null;
+        }
+    }
+
+    long getSentCount() {
+        return sent.get();
+    }
+
+    long getFailedCount() {
+        return failed.get();
+    }
+}
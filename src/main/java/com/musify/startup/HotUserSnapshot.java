@@ -0,0 +1,59 @@
+package com.musify.startup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ids of the users that were hottest in the cache when the node last
+ * shut down, one per line, hottest first.
+ */
+final class HotUserSnapshot {
+    private HotUserSnapshot() {
+    }
+
+    /**
+     * Returns up to {@code limit} ids, or none when there is no snapshot.
+     * Lines that are not ids are skipped.
+     */
+    static List<Long> read(Path path, int limit) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        if (!Files.isRegularFile(path))
+            return ids;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            while (ids.size() < limit && (line = reader.readLine()) != null) {
+                try {
+                    ids.add(Long.parseLong(line.trim()));
+                } catch (NumberFormatException notAnId) {
+                    continue;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Writes a temporary file and moves it into place, so a node killed
+     * halfway through leaves the previous snapshot intact.
+     */
+    static void write(Path path, List<Long> ids) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.US_ASCII)) {
+            for (Long id : ids) {
+                writer.write(Long.toString(id));
+                writer.newLine();
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,242 @@
+package com.musify.startup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.admission.AdmissionControlFilter;
+import com.musify.cache.UserCache;
+import com.musify.logging.CustomLogging;
+import com.musify.repositories.UserChangeRepository;
+import com.musify.repositories.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Gets a starting node ready for full traffic before it reports ready.
+ *
+ * Spring Boot only marks the application as accepting traffic once every
+ * {@link ApplicationRunner} has returned, so while {@link #run} works the
+ * readiness probe stays down and the load balancer sends nothing. In order,
+ * it
+ * <ul>
+ * <li>opens every pooled connection and runs the hot queries on each, so
+ * no request pays for a handshake or a first statement prepare;</li>
+ * <li>loads the users that were hottest in the cache when the node last
+ * shut down, from the snapshot {@link #saveHotUsers} writes;</li>
+ * <li>replays the hot endpoints over loopback for a while, so their code is
+ * loaded and compiled.</li>
+ * </ul>
+ * The time each phase took is logged once the node is ready, and exported as
+ * {@code musify.startup.duration}.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner, MeterBinder {
+    private static final int PRELOAD_BATCH_SIZE = 500;
+    private static final int WARMUP_USER_SAMPLE = 100;
+    private static final long POOL_HOLD_MILLIS = 2000;
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserChangeRepository userChangeRepository;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    AdmissionControlFilter admissionControlFilter;
+    @Autowired
+    Environment environment;
+    @Autowired
+    CustomLogging logger;
+
+    @Value("${musify.startup.pool-warmup.enabled:true}")
+    private boolean poolWarmupEnabled;
+    @Value("${musify.startup.hot-users.enabled:true}")
+    private boolean hotUsersEnabled;
+    @Value("${musify.startup.hot-users.count:10000}")
+    private int hotUserCount;
+    @Value("${musify.startup.hot-users.snapshot-file:cache/hot-users.snapshot}")
+    private String hotUsersSnapshotFile;
+    @Value("${musify.startup.warmup.enabled:true}")
+    private boolean warmupEnabled;
+    @Value("${musify.startup.warmup.iterations:300}")
+    private int warmupIterations;
+    @Value("${musify.startup.warmup.concurrency:4}")
+    private int warmupConcurrency;
+    @Value("${musify.startup.warmup.max-duration-ms:20000}")
+    private long warmupMaxDurationMillis;
+
+    private final Map<String, Long> phaseMillis = Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile long readyMillis;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (poolWarmupEnabled)
+            timePhase("pool", this::warmPool);
+        if (hotUsersEnabled)
+            timePhase("hot-users", this::preloadHotUsers);
+        if (warmupEnabled)
+            timePhase("endpoints", this::warmEndpoints);
+    }
+
+    private void timePhase(String phase, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } catch (DataAccessException | IllegalStateException exception) {
+            logger.error(getClass().getSimpleName(), "run",
+                    "Startup phase " + phase + " failed: " + exception.getMessage());
+        }
+        phaseMillis.put(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Checks out as many connections as the pool holds at the same time, and
+     * runs the statements requests use most on each.
+     */
+    private void warmPool() {
+        int connections = poolSize();
+        CountDownLatch allCheckedOut = new CountDownLatch(connections);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                workers.execute(() -> transactionTemplate.executeWithoutResult(status -> {
+                    userRepository.findPageAfter(Long.MAX_VALUE, 1);
+                    userRepository.findVersionsAfter(Long.MAX_VALUE, 1, (id, updatedAt) -> {
+                    });
+                    userRepository.findUpdatedAtById(-1L);
+                    userRepository.findAllById(List.of(-1L));
+                    userRepository.findExistingUsernames(List.of(""));
+                    userChangeRepository.findAfter(Long.MAX_VALUE, 1);
+                    // Hold on to the connection until the others are out too,
+                    // so each one is a different connection
+                    allCheckedOut.countDown();
+                    try {
+                        allCheckedOut.await(POOL_HOLD_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+        }
+        logger.info(getClass().getSimpleName(), "warmPool", "Warmed " + connections + " pooled connections");
+    }
+
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class))
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (SQLException sqlException) {
+            // Fall through to a single connection
+        }
+        return 1;
+    }
+
+    private void preloadHotUsers() {
+        List<Long> ids;
+        try {
+            ids = HotUserSnapshot.read(Path.of(hotUsersSnapshotFile), hotUserCount);
+        } catch (IOException ioException) {
+            logger.warn(getClass().getSimpleName(), "preloadHotUsers",
+                    "Could not read hot user snapshot: " + ioException.getMessage());
+            return;
+        }
+        int cached = 0;
+        for (int from = 0; from < ids.size(); from += PRELOAD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + PRELOAD_BATCH_SIZE, ids.size()));
+            cached += userCache.preload(batch, userRepository::findAllById);
+        }
+        logger.info(getClass().getSimpleName(), "preloadHotUsers",
+                "Preloaded " + cached + " of " + ids.size() + " hot users");
+    }
+
+    private void warmEndpoints() {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || port <= 0)
+            return;
+        EndpointWarmer warmer = new EndpointWarmer(URI.create("http://127.0.0.1:" + port),
+                userRepository.findPageAfter(0, WARMUP_USER_SAMPLE), admissionControlFilter.getWarmupToken());
+        try {
+            warmer.run(warmupIterations, warmupConcurrency, warmupMaxDurationMillis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info(getClass().getSimpleName(), "warmEndpoints", "Sent " + warmer.getSentCount()
+                + " warm-up requests, " + warmer.getFailedCount() + " failed");
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        StringBuilder report = new StringBuilder("Ready after ").append(readyMillis).append(" ms (context ")
+                .append(event.getTimeTaken() == null ? "?" : event.getTimeTaken().toMillis()).append(" ms");
+        phaseMillis.forEach((phase, millis) -> report.append(", ").append(phase).append(' ').append(millis)
+                .append(" ms"));
+        logger.info(getClass().getSimpleName(), "onReady", report.append(')').toString());
+    }
+
+    /**
+     * Writes the ids of the hottest cached users for the next start.
+     */
+    @PreDestroy
+    void saveHotUsers() {
+        if (!hotUsersEnabled)
+            return;
+        List<Long> ids = userCache.getHottestIds(hotUserCount);
+        if (ids.isEmpty())
+            return;
+        try {
+            HotUserSnapshot.write(Path.of(hotUsersSnapshotFile), ids);
+            logger.info(getClass().getSimpleName(), "saveHotUsers", "Saved " + ids.size() + " hot users");
+        } catch (IOException ioException) {
+            logger.warn(getClass().getSimpleName(), "saveHotUsers",
+                    "Could not write hot user snapshot: " + ioException.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("musify.startup.duration", this, TimeUnit.MILLISECONDS, warmup -> warmup.readyMillis)
+                .description("Time a node took to start, from JVM start to ready in total and per warm-up phase")
+                .tag("phase", "total")
+                .register(registry);
+        for (String phase : List.of("pool", "hot-users", "endpoints")) {
+            TimeGauge.builder("musify.startup.duration", this, TimeUnit.MILLISECONDS,
+                    warmup -> warmup.phaseMillis.getOrDefault(phase, 0L))
+                    .description("Time a node took to start, from JVM start to ready in total and per warm-up phase")
+                    .tag("phase", phase)
+                    .register(registry);
+        }
+    }
+
+}
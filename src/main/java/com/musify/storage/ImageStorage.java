@@ -0,0 +1,340 @@
+package com.musify.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed image store. Uploads are streamed to a temporary file,
+ * hashed, and moved to {@code blobs/<aa>/<sha256>.<ext>}; identical uploads
+ * share one file, and a file name never changes content, so clients may
+ * cache it forever.
+ *
+ * Resized variants live next to their original as
+ * {@code <sha256>_<size>.jpg} and are kept for as long as the original is.
+ *
+ * Files nobody references are removed by {@link #collectGarbage(Set)} once
+ * they are older than the grace period. Reusing an existing blob touches its
+ * modification time under the same lock the collector deletes under, so an
+ * upload that dedups against an unreferenced blob cannot lose it.
+ */
+@Component
+public class ImageStorage {
+    private static final String IMAGE_DIR = "private/images/";
+    private static final String BLOB_DIR = "blobs";
+    private static final String TEMP_DIR = "tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HASH_LENGTH = 64;
+    private static final String VARIANT_EXTENSION = ".jpg";
+
+    private enum ImageType {
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png"),
+        GIF("gif", "image/gif"),
+        WEBP("webp", "image/webp"),
+        OTHER("bin", "application/octet-stream");
+
+        final String extension;
+        final String contentType;
+
+        ImageType(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        static ImageType sniff(ByteBuffer head) {
+            int length = head.limit();
+            if (length >= 3 && (head.get(0) & 0xFF) == 0xFF && (head.get(1) & 0xFF) == 0xD8
+                    && (head.get(2) & 0xFF) == 0xFF)
+                return JPEG;
+            if (length >= 8 && head.getLong(0) == 0x89504E470D0A1A0AL)
+                return PNG;
+            if (length >= 4 && head.getInt(0) == 0x47494638)
+                return GIF;
+            if (length >= 12 && head.getInt(0) == 0x52494646 && head.getInt(8) == 0x57454250)
+                return WEBP;
+            return OTHER;
+        }
+
+        static ImageType fromExtension(String extension) {
+            for (ImageType type : values()) {
+                if (type.extension.equals(extension))
+                    return type;
+            }
+            return extension.equals("jpeg") ? JPEG : OTHER;
+        }
+    }
+
+    @Value("${musify.images.max-size-bytes:10485760}")
+    private long maxSizeBytes;
+    @Value("${musify.images.gc-grace-seconds:600}")
+    private long gcGraceSeconds;
+
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(IMAGE_DIR).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(BLOB_DIR));
+        Files.createDirectories(root.resolve(TEMP_DIR));
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    /**
+     * Streams {@code content} to disk and returns the stored image, or empty
+     * when it is larger than the limit. The content type is taken from the
+     * file's magic bytes; anything that is not a JPEG, PNG, GIF or WebP image
+     * is kept but served as {@code application/octet-stream}.
+     */
+    public Optional<StoredImage> store(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(root.resolve(TEMP_DIR), "upload-", ".part");
+        try {
+            long size;
+            try (ReadableByteChannel source = Channels.newChannel(content);
+                    FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                size = transferFrom(source, target, maxSizeBytes + 1);
+            }
+            if (size == 0 || size > maxSizeBytes)
+                return Optional.empty();
+
+            ByteBuffer head = ByteBuffer.allocate(12);
+            String hash = hash(temp, head);
+            ImageType type = ImageType.sniff(head.flip());
+
+            Path blob = root.resolve(BLOB_DIR).resolve(hash.substring(0, 2)).resolve(hash + "." + type.extension);
+            fileLock.lock();
+            try {
+                if (Files.exists(blob)) {
+                    Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                fileLock.unlock();
+            }
+            return Optional.of(new StoredImage(toImagePath(blob), blob, hash, type.contentType, size,
+                    Files.getLastModifiedTime(blob).toMillis()));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Resolves an {@code image_path} value to the file behind it. Paths that
+     * leave the image directory or point at missing files resolve to empty.
+     */
+    public Optional<StoredImage> open(String imagePath) throws IOException {
+        if (imagePath == null)
+            return Optional.empty();
+
+        Path file = resolve(imagePath);
+        if (!file.startsWith(root) || !Files.isRegularFile(file))
+            return Optional.empty();
+
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot < 0 ? name : name.substring(0, dot);
+        String extension = dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        String hash = isHash(baseName) || isVariantName(baseName) ? baseName : null;
+        String contentType = ImageType.fromExtension(extension).contentType;
+        return Optional.of(new StoredImage(imagePath, file, hash, contentType, Files.size(file),
+                Files.getLastModifiedTime(file).toMillis()));
+    }
+
+    /**
+     * Opens the {@code size} variant of the content-addressed image at
+     * {@code imagePath}, or empty when it has not been generated.
+     */
+    public Optional<StoredImage> openVariant(String imagePath, int size) throws IOException {
+        String hash = hashOf(imagePath);
+        if (hash == null)
+            return Optional.empty();
+        return open(toImagePath(variantFile(hash, size)));
+    }
+
+    public boolean hasVariant(String hash, int size) {
+        return Files.isRegularFile(variantFile(hash, size));
+    }
+
+    /**
+     * Returns the content hash encoded in a content-addressed
+     * {@code image_path}, or null for images stored before content
+     * addressing.
+     */
+    public String hashOf(String imagePath) {
+        if (imagePath == null)
+            return null;
+        String name = Paths.get(imagePath).getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot < 0 ? name : name.substring(0, dot);
+        return isHash(baseName) ? baseName : null;
+    }
+
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(root.resolve(TEMP_DIR), "variant-", ".part");
+    }
+
+    /**
+     * Moves a fully written variant into place. When another worker got
+     * there first the existing file is kept and {@code temp} is discarded.
+     */
+    public void commitVariant(Path temp, String hash, int size) throws IOException {
+        Path variant = variantFile(hash, size);
+        fileLock.lock();
+        try {
+            if (!Files.exists(variant)) {
+                Files.createDirectories(variant.getParent());
+                Files.move(temp, variant, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            fileLock.unlock();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Deletes files under the image directory that are not in
+     * {@code referencedImagePaths} and have not been written or reused within
+     * the grace period, along with abandoned temporary uploads.
+     */
+    public int collectGarbage(Set<String> referencedImagePaths) throws IOException {
+        Set<Path> referenced = new HashSet<>(referencedImagePaths.size() * 2);
+        Set<String> referencedHashes = new HashSet<>(referencedImagePaths.size() * 2);
+        for (String imagePath : referencedImagePaths) {
+            referenced.add(resolve(imagePath));
+            String hash = hashOf(imagePath);
+            if (hash != null)
+                referencedHashes.add(hash);
+        }
+
+        long cutoff = System.currentTimeMillis() - gcGraceSeconds * 1000;
+        List<Path> candidates;
+        try (Stream<Path> files = Files.walk(root)) {
+            candidates = files.filter(Files::isRegularFile)
+                    .filter(file -> !referenced.contains(file) && !isVariantOf(file, referencedHashes))
+                    .toList();
+        }
+
+        int deleted = 0;
+        for (Path candidate : candidates) {
+            fileLock.lock();
+            try {
+                if (Files.exists(candidate) && Files.getLastModifiedTime(candidate).toMillis() < cutoff) {
+                    Files.delete(candidate);
+                    deleted++;
+                }
+            } finally {
+                fileLock.unlock();
+            }
+        }
+        return deleted;
+    }
+
+    private Path resolve(String imagePath) {
+        return Paths.get(imagePath).toAbsolutePath().normalize();
+    }
+
+    private Path variantFile(String hash, int size) {
+        return root.resolve(BLOB_DIR).resolve(hash.substring(0, 2)).resolve(hash + "_" + size + VARIANT_EXTENSION);
+    }
+
+    private static boolean isVariantOf(Path file, Set<String> hashes) {
+        String name = file.getFileName().toString();
+        return name.length() > HASH_LENGTH && name.charAt(HASH_LENGTH) == '_'
+                && hashes.contains(name.substring(0, HASH_LENGTH));
+    }
+
+    private static boolean isVariantName(String name) {
+        if (name.length() <= HASH_LENGTH + 1 || name.charAt(HASH_LENGTH) != '_'
+                || !isHash(name.substring(0, HASH_LENGTH)))
+            return false;
+        for (int i = HASH_LENGTH + 1; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private String toImagePath(Path blob) {
+        return IMAGE_DIR + root.relativize(blob).toString().replace('\\', '/');
+    }
+
+    private static boolean isHash(String name) {
+        if (name.length() != HASH_LENGTH)
+            return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.digit(name.charAt(i), 16) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    private static long transferFrom(ReadableByteChannel source, FileChannel target, long limit)
+            throws IOException {
+        long position = 0;
+        while (position < limit) {
+            long transferred = target.transferFrom(source, position, limit - position);
+            if (transferred <= 0)
+                break;
+            position += transferred;
+        }
+        return position;
+    }
+
+    /**
+     * Hashes the file with SHA-256 and copies its first bytes into
+     * {@code head} on the way.
+     */
+    private static String hash(Path file, ByteBuffer head) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException(noSuchAlgorithmException);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                if (head.hasRemaining()) {
+                    ByteBuffer prefix = buffer.duplicate();
+                    prefix.limit(Math.min(prefix.limit(), head.remaining()));
+                    head.put(prefix);
+                }
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,56 @@
+package com.musify.storage;
+
+import java.nio.file.Path;
+
+public class StoredImage {
+    private String imagePath;
+    private Path file;
+    private String hash;
+    private String contentType;
+    private long size;
+    private long lastModified;
+
+    public StoredImage(String imagePath, Path file, String hash, String contentType, long size, long lastModified) {
+        this.imagePath = imagePath;
+        this.file = file;
+        this.hash = hash;
+        this.contentType = contentType;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Content-addressed name of the file: the SHA-256 of the original, with a
+     * {@code _<size>} suffix for resized variants. Null for images stored
+     * before content addressing.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getETag() {
+        if (hash != null)
+            return "\"" + hash + "\"";
+        return "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+}
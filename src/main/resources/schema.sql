@@ -3,6 +3,7 @@ CREATE TABLE IF NOT EXISTS users (
     username VARCHAR(32) UNIQUE NOT NULL,
     password_hash VARCHAR(255) NOT NULL,
     image_path VARCHAR(255),
+    image_variants VARCHAR(32),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
@@ -40,7 +41,58 @@ CREATE TABLE IF NOT EXISTS playlist_tracks (
     playlist_id BIGINT,
     track_id BIGINT,
     added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    position BIGINT NOT NULL DEFAULT 0,
     PRIMARY KEY (playlist_id, track_id),
+    INDEX idx_playlist_tracks_position (playlist_id, position, track_id),
     CONSTRAINT fk_playlist FOREIGN KEY (playlist_id) REFERENCES playlists(id),
     CONSTRAINT fk_track FOREIGN KEY (track_id) REFERENCES tracks(id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    status VARCHAR(16) NOT NULL,
+    file_path VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    committed_row BIGINT NOT NULL DEFAULT 0,
+    created_count BIGINT NOT NULL DEFAULT 0,
+    skipped_count BIGINT NOT NULL DEFAULT 0,
+    failed_count BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(255),
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    owner_node VARCHAR(64),
+    heartbeat_at TIMESTAMP NULL
+);
+
+CREATE TABLE IF NOT EXISTS import_job_rows (
+    job_id VARCHAR(36) NOT NULL,
+    line_number BIGINT NOT NULL,
+    username VARCHAR(255),
+    status VARCHAR(16) NOT NULL,
+    reason VARCHAR(255),
+    PRIMARY KEY (job_id, line_number),
+    CONSTRAINT fk_import_job FOREIGN KEY (job_id) REFERENCES import_jobs(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS user_changes (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    seq BIGINT UNIQUE,
+    change_type VARCHAR(16) NOT NULL,
+    user_id BIGINT,
+    username VARCHAR(32),
+    image_path VARCHAR(255),
+    user_updated_at TIMESTAMP NULL,
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_cursors (
+    name VARCHAR(32) PRIMARY KEY,
+    sequenced BIGINT NOT NULL DEFAULT 0,
+    published BIGINT NOT NULL DEFAULT 0,
+    purged BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO outbox_cursors (name) SELECT 'user_changes' FROM DUAL
+    WHERE NOT EXISTS (SELECT 1 FROM outbox_cursors WHERE name = 'user_changes');
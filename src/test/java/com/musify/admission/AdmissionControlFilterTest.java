@@ -0,0 +1,28 @@
+package com.musify.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class AdmissionControlFilterTest {
+
+	@Test
+	void ignoresApiKeyUnlessTrusted() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+		request.setRemoteAddr("203.0.113.7");
+		request.addHeader(AdmissionControlFilter.API_KEY_HEADER, "made-up");
+
+		assertEquals("addr:203.0.113.7", AdmissionControlFilter.clientOf(request, false));
+		assertEquals("key:made-up", AdmissionControlFilter.clientOf(request, true));
+	}
+
+	@Test
+	void fallsBackToAddressWithoutKey() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+		request.setRemoteAddr("203.0.113.7");
+		request.addHeader(AdmissionControlFilter.API_KEY_HEADER, " ");
+
+		assertEquals("addr:203.0.113.7", AdmissionControlFilter.clientOf(request, true));
+	}
+}
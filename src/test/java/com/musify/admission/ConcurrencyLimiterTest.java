@@ -0,0 +1,105 @@
+package com.musify.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ConcurrencyLimiterTest {
+	private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void refusesRequestsOverTheLimit() {
+		ConcurrencyLimiter limiter = limiter(10);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		assertFalse(limiter.tryAcquire());
+
+		limiter.release(MILLIS, 1);
+		assertTrue(limiter.tryAcquire());
+		assertEquals(10, limiter.getInFlight());
+	}
+
+	@Test
+	void growsWhileLatencyStaysAtTheBaseline() {
+		ConcurrencyLimiter limiter = limiter(100);
+		acquire(limiter, 70);
+		window(limiter, MILLIS, 1);
+		window(limiter, MILLIS, 1);
+
+		assertEquals(110, limiter.getLimit());
+	}
+
+	@Test
+	void shrinksWhenLatencyRises() {
+		ConcurrencyLimiter limiter = limiter(100);
+		acquire(limiter, 70);
+		window(limiter, MILLIS, 1);
+		window(limiter, 10 * MILLIS, 1);
+
+		// Halved, plus the square root of the old limit
+		assertEquals(60, limiter.getLimit());
+	}
+
+	@Test
+	void measuresLatencyPerUnitOfCost() {
+		ConcurrencyLimiter limiter = limiter(100);
+		acquire(limiter, 70);
+		window(limiter, MILLIS, 1);
+		window(limiter, 10 * MILLIS, 10);
+
+		assertEquals(110, limiter.getLimit());
+	}
+
+	@Test
+	void doesNotGrowWhileMostOfTheLimitIsUnused() {
+		ConcurrencyLimiter limiter = limiter(100);
+		acquire(limiter, 30);
+		window(limiter, MILLIS, 1);
+		window(limiter, MILLIS, 1);
+
+		assertEquals(100, limiter.getLimit());
+	}
+
+	@Test
+	void staysWithinMinAndMax() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(5000, 15, 20, WINDOW_NANOS, 1.5, 1.0, 600);
+		assertEquals(20, limiter.getLimit());
+
+		acquire(limiter, 20);
+		window(limiter, MILLIS, 1);
+		window(limiter, 100 * MILLIS, 1);
+		assertEquals(15, limiter.getLimit());
+	}
+
+	private static ConcurrencyLimiter limiter(int initialLimit) {
+		return new ConcurrencyLimiter(initialLimit, 10, 1000, WINDOW_NANOS, 1.5, 1.0, 600);
+	}
+
+	private static void acquire(ConcurrencyLimiter limiter, int count) {
+		for (int i = 0; i < count; i++) {
+			limiter.tryAcquire();
+		}
+	}
+
+	/**
+	 * Releases ten requests, closing the window on the last one, and takes
+	 * their slots again.
+	 */
+	private static void window(ConcurrencyLimiter limiter, long elapsedNanos, int cost) {
+		for (int i = 0; i < 9; i++) {
+			limiter.release(elapsedNanos, cost);
+		}
+		AtomicLong windowStart = (AtomicLong) ReflectionTestUtils.getField(limiter, "windowStart");
+		windowStart.set(System.nanoTime() - WINDOW_NANOS);
+		limiter.release(elapsedNanos, cost);
+		acquire(limiter, 10);
+	}
+}
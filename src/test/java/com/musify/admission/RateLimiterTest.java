@@ -0,0 +1,69 @@
+package com.musify.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+	@Test
+	void admitsTheBurstThenRefusesWithTheWaitForTheNextToken() {
+		RateLimiter limiter = new RateLimiter(1, 5, 100);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limiter.tryAcquire("a", 1));
+		}
+
+		long wait = limiter.tryAcquire("a", 1);
+		assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(900) && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+	}
+
+	@Test
+	void chargesTheCostInTokens() {
+		RateLimiter limiter = new RateLimiter(1, 10, 100);
+		assertEquals(0, limiter.tryAcquire("a", 7));
+		assertEquals(0, limiter.tryAcquire("a", 3));
+
+		assertTrue(limiter.tryAcquire("a", 1) > 0);
+	}
+
+	@Test
+	void chargesCostsAboveTheBurstAsTheBurst() {
+		RateLimiter limiter = new RateLimiter(1, 5, 100);
+		assertEquals(0, limiter.tryAcquire("a", 50));
+
+		assertTrue(limiter.tryAcquire("a", 1) > 0);
+	}
+
+	@Test
+	void keepsABucketPerClient() {
+		RateLimiter limiter = new RateLimiter(1, 2, 100);
+		assertEquals(0, limiter.tryAcquire("a", 2));
+		assertTrue(limiter.tryAcquire("a", 1) > 0);
+
+		assertEquals(0, limiter.tryAcquire("b", 2));
+		assertEquals(2, limiter.getClientCount());
+	}
+
+	@Test
+	void refundReturnsTheTokens() {
+		RateLimiter limiter = new RateLimiter(1, 3, 100);
+		assertEquals(0, limiter.tryAcquire("a", 3));
+		limiter.refund("a", 2);
+
+		assertEquals(0, limiter.tryAcquire("a", 2));
+		assertTrue(limiter.tryAcquire("a", 1) > 0);
+	}
+
+	@Test
+	void refillsAtTheRate() throws InterruptedException {
+		RateLimiter limiter = new RateLimiter(100, 1, 100);
+		assertEquals(0, limiter.tryAcquire("a", 1));
+		assertTrue(limiter.tryAcquire("a", 1) > 0);
+
+		Thread.sleep(20);
+		assertEquals(0, limiter.tryAcquire("a", 1));
+	}
+}
@@ -0,0 +1,141 @@
+package com.musify.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.musify.datasource.ReplicaSet;
+import com.musify.models.User;
+
+class UserCacheTest {
+
+	@Test
+	void servesRepeatedLookupsFromTheCache() {
+		UserCache cache = cache(false, 0);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.findById(1L, id -> load(loads, id, "Alice"));
+		cache.findById(1L, id -> load(loads, id, "Alice"));
+		assertEquals("Alice", cache.findByUsername("ALICE", name -> load(loads, 1L, "Alice")).get().getUsername());
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void cachesMissesByUsername() {
+		UserCache cache = cache(false, 0);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.findByUsername("nobody", name -> missing(loads));
+		assertTrue(cache.findByUsername("Nobody", name -> missing(loads)).isEmpty());
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void doesNotCacheALoadThatRacedAWrite() {
+		UserCache cache = cache(false, 0);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.findById(1L, id -> {
+			// A writer invalidates while the query is running
+			cache.invalidateId(id);
+			return load(loads, id, "old");
+		});
+		assertEquals("new", cache.findById(1L, id -> load(loads, id, "new")).get().getUsername());
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void preloadSkipsEverythingWhenAWriteRaced() {
+		UserCache cache = cache(false, 0);
+
+		int cached = cache.preload(List.of(1L), ids -> {
+			cache.invalidateId(2L);
+			return List.of(new User(1L, "alice", null, null));
+		});
+
+		assertEquals(0, cached);
+		assertTrue(cache.peekById(1L).isEmpty());
+	}
+
+	@Test
+	void returnsCopiesSoCallersCannotChangeCachedUsers() {
+		UserCache cache = cache(false, 0);
+		cache.findById(1L, id -> Optional.of(new User(id, "alice", null, null))).get().setUsername("mallory");
+
+		assertEquals("alice", cache.peekById(1L).get().getUsername());
+	}
+
+	@Test
+	void quarantinesWrittenKeysWhileReplicasMayLag() throws InterruptedException {
+		UserCache cache = cache(true, 200);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.invalidateId(1L);
+		cache.findById(1L, id -> load(loads, id, "alice"));
+		cache.findById(1L, id -> load(loads, id, "alice"));
+		assertEquals(2, loads.get());
+
+		Thread.sleep(300);
+		cache.findById(1L, id -> load(loads, id, "alice"));
+		cache.findById(1L, id -> load(loads, id, "alice"));
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void quarantinesTheUsernameOfAWrittenUser() {
+		UserCache cache = cache(true, 60_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.invalidateUsername("Alice");
+		cache.findById(1L, id -> load(loads, id, "alice"));
+		cache.findById(1L, id -> load(loads, id, "alice"));
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void invalidateAllQuarantinesEveryKey() {
+		UserCache cache = cache(true, 60_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.invalidateAll();
+		cache.findById(7L, id -> load(loads, id, "bob"));
+		cache.findById(7L, id -> load(loads, id, "bob"));
+
+		assertEquals(2, loads.get());
+	}
+
+	private static Optional<User> load(AtomicInteger loads, Long id, String username) {
+		loads.incrementAndGet();
+		return Optional.of(new User(id, username, null, null));
+	}
+
+	private static Optional<User> missing(AtomicInteger loads) {
+		loads.incrementAndGet();
+		return Optional.empty();
+	}
+
+	private static UserCache cache(boolean replicas, long quarantineMillis) {
+		UserCache cache = new UserCache();
+		cache.replicaSet = mock(ReplicaSet.class);
+		when(cache.replicaSet.isEnabled()).thenReturn(replicas);
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "maximumSize", 1000L);
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+		ReflectionTestUtils.setField(cache, "negativeTtlSeconds", 5L);
+		ReflectionTestUtils.setField(cache, "quarantineMillis", quarantineMillis);
+		cache.build();
+		return cache;
+	}
+}
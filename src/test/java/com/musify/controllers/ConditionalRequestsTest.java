@@ -0,0 +1,49 @@
+package com.musify.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class ConditionalRequestsTest {
+	private static final long LAST_MODIFIED = 1_700_000_000_500L;
+
+	@Test
+	void matchesETagListsWeaklyAndTheWildcard() {
+		assertTrue(ConditionalRequests.matches("\"a\", \"b\"", "\"b\""));
+		assertTrue(ConditionalRequests.matches("W/\"b\"", "\"b\""));
+		assertTrue(ConditionalRequests.matches("\"b\"", "W/\"b\""));
+		assertTrue(ConditionalRequests.matches("*", "\"b\""));
+		assertFalse(ConditionalRequests.matches("\"a\"", "\"b\""));
+	}
+
+	@Test
+	void ifNoneMatchTakesPrecedenceOverIfModifiedSince() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("If-None-Match", "\"old\"");
+		request.addHeader("If-Modified-Since", LAST_MODIFIED + 60_000);
+
+		assertFalse(ConditionalRequests.notModified(request, "\"new\"", LAST_MODIFIED));
+	}
+
+	@Test
+	void comparesDatesInWholeSeconds() {
+		MockHttpServletRequest sameSecond = new MockHttpServletRequest();
+		sameSecond.addHeader("If-Modified-Since", LAST_MODIFIED - 500);
+		MockHttpServletRequest secondBefore = new MockHttpServletRequest();
+		secondBefore.addHeader("If-Modified-Since", LAST_MODIFIED - 1500);
+
+		assertTrue(ConditionalRequests.notModified(sameSecond, "\"e\"", LAST_MODIFIED));
+		assertFalse(ConditionalRequests.notModified(secondBefore, "\"e\"", LAST_MODIFIED));
+		assertFalse(ConditionalRequests.notModified(sameSecond, "\"e\"", -1));
+	}
+
+	@Test
+	void ignoresMalformedDates() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("If-Modified-Since", "yesterday");
+
+		assertFalse(ConditionalRequests.notModified(request, "\"e\"", LAST_MODIFIED));
+	}
+}
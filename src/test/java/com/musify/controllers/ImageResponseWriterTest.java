@@ -0,0 +1,128 @@
+package com.musify.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.musify.storage.StoredImage;
+
+class ImageResponseWriterTest {
+	private static final String ETAG = "\"abc\"";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void parsesSingleByteRanges() {
+		assertArrayEquals(new long[] { 0, 99 }, ImageResponseWriter.parseRange("bytes=0-99", 1000));
+		assertArrayEquals(new long[] { 500, 999 }, ImageResponseWriter.parseRange("bytes=500-", 1000));
+		assertArrayEquals(new long[] { 900, 999 }, ImageResponseWriter.parseRange("bytes=-100", 1000));
+		assertArrayEquals(new long[] { 0, 999 }, ImageResponseWriter.parseRange("bytes=-5000", 1000));
+		assertArrayEquals(new long[] { 10, 999 }, ImageResponseWriter.parseRange(" bytes=10-5000 ", 1000));
+	}
+
+	@Test
+	void ignoresRangesItDoesNotServe() {
+		assertEquals(0, ImageResponseWriter.parseRange("items=0-9", 1000).length);
+		assertEquals(0, ImageResponseWriter.parseRange("bytes=0-9,20-29", 1000).length);
+		assertEquals(0, ImageResponseWriter.parseRange("bytes=9-0", 1000).length);
+		assertEquals(0, ImageResponseWriter.parseRange("bytes=a-b", 1000).length);
+		assertEquals(0, ImageResponseWriter.parseRange("bytes=-", 1000).length);
+		assertEquals(0, ImageResponseWriter.parseRange("bytes=5", 1000).length);
+	}
+
+	@Test
+	void rejectsUnsatisfiableRanges() {
+		assertNull(ImageResponseWriter.parseRange("bytes=1000-", 1000));
+		assertNull(ImageResponseWriter.parseRange("bytes=-0", 1000));
+		assertNull(ImageResponseWriter.parseRange("bytes=-10", 0));
+	}
+
+	@Test
+	void appliesRangesOnlyWhenIfRangeMatchesAStrongETag() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+		assertTrue(ImageResponseWriter.rangeApplies(request, ETAG));
+
+		request.addHeader("If-Range", " " + ETAG + " ");
+		assertTrue(ImageResponseWriter.rangeApplies(request, ETAG));
+		assertFalse(ImageResponseWriter.rangeApplies(request, "\"other\""));
+		assertFalse(ImageResponseWriter.rangeApplies(request, "W/" + ETAG));
+	}
+
+	@Test
+	void servesARangeWithItsContentRange() throws IOException {
+		MockHttpServletResponse response = write(image(10, 10), "bytes=2-5");
+
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+		assertArrayEquals(new byte[] { 2, 3, 4, 5 }, response.getContentAsByteArray());
+	}
+
+	@Test
+	void servesTheWholeBodyWhenIfRangeDoesNotMatch() throws IOException {
+		MockHttpServletRequest request = request("bytes=2-5");
+		request.addHeader("If-Range", "\"stale\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ImageResponseWriter.write(image(10, 10), false, request, response);
+
+		assertEquals(200, response.getStatus());
+		assertEquals(10, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void failsInsteadOfSpinningWhenTheFileIsShorterThanRecorded() throws IOException {
+		StoredImage truncated = image(4, 10);
+
+		assertThrows(EOFException.class, () -> write(truncated, null));
+	}
+
+	@Test
+	void copiesThroughABufferFromAPosition() throws IOException {
+		StoredImage image = image(100_000, 100_000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FileChannel file = FileChannel.open(image.getFile(), StandardOpenOption.READ)) {
+			ImageResponseWriter.copy(file, 10, 99_999, out);
+		}
+
+		assertEquals(99_990, out.size());
+		assertEquals((byte) 10, out.toByteArray()[0]);
+	}
+
+	private MockHttpServletResponse write(StoredImage image, String range) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ImageResponseWriter.write(image, false, request(range), response);
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String range) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1/image");
+		if (range != null)
+			request.addHeader("Range", range);
+		return request;
+	}
+
+	private StoredImage image(int fileBytes, long recordedSize) throws IOException {
+		byte[] content = new byte[fileBytes];
+		for (int i = 0; i < fileBytes; i++) {
+			content[i] = (byte) i;
+		}
+		Path file = Files.write(directory.resolve("image.png"), content);
+		return new StoredImage("abc.png", file, "abc", "image/png", recordedSize, 0);
+	}
+}
@@ -0,0 +1,125 @@
+package com.musify.credentials;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.musify.logging.CustomLogging;
+
+class CredentialServiceTest {
+	private CredentialService service;
+
+	@AfterEach
+	void stop() {
+		if (service != null)
+			service.shutdown();
+	}
+
+	@Test
+	void verifiesHashesItMade() {
+		service = service(5, 1, 8);
+		String hash = service.hash("correct horse");
+
+		assertTrue(CredentialService.isBcrypt(hash));
+		assertEquals(5, CredentialService.costOf(hash));
+		assertEquals(PasswordCheck.MATCH, service.verify("correct horse", hash));
+		assertEquals(PasswordCheck.MISMATCH, service.verify("wrong horse", hash));
+		assertEquals(PasswordCheck.MISMATCH, service.verify(null, hash));
+	}
+
+	@Test
+	void asksForARehashOfLowerCostHashes() {
+		service = service(5, 1, 8);
+		String cheaper = BCrypt.hashpw("secret", BCrypt.gensalt(4));
+
+		assertEquals(PasswordCheck.MATCH_NEEDS_REHASH, service.verify("secret", cheaper));
+		assertEquals(PasswordCheck.MISMATCH, service.verify("other", cheaper));
+	}
+
+	@Test
+	void comparesValuesStoredBeforeHashingAsTheyAre() {
+		service = service(4, 1, 8);
+
+		assertEquals(PasswordCheck.MATCH_NEEDS_REHASH, service.verify("legacy", "legacy"));
+		assertEquals(PasswordCheck.MISMATCH, service.verify("legacy", "Legacy"));
+		assertEquals(PasswordCheck.MISMATCH, service.verify("anything", null));
+	}
+
+	@Test
+	void refusesPasswordsBcryptWouldTruncate() {
+		assertTrue(CredentialService.isAcceptable("a".repeat(CredentialService.MAX_PASSWORD_BYTES)));
+		assertFalse(CredentialService.isAcceptable("a".repeat(CredentialService.MAX_PASSWORD_BYTES + 1)));
+		// Two bytes each in UTF-8
+		assertFalse(CredentialService.isAcceptable("\u00E9".repeat(CredentialService.MAX_PASSWORD_BYTES / 2 + 1)));
+		assertFalse(CredentialService.isAcceptable("   "));
+		assertFalse(CredentialService.isAcceptable(null));
+	}
+
+	@Test
+	void hashAllKeepsTheOrder() {
+		service = service(4, 2, 8);
+		List<String> passwords = List.of("one", "two", "three", "four", "five");
+
+		List<String> hashes = service.hashAll(passwords);
+
+		assertEquals(passwords.size(), hashes.size());
+		for (int i = 0; i < passwords.size(); i++) {
+			assertTrue(BCrypt.checkpw(passwords.get(i), hashes.get(i)));
+		}
+	}
+
+	@Test
+	void refusesRequestsOnceTheQueueIsFullButNotBatches() throws Exception {
+		service = service(4, 1, 1);
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "executor");
+		CountDownLatch busy = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> {
+			busy.countDown();
+			await(release);
+		});
+		assertTrue(busy.await(10, TimeUnit.SECONDS));
+		// Fills the requests' share of the queue behind the blocked worker
+		executor.execute(() -> {
+		});
+
+		assertThrows(CredentialsBusyException.class, () -> service.hash("secret"));
+
+		CompletableFuture<List<String>> batch = CompletableFuture.supplyAsync(() -> service.hashAll(List.of("a", "b")));
+		release.countDown();
+		List<String> hashes = batch.get(30, TimeUnit.SECONDS);
+		assertTrue(BCrypt.checkpw("a", hashes.get(0)));
+		assertTrue(BCrypt.checkpw("b", hashes.get(1)));
+	}
+
+	private static CredentialService service(int cost, int threads, int queueCapacity) {
+		CredentialService service = new CredentialService();
+		service.logger = mock(CustomLogging.class);
+		ReflectionTestUtils.setField(service, "configuredCost", cost);
+		ReflectionTestUtils.setField(service, "threads", threads);
+		ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+		service.start();
+		return service;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.musify.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+	@Test
+	void readsQuotedSeparatorsEscapedQuotesAndLineBreaks() throws IOException {
+		try (CsvReader reader = reader("a,\"b,c\",\"say \"\"hi\"\"\"\n\"multi\nline\",x\r\nlast,row",
+				StandardCharsets.UTF_8)) {
+			assertEquals(List.of("a", "b,c", "say \"hi\""), reader.readRecord());
+			assertEquals(1, reader.getRecordLineNumber());
+			assertEquals(List.of("multi\nline", "x"), reader.readRecord());
+			assertEquals(2, reader.getRecordLineNumber());
+			assertEquals(List.of("last", "row"), reader.readRecord());
+			assertEquals(4, reader.getRecordLineNumber());
+			assertNull(reader.readRecord());
+		}
+	}
+
+	@Test
+	void skipsBlankLinesAndKeepsEmptyFields() throws IOException {
+		try (CsvReader reader = reader("\n\na,,\"\"\n\r\n,b\n", StandardCharsets.UTF_8)) {
+			assertEquals(List.of("a", "", ""), reader.readRecord());
+			assertEquals(3, reader.getRecordLineNumber());
+			assertEquals(List.of("", "b"), reader.readRecord());
+			assertNull(reader.readRecord());
+		}
+	}
+
+	@Test
+	void readsRecordsSpanningBufferRefills() throws IOException {
+		String longField = "x".repeat(100_000);
+		try (CsvReader reader = reader("\"" + longField + "\",y\nz,w\n", StandardCharsets.UTF_8)) {
+			assertEquals(List.of(longField, "y"), reader.readRecord());
+			assertEquals(List.of("z", "w"), reader.readRecord());
+			assertNull(reader.readRecord());
+		}
+	}
+
+	@Test
+	void detectsCharsetFromByteOrderMark() throws IOException {
+		try (CsvReader reader = reader("\uFEFFjos\u00E9,\u00FC", StandardCharsets.UTF_8)) {
+			assertEquals(List.of("jos\u00E9", "\u00FC"), reader.readRecord());
+		}
+		try (CsvReader reader = reader("\uFEFFjos\u00E9,\u00FC", StandardCharsets.UTF_16LE)) {
+			assertEquals(List.of("jos\u00E9", "\u00FC"), reader.readRecord());
+		}
+		try (CsvReader reader = reader("\uFEFFjos\u00E9,\u00FC", StandardCharsets.UTF_16BE)) {
+			assertEquals(List.of("jos\u00E9", "\u00FC"), reader.readRecord());
+		}
+	}
+
+	private static CsvReader reader(String content, Charset charset) throws IOException {
+		InputStream in = new ByteArrayInputStream(content.getBytes(charset));
+		return new CsvReader(in);
+	}
+}
@@ -0,0 +1,131 @@
+package com.musify.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.api.ApiApplication;
+import com.musify.logging.CustomLogging;
+
+/**
+ * Runs the migrations against a database holding the tables as an older
+ * schema.sql created them.
+ */
+@SpringBootTest(classes = ApiApplication.class)
+@ActiveProfiles("h2")
+class SchemaMigrationsTest {
+
+	@Autowired
+	CustomLogging logger;
+
+	private JdbcTemplate jdbcTemplate;
+	private SchemaMigrations migrations;
+
+	@BeforeEach
+	void createOldSchema() {
+		SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new Driver(),
+				"jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY AUTO_INCREMENT,"
+				+ " username VARCHAR(32) UNIQUE NOT NULL, password_hash VARCHAR(255) NOT NULL,"
+				+ " image_path VARCHAR(255), created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+				+ " updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+		jdbcTemplate.update("INSERT INTO users (username, password_hash) VALUES ('old', 'secret')");
+		jdbcTemplate.execute("CREATE TABLE playlist_tracks (playlist_id BIGINT, track_id BIGINT,"
+				+ " added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY (playlist_id, track_id))");
+		jdbcTemplate.execute("CREATE TABLE import_jobs (id VARCHAR(36) PRIMARY KEY, status VARCHAR(16) NOT NULL,"
+				+ " file_path VARCHAR(255) NOT NULL, file_size BIGINT NOT NULL)");
+		addTrack(1, 30, "2026-01-01 10:00:00");
+		addTrack(1, 10, "2026-01-01 11:00:00");
+		addTrack(1, 20, "2026-01-01 11:00:00");
+		addTrack(2, 10, "2026-01-02 09:00:00");
+
+		migrations = new SchemaMigrations();
+		migrations.jdbcTemplate = jdbcTemplate;
+		migrations.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		migrations.logger = logger;
+	}
+
+	@Test
+	void addsImageVariantsToExistingUsers() {
+		assertFalse(migrations.hasColumn("users", "image_variants"));
+
+		migrations.migrate();
+
+		assertTrue(migrations.hasColumn("users", "image_variants"));
+		jdbcTemplate.update("UPDATE users SET image_variants = '64,256' WHERE username = 'old'");
+	}
+
+	@Test
+	void addsImportJobLeases() {
+		migrations.migrate();
+
+		assertTrue(migrations.hasColumn("import_jobs", "owner_node"));
+		assertTrue(migrations.hasColumn("import_jobs", "heartbeat_at"));
+	}
+
+	@Test
+	void backfillsPlaylistPositionsInTheOrderTracksWereAdded() {
+		migrations.migrate();
+
+		assertTrue(migrations.hasIndex("playlist_tracks", "idx_playlist_tracks_position"));
+		assertEquals(List.of(30L, 10L, 20L), trackIdsByPosition(1));
+		assertEquals(List.of(1024L, 2048L, 3072L), positions(1));
+		assertEquals(List.of(1024L), positions(2));
+	}
+
+	@Test
+	void carriesOnWithPlaylistsNotYetBackfilled() {
+		// A previous start added the column and got through playlist 1
+		jdbcTemplate.execute("ALTER TABLE playlist_tracks ADD COLUMN position BIGINT NOT NULL DEFAULT 0");
+		jdbcTemplate.update("UPDATE playlist_tracks SET position = -512 WHERE playlist_id = 1 AND track_id = 20");
+		jdbcTemplate.update("UPDATE playlist_tracks SET position = 1024 WHERE playlist_id = 1 AND track_id = 30");
+
+		migrations.migrate();
+
+		assertEquals(List.of(-512L, 0L, 1024L), positions(1));
+		assertEquals(List.of(1024L), positions(2));
+	}
+
+	@Test
+	void runsAgainWithoutChanges() {
+		migrations.migrate();
+		jdbcTemplate.update("UPDATE playlist_tracks SET position = 1536 WHERE playlist_id = 1 AND track_id = 20");
+		migrations.migrate();
+
+		assertTrue(migrations.hasColumn("users", "image_variants"));
+		assertEquals(List.of(30L, 20L, 10L), trackIdsByPosition(1));
+	}
+
+	private void addTrack(long playlistId, long trackId, String addedAt) {
+		jdbcTemplate.update("INSERT INTO playlist_tracks (playlist_id, track_id, added_at) VALUES (?, ?, ?)",
+				playlistId, trackId, Timestamp.valueOf(addedAt));
+	}
+
+	private List<Long> trackIdsByPosition(long playlistId) {
+		return jdbcTemplate.queryForList(
+				"SELECT track_id FROM playlist_tracks WHERE playlist_id = ? ORDER BY position, track_id", Long.class,
+				playlistId);
+	}
+
+	private List<Long> positions(long playlistId) {
+		return jdbcTemplate.queryForList(
+				"SELECT position FROM playlist_tracks WHERE playlist_id = ? ORDER BY position, track_id", Long.class,
+				playlistId);
+	}
+}
@@ -0,0 +1,83 @@
+package com.musify.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AsyncLogWriterTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void writesRecordsOfferedWhileIdleWithoutWaitingForShutdown() throws Exception {
+		LogRingBuffer buffer = new LogRingBuffer(16);
+		AsyncLogWriter writer = new AsyncLogWriter(buffer, directory, "_test", ".log", 8);
+		writer.start();
+		Thread.sleep(50);
+
+		offer(writer, buffer, "first");
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while (writer.getWrittenCount() < 1 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		writer.shutdown(5000);
+
+		assertEquals(1, writer.getWrittenCount());
+		assertTrue(readLines().get(0).endsWith(" - INFO - Test - method - first"));
+	}
+
+	@Test
+	void shutdownWritesEverythingAcceptedAndRefusesLaterRecords() throws IOException {
+		LogRingBuffer buffer = new LogRingBuffer(1024);
+		AsyncLogWriter writer = new AsyncLogWriter(buffer, directory, "_test", ".log", 8);
+		writer.start();
+		for (int i = 0; i < 500; i++) {
+			offer(writer, buffer, "record " + i);
+		}
+		writer.shutdown(5000);
+
+		assertFalse(writer.enter());
+		assertEquals(500, writer.getWrittenCount());
+		assertEquals(0, writer.getFailedCount());
+		assertEquals(500, readLines().size());
+	}
+
+	@Test
+	void countsRecordsThatCouldNotBeWrittenAsFailed() throws IOException {
+		Path notADirectory = Files.createFile(directory.resolve("file"));
+		LogRingBuffer buffer = new LogRingBuffer(16);
+		AsyncLogWriter writer = new AsyncLogWriter(buffer, notADirectory, "_test", ".log", 8);
+		writer.start();
+		offer(writer, buffer, "lost");
+		writer.shutdown(5000);
+
+		assertEquals(0, writer.getWrittenCount());
+		assertEquals(1, writer.getFailedCount());
+	}
+
+	private static void offer(AsyncLogWriter writer, LogRingBuffer buffer, String message) {
+		assertTrue(writer.enter());
+		try {
+			assertTrue(buffer.offer(LogType.INFO, System.currentTimeMillis(), "Test", "method", message));
+		} finally {
+			writer.exit();
+		}
+	}
+
+	private List<String> readLines() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			Path logFile = files.filter(path -> path.toString().endsWith("_test.log")).findFirst().orElseThrow();
+			return Files.readAllLines(logFile);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.musify.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class LogRingBufferTest {
+
+	@Test
+	void roundsCapacityUpToAPowerOfTwo() {
+		assertEquals(8, new LogRingBuffer(5).capacity());
+		assertEquals(8, new LogRingBuffer(8).capacity());
+		assertEquals(4, new LogRingBuffer(0).capacity());
+	}
+
+	@Test
+	void refusesOffersWhenFullAndAcceptsThemOnceDrained() {
+		LogRingBuffer buffer = new LogRingBuffer(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(LogType.INFO, i, "Test", "method", "record " + i));
+		}
+		assertFalse(buffer.offer(LogType.INFO, 4, "Test", "method", "record 4"));
+		assertEquals(4, buffer.size());
+
+		List<String> messages = new ArrayList<>();
+		assertEquals(2, buffer.drain(slot -> messages.add(slot.message), 2));
+		assertTrue(buffer.offer(LogType.INFO, 4, "Test", "method", "record 4"));
+		assertEquals(3, buffer.drain(slot -> messages.add(slot.message), 10));
+
+		assertEquals(List.of("record 0", "record 1", "record 2", "record 3", "record 4"), messages);
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void drainedSlotsReleaseTheirReferences() {
+		LogRingBuffer buffer = new LogRingBuffer(2);
+		buffer.offer(LogType.WARN, 1, "Test", "method", "message");
+		List<LogRingBuffer.Slot> slots = new ArrayList<>();
+		buffer.drain(slots::add, 1);
+
+		assertEquals(null, slots.get(0).message);
+		assertEquals(null, slots.get(0).className);
+	}
+
+	@Test
+	void deliversEveryRecordFromConcurrentProducersOnceAndInOrderPerProducer() throws InterruptedException {
+		int producers = 4;
+		int perProducer = 10_000;
+		LogRingBuffer buffer = new LogRingBuffer(256);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		for (int p = 0; p < producers; p++) {
+			String producer = Integer.toString(p);
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(LogType.INFO, i, producer, "method", Integer.toString(i))) {
+						Thread.yield();
+					}
+				}
+			});
+		}
+
+		int[] next = new int[producers];
+		int[] received = { 0 };
+		start.countDown();
+		while (received[0] < producers * perProducer) {
+			buffer.drain(slot -> {
+				int producer = Integer.parseInt(slot.className);
+				assertEquals(next[producer], slot.timestamp);
+				assertEquals(Integer.toString(next[producer]), slot.message);
+				next[producer]++;
+				received[0]++;
+			}, 16);
+		}
+		executor.shutdown();
+
+		for (int p = 0; p < producers; p++) {
+			assertEquals(perProducer, next[p]);
+		}
+		assertEquals(0, buffer.size());
+	}
+}
@@ -0,0 +1,42 @@
+package com.musify.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InstrumentationTest {
+
+	@Test
+	void countsEveryQueryWhileTimingOnlySampledOnes() {
+		Instrumentation instrumentation = instrumentation(0.0);
+		for (int i = 0; i < 10; i++) {
+			instrumentation.timeQuery("findById", () -> 1);
+		}
+
+		SimpleMeterRegistry registry = (SimpleMeterRegistry) instrumentation.meterRegistry;
+		assertEquals(10.0, registry.get("musify.repository.queries").tag("query", "findById").counter().count());
+		assertEquals(0, registry.get("musify.repository.query").tag("query", "findById").timer().count());
+	}
+
+	@Test
+	void timesEveryCallWithoutSampling() {
+		Instrumentation instrumentation = instrumentation(1.0);
+		for (int i = 0; i < 3; i++) {
+			instrumentation.timeSearch("users", () -> 1);
+		}
+
+		SimpleMeterRegistry registry = (SimpleMeterRegistry) instrumentation.meterRegistry;
+		assertEquals(3.0, registry.get("musify.search.queries").tag("type", "users").counter().count());
+		assertEquals(3, registry.get("musify.search.query").tag("type", "users").timer().count());
+	}
+
+	private static Instrumentation instrumentation(double sampleRate) {
+		Instrumentation instrumentation = new Instrumentation();
+		instrumentation.meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(instrumentation, "sampleRate", sampleRate);
+		return instrumentation;
+	}
+}
@@ -0,0 +1,76 @@
+package com.musify.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.musify.api.ApiApplication;
+import com.musify.models.ImportJob;
+
+@SpringBootTest(classes = ApiApplication.class)
+@ActiveProfiles("h2")
+class ImportJobRepositoryTest {
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+	private static final LocalDateTime EXPIRED_BEFORE = NOW.minusMinutes(1);
+
+	@Autowired
+	ImportJobRepository importJobRepository;
+
+	private String id;
+
+	@BeforeEach
+	void createJob() {
+		id = UUID.randomUUID().toString();
+		ImportJob job = new ImportJob();
+		job.setId(id);
+		job.setStatus(ImportJob.STATUS_QUEUED);
+		job.setFilePath("private/imports/" + id + ".csv");
+		job.setFileSize(10);
+		job.setOwnerNode("node-a");
+		job.setHeartbeatAt(NOW.minusSeconds(10));
+		importJobRepository.create(job);
+	}
+
+	@Test
+	void ownerReclaimsItsJobWhileTheLeaseHolds() {
+		assertEquals(1, importJobRepository.claim(id, "node-a", NOW, EXPIRED_BEFORE));
+	}
+
+	@Test
+	void otherNodesWaitForTheLeaseToExpire() {
+		assertEquals(0, importJobRepository.claim(id, "node-b", NOW, EXPIRED_BEFORE));
+
+		assertEquals(1, importJobRepository.claim(id, "node-b", NOW.plusMinutes(5), NOW.plusMinutes(4)));
+		assertEquals("node-b", importJobRepository.findById(id).orElseThrow().getOwnerNode());
+	}
+
+	@Test
+	void previousOwnerCannotWriteAfterATakeover() {
+		assertEquals(1, importJobRepository.markRunning(id, "node-a"));
+		assertEquals(1, importJobRepository.updateProgress(id, "node-a", 100, 90, 5, 5));
+		assertEquals(1, importJobRepository.claim(id, "node-b", NOW.plusMinutes(5), NOW.plusMinutes(4)));
+
+		assertEquals(0, importJobRepository.renewLease(id, "node-a", NOW.plusMinutes(5)));
+		assertEquals(0, importJobRepository.updateProgress(id, "node-a", 200, 180, 10, 10));
+		assertEquals(0, importJobRepository.markFinished(id, "node-a", ImportJob.STATUS_COMPLETED, null));
+
+		ImportJob job = importJobRepository.findById(id).orElseThrow();
+		assertEquals(ImportJob.STATUS_RUNNING, job.getStatus());
+		assertEquals(100, job.getCommittedRow());
+	}
+
+	@Test
+	void finishedJobsAreNotClaimedOrRenewed() {
+		importJobRepository.markFinished(id, ImportJob.STATUS_CANCELLED, null);
+
+		assertEquals(0, importJobRepository.renewLease(id, "node-a", NOW));
+		assertEquals(0, importJobRepository.claim(id, "node-b", NOW.plusMinutes(5), NOW.plusMinutes(4)));
+	}
+}
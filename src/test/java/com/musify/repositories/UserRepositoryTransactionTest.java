@@ -0,0 +1,141 @@
+package com.musify.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.api.ApiApplication;
+import com.musify.cache.UserCache;
+import com.musify.cache.UsernameFilter;
+import com.musify.models.User;
+import com.musify.search.SearchIndex;
+import com.musify.search.SearchType;
+
+@SpringBootTest(classes = ApiApplication.class)
+@ActiveProfiles("h2")
+class UserRepositoryTransactionTest {
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	UserCache userCache;
+
+	@Autowired
+	UsernameFilter usernameFilter;
+
+	@Autowired
+	SearchIndex searchIndex;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Test
+	void rolledBackCreateLeavesFilterAndIndexUnchanged() {
+		String username = uniqueName();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			userRepository.create(new User(null, username, "secret", null));
+			userRepository.createAll(List.of(new User(null, username + "b", "secret", null)));
+			status.setRollbackOnly();
+		});
+
+		assertTrue(userRepository.findByUsername(username).isEmpty());
+		assertFalse(usernameFilter.mightContain(username));
+		assertFalse(usernameFilter.mightContain(username + "b"));
+		assertTrue(searchIndex.search(SearchType.USER, username, 10).isEmpty());
+	}
+
+	@Test
+	void rolledBackUpdateLeavesCacheAndIndexUnchanged() {
+		User user = userRepository.create(new User(null, uniqueName(), "secret", null));
+		User cached = userRepository.findById(user.getId()).orElseThrow();
+		String renamed = uniqueName();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			userRepository.update(new User(user.getId(), renamed, "changed", null));
+			userRepository.updateImagePath(user.getId(), "image.png");
+			status.setRollbackOnly();
+		});
+
+		assertCached(cached);
+		assertEquals(user.getUsername(), userRepository.findById(user.getId()).orElseThrow().getUsername());
+		assertFalse(usernameFilter.mightContain(renamed));
+		assertTrue(searchIndex.search(SearchType.USER, renamed, 10).isEmpty());
+		assertEquals(1, searchIndex.search(SearchType.USER, user.getUsername(), 10).size());
+	}
+
+	@Test
+	void rolledBackDeleteLeavesCacheAndIndexUnchanged() {
+		User user = userRepository.create(new User(null, uniqueName(), "secret", null));
+		User cached = userRepository.findById(user.getId()).orElseThrow();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			userRepository.deleteById(user.getId());
+			userRepository.deleteAllById(List.of(user.getId()));
+			status.setRollbackOnly();
+		});
+
+		assertCached(cached);
+		assertEquals(1, searchIndex.search(SearchType.USER, user.getUsername(), 10).size());
+	}
+
+	@Test
+	void committedUpdateIsAppliedAfterCommit() {
+		User user = userRepository.create(new User(null, uniqueName(), "secret", null));
+		User cached = userRepository.findById(user.getId()).orElseThrow();
+		String renamed = uniqueName();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			userRepository.update(new User(user.getId(), renamed, "changed", null));
+			// Not yet committed, so nobody else can read the new row either
+			assertCached(cached);
+			assertTrue(searchIndex.search(SearchType.USER, renamed, 10).isEmpty());
+		});
+
+		assertTrue(userCache.peekById(user.getId()).isEmpty());
+		assertTrue(usernameFilter.mightContain(renamed));
+		assertEquals(user.getId(), searchIndex.search(SearchType.USER, renamed, 10).get(0).getId());
+		assertEquals(renamed, userRepository.findById(user.getId()).orElseThrow().getUsername());
+	}
+
+	@Test
+	void committedBatchIsSearchableAfterALaterInsert() {
+		String first = uniqueName();
+		String second = uniqueName();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			userRepository.createAll(List.of(new User(null, first, "secret", null),
+					new User(null, second, "secret", null)));
+			assertTrue(searchIndex.search(SearchType.USER, first, 10).isEmpty());
+		});
+		// Moves the highest indexed id past the batch
+		userRepository.create(new User(null, uniqueName(), "secret", null));
+
+		assertEquals(userRepository.findByUsername(first).orElseThrow().getId(),
+				searchIndex.search(SearchType.USER, first, 10).get(0).getId());
+		assertEquals(userRepository.findByUsername(second).orElseThrow().getId(),
+				searchIndex.search(SearchType.USER, second, 10).get(0).getId());
+	}
+
+	private void assertCached(User expected) {
+		User cached = userCache.peekById(expected.getId()).orElseThrow();
+		assertEquals(expected.getUsername(), cached.getUsername());
+		assertEquals(expected.getPasswordHash(), cached.getPasswordHash());
+		assertEquals(expected.getImagePath(), cached.getImagePath());
+		assertEquals(expected.getUpdatedAt(), cached.getUpdatedAt());
+	}
+
+	private static String uniqueName() {
+		return "tx" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+	}
+}
@@ -0,0 +1,102 @@
+package com.musify.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+	@Test
+	void findsDocumentsByTokenPrefix() {
+		InvertedIndex index = new InvertedIndex(12);
+		index.put(1, "Bohemian Rhapsody", "Queen");
+		index.put(2, "Radio Ga Ga", "Queen");
+		index.put(3, "Rhapsody in Blue", "Gershwin");
+
+		assertEquals(List.of(3L, 1L), ids(index, "rhap"));
+		assertEquals(List.of(2L, 1L), ids(index, "que"));
+		assertEquals(List.of(1L), ids(index, "que rha"));
+		assertEquals(List.of(), ids(index, "queen blue"));
+	}
+
+	@Test
+	void ignoresCaseAccentsAndSeparators() {
+		InvertedIndex index = new InvertedIndex(12);
+		index.put(1, "Beyoncé", null);
+		index.put(2, "john_doe", null);
+
+		assertEquals(List.of(1L), ids(index, "BEYONCE"));
+		assertEquals(List.of(2L), ids(index, "johndoe"));
+		assertEquals(List.of(2L), ids(index, "doe"));
+	}
+
+	@Test
+	void checksQueriesLongerThanTheIndexedPrefix() {
+		InvertedIndex index = new InvertedIndex(4);
+		index.put(1, "Symphony", null);
+		index.put(2, "Symposium", null);
+
+		assertEquals(List.of(1L), ids(index, "symphon"));
+		assertEquals(List.of(2L), ids(index, "symposium"));
+	}
+
+	@Test
+	void ranksWholeNameThenNamePrefixThenTokenMatches() {
+		InvertedIndex index = new InvertedIndex(12);
+		index.put(1, "Love Story", null);
+		index.put(2, "Lovely", null);
+		index.put(3, "Love", null);
+		index.put(4, "Endless Love", null);
+
+		assertEquals(List.of(3L, 1L, 2L, 4L), ids(index, "love"));
+	}
+
+	@Test
+	void forgetsRenamedAndRemovedDocuments() {
+		InvertedIndex index = new InvertedIndex(12);
+		index.put(1, "alice", null);
+		index.put(2, "alicia", null);
+		index.put(1, "bob", null);
+		index.remove(2);
+
+		assertEquals(List.of(), ids(index, "ali"));
+		assertEquals(List.of(1L), ids(index, "bo"));
+		assertEquals(1, index.getDocumentCount());
+	}
+
+	@Test
+	void loadDoesNotOverwriteWritesMadeDuringARebuild() {
+		InvertedIndex index = new InvertedIndex(12);
+		index.startLoad();
+		index.put(1, "new name", null);
+		index.remove(2);
+		index.load(1, "old name", null);
+		index.load(2, "deleted", null);
+		index.load(3, "untouched", null);
+		index.finishLoad();
+
+		assertEquals(List.of(1L), ids(index, "new"));
+		assertEquals(List.of(), ids(index, "old"));
+		assertEquals(List.of(), ids(index, "deleted"));
+		assertEquals(List.of(3L), ids(index, "untouched"));
+	}
+
+	@Test
+	void stopsAfterMaxCandidates() {
+		InvertedIndex index = new InvertedIndex(12);
+		for (int id = 1; id <= 100; id++) {
+			index.put(id, "track " + id, null);
+		}
+
+		List<SearchHit> hits = index.search(SearchType.TRACK, "track", 50, 10);
+		assertEquals(10, hits.size());
+		assertTrue(index.search(SearchType.TRACK, "   ", 50, 10).isEmpty());
+	}
+
+	private static List<Long> ids(InvertedIndex index, String query) {
+		return index.search(SearchType.TRACK, query, 50, 200).stream().map(SearchHit::getId).toList();
+	}
+}
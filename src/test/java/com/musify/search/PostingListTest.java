@@ -0,0 +1,93 @@
+package com.musify.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class PostingListTest {
+
+	@Test
+	void roundTripsAscendingIdsWithLargeGaps() {
+		PostingList list = new PostingList();
+		int[] ids = { 0, 1, 127, 128, 16_383, 16_384, 2_000_000, Integer.MAX_VALUE - 1 };
+		for (int id : ids) {
+			assertFalse(list.add(id));
+		}
+
+		assertArrayEquals(ids, list.toArray());
+		assertEquals(ids.length, list.size());
+	}
+
+	@Test
+	void mergesOutOfOrderIdsAndSkipsDuplicates() {
+		PostingList list = new PostingList();
+		list.add(10);
+		list.add(20);
+		list.add(30);
+		list.add(15);
+		list.add(20);
+		list.add(15);
+		list.add(5);
+
+		assertArrayEquals(new int[] { 5, 10, 15, 20, 30 }, list.toArray());
+	}
+
+	@Test
+	void asksForCompactionOnceTheBufferFillsAndKeepsOnlyLiveIds() {
+		PostingList list = new PostingList();
+		list.add(1000);
+		boolean full = false;
+		for (int id = 0; id < 32; id++) {
+			full = list.add(id);
+		}
+		assertTrue(full);
+
+		list.compact(id -> id % 2 == 0);
+
+		int[] ids = list.toArray();
+		assertEquals(17, ids.length);
+		assertEquals(0, ids[0]);
+		assertEquals(1000, ids[16]);
+		assertFalse(list.add(1001));
+	}
+
+	@Test
+	void matchesASortedSetForRandomInserts() {
+		Random random = new Random(42);
+		PostingList list = new PostingList();
+		TreeSet<Integer> expected = new TreeSet<>();
+		for (int i = 0; i < 10_000; i++) {
+			int id = random.nextInt(i < 5_000 ? 1_000_000 : 5_000);
+			expected.add(id);
+			if (list.add(id))
+				list.compact(candidate -> true);
+		}
+
+		List<Integer> actual = new ArrayList<>();
+		list.forEach(id -> actual.add(id));
+		assertEquals(new ArrayList<>(expected), actual);
+	}
+
+	@Test
+	void stopsWhenTheConsumerReturnsFalse() {
+		PostingList list = new PostingList();
+		for (int id = 0; id < 10; id++) {
+			list.add(id);
+		}
+
+		List<Integer> seen = new ArrayList<>();
+		list.forEach(id -> {
+			seen.add(id);
+			return id < 3;
+		});
+		assertEquals(List.of(0, 1, 2, 3), seen);
+	}
+}
@@ -0,0 +1,127 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class PlaylistEditTest {
+
+	@Test
+	void addSpreadsIntoTheGapBetweenUntouchedTracks() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024, 2, 2048));
+
+		assertTrue(edit.add(3L, 1L));
+
+		assertEquals(positions(3, 1536), edit.getPositions());
+		assertEquals(List.of(3L), edit.getAdded());
+	}
+
+	@Test
+	void addToAnEmptyPlaylistStartsOneGapIn() {
+		PlaylistEdit edit = new PlaylistEdit(new LinkedHashMap<>());
+
+		edit.add(5L, null);
+		edit.add(6L, null);
+
+		assertEquals(positions(5, 1024, 6, 2048), edit.getPositions());
+	}
+
+	@Test
+	void moveIntoAGapThatRanOutRenumbersThePlaylist() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024, 2, 1025, 3, 1026));
+
+		assertTrue(edit.move(3L, 1L));
+
+		// Track 1 already sits where renumbering puts it, so its row is left alone
+		assertEquals(positions(3, 2048, 2, 3072), edit.getPositions());
+		assertEquals(List.of(3L), edit.getMoved());
+	}
+
+	@Test
+	void moveToStartGoesBeforeTheFirstTrack() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024, 2, 2048, 3, 3072));
+
+		assertTrue(edit.move(3L, PlaylistEdit.START));
+
+		assertEquals(positions(3, 0), edit.getPositions());
+	}
+
+	@Test
+	void moveToTheEndGoesAfterTheLastTrack() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024, 2, 2048, 3, 3072));
+
+		assertTrue(edit.move(1L, null));
+
+		assertEquals(positions(1, 4096), edit.getPositions());
+	}
+
+	@Test
+	void moveOfAMissingTrackOrAfterAMissingAnchorIsRefused() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024, 2, 2048));
+
+		assertFalse(edit.move(9L, 1L));
+		assertFalse(edit.move(1L, 9L));
+		assertFalse(edit.add(3L, 9L));
+
+		assertEquals(Map.of(), edit.getPositions());
+		assertEquals(List.of(), edit.getMoved());
+		assertEquals(2, edit.size());
+	}
+
+	@Test
+	void addThenRemoveOfANewTrackLeavesNoTrace() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024));
+
+		edit.add(2L, null);
+		edit.remove(2L);
+
+		assertEquals(List.of(), edit.getAdded());
+		assertEquals(List.of(), edit.getRemoved());
+		assertEquals(List.of(), edit.getMoved());
+		assertEquals(Map.of(), edit.getPositions());
+	}
+
+	@Test
+	void removeThenAddOfAnExistingTrackIsAMove() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024, 2, 2048));
+
+		edit.remove(1L);
+		edit.add(1L, null);
+
+		assertEquals(List.of(), edit.getAdded());
+		assertEquals(List.of(), edit.getRemoved());
+		assertEquals(List.of(1L), edit.getMoved());
+		assertEquals(positions(1, 3072), edit.getPositions());
+	}
+
+	@Test
+	void diffSeparatesAddedRemovedAndMovedTracks() {
+		PlaylistEdit edit = new PlaylistEdit(positions(1, 1024, 2, 2048, 3, 3072));
+
+		edit.add(4L, PlaylistEdit.START);
+		edit.remove(2L);
+		edit.move(3L, PlaylistEdit.START);
+		// Adding a track that is already there leaves it untouched
+		edit.add(1L, null);
+
+		assertEquals(List.of(4L), edit.getAdded());
+		assertEquals(List.of(2L), edit.getRemoved());
+		assertEquals(List.of(3L), edit.getMoved());
+		assertEquals(positions(3, -1024, 4, 0), edit.getPositions());
+		assertEquals(3, edit.size());
+	}
+
+	private static LinkedHashMap<Long, Long> positions(long... trackIdsAndPositions) {
+		LinkedHashMap<Long, Long> positions = new LinkedHashMap<>();
+		for (int i = 0; i < trackIdsAndPositions.length; i += 2) {
+			positions.put(trackIdsAndPositions[i], trackIdsAndPositions[i + 1]);
+		}
+		return positions;
+	}
+}
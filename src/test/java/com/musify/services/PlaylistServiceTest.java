@@ -0,0 +1,172 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.musify.DTOs.PlaylistController.PlaylistMutationDTO;
+import com.musify.DTOs.PlaylistController.PlaylistMutationResultDTO;
+import com.musify.DTOs.PlaylistController.PlaylistTrackOperationDTO;
+import com.musify.api.ApiApplication;
+import com.musify.repositories.PlaylistRepository;
+
+@SpringBootTest(classes = ApiApplication.class)
+@ActiveProfiles("h2")
+class PlaylistServiceTest {
+
+	@Autowired
+	PlaylistService playlistService;
+
+	@Autowired
+	PlaylistRepository playlistRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void addTrackAppendsToTheEnd() {
+		long playlist = createPlaylist();
+		long first = createTrack();
+		long second = createTrack();
+
+		assertEquals(PlaylistTrackStatus.ADDED, playlistService.addTrack(playlist, first));
+		assertEquals(PlaylistTrackStatus.ADDED, playlistService.addTrack(playlist, second));
+
+		assertEquals(List.of(first, second), List.copyOf(playlistRepository.findTrackPositions(playlist).keySet()));
+	}
+
+	@Test
+	void addTrackLeavesTheVersionAloneWhenNothingIsAdded() {
+		long playlist = createPlaylist();
+		long track = createTrack();
+		playlistService.addTrack(playlist, track);
+		Optional<LocalDateTime> version = playlistRepository.findUpdatedAt(playlist);
+
+		assertEquals(PlaylistTrackStatus.ALREADY_PRESENT, playlistService.addTrack(playlist, track));
+		assertEquals(PlaylistTrackStatus.NOT_FOUND, playlistService.addTrack(playlist, Long.MAX_VALUE));
+
+		assertEquals(version, playlistRepository.findUpdatedAt(playlist));
+	}
+
+	@Test
+	void addTrackToAMissingPlaylistIsNotFound() {
+		assertEquals(PlaylistTrackStatus.NOT_FOUND, playlistService.addTrack(Long.MAX_VALUE, createTrack()));
+	}
+
+	@Test
+	void mutateTracksWritesTheNetChange() {
+		long playlist = createPlaylist();
+		long first = createTrack();
+		long second = createTrack();
+		long third = createTrack();
+		long added = createTrack();
+		long discarded = createTrack();
+		for (long track : new long[] { first, second, third })
+			playlistService.addTrack(playlist, track);
+		PlaylistMutationResultDTO result = new PlaylistMutationResultDTO();
+
+		PlaylistMutationStatus status = playlistService.mutateTracks(playlist, mutation(null,
+				operation("add", added, PlaylistEdit.START), operation("remove", second, null),
+				operation("move", third, PlaylistEdit.START), operation("add", discarded, null),
+				operation("remove", discarded, null)), result);
+
+		assertEquals(PlaylistMutationStatus.APPLIED, status);
+		assertEquals(List.of(added), result.getAdded());
+		assertEquals(List.of(second), result.getRemoved());
+		assertEquals(List.of(third), result.getMoved());
+		assertEquals(3, result.getTrackCount());
+		assertEquals(List.of(third, added, first), trackOrder(playlist));
+		assertEquals(Optional.of(result.getUpdatedAt()), playlistRepository.findUpdatedAt(playlist));
+	}
+
+	@Test
+	void mutateTracksRenumbersWhenAGapRunsOut() {
+		long playlist = createPlaylist();
+		long first = createTrack();
+		long second = createTrack();
+		long third = createTrack();
+		playlistRepository.upsertTracks(playlist, Map.of(first, 1024L, second, 1025L), LocalDateTime.now());
+
+		PlaylistMutationStatus status = playlistService.mutateTracks(playlist,
+				mutation(null, operation("add", third, first)), new PlaylistMutationResultDTO());
+
+		assertEquals(PlaylistMutationStatus.APPLIED, status);
+		assertEquals(Map.of(first, 1024L, third, 2048L, second, 3072L),
+				playlistRepository.findTrackPositions(playlist));
+		assertEquals(List.of(first, third, second), trackOrder(playlist));
+	}
+
+	@Test
+	void mutateTracksRollsBackARejectedEdit() {
+		long playlist = createPlaylist();
+		long first = createTrack();
+		long second = createTrack();
+		playlistService.addTrack(playlist, first);
+		Optional<LocalDateTime> version = playlistRepository.findUpdatedAt(playlist);
+		PlaylistMutationResultDTO result = new PlaylistMutationResultDTO();
+
+		PlaylistMutationStatus status = playlistService.mutateTracks(playlist,
+				mutation(null, operation("add", second, null), operation("add", Long.MAX_VALUE, null)), result);
+
+		assertEquals(PlaylistMutationStatus.INVALID, status);
+		assertEquals(1, result.getFailedOperation());
+		assertEquals(List.of(first), trackOrder(playlist));
+		assertEquals(version, playlistRepository.findUpdatedAt(playlist));
+	}
+
+	@Test
+	void mutateTracksTurnsAwayAStaleVersion() {
+		long playlist = createPlaylist();
+		long track = createTrack();
+		LocalDateTime stale = playlistRepository.findUpdatedAt(playlist).get();
+		playlistService.addTrack(playlist, track);
+		PlaylistMutationResultDTO result = new PlaylistMutationResultDTO();
+
+		PlaylistMutationStatus status = playlistService.mutateTracks(playlist,
+				mutation(stale, operation("remove", track, null)), result);
+
+		assertEquals(PlaylistMutationStatus.CONFLICT, status);
+		assertTrue(result.getUpdatedAt().isAfter(stale));
+		assertEquals(List.of(track), trackOrder(playlist));
+	}
+
+	private List<Long> trackOrder(long playlist) {
+		return new ArrayList<>(playlistRepository.findTrackPositions(playlist).keySet());
+	}
+
+	private static PlaylistMutationDTO mutation(LocalDateTime expectedUpdatedAt,
+			PlaylistTrackOperationDTO... operations) {
+		return new PlaylistMutationDTO(expectedUpdatedAt, List.of(operations));
+	}
+
+	private static PlaylistTrackOperationDTO operation(String op, long trackId, Long afterTrackId) {
+		return new PlaylistTrackOperationDTO(op, trackId, afterTrackId);
+	}
+
+	private long createPlaylist() {
+		return insert("INSERT INTO playlists (name) VALUES ('test')");
+	}
+
+	private long createTrack() {
+		return insert("INSERT INTO tracks (title, artist, duration) VALUES ('title', 'artist', 180)");
+	}
+
+	private long insert(String sql) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> connection.prepareStatement(sql, new String[] { "id" }), keys);
+		return keys.getKey().longValue();
+	}
+}
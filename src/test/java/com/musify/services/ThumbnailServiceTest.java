@@ -0,0 +1,49 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ThumbnailServiceTest {
+
+	@Test
+	void backsOffLongerAfterEachFailure() {
+		ThumbnailService service = service(5, 1000);
+
+		assertFalse(service.recordFailure(1L, "a.jpg", 0));
+		assertTrue(service.isBackingOff(1L, "a.jpg", 999));
+		assertFalse(service.isBackingOff(1L, "a.jpg", 1000));
+
+		assertFalse(service.recordFailure(1L, "a.jpg", 1000));
+		assertTrue(service.isBackingOff(1L, "a.jpg", 2999));
+		assertFalse(service.isBackingOff(1L, "a.jpg", 3000));
+	}
+
+	@Test
+	void givesUpAfterMaxAttempts() {
+		ThumbnailService service = service(3, 1000);
+
+		assertFalse(service.recordFailure(1L, "a.jpg", 0));
+		assertFalse(service.recordFailure(1L, "a.jpg", 0));
+		assertTrue(service.recordFailure(1L, "a.jpg", 0));
+	}
+
+	@Test
+	void newImageStartsAfresh() {
+		ThumbnailService service = service(2, 1000);
+		assertFalse(service.recordFailure(1L, "a.jpg", 0));
+
+		assertFalse(service.isBackingOff(1L, "b.jpg", 0));
+		assertFalse(service.recordFailure(1L, "b.jpg", 0));
+		assertFalse(service.isBackingOff(2L, "a.jpg", 0));
+	}
+
+	private static ThumbnailService service(int maxAttempts, long retryBackoffMillis) {
+		ThumbnailService service = new ThumbnailService();
+		ReflectionTestUtils.setField(service, "maxAttempts", maxAttempts);
+		ReflectionTestUtils.setField(service, "retryBackoffMillis", retryBackoffMillis);
+		return service;
+	}
+}
@@ -0,0 +1,163 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.musify.DTOs.UserController.UserChangeDTO;
+import com.musify.DTOs.UserController.UserChangePageDTO;
+import com.musify.api.ApiApplication;
+import com.musify.changes.ChangeSink;
+import com.musify.changes.InMemoryChangeSink;
+import com.musify.models.UserChange;
+import com.musify.repositories.UserChangeRepository;
+
+// The hourly relay only runs at startup, the test drives it otherwise
+@SpringBootTest(classes = ApiApplication.class, properties = { "musify.changes.sink.type=MEMORY",
+		"musify.changes.relay-interval-ms=3600000" })
+@ActiveProfiles("h2")
+class UserChangeServiceTest {
+
+	@Autowired
+	UserChangeService userChangeService;
+
+	@Autowired
+	UserChangeRepository userChangeRepository;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void sequencesAndPublishesCommittedChanges() {
+		long first = uniqueUserId();
+		userChangeRepository.append(UserChange.TYPE_DELETED, first);
+		userChangeRepository.append(UserChange.TYPE_DELETED, first + 1);
+
+		userChangeService.relay();
+
+		long seq = seqOf(first);
+		assertEquals(seq + 1, seqOf(first + 1));
+		assertTrue(userChangeService.getLatestSeq() >= seq + 1);
+		assertTrue(userChangeRepository.findCursor().getPublished() >= seq + 1);
+		List<UserChangeDTO> published = sink().getChanges();
+		assertEquals(List.of(first, first + 1), published.stream()
+				.filter(change -> change.getSeq() == seq || change.getSeq() == seq + 1)
+				.map(UserChangeDTO::getUserId)
+				.toList());
+	}
+
+	@Test
+	void numbersChangesInCommitOrder() throws InterruptedException {
+		long earlier = uniqueUserId();
+		long later = earlier + 1;
+		CountDownLatch appended = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		Thread writer = Thread.ofPlatform().start(() -> transactionTemplate.executeWithoutResult(status -> {
+			userChangeRepository.append(UserChange.TYPE_DELETED, earlier);
+			appended.countDown();
+			await(commit);
+		}));
+		assertTrue(appended.await(10, TimeUnit.SECONDS));
+
+		// Gets a higher id than the open transaction's row but commits first
+		userChangeRepository.append(UserChange.TYPE_DELETED, later);
+		userChangeService.relay();
+		assertNotNull(seqOf(later));
+
+		commit.countDown();
+		writer.join();
+		userChangeService.relay();
+
+		assertTrue(seqOf(later) < seqOf(earlier));
+		assertTrue(idOf(earlier) < idOf(later));
+	}
+
+	@Test
+	void failedPublishLeavesTheCursorAndIsRetried() {
+		ChangeSink sink = userChangeService.getSink();
+		long userId = uniqueUserId();
+		userChangeRepository.append(UserChange.TYPE_DELETED, userId);
+		long publishedBefore = userChangeRepository.findCursor().getPublished();
+
+		ReflectionTestUtils.setField(userChangeService, "sink", (ChangeSink) changes -> {
+			throw new IOException("broker down");
+		});
+		try {
+			userChangeService.relay();
+		} finally {
+			ReflectionTestUtils.setField(userChangeService, "sink", sink);
+		}
+		assertEquals(publishedBefore, userChangeRepository.findCursor().getPublished());
+
+		userChangeService.relay();
+		long seq = seqOf(userId);
+		assertTrue(userChangeRepository.findCursor().getPublished() >= seq);
+		assertTrue(sink().getChanges().stream().anyMatch(change -> change.getSeq() == seq));
+	}
+
+	@Test
+	void pagesFollowTheSequence() {
+		long first = uniqueUserId();
+		userChangeRepository.append(UserChange.TYPE_DELETED, first);
+		userChangeRepository.append(UserChange.TYPE_DELETED, first + 1);
+		userChangeService.relay();
+		long since = seqOf(first) - 1;
+
+		UserChangePageDTO page = userChangeService.getChanges(since, 1, 0);
+		assertEquals(List.of(first), page.getItems().stream().map(UserChangeDTO::getUserId).toList());
+		assertEquals(since + 1, page.getNextSince());
+
+		page = userChangeService.getChanges(page.getNextSince(), 1, 0);
+		assertEquals(List.of(first + 1), page.getItems().stream().map(UserChangeDTO::getUserId).toList());
+
+		page = userChangeService.getChanges(userChangeService.getLatestSeq(), 10, 0);
+		assertTrue(page.getItems().isEmpty());
+		assertEquals(userChangeService.getLatestSeq(), page.getNextSince());
+	}
+
+	private InMemoryChangeSink sink() {
+		return (InMemoryChangeSink) userChangeService.getSink();
+	}
+
+	/**
+	 * Null while the row is unsequenced or not yet visible.
+	 */
+	private Long seqOf(long userId) {
+		List<Long> seqs = jdbcTemplate.queryForList("SELECT seq FROM user_changes WHERE user_id = ?", Long.class,
+				userId);
+		return seqs.isEmpty() ? null : seqs.get(0);
+	}
+
+	private long idOf(long userId) {
+		return jdbcTemplate.queryForObject("SELECT id FROM user_changes WHERE user_id = ?", Long.class, userId);
+	}
+
+	private static long uniqueUserId() {
+		return ThreadLocalRandom.current().nextLong(1L << 40, 1L << 50);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
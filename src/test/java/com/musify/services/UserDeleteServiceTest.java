@@ -0,0 +1,147 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.musify.api.ApiApplication;
+import com.musify.models.User;
+import com.musify.models.UserChange;
+import com.musify.models.UserFilter;
+import com.musify.repositories.UserRepository;
+
+@SpringBootTest(classes = ApiApplication.class, properties = { "musify.users.bulk-delete.chunk-size=3",
+		"musify.users.bulk-delete.pause-ms=0" })
+@ActiveProfiles("h2")
+class UserDeleteServiceTest {
+
+	@Autowired
+	UserDeleteService userDeleteService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void deletesIdsAChunkAtATime() {
+		List<Long> ids = createUsers(uniquePrefix(), 7);
+		// Cached, so the delete has to evict it
+		userRepository.findById(ids.get(0));
+		List<Long> processedAfterChunk = new ArrayList<>();
+
+		UserDeleteService.Progress progress = userDeleteService.deleteUsers(ids, new UserFilter(),
+				listener(processedAfterChunk, Integer.MAX_VALUE));
+
+		assertEquals(List.of(3L, 6L, 7L), processedAfterChunk);
+		assertEquals(7, progress.getDeleted());
+		assertEquals(0, progress.getSkipped());
+		assertEquals(ids.get(6), progress.getLastId());
+		for (Long id : ids) {
+			assertTrue(userRepository.findById(id).isEmpty());
+			assertEquals(1, deletedChanges(id));
+		}
+	}
+
+	@Test
+	void deletesOnlyUsersMatchingTheFilter() {
+		String prefix = uniquePrefix();
+		List<Long> matching = createUsers(prefix, 4);
+		List<Long> others = createUsers(uniquePrefix(), 2);
+
+		UserDeleteService.Progress progress = userDeleteService.deleteUsers(null, new UserFilter(prefix, null, null),
+				null);
+
+		assertEquals(4, progress.getDeleted());
+		for (Long id : matching) {
+			assertTrue(userRepository.findById(id).isEmpty());
+		}
+		for (Long id : others) {
+			assertTrue(userRepository.findById(id).isPresent());
+		}
+	}
+
+	@Test
+	void skipsUsersWhoOwnPlaylists() {
+		List<Long> ids = createUsers(uniquePrefix(), 3);
+		jdbcTemplate.update("INSERT INTO playlists (name, user_id) VALUES (?, ?)", "kept", ids.get(1));
+
+		UserDeleteService.Progress progress = userDeleteService.deleteUsers(ids, new UserFilter(), null);
+
+		assertEquals(2, progress.getDeleted());
+		assertEquals(1, progress.getSkipped());
+		assertTrue(userRepository.findById(ids.get(1)).isPresent());
+		assertEquals(0, deletedChanges(ids.get(1)));
+	}
+
+	@Test
+	void stopsBeforeTheNextChunkOnceCancelled() {
+		List<Long> ids = createUsers(uniquePrefix(), 7);
+		List<Long> processedAfterChunk = new ArrayList<>();
+
+		UserDeleteService.Progress progress = userDeleteService.deleteUsers(ids, new UserFilter(),
+				listener(processedAfterChunk, 1));
+
+		assertEquals(List.of(3L), processedAfterChunk);
+		assertEquals(3, progress.getDeleted());
+		assertTrue(userRepository.findById(ids.get(2)).isEmpty());
+		assertTrue(userRepository.findById(ids.get(3)).isPresent());
+	}
+
+	@Test
+	void ignoresDuplicateAndMissingIds() {
+		List<Long> ids = createUsers(uniquePrefix(), 2);
+		List<Long> requested = new ArrayList<>(ids);
+		requested.addAll(ids);
+		requested.add(null);
+		requested.add(Long.MAX_VALUE);
+		Collections.reverse(requested);
+
+		UserDeleteService.Progress progress = userDeleteService.deleteUsers(requested, new UserFilter(), null);
+
+		assertEquals(3, progress.getProcessed());
+		assertEquals(2, progress.getDeleted());
+	}
+
+	private List<Long> createUsers(String prefix, int count) {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			ids.add(userRepository.create(new User(null, prefix + i, "secret", null)).getId());
+		}
+		return ids;
+	}
+
+	private int deletedChanges(Long userId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_changes WHERE user_id = ? AND change_type = ?",
+				Integer.class, userId, UserChange.TYPE_DELETED);
+	}
+
+	private static UserDeleteService.ProgressListener listener(List<Long> processedAfterChunk, int chunks) {
+		return new UserDeleteService.ProgressListener() {
+			@Override
+			public boolean isCancelled() {
+				return processedAfterChunk.size() >= chunks;
+			}
+
+			@Override
+			public void chunkCommitted(UserDeleteService.Progress progress) {
+				processedAfterChunk.add(progress.getProcessed());
+			}
+		};
+	}
+
+	private static String uniquePrefix() {
+		return "del" + UUID.randomUUID().toString().substring(0, 8) + "_";
+	}
+}
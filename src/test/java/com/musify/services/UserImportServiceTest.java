@@ -0,0 +1,28 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class UserImportServiceTest {
+
+	@Test
+	void sanitizeMatchesTheRegexItReplaces() {
+		String[] inputs = { "", "plain", " lead and trail ", "tab\tnew\nline\r\n", "zero\u200Bwidth",
+				"ctrl\u0000\u001Fchars", "emoji\uD83C\uDFB5note", "lone\uD800surrogate", "nbsp\u00A0kept",
+				"soft\u00ADhyphen", "\u2028line\u2029sep" };
+		for (String input : inputs) {
+			String expected = input.replaceAll("\\p{C}", "").replaceAll("\\s+", "");
+			assertEquals(expected, UserImportService.sanitize(input), input);
+		}
+	}
+
+	@Test
+	void sanitizeReturnsCleanInputUnchanged() {
+		String input = "already-clean";
+		assertSame(input, UserImportService.sanitize(input));
+		assertNull(UserImportService.sanitize(null));
+	}
+}
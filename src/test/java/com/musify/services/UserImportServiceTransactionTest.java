@@ -0,0 +1,59 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.musify.DTOs.UserController.UserImportResultDTO;
+import com.musify.api.ApiApplication;
+
+@SpringBootTest(classes = ApiApplication.class, properties = "musify.import.chunk-size=2")
+@ActiveProfiles("h2")
+class UserImportServiceTransactionTest {
+
+	@Autowired
+	UserImportService userImportService;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void throwingListenerRollsBackItsChunk() {
+		String prefix = "import-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+		String csv = "username,password_hash\n" + prefix + "1,secret\n" + prefix + "2,secret\n" + prefix
+				+ "3,secret\n" + prefix + "4,secret\n";
+		List<Long> committedRows = new ArrayList<>();
+
+		UserImportService.ChunkListener listener = new UserImportService.ChunkListener() {
+			@Override
+			public boolean isCancelled() {
+				return false;
+			}
+
+			@Override
+			public void chunkCommitted(long lastRowNumber, UserImportResultDTO result) {
+				if (!committedRows.isEmpty())
+					throw new IllegalStateException("Lease lost");
+				committedRows.add(lastRowNumber);
+			}
+		};
+
+		assertThrows(IllegalStateException.class, () -> userImportService.importUsers(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 0, new UserImportResultDTO(), listener));
+
+		assertEquals(List.of(3L), committedRows);
+		assertEquals(List.of(prefix + "1", prefix + "2"), jdbcTemplate.queryForList(
+				"SELECT username FROM users WHERE username LIKE ? ORDER BY username", String.class, prefix + "%"));
+	}
+}
@@ -0,0 +1,65 @@
+package com.musify.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.musify.DTOs.UserController.UserLoginDTO;
+import com.musify.api.ApiApplication;
+import com.musify.credentials.CredentialService;
+import com.musify.models.User;
+import com.musify.repositories.UserRepository;
+
+@SpringBootTest(classes = ApiApplication.class)
+@ActiveProfiles("h2")
+class UserServiceLoginTest {
+
+	@Autowired
+	UserService userService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	CredentialService credentialService;
+
+	@Test
+	void loginRehashesAPasswordStoredAsSent() {
+		String username = uniqueName();
+		userRepository.create(new User(null, username, "legacy-pass", null));
+
+		assertTrue(userService.login(new UserLoginDTO(username, "legacy-pass")).isPresent());
+
+		String stored = storedHash(username);
+		assertTrue(BCrypt.checkpw("legacy-pass", stored));
+		assertEquals(credentialService.getCost(), Integer.parseInt(stored.substring(4, 6)));
+		assertTrue(userService.login(new UserLoginDTO(username, "legacy-pass")).isPresent());
+		assertEquals(stored, storedHash(username));
+	}
+
+	@Test
+	void failedLoginLeavesTheStoredValue() {
+		String username = uniqueName();
+		userRepository.create(new User(null, username, "legacy-pass", null));
+
+		assertTrue(userService.login(new UserLoginDTO(username, "wrong")).isEmpty());
+		assertTrue(userService.login(new UserLoginDTO(uniqueName(), "legacy-pass")).isEmpty());
+
+		assertEquals("legacy-pass", storedHash(username));
+	}
+
+	private String storedHash(String username) {
+		return userRepository.findCredentialsByUsername(username).orElseThrow().getPasswordHash();
+	}
+
+	private static String uniqueName() {
+		return "login" + UUID.randomUUID().toString().substring(0, 8);
+	}
+}